@@ -0,0 +1,107 @@
+package io.github.kttobug.benchmark;
+
+import io.github.kttobug.query.EntityField;
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.QueryCondition;
+import io.github.kttobug.query.QueryOperator;
+import io.github.kttobug.query.util.QueryShape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 条件存储布局基准：并行数组（当前实现）与每个条件一个 {@link QueryCondition} 对象的列表布局对比。
+ * 
+ * <p>每次调用构建一个包含 {@code conditionCount} 个条件的查询并按编译查询的方式遍历一遍。
+ * 建议配合 {@code -prof gc} 运行以观察每次操作的分配量：</p>
+ * <pre>{@code
+ * java -jar smart-query-benchmark/target/benchmarks.jar ConditionStorage -prof gc
+ * }</pre>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConditionStorageBenchmark {
+
+    private static final String[] FIELD_NAMES = {"id", "name", "status", "age", "email", "department", "createTime", "score"};
+
+    @Param({"4", "16", "64"})
+    public int conditionCount;
+
+    private EntityField<Object, Object>[] fields;
+
+    private Object[] values;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        fields = new EntityField[conditionCount];
+        values = new Object[conditionCount];
+        for (int i = 0; i < conditionCount; i++) {
+            fields[i] = EntityField.of(FIELD_NAMES[i % FIELD_NAMES.length]);
+            values[i] = i;
+        }
+    }
+
+    @Benchmark
+    public void parallelArrays(Blackhole blackhole) {
+        LambdaQueryWrapper<Object> wrapper = LambdaQueryWrapper.of(Object.class);
+        for (int i = 0; i < conditionCount; i++) {
+            wrapper.eq(fields[i], values[i]);
+        }
+        for (int i = 0, size = wrapper.size(); i < size; i++) {
+            blackhole.consume(wrapper.getOperator(i));
+            blackhole.consume(wrapper.getField(i));
+            blackhole.consume(wrapper.getValue(i));
+        }
+        blackhole.consume(wrapper.getShapeId());
+    }
+
+    @Benchmark
+    public void conditionObjects(Blackhole blackhole) {
+        ConditionList list = new ConditionList();
+        for (int i = 0; i < conditionCount; i++) {
+            list.add(fields[i].getName(), QueryOperator.EQ, values[i]);
+        }
+        for (QueryCondition condition : list.conditions) {
+            blackhole.consume(condition.getOperator());
+            blackhole.consume(condition.getField());
+            blackhole.consume(condition.getValue());
+        }
+        blackhole.consume(list.shape);
+    }
+
+    /**
+     * 1.1.0 之前的存储布局：{@code ArrayList<QueryCondition>}，每个条件一个对象
+     */
+    static final class ConditionList {
+
+        final List<QueryCondition> conditions = new ArrayList<>();
+
+        long shape = QueryShape.EMPTY;
+
+        void add(String field, QueryOperator operator, Object value) {
+            conditions.add(new QueryCondition(field, operator, value));
+            shape = QueryShape.mix(shape, QueryShape.conditionHash(field, operator, value));
+        }
+    }
+}
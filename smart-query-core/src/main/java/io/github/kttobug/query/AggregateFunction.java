@@ -0,0 +1,32 @@
+package io.github.kttobug.query;
+
+/**
+ * 聚合函数枚举，用于投影列和 HAVING 条件。
+ *
+ * <p>结果类型遵循 JPA 规范：{@code COUNT} 为 {@link Long}，{@code AVG} 为 {@link Double}，
+ * 整数字段的 {@code SUM} 为 {@link Long}、浮点字段为 {@link Double}、{@code BigDecimal} 与
+ * {@code BigInteger} 保持原类型，{@code MIN} / {@code MAX} 与字段类型相同。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public enum AggregateFunction {
+
+    /** 行数或非 null 值的个数 (COUNT) */
+    COUNT,
+
+    /** 不同非 null 值的个数 (COUNT DISTINCT) */
+    COUNT_DISTINCT,
+
+    /** 求和 (SUM) */
+    SUM,
+
+    /** 平均值 (AVG) */
+    AVG,
+
+    /** 最小值 (MIN) */
+    MIN,
+
+    /** 最大值 (MAX) */
+    MAX
+}
@@ -0,0 +1,123 @@
+package io.github.kttobug.query;
+
+import io.github.kttobug.query.util.QueryShape;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 绑定了本次执行参数的查询，由 {@link QueryTemplate#bind(String, Object)} 创建。
+ * 
+ * <p>只持有所属模板和一个值数组，不复制条件结构。实例仅供单次调用使用，不是线程安全的；
+ * 共享的是模板本身。</p>
+ * 
+ * @param <T> 实体类型
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class BoundQuery<T> {
+
+    private final QueryTemplate<T> template;
+
+    private final Object[] values;
+
+    BoundQuery(QueryTemplate<T> template) {
+        this.template = template;
+        this.values = template.copyValues();
+    }
+
+    /**
+     * 绑定一个槽的值
+     * 
+     * @param name 槽名，默认为字段名
+     * @param value 绑定值
+     * @return 当前绑定查询，支持链式调用
+     * @throws IllegalArgumentException 槽不存在或名称对应多个条件
+     */
+    public BoundQuery<T> bind(String name, Object value) {
+        values[template.slotIndex(name)] = value;
+        return this;
+    }
+
+    /**
+     * 查询列表
+     * 
+     * @param executor 查询执行器，通常是仓库
+     * @return 查询结果列表
+     */
+    public List<T> list(BoundQueryExecutor<T> executor) {
+        return executor.list(this);
+    }
+
+    /**
+     * 计数
+     * 
+     * @param executor 查询执行器，通常是仓库
+     * @return 结果数量
+     */
+    public long count(BoundQueryExecutor<T> executor) {
+        return executor.count(this);
+    }
+
+    /**
+     * 获取第 {@code index} 个条件的绑定值
+     * 
+     * @param index 条件下标
+     * @return 绑定值
+     */
+    public Object getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * 获取形状指纹；绑定值改变了条件结构（如 IN 列表长度档位）时与模板不同
+     * 
+     * @return 形状指纹
+     */
+    public long getShapeId() {
+        return template.shapeOf(values);
+    }
+
+    /**
+     * 获取可作为缓存键的结构键；绑定值改变了条件结构时与模板不同
+     * 
+     * @return 结构键
+     */
+    public QueryShape.Key getShapeKey() {
+        return template.shapeKeyOf(values);
+    }
+
+    /**
+     * 按绑定值生成条件列表，每次调用都会创建新列表，只应在编译查询时使用
+     * 
+     * @return 条件列表
+     */
+    public List<QueryCondition> getConditions() {
+        List<QueryCondition> templateConditions = template.getConditions();
+        List<QueryCondition> conditions = new ArrayList<>(templateConditions.size());
+        for (int i = 0; i < templateConditions.size(); i++) {
+            QueryCondition condition = templateConditions.get(i);
+            conditions.add(condition.getValue() == values[i]
+                    ? condition : new QueryCondition(condition.getField(), condition.getOperator(), values[i]));
+        }
+        return conditions;
+    }
+
+    /**
+     * 获取所属模板
+     * 
+     * @return 查询模板
+     */
+    public QueryTemplate<T> getTemplate() {
+        return template;
+    }
+
+    /**
+     * 获取实体类
+     * 
+     * @return 实体类
+     */
+    public Class<T> getEntityClass() {
+        return template.getEntityClass();
+    }
+}
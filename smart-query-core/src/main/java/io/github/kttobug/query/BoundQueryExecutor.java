@@ -0,0 +1,32 @@
+package io.github.kttobug.query;
+
+import java.util.List;
+
+/**
+ * 绑定查询执行器
+ * 
+ * <p>由持久层实现（如 Spring 仓库），{@link QueryTemplate} 和 {@link BoundQuery}
+ * 通过它执行，核心模块不依赖具体的持久化实现。</p>
+ * 
+ * @param <T> 实体类型
+ * @author kttobug
+ * @since 1.1.0
+ */
+public interface BoundQueryExecutor<T> {
+
+    /**
+     * 执行绑定查询并返回结果列表
+     * 
+     * @param query 绑定查询
+     * @return 查询结果列表
+     */
+    List<T> list(BoundQuery<T> query);
+
+    /**
+     * 统计绑定查询的结果数量
+     * 
+     * @param query 绑定查询
+     * @return 结果数量
+     */
+    long count(BoundQuery<T> query);
+}
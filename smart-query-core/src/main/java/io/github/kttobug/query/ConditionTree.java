@@ -0,0 +1,195 @@
+package io.github.kttobug.query;
+
+import io.github.kttobug.query.util.BoundedCache;
+import io.github.kttobug.query.util.QueryShape;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * 条件的布尔表达式树。
+ * 
+ * <p>{@link LambdaQueryWrapper} 按调用顺序平铺保存条件，{@code or()} 只是一个分隔标记。
+ * 本类把平铺的条件解析为 AND / OR 树：相邻条件以 AND 连接，{@code or()} 分隔出的各段
+ * 以 OR 连接，即 AND 优先于 OR。{@link QueryOperator#NEST} 和 {@link QueryOperator#NOT}
+ * 是叶子，子树由被嵌套的包装器各自解析。排序、分组、HAVING 不属于 WHERE，不出现在树中。</p>
+ * 
+ * <p>树只记录条件下标，不持有条件值，因此结构相同的查询共享同一棵树。
+ * {@link #of(LambdaQueryWrapper)} 按结构键（{@link QueryShape.Key}）缓存解析结果。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class ConditionTree {
+
+    /** 缓存的最大树数量 */
+    private static final int CACHE_SIZE = 1024;
+
+    private static final BoundedCache<QueryShape.Key, ConditionTree> CACHE = new BoundedCache<>(CACHE_SIZE);
+
+    /** 没有任何 WHERE 条件 */
+    private static final ConditionTree EMPTY = new ConditionTree(Kind.AND, -1, List.of());
+
+    /**
+     * 节点类型
+     */
+    public enum Kind {
+        /** 单个条件，{@link #getIndex()} 为条件下标 */
+        LEAF,
+        /** 子节点全部成立 */
+        AND,
+        /** 任一子节点成立 */
+        OR
+    }
+
+    private final Kind kind;
+
+    private final int index;
+
+    private final List<ConditionTree> children;
+
+    private ConditionTree(Kind kind, int index, List<ConditionTree> children) {
+        this.kind = kind;
+        this.index = index;
+        this.children = children;
+    }
+
+    /**
+     * 获取包装器的条件树，按结构键缓存
+     * 
+     * @param wrapper 查询包装器
+     * @return 条件树
+     */
+    public static ConditionTree of(LambdaQueryWrapper<?> wrapper) {
+        return of(wrapper.getShapeKey(), wrapper.size(), wrapper::getOperator);
+    }
+
+    /**
+     * 获取条件树，按结构键缓存
+     * 
+     * @param shapeKey 条件序列的结构键
+     * @param size 条件数量
+     * @param operators 按下标取操作符
+     * @return 条件树
+     */
+    public static ConditionTree of(QueryShape.Key shapeKey, int size, IntFunction<QueryOperator> operators) {
+        return CACHE.get(shapeKey, key -> parse(size, operators));
+    }
+
+    /**
+     * 解析条件树，不经过缓存
+     * 
+     * @param size 条件数量
+     * @param operators 按下标取操作符
+     * @return 条件树
+     */
+    public static ConditionTree parse(int size, IntFunction<QueryOperator> operators) {
+        List<ConditionTree> groups = new ArrayList<>();
+        List<ConditionTree> group = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            QueryOperator operator = operators.apply(i);
+            if (operator == QueryOperator.OR) {
+                // 开头、结尾或连续的 or() 不产生空分支
+                if (!group.isEmpty()) {
+                    groups.add(and(group));
+                    group = new ArrayList<>();
+                }
+            } else if (isPredicate(operator)) {
+                group.add(new ConditionTree(Kind.LEAF, i, List.of()));
+            }
+        }
+        if (!group.isEmpty()) {
+            groups.add(and(group));
+        }
+        if (groups.isEmpty()) {
+            return EMPTY;
+        }
+        return groups.size() == 1 ? groups.get(0) : new ConditionTree(Kind.OR, -1, List.copyOf(groups));
+    }
+
+    private static ConditionTree and(List<ConditionTree> leaves) {
+        return leaves.size() == 1 ? leaves.get(0) : new ConditionTree(Kind.AND, -1, List.copyOf(leaves));
+    }
+
+    /**
+     * 操作符是否产生 WHERE 谓词
+     * 
+     * @param operator 操作符
+     * @return 是否为谓词
+     */
+    public static boolean isPredicate(QueryOperator operator) {
+        switch (operator) {
+            case ORDER_BY_ASC:
+            case ORDER_BY_DESC:
+            case GROUP_BY:
+            case HAVING:
+            case OR:
+            case AND:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 获取节点类型
+     * 
+     * @return 节点类型
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * 获取叶子节点的条件下标，非叶子节点为 -1
+     * 
+     * @return 条件下标
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * 获取子节点，叶子节点为空列表
+     * 
+     * @return 子节点
+     */
+    public List<ConditionTree> getChildren() {
+        return children;
+    }
+
+    /**
+     * 是否没有任何条件
+     * 
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return kind != Kind.LEAF && children.isEmpty();
+    }
+
+    /**
+     * 是否只由 AND 连接（不含顶层 OR）。这时每个顶层条件都是独立的过滤，
+     * 可以安全地按其中一个条件拆分查询。
+     * 
+     * @return 是否为合取式
+     */
+    public boolean isConjunction() {
+        return kind != Kind.OR;
+    }
+
+    @Override
+    public String toString() {
+        if (kind == Kind.LEAF) {
+            return "#" + index;
+        }
+        StringBuilder sb = new StringBuilder(kind.name()).append('(');
+        for (int i = 0; i < children.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(children.get(i));
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.kttobug.query;
+
+import io.github.kttobug.query.util.LambdaUtils;
+
+import java.util.Objects;
+
+/**
+ * 实体字段常量，编译期即确定字段名的字段引用。
+ * 
+ * <p>通常由 {@code smart-query-processor} 注解处理器为每个 {@code @Entity} 生成，
+ * 例如 {@code UserFields.USERNAME}。{@link LambdaQueryWrapper} 的各个条件方法
+ * 同时接受 {@link SerializableFunction} 与 {@code EntityField}，两种写法生成的
+ * {@link QueryCondition} 完全相同，但字段常量无需在运行时解析 lambda。</p>
+ * 
+ * <p>使用示例：</p>
+ * <pre>{@code
+ * LambdaQueryWrapper<User> wrapper = LambdaQueryWrapper.of(User.class)
+ *     .eq(UserFields.STATUS, 1)
+ *     .orderByDesc(UserFields.ID);
+ * }</pre>
+ * 
+ * <p>字段名可以是以 {@code .} 分隔的嵌套属性路径，通过 {@link #path} 或 {@link #then}
+ * 由方法引用链构建，例如按订单所属客户的地区过滤：</p>
+ * <pre>{@code
+ * private static final EntityField<Order, String> CUSTOMER_REGION =
+ *     EntityField.path(Order::getCustomer, Customer::getRegion);
+ *
+ * wrapper.eq(CUSTOMER_REGION, "EU");
+ * }</pre>
+ * 
+ * @param <T> 实体类型
+ * @param <R> 字段类型
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class EntityField<T, R> {
+
+    /** 字段名 */
+    private final String name;
+
+    private EntityField(String name) {
+        this.name = Objects.requireNonNull(name, "name");
+    }
+
+    /**
+     * 创建字段常量
+     * 
+     * @param name 字段名
+     * @param <T> 实体类型
+     * @param <R> 字段类型
+     * @return 字段常量
+     */
+    public static <T, R> EntityField<T, R> of(String name) {
+        return new EntityField<>(name);
+    }
+
+    /**
+     * 通过方法引用创建字段常量
+     * 
+     * @param field 字段的 lambda 表达式
+     * @param <T> 实体类型
+     * @param <R> 字段类型
+     * @return 字段常量
+     */
+    public static <T, R> EntityField<T, R> of(SerializableFunction<T, R> field) {
+        return new EntityField<>(LambdaUtils.resolveFieldName(field));
+    }
+
+    /**
+     * 创建两段嵌套属性路径
+     * 
+     * @param first 第一段属性
+     * @param second 第二段属性
+     * @param <T> 实体类型
+     * @param <A> 中间属性类型
+     * @param <R> 字段类型
+     * @return 路径字段常量，例如 {@code customer.region}
+     */
+    public static <T, A, R> EntityField<T, R> path(SerializableFunction<T, A> first,
+                                                  SerializableFunction<A, R> second) {
+        return new EntityField<>(LambdaUtils.resolvePropertyPath(first, second));
+    }
+
+    /**
+     * 创建三段嵌套属性路径
+     * 
+     * @param first 第一段属性
+     * @param second 第二段属性
+     * @param third 第三段属性
+     * @param <T> 实体类型
+     * @param <A> 第一段属性类型
+     * @param <B> 第二段属性类型
+     * @param <R> 字段类型
+     * @return 路径字段常量，例如 {@code customer.address.city}
+     */
+    public static <T, A, B, R> EntityField<T, R> path(SerializableFunction<T, A> first,
+                                                     SerializableFunction<A, B> second,
+                                                     SerializableFunction<B, R> third) {
+        return new EntityField<>(LambdaUtils.resolvePropertyPath(first, second, third));
+    }
+
+    /**
+     * 在当前路径后追加一段属性
+     * 
+     * @param next 下一段属性
+     * @param <V> 新字段类型
+     * @return 新的路径字段常量
+     */
+    public <V> EntityField<T, V> then(SerializableFunction<R, V> next) {
+        return new EntityField<>(name + '.' + LambdaUtils.resolveFieldName(next));
+    }
+
+    /**
+     * 是否为嵌套属性路径
+     * 
+     * @return 字段名包含 {@code .} 时返回 true
+     */
+    public boolean isPath() {
+        return name.indexOf('.') >= 0;
+    }
+
+    /**
+     * 获取字段名
+     * 
+     * @return 字段名
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return name.equals(((EntityField<?, ?>) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+}
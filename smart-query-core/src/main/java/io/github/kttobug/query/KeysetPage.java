@@ -0,0 +1,60 @@
+package io.github.kttobug.query;
+
+import java.util.List;
+
+/**
+ * 游标分页的一页结果
+ *
+ * <p>{@link #getNextCursor()} 是取下一页时传回的游标，已经是最后一页时为 null。
+ * 是否还有下一页通过多取一行判断，不执行计数查询。</p>
+ *
+ * @param <T> 实体类型
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> content;
+
+    private final String nextCursor;
+
+    public KeysetPage(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * 获取本页数据
+     *
+     * @return 本页数据，按查询的排序条件排列
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * 获取下一页的游标
+     *
+     * @return 游标，没有下一页时为 null
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * 是否还有下一页
+     *
+     * @return 有下一页时返回 true
+     */
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    @Override
+    public String toString() {
+        return "KeysetPage{" +
+                "size=" + content.size() +
+                ", nextCursor=" + nextCursor +
+                '}';
+    }
+}
@@ -1,9 +1,20 @@
 package io.github.kttobug.query;
 
 import io.github.kttobug.query.util.LambdaUtils;
+import io.github.kttobug.query.util.QueryShape;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Predicate;
 
 /**
  * Lambda 表达式查询包装器，提供类型安全的查询条件构建功能。
@@ -12,6 +23,9 @@ import java.util.List;
  * 集合操作、排序、分组等功能。所有查询条件都通过 lambda 表达式指定字段，
  * 避免了硬编码字段名，提供了编译时类型检查。</p>
  * 
+ * <p>每个条件方法都另有一个接受 {@link EntityField} 字段常量的重载，
+ * 两种写法生成的查询条件完全相同。</p>
+ * 
  * <p>使用示例：</p>
  * <pre>{@code
  * LambdaQueryWrapper<User> wrapper = LambdaQueryWrapper.of(User.class)
@@ -27,14 +41,56 @@ import java.util.List;
  */
 public class LambdaQueryWrapper<T> {
 
-    /** 查询条件列表 */
-    private final List<QueryCondition> conditions = new ArrayList<>();
+    /** 首次添加条件时的数组容量 */
+    private static final int INITIAL_CAPACITY = 8;
+    
+    private static final QueryOperator[] OPERATORS = QueryOperator.values();
+    
+    /*
+     * 条件按列存储：操作符序号、字段名、条件值三个平行数组，按 2 倍扩容。
+     * 字段名来自 lambda 解析缓存或字段常量，是共享的字符串实例，不随条件分配。
+     * QueryCondition 对象只在调用 getConditions() 时生成。
+     */
+    private byte[] operators;
+    private String[] fields;
+    private Object[] values;
+    private int size;
+    
+    /** getConditions() 返回的可写视图，首次调用时创建 */
+    private ConditionList conditionView;
+    
+    /** 视图中已生成的条件对象，条件变化时失效 */
+    private QueryCondition[] materialized;
     
     /** 实体类 */
     private final Class<T> entityClass;
     
     /** JOIN 条件列表 */
     private final List<JoinCondition> joinConditions = new ArrayList<>();
+    
+    /** 条件部分的形状指纹，随条件增量更新 */
+    private long conditionShape = QueryShape.EMPTY;
+    
+    /** 随结果加载的关联，未使用 {@link #fetch} 时为 null */
+    private List<QueryFetch> fetches;
+    
+    /** 查询之后逐级批量加载的关联路径，未使用 {@link #preload} 时为 null */
+    private List<String> preloads;
+    
+    /** JOIN 部分的形状指纹，随 JOIN 和关联加载增量更新 */
+    private long joinShape = QueryShape.EMPTY;
+    
+    /** getShapeKey() 的结果，条件、JOIN 或关联加载变化时失效 */
+    private QueryShape.Key shapeKey;
+    
+    /** 显式命名的绑定槽，键为条件下标，未使用 {@link #named} 时为 null */
+    private Map<Integer, String> slotNames;
+    
+    /** 投影列，未使用 {@link #select} 时为 null */
+    private List<QuerySelection> selections;
+    
+    /** 投影部分的形状指纹，不计入 {@link #getShapeId()} */
+    private long selectionShape = QueryShape.EMPTY;
 
     /**
      * 构造函数
@@ -68,8 +124,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> eq(SerializableFunction<T, R> field, R value) {
         if (value != null) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.EQ, value));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.EQ, value);
+        }
+        return this;
+    }
+
+    /**
+     * 等于条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param value 比较值
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #eq(SerializableFunction, Object)
+     */
+    public <R> LambdaQueryWrapper<T> eq(EntityField<T, R> field, R value) {
+        if (value != null) {
+            appendCondition(field.getName(), QueryOperator.EQ, value);
         }
         return this;
     }
@@ -86,8 +157,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> like(SerializableFunction<T, R> field, R value) {
         if (value != null) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.LIKE, value));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.LIKE, value);
+        }
+        return this;
+    }
+
+    /**
+     * 模糊查询条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param value 模糊匹配值
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #like(SerializableFunction, Object)
+     */
+    public <R> LambdaQueryWrapper<T> like(EntityField<T, R> field, R value) {
+        if (value != null) {
+            appendCondition(field.getName(), QueryOperator.LIKE, value);
         }
         return this;
     }
@@ -104,8 +190,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> ne(SerializableFunction<T, R> field, R value) {
         if (value != null) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.NE, value));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.NE, value);
+        }
+        return this;
+    }
+
+    /**
+     * 不等于条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param value 比较值
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #ne(SerializableFunction, Object)
+     */
+    public <R> LambdaQueryWrapper<T> ne(EntityField<T, R> field, R value) {
+        if (value != null) {
+            appendCondition(field.getName(), QueryOperator.NE, value);
         }
         return this;
     }
@@ -122,8 +223,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> gt(SerializableFunction<T, R> field, R value) {
         if (value != null) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.GT, value));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.GT, value);
+        }
+        return this;
+    }
+
+    /**
+     * 大于条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param value 比较值
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #gt(SerializableFunction, Object)
+     */
+    public <R> LambdaQueryWrapper<T> gt(EntityField<T, R> field, R value) {
+        if (value != null) {
+            appendCondition(field.getName(), QueryOperator.GT, value);
         }
         return this;
     }
@@ -140,8 +256,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> ge(SerializableFunction<T, R> field, Iterable<R> values) {
         if (values != null && values.iterator().hasNext()) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.GE, values));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.GE, values);
+        }
+        return this;
+    }
+
+    /**
+     * 大于等于条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 比较值集合
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #ge(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> ge(EntityField<T, R> field, Iterable<R> values) {
+        if (values != null && values.iterator().hasNext()) {
+            appendCondition(field.getName(), QueryOperator.GE, values);
         }
         return this;
     }
@@ -158,8 +289,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> lt(SerializableFunction<T, R> field, R value) {
         if (value != null) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.LT, value));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.LT, value);
+        }
+        return this;
+    }
+
+    /**
+     * 小于条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param value 比较值
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #lt(SerializableFunction, Object)
+     */
+    public <R> LambdaQueryWrapper<T> lt(EntityField<T, R> field, R value) {
+        if (value != null) {
+            appendCondition(field.getName(), QueryOperator.LT, value);
         }
         return this;
     }
@@ -176,8 +322,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> like(SerializableFunction<T, R> field, Iterable<R> values) {
         if (values != null && values.iterator().hasNext()) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.LIKE, values));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.LIKE, values);
+        }
+        return this;
+    }
+
+    /**
+     * 模糊查询条件（集合、字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 模糊匹配值集合
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #like(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> like(EntityField<T, R> field, Iterable<R> values) {
+        if (values != null && values.iterator().hasNext()) {
+            appendCondition(field.getName(), QueryOperator.LIKE, values);
         }
         return this;
     }
@@ -194,8 +355,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> leftLike(SerializableFunction<T, R> field, Iterable<R> values) {
         if (values != null && values.iterator().hasNext()) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.LEFT_LIKE, values));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.LEFT_LIKE, values);
+        }
+        return this;
+    }
+
+    /**
+     * 左模糊查询条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 模糊匹配值集合
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #leftLike(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> leftLike(EntityField<T, R> field, Iterable<R> values) {
+        if (values != null && values.iterator().hasNext()) {
+            appendCondition(field.getName(), QueryOperator.LEFT_LIKE, values);
         }
         return this;
     }
@@ -212,8 +388,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> rightLike(SerializableFunction<T, R> field, Iterable<R> values) {
         if (values != null && values.iterator().hasNext()) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.RIGHT_LIKE, values));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.RIGHT_LIKE, values);
+        }
+        return this;
+    }
+
+    /**
+     * 右模糊查询条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 模糊匹配值集合
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #rightLike(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> rightLike(EntityField<T, R> field, Iterable<R> values) {
+        if (values != null && values.iterator().hasNext()) {
+            appendCondition(field.getName(), QueryOperator.RIGHT_LIKE, values);
         }
         return this;
     }
@@ -230,8 +421,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> le(SerializableFunction<T, R> field, Iterable<R> values) {
         if (values != null && values.iterator().hasNext()) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.LE, values));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.LE, values);
+        }
+        return this;
+    }
+
+    /**
+     * 小于等于条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 比较值集合
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #le(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> le(EntityField<T, R> field, Iterable<R> values) {
+        if (values != null && values.iterator().hasNext()) {
+            appendCondition(field.getName(), QueryOperator.LE, values);
         }
         return this;
     }
@@ -248,8 +454,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> in(SerializableFunction<T, R> field, Iterable<R> values) {
         if (values != null && values.iterator().hasNext()) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.IN, values));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.IN, values);
+        }
+        return this;
+    }
+
+    /**
+     * IN 查询条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 值集合
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #in(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> in(EntityField<T, R> field, Iterable<R> values) {
+        if (values != null && values.iterator().hasNext()) {
+            appendCondition(field.getName(), QueryOperator.IN, values);
         }
         return this;
     }
@@ -266,8 +487,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> notIn(SerializableFunction<T, R> field, Iterable<R> values) {
         if (values != null && values.iterator().hasNext()) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.NOT_IN, values));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.NOT_IN, values);
+        }
+        return this;
+    }
+
+    /**
+     * NOT IN 查询条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 值集合
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #notIn(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> notIn(EntityField<T, R> field, Iterable<R> values) {
+        if (values != null && values.iterator().hasNext()) {
+            appendCondition(field.getName(), QueryOperator.NOT_IN, values);
         }
         return this;
     }
@@ -283,9 +519,20 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public <R> LambdaQueryWrapper<T> isNull(SerializableFunction<T, R> field, Iterable<R> values) {
-        String fieldName = LambdaUtils.resolveFieldName(field);
-        conditions.add(new QueryCondition(fieldName, QueryOperator.IS_NULL, values));
-        return this;
+        return appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.IS_NULL, values);
+    }
+
+    /**
+     * IS NULL 条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 值集合（此参数在此方法中不使用，但保持接口一致性）
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #isNull(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> isNull(EntityField<T, R> field, Iterable<R> values) {
+        return appendCondition(field.getName(), QueryOperator.IS_NULL, values);
     }
 
     /**
@@ -299,9 +546,20 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public <R> LambdaQueryWrapper<T> isNotNull(SerializableFunction<T, R> field, Iterable<R> values) {
-        String fieldName = LambdaUtils.resolveFieldName(field);
-        conditions.add(new QueryCondition(fieldName, QueryOperator.IS_NOT_NULL, values));
-        return this;
+        return appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.IS_NOT_NULL, values);
+    }
+
+    /**
+     * IS NOT NULL 条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 值集合（此参数在此方法中不使用，但保持接口一致性）
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #isNotNull(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> isNotNull(EntityField<T, R> field, Iterable<R> values) {
+        return appendCondition(field.getName(), QueryOperator.IS_NOT_NULL, values);
     }
 
     /**
@@ -317,8 +575,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> between(SerializableFunction<T, R> field, Iterable<R> values) {
         if (values != null && values.iterator().hasNext()) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.BETWEEN, values));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.BETWEEN, values);
+        }
+        return this;
+    }
+
+    /**
+     * BETWEEN 范围查询条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 范围值集合（需要包含起始值和结束值）
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #between(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> between(EntityField<T, R> field, Iterable<R> values) {
+        if (values != null && values.iterator().hasNext()) {
+            appendCondition(field.getName(), QueryOperator.BETWEEN, values);
         }
         return this;
     }
@@ -336,8 +609,23 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> notBetween(SerializableFunction<T, R> field, Iterable<R> values) {
         if (values != null && values.iterator().hasNext()) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.NOT_BETWEEN, values));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.NOT_BETWEEN, values);
+        }
+        return this;
+    }
+
+    /**
+     * NOT BETWEEN 范围查询条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param values 范围值集合（需要包含起始值和结束值）
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #notBetween(SerializableFunction, Iterable)
+     */
+    public <R> LambdaQueryWrapper<T> notBetween(EntityField<T, R> field, Iterable<R> values) {
+        if (values != null && values.iterator().hasNext()) {
+            appendCondition(field.getName(), QueryOperator.NOT_BETWEEN, values);
         }
         return this;
     }
@@ -352,9 +640,19 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public <R> LambdaQueryWrapper<T> orderByAsc(SerializableFunction<T, R> field) {
-        String fieldName = LambdaUtils.resolveFieldName(field);
-        conditions.add(new QueryCondition(fieldName, QueryOperator.ORDER_BY_ASC, null));
-        return this;
+        return appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.ORDER_BY_ASC, null);
+    }
+
+    /**
+     * 升序排序（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #orderByAsc(SerializableFunction)
+     */
+    public <R> LambdaQueryWrapper<T> orderByAsc(EntityField<T, R> field) {
+        return appendCondition(field.getName(), QueryOperator.ORDER_BY_ASC, null);
     }
 
     /**
@@ -367,9 +665,19 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public <R> LambdaQueryWrapper<T> orderByDesc(SerializableFunction<T, R> field) {
-        String fieldName = LambdaUtils.resolveFieldName(field);
-        conditions.add(new QueryCondition(fieldName, QueryOperator.ORDER_BY_DESC, null));
-        return this;
+        return appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.ORDER_BY_DESC, null);
+    }
+
+    /**
+     * 降序排序（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #orderByDesc(SerializableFunction)
+     */
+    public <R> LambdaQueryWrapper<T> orderByDesc(EntityField<T, R> field) {
+        return appendCondition(field.getName(), QueryOperator.ORDER_BY_DESC, null);
     }
 
     /**
@@ -382,9 +690,19 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public <R> LambdaQueryWrapper<T> groupBy(SerializableFunction<T, R> field) {
-        String fieldName = LambdaUtils.resolveFieldName(field);
-        conditions.add(new QueryCondition(fieldName, QueryOperator.GROUP_BY, null));
-        return this;
+        return appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.GROUP_BY, null);
+    }
+
+    /**
+     * 分组条件（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #groupBy(SerializableFunction)
+     */
+    public <R> LambdaQueryWrapper<T> groupBy(EntityField<T, R> field) {
+        return appendCondition(field.getName(), QueryOperator.GROUP_BY, null);
     }
 
     /**
@@ -398,8 +716,22 @@ public class LambdaQueryWrapper<T> {
      */
     public <R> LambdaQueryWrapper<T> groupBy(SerializableFunction<T, R>... fields) {
         for (SerializableFunction<T, R> field : fields) {
-            String fieldName = LambdaUtils.resolveFieldName(field);
-            conditions.add(new QueryCondition(fieldName, QueryOperator.GROUP_BY, null));
+            appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.GROUP_BY, null);
+        }
+        return this;
+    }
+
+    /**
+     * 多字段分组条件（字段常量版本）
+     * 
+     * @param fields 字段常量数组
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #groupBy(SerializableFunction[])
+     */
+    @SafeVarargs
+    public final LambdaQueryWrapper<T> groupBy(EntityField<T, ?>... fields) {
+        for (EntityField<T, ?> field : fields) {
+            appendCondition(field.getName(), QueryOperator.GROUP_BY, null);
         }
         return this;
     }
@@ -407,7 +739,8 @@ public class LambdaQueryWrapper<T> {
     /**
      * HAVING 条件
      * 
-     * <p>添加分组后的过滤条件。</p>
+     * <p>添加分组后的过滤条件，编译为 {@code HAVING field op ?}，字段应为分组字段。
+     * 按聚合值过滤使用 {@link #having(AggregateFunction, SerializableFunction, QueryOperator, Object)}。</p>
      * 
      * @param field 字段的 lambda 表达式
      * @param operator 操作符
@@ -416,77 +749,250 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public <R> LambdaQueryWrapper<T> having(SerializableFunction<T, R> field, QueryOperator operator, Object value) {
-        String fieldName = LambdaUtils.resolveFieldName(field);
-        conditions.add(new QueryCondition(fieldName, QueryOperator.HAVING, new Object[]{operator, value}));
-        return this;
+        return appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.HAVING, new Object[]{operator, value});
     }
 
     /**
-     * OR 逻辑操作符
-     * 
-     * <p>添加 OR 逻辑操作符，用于连接多个条件。</p>
+     * HAVING 条件（字段常量版本）
      * 
+     * @param field 字段常量
+     * @param operator 操作符
+     * @param value 比较值
+     * @param <R> 字段类型
      * @return 当前查询包装器实例，支持链式调用
+     * @see #having(SerializableFunction, QueryOperator, Object)
      */
-    public LambdaQueryWrapper<T> or() {
-        conditions.add(new QueryCondition("", QueryOperator.OR, null));
-        return this;
+    public <R> LambdaQueryWrapper<T> having(EntityField<T, R> field, QueryOperator operator, Object value) {
+        return appendCondition(field.getName(), QueryOperator.HAVING, new Object[]{operator, value});
     }
 
     /**
-     * AND 逻辑操作符
+     * 聚合 HAVING 条件
      * 
-     * <p>添加 AND 逻辑操作符，用于连接多个条件。</p>
+     * <p>按聚合值过滤分组，如 {@code having(AggregateFunction.SUM, Order::getAmount, QueryOperator.GT, 1000)}
+     * 编译为 {@code HAVING SUM(amount) > ?}。支持 EQ、NE、GT、GE、LT、LE。</p>
      * 
+     * @param function 聚合函数
+     * @param field 字段的 lambda 表达式
+     * @param operator 比较操作符
+     * @param value 比较值
+     * @param <R> 字段类型
      * @return 当前查询包装器实例，支持链式调用
      */
-    public LambdaQueryWrapper<T> and() {
-        conditions.add(new QueryCondition("", QueryOperator.AND, null));
-        return this;
+    public <R> LambdaQueryWrapper<T> having(AggregateFunction function, SerializableFunction<T, R> field,
+                                            QueryOperator operator, Object value) {
+        return appendCondition(LambdaUtils.resolveFieldName(field), QueryOperator.HAVING,
+                new Object[]{operator, value, Objects.requireNonNull(function, "function")});
     }
 
     /**
-     * 嵌套查询
+     * 聚合 HAVING 条件（字段常量版本）
      * 
-     * <p>添加嵌套查询条件。</p>
-     * 
-     * @param nestedWrapper 嵌套的查询包装器
+     * @param function 聚合函数
+     * @param field 字段常量
+     * @param operator 比较操作符
+     * @param value 比较值
+     * @param <R> 字段类型
      * @return 当前查询包装器实例，支持链式调用
+     * @see #having(AggregateFunction, SerializableFunction, QueryOperator, Object)
      */
-    public LambdaQueryWrapper<T> nest(LambdaQueryWrapper<T> nestedWrapper) {
-        conditions.add(new QueryCondition("", QueryOperator.NEST, nestedWrapper));
-        return this;
+    public <R> LambdaQueryWrapper<T> having(AggregateFunction function, EntityField<T, R> field,
+                                            QueryOperator operator, Object value) {
+        return appendCondition(field.getName(), QueryOperator.HAVING,
+                new Object[]{operator, value, Objects.requireNonNull(function, "function")});
     }
 
     /**
-     * 自定义条件
-     * 
-     * <p>添加自定义 SQL 条件。</p>
+     * 按分组行数过滤的 HAVING 条件，编译为 {@code HAVING COUNT(*) op ?}
      * 
-     * @param customCondition 自定义条件字符串
-     * @param parameters 条件参数
+     * @param operator 比较操作符
+     * @param value 比较值
      * @return 当前查询包装器实例，支持链式调用
      */
-    public LambdaQueryWrapper<T> apply(String customCondition, Object... parameters) {
-        Object[] applyData = new Object[parameters.length + 1];
-        applyData[0] = customCondition;
-        System.arraycopy(parameters, 0, applyData, 1, parameters.length);
-        conditions.add(new QueryCondition("", QueryOperator.APPLY, applyData));
-        return this;
+    public LambdaQueryWrapper<T> havingCount(QueryOperator operator, Object value) {
+        return appendCondition("", QueryOperator.HAVING, new Object[]{operator, value, AggregateFunction.COUNT});
     }
 
     /**
-     * 添加查询条件
+     * OR 逻辑操作符
      * 
-     * <p>直接添加查询条件对象。</p>
+     * <p>条件之间默认以 AND 连接，{@code or()} 把前后两段分开，AND 优先于 OR：
+     * {@code a.b.or().c} 等价于 {@code (a AND b) OR c}。需要改变优先级时使用 {@link #nest}。</p>
      * 
-     * @param condition 查询条件
      * @return 当前查询包装器实例，支持链式调用
      */
-    public LambdaQueryWrapper<T> addCondition(QueryCondition condition) {
+    public LambdaQueryWrapper<T> or() {
+        return appendCondition("", QueryOperator.OR, null);
+    }
+
+    /**
+     * AND 逻辑操作符
+     * 
+     * <p>添加 AND 逻辑操作符，用于连接多个条件。</p>
+     * 
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> and() {
+        return appendCondition("", QueryOperator.AND, null);
+    }
+
+    /**
+     * 嵌套查询
+     * 
+     * <p>把另一个包装器的条件作为一个整体（括号）加入当前查询，例如
+     * {@code eq(status, 1).nest(of(User.class).eq(role, "A").or().eq(role, "B"))}
+     * 生成 {@code status = 1 AND (role = 'A' OR role = 'B')}。
+     * 嵌套包装器中的排序、分组条件被忽略。</p>
+     * 
+     * @param nestedWrapper 嵌套的查询包装器
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> nest(LambdaQueryWrapper<T> nestedWrapper) {
+        return appendCondition("", QueryOperator.NEST, nestedWrapper);
+    }
+
+    /**
+     * 取反
+     * 
+     * <p>与 {@link #nest} 相同，但整体取反：{@code not(of(User.class).eq(a, 1).eq(b, 2))}
+     * 生成 {@code NOT (a = 1 AND b = 2)}。</p>
+     * 
+     * @param nestedWrapper 被取反的查询包装器
+     * @return 当前查询包装器实例，支持链式调用
+     * @since 1.1.0
+     */
+    public LambdaQueryWrapper<T> not(LambdaQueryWrapper<T> nestedWrapper) {
+        return appendCondition("", QueryOperator.NOT, nestedWrapper);
+    }
+
+    /**
+     * 自定义条件
+     * 
+     * <p>添加自定义 SQL 条件。</p>
+     * 
+     * @param customCondition 自定义条件字符串
+     * @param parameters 条件参数
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> apply(String customCondition, Object... parameters) {
+        Object[] applyData = new Object[parameters.length + 1];
+        applyData[0] = customCondition;
+        System.arraycopy(parameters, 0, applyData, 1, parameters.length);
+        return appendCondition("", QueryOperator.APPLY, applyData);
+    }
+
+    /**
+     * 添加查询条件
+     * 
+     * <p>直接添加查询条件对象。</p>
+     * 
+     * @param condition 查询条件
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> addCondition(QueryCondition condition) {
         if (condition != null) {
-            conditions.add(condition);
+            appendCondition(condition.getField(), condition.getOperator(), condition.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * 追加一个已解析字段名的查询条件，所有条件方法最终都经过这里。
+     */
+    private LambdaQueryWrapper<T> appendCondition(String fieldName, QueryOperator operator, Object value) {
+        if (operators == null) {
+            operators = new byte[INITIAL_CAPACITY];
+            fields = new String[INITIAL_CAPACITY];
+            values = new Object[INITIAL_CAPACITY];
+        } else if (size == operators.length) {
+            int capacity = size << 1;
+            operators = Arrays.copyOf(operators, capacity);
+            fields = Arrays.copyOf(fields, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        operators[size] = (byte) operator.ordinal();
+        fields[size] = fieldName;
+        values[size] = value;
+        size++;
+        materialized = null;
+        shapeKey = null;
+        conditionShape = QueryShape.mix(conditionShape, QueryShape.conditionHash(fieldName, operator, value));
+        return this;
+    }
+
+    /**
+     * 在 {@code index} 处插入条件，之后的条件及其命名槽位后移一位。
+     */
+    private void insertCondition(int index, String fieldName, QueryOperator operator, Object value) {
+        appendCondition(fieldName, operator, value);
+        int last = size - 1;
+        System.arraycopy(operators, index, operators, index + 1, last - index);
+        System.arraycopy(fields, index, fields, index + 1, last - index);
+        System.arraycopy(values, index, values, index + 1, last - index);
+        operators[index] = (byte) operator.ordinal();
+        fields[index] = fieldName;
+        values[index] = value;
+        shiftSlotNames(index, 1);
+        conditionsChanged();
+    }
+
+    /**
+     * 替换 {@code index} 处的条件，原条件的命名槽位随之移除。
+     */
+    private void replaceCondition(int index, String fieldName, QueryOperator operator, Object value) {
+        operators[index] = (byte) operator.ordinal();
+        fields[index] = fieldName;
+        values[index] = value;
+        if (slotNames != null) {
+            slotNames.remove(index);
+        }
+        conditionsChanged();
+    }
+
+    /**
+     * 移除 {@code index} 处的条件，之后的条件及其命名槽位前移一位。
+     */
+    private void removeCondition(int index) {
+        int moved = size - index - 1;
+        System.arraycopy(operators, index + 1, operators, index, moved);
+        System.arraycopy(fields, index + 1, fields, index, moved);
+        System.arraycopy(values, index + 1, values, index, moved);
+        size--;
+        fields[size] = null;
+        values[size] = null;
+        if (slotNames != null) {
+            slotNames.remove(index);
+        }
+        shiftSlotNames(index + 1, -1);
+        conditionsChanged();
+    }
+
+    private void shiftSlotNames(int from, int delta) {
+        if (slotNames == null || slotNames.isEmpty()) {
+            return;
         }
+        Map<Integer, String> shifted = new HashMap<>();
+        slotNames.forEach((index, name) -> shifted.put(index >= from ? index + delta : index, name));
+        slotNames = shifted;
+    }
+
+    /**
+     * 非追加方式修改条件后重新计算条件指纹，指纹只能增量追加，不能局部撤销。
+     */
+    private void conditionsChanged() {
+        long shape = QueryShape.EMPTY;
+        for (int i = 0; i < size; i++) {
+            shape = QueryShape.mix(shape, QueryShape.conditionHash(fields[i], OPERATORS[operators[i]], values[i]));
+        }
+        conditionShape = shape;
+        materialized = null;
+        shapeKey = null;
+    }
+
+    private LambdaQueryWrapper<T> appendJoin(JoinCondition joinCondition) {
+        joinConditions.add(joinCondition);
+        shapeKey = null;
+        joinShape = QueryShape.mix(joinShape, QueryShape.joinHash(joinCondition));
         return this;
     }
 
@@ -498,7 +1004,15 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public LambdaQueryWrapper<T> clear() {
-        conditions.clear();
+        if (values != null) {
+            Arrays.fill(fields, 0, size, null);
+            Arrays.fill(values, 0, size, null);
+        }
+        size = 0;
+        materialized = null;
+        shapeKey = null;
+        conditionShape = QueryShape.EMPTY;
+        slotNames = null;
         return this;
     }
 
@@ -508,7 +1022,7 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询条件的数量
      */
     public int size() {
-        return conditions.size();
+        return size;
     }
 
     /**
@@ -517,16 +1031,483 @@ public class LambdaQueryWrapper<T> {
      * @return 如果没有查询条件则返回 true，否则返回 false
      */
     public boolean isEmpty() {
-        return conditions.isEmpty();
+        return size == 0;
     }
 
     /**
      * 获取所有查询条件
      * 
+     * <p>返回的列表是条件的实时视图，对列表的添加、替换和删除会直接修改本包装器。
+     * 条件对象在首次读取时按需生成并缓存，直到条件再次变化。只需遍历条件时，
+     * {@link #getOperator(int)}、{@link #getField(int)}、{@link #getValue(int)} 不产生任何对象。</p>
+     * 
      * @return 查询条件列表
      */
     public List<QueryCondition> getConditions() {
-        return conditions;
+        ConditionList view = conditionView;
+        if (view == null) {
+            view = new ConditionList();
+            conditionView = view;
+        }
+        return view;
+    }
+
+    /**
+     * 按列存储的条件之上的列表视图，写操作转到包装器的条件数组并更新指纹。
+     */
+    private final class ConditionList extends AbstractList<QueryCondition> implements RandomAccess {
+
+        @Override
+        public QueryCondition get(int index) {
+            Objects.checkIndex(index, size);
+            QueryCondition[] conditions = materialized;
+            if (conditions == null) {
+                conditions = new QueryCondition[size];
+                for (int i = 0; i < size; i++) {
+                    conditions[i] = new QueryCondition(fields[i], OPERATORS[operators[i]], values[i]);
+                }
+                materialized = conditions;
+            }
+            return conditions[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void add(int index, QueryCondition condition) {
+            Objects.requireNonNull(condition, "condition must not be null");
+            if (index < 0 || index > size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            if (index == size) {
+                appendCondition(condition.getField(), condition.getOperator(), condition.getValue());
+            } else {
+                insertCondition(index, condition.getField(), condition.getOperator(), condition.getValue());
+            }
+            modCount++;
+        }
+
+        @Override
+        public QueryCondition set(int index, QueryCondition condition) {
+            Objects.requireNonNull(condition, "condition must not be null");
+            QueryCondition previous = get(index);
+            replaceCondition(index, condition.getField(), condition.getOperator(), condition.getValue());
+            return previous;
+        }
+
+        @Override
+        public QueryCondition remove(int index) {
+            QueryCondition previous = get(index);
+            removeCondition(index);
+            modCount++;
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            LambdaQueryWrapper.this.clear();
+            modCount++;
+        }
+    }
+
+    /**
+     * 获取第 {@code index} 个条件的操作符
+     * 
+     * @param index 条件下标
+     * @return 操作符
+     */
+    public QueryOperator getOperator(int index) {
+        return OPERATORS[operators[checkIndex(index)]];
+    }
+
+    /**
+     * 获取第 {@code index} 个条件的字段名
+     * 
+     * @param index 条件下标
+     * @return 字段名
+     */
+    public String getField(int index) {
+        return fields[checkIndex(index)];
+    }
+
+    /**
+     * 获取第 {@code index} 个条件的值
+     * 
+     * @param index 条件下标
+     * @return 条件值
+     */
+    public Object getValue(int index) {
+        return values[checkIndex(index)];
+    }
+
+    private int checkIndex(int index) {
+        return Objects.checkIndex(index, size);
+    }
+
+    /**
+     * 获取查询形状指纹
+     * 
+     * <p>指纹由实体类、条件（操作符、字段、IN 列表长度档位）和 JOIN 结构决定，
+     * 与绑定值无关，结构相同的查询指纹相同。嵌套查询按 {@link #nest} 调用时的结构计入。
+     * 指纹随条件增量维护，读取开销为常数。</p>
+     * 
+     * @return 64 位查询形状指纹
+     * @see QueryShape
+     */
+    public long getShapeId() {
+        return QueryShape.mix(QueryShape.mix(QueryShape.seed(entityClass), conditionShape), joinShape);
+    }
+
+    /**
+     * 获取可作为缓存键的查询形状
+     * 
+     * <p>与 {@link #getShapeId()} 描述相同的结构，哈希值即指纹，但相等比较逐项比较结构，
+     * 包括 {@code apply()} 的 SQL 片段原文，指纹碰撞的查询不相等。首次调用时生成，直到结构再次变化。</p>
+     * 
+     * @return 结构键
+     */
+    public QueryShape.Key getShapeKey() {
+        QueryShape.Key key = shapeKey;
+        if (key == null) {
+            key = QueryShape.key(getShapeId(), entityClass, size, this::getOperator, this::getField, this::getValue,
+                    joinConditions, getFetches());
+            shapeKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * 为最近添加的条件命名绑定槽
+     * 
+     * <p>冻结为 {@link QueryTemplate} 后按此名称绑定值。未命名的条件以字段名作为槽名，
+     * 同一字段有多个条件时必须显式命名。</p>
+     * 
+     * @param name 槽名
+     * @return 当前查询包装器实例，支持链式调用
+     * @throws IllegalStateException 尚无条件，或最近的条件不带比较值
+     */
+    public LambdaQueryWrapper<T> named(String name) {
+        int index = size - 1;
+        if (index < 0 || !QueryTemplate.isBindable(getOperator(index))) {
+            throw new IllegalStateException("named() must follow a condition with a bind value");
+        }
+        if (slotNames == null) {
+            slotNames = new HashMap<>();
+        }
+        slotNames.put(index, name);
+        return this;
+    }
+
+    /**
+     * 投影查询的列
+     * 
+     * <p>只读取指定的属性，按别名映射为 record、接口或 DTO，见执行器的 {@code listAs}。
+     * 多次调用时依次追加。普通的实体查询忽略投影列。</p>
+     * 
+     * @param fields 字段的 lambda 表达式数组
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    @SafeVarargs
+    public final LambdaQueryWrapper<T> select(SerializableFunction<T, ?>... fields) {
+        for (SerializableFunction<T, ?> field : fields) {
+            appendSelection(new QuerySelection(LambdaUtils.resolveFieldName(field), null));
+        }
+        return this;
+    }
+
+    /**
+     * 投影查询的列（字段常量版本）
+     * 
+     * @param fields 字段常量数组
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #select(SerializableFunction[])
+     */
+    @SafeVarargs
+    public final LambdaQueryWrapper<T> select(EntityField<T, ?>... fields) {
+        for (EntityField<T, ?> field : fields) {
+            appendSelection(new QuerySelection(field.getName(), null));
+        }
+        return this;
+    }
+
+    /**
+     * 为最近添加的投影列指定别名
+     * 
+     * @param alias 别名，映射结果时按别名匹配
+     * @return 当前查询包装器实例，支持链式调用
+     * @throws IllegalStateException 尚无投影列
+     */
+    public LambdaQueryWrapper<T> as(String alias) {
+        if (selections == null || selections.isEmpty()) {
+            throw new IllegalStateException("as() must follow a select()");
+        }
+        int last = selections.size() - 1;
+        QuerySelection selection = selections.get(last);
+        selections.set(last, new QuerySelection(selection.getField(), selection.getFunction(),
+                Objects.requireNonNull(alias, "alias")));
+        selectionShape = QueryShape.EMPTY;
+        for (QuerySelection column : selections) {
+            selectionShape = QueryShape.mix(selectionShape, QueryShape.selectionHash(column));
+        }
+        return this;
+    }
+
+    /**
+     * 聚合列：行数 {@code COUNT(*)}，默认别名 {@code count}
+     * 
+     * <p>聚合列与 {@link #select} 的普通列可以混用，普通列须同时出现在 {@link #groupBy} 中。</p>
+     * 
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> count() {
+        appendSelection(new QuerySelection(null, AggregateFunction.COUNT, null));
+        return this;
+    }
+
+    /**
+     * 聚合列：字段非 null 值的个数 {@code COUNT(field)}
+     * 
+     * @param field 字段的 lambda 表达式
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> count(SerializableFunction<T, ?> field) {
+        appendSelection(new QuerySelection(LambdaUtils.resolveFieldName(field), AggregateFunction.COUNT, null));
+        return this;
+    }
+
+    /**
+     * 聚合列（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #count(SerializableFunction)
+     */
+    public LambdaQueryWrapper<T> count(EntityField<T, ?> field) {
+        appendSelection(new QuerySelection(field.getName(), AggregateFunction.COUNT, null));
+        return this;
+    }
+
+    /**
+     * 聚合列：字段不同非 null 值的个数 {@code COUNT(DISTINCT field)}
+     * 
+     * @param field 字段的 lambda 表达式
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> countDistinct(SerializableFunction<T, ?> field) {
+        appendSelection(new QuerySelection(LambdaUtils.resolveFieldName(field), AggregateFunction.COUNT_DISTINCT, null));
+        return this;
+    }
+
+    /**
+     * 聚合列（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #countDistinct(SerializableFunction)
+     */
+    public LambdaQueryWrapper<T> countDistinct(EntityField<T, ?> field) {
+        appendSelection(new QuerySelection(field.getName(), AggregateFunction.COUNT_DISTINCT, null));
+        return this;
+    }
+
+    /**
+     * 聚合列：字段之和 {@code SUM(field)}，整数字段的结果为 {@link Long}
+     * 
+     * @param field 字段的 lambda 表达式
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public <R extends Number> LambdaQueryWrapper<T> sum(SerializableFunction<T, R> field) {
+        appendSelection(new QuerySelection(LambdaUtils.resolveFieldName(field), AggregateFunction.SUM, null));
+        return this;
+    }
+
+    /**
+     * 聚合列（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #sum(SerializableFunction)
+     */
+    public <R extends Number> LambdaQueryWrapper<T> sum(EntityField<T, R> field) {
+        appendSelection(new QuerySelection(field.getName(), AggregateFunction.SUM, null));
+        return this;
+    }
+
+    /**
+     * 聚合列：字段平均值 {@code AVG(field)}，结果为 {@link Double}
+     * 
+     * @param field 字段的 lambda 表达式
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public <R extends Number> LambdaQueryWrapper<T> avg(SerializableFunction<T, R> field) {
+        appendSelection(new QuerySelection(LambdaUtils.resolveFieldName(field), AggregateFunction.AVG, null));
+        return this;
+    }
+
+    /**
+     * 聚合列（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #avg(SerializableFunction)
+     */
+    public <R extends Number> LambdaQueryWrapper<T> avg(EntityField<T, R> field) {
+        appendSelection(new QuerySelection(field.getName(), AggregateFunction.AVG, null));
+        return this;
+    }
+
+    /**
+     * 聚合列：字段最小值 {@code MIN(field)}
+     * 
+     * @param field 字段的 lambda 表达式
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public <R extends Comparable<? super R>> LambdaQueryWrapper<T> min(SerializableFunction<T, R> field) {
+        appendSelection(new QuerySelection(LambdaUtils.resolveFieldName(field), AggregateFunction.MIN, null));
+        return this;
+    }
+
+    /**
+     * 聚合列（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #min(SerializableFunction)
+     */
+    public <R extends Comparable<? super R>> LambdaQueryWrapper<T> min(EntityField<T, R> field) {
+        appendSelection(new QuerySelection(field.getName(), AggregateFunction.MIN, null));
+        return this;
+    }
+
+    /**
+     * 聚合列：字段最大值 {@code MAX(field)}
+     * 
+     * @param field 字段的 lambda 表达式
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public <R extends Comparable<? super R>> LambdaQueryWrapper<T> max(SerializableFunction<T, R> field) {
+        appendSelection(new QuerySelection(LambdaUtils.resolveFieldName(field), AggregateFunction.MAX, null));
+        return this;
+    }
+
+    /**
+     * 聚合列（字段常量版本）
+     * 
+     * @param field 字段常量
+     * @param <R> 字段类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #max(SerializableFunction)
+     */
+    public <R extends Comparable<? super R>> LambdaQueryWrapper<T> max(EntityField<T, R> field) {
+        appendSelection(new QuerySelection(field.getName(), AggregateFunction.MAX, null));
+        return this;
+    }
+
+    private void appendSelection(QuerySelection selection) {
+        if (selections == null) {
+            selections = new ArrayList<>();
+        }
+        selections.add(selection);
+        selectionShape = QueryShape.mix(selectionShape, QueryShape.selectionHash(selection));
+    }
+
+    /**
+     * 获取投影列
+     * 
+     * @return 投影列，未指定时为空列表
+     */
+    public List<QuerySelection> getSelections() {
+        return selections != null ? Collections.unmodifiableList(selections) : List.of();
+    }
+
+    /**
+     * 获取投影部分的形状指纹，与 {@link #getShapeId()} 混合后区分同条件、不同投影的查询
+     * 
+     * @return 投影形状指纹
+     */
+    public long getSelectionShape() {
+        return selectionShape;
+    }
+
+    /**
+     * 清空投影列
+     * 
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> clearSelections() {
+        selections = null;
+        selectionShape = QueryShape.EMPTY;
+        return this;
+    }
+
+    /**
+     * 冻结为不可变的查询模板
+     * 
+     * <p>模板复制当前的条件和 JOIN，之后对包装器的修改不影响模板。
+     * 模板可在线程间共享，每次执行通过 {@link QueryTemplate#bind(String, Object)} 绑定参数。</p>
+     * 
+     * @return 查询模板
+     */
+    public QueryTemplate<T> freeze() {
+        return new QueryTemplate<>(entityClass, getConditions(), slotNames, joinConditions, getFetches(), getPreloads(),
+                joinShape);
+    }
+
+    /**
+     * 编译为内存中的谓词
+     * 
+     * <p>与 SQL 执行路径语义一致，可用于已加载的数据、本地缓存或测试数据，详见 {@link QueryEvaluator}。
+     * 编译后的谓词不受之后对包装器的修改影响。</p>
+     * 
+     * @return 谓词
+     * @throws UnsupportedOperationException 包含 {@code apply()}、分组或 HAVING 条件
+     * @since 1.1.0
+     */
+    public Predicate<T> toPredicate() {
+        return QueryEvaluator.predicate(this);
+    }
+
+    /**
+     * 按排序条件编译为比较器，没有排序条件时所有对象相等
+     * 
+     * @return 比较器
+     * @since 1.1.0
+     */
+    public Comparator<T> toComparator() {
+        return QueryEvaluator.comparator(entityClass, getConditions());
+    }
+
+    /**
+     * 在内存中过滤并排序
+     * 
+     * @param source 待过滤的对象
+     * @return 满足条件的对象，按排序条件排序
+     * @since 1.1.0
+     */
+    public List<T> filter(Collection<? extends T> source) {
+        return QueryEvaluator.filter(this, source, false);
+    }
+
+    /**
+     * 在内存中过滤并排序
+     * 
+     * @param source 待过滤的对象
+     * @param parallel 是否使用并行流，适合数万个以上的对象
+     * @return 满足条件的对象，按排序条件排序
+     * @since 1.1.0
+     */
+    public List<T> filter(Collection<? extends T> source, boolean parallel) {
+        return QueryEvaluator.filter(this, source, parallel);
     }
 
     /**
@@ -547,8 +1528,7 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public LambdaQueryWrapper<T> innerJoin(Class<?> targetEntity, String alias, String joinCondition) {
-        joinConditions.add(JoinCondition.innerJoin(targetEntity, alias, joinCondition));
-        return this;
+        return appendJoin(JoinCondition.innerJoin(targetEntity, alias, joinCondition));
     }
 
     /**
@@ -560,8 +1540,7 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public LambdaQueryWrapper<T> leftJoin(Class<?> targetEntity, String alias, String joinCondition) {
-        joinConditions.add(JoinCondition.leftJoin(targetEntity, alias, joinCondition));
-        return this;
+        return appendJoin(JoinCondition.leftJoin(targetEntity, alias, joinCondition));
     }
 
     /**
@@ -573,8 +1552,7 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public LambdaQueryWrapper<T> rightJoin(Class<?> targetEntity, String alias, String joinCondition) {
-        joinConditions.add(JoinCondition.rightJoin(targetEntity, alias, joinCondition));
-        return this;
+        return appendJoin(JoinCondition.rightJoin(targetEntity, alias, joinCondition));
     }
 
     /**
@@ -586,8 +1564,7 @@ public class LambdaQueryWrapper<T> {
      * @return 当前查询包装器实例，支持链式调用
      */
     public LambdaQueryWrapper<T> fullJoin(Class<?> targetEntity, String alias, String joinCondition) {
-        joinConditions.add(JoinCondition.fullJoin(targetEntity, alias, joinCondition));
-        return this;
+        return appendJoin(JoinCondition.fullJoin(targetEntity, alias, joinCondition));
     }
 
     /**
@@ -598,11 +1575,182 @@ public class LambdaQueryWrapper<T> {
      */
     public LambdaQueryWrapper<T> addJoin(JoinCondition joinCondition) {
         if (joinCondition != null) {
-            joinConditions.add(joinCondition);
+            appendJoin(joinCondition);
+        }
+        return this;
+    }
+
+    /**
+     * 随结果一起加载关联属性（JOIN FETCH）
+     * 
+     * <p>关联以左外连接随实体一次取回，遍历结果时不再逐行触发延迟加载。多级关联使用
+     * {@link EntityField#path} 构建的字段常量。分页查询加载集合关联时先按条件、排序和分页查询 id，
+     * 再按 id 加载实体及其关联，分页仍在数据库中完成。</p>
+     * 
+     * @param associations 关联属性的 lambda 表达式数组
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    @SafeVarargs
+    public final LambdaQueryWrapper<T> fetch(SerializableFunction<T, ?>... associations) {
+        for (SerializableFunction<T, ?> association : associations) {
+            addFetch(new QueryFetch(LambdaUtils.resolveFieldName(association), false));
+        }
+        return this;
+    }
+
+    /**
+     * 随结果一起加载关联属性（字段常量版本）
+     * 
+     * @param associations 关联属性的字段常量数组
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #fetch(SerializableFunction[])
+     */
+    @SafeVarargs
+    public final LambdaQueryWrapper<T> fetch(EntityField<T, ?>... associations) {
+        for (EntityField<T, ?> association : associations) {
+            addFetch(new QueryFetch(association.getName(), false));
+        }
+        return this;
+    }
+
+    /**
+     * 以动态 EntityGraph 加载关联属性
+     * 
+     * <p>与 {@link #fetch} 加载的内容相同，但以 {@code jakarta.persistence.loadgraph} 提示交给 JPA 实现，
+     * 由其决定连接方式。</p>
+     * 
+     * @param associations 关联属性的 lambda 表达式数组
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    @SafeVarargs
+    public final LambdaQueryWrapper<T> fetchGraph(SerializableFunction<T, ?>... associations) {
+        for (SerializableFunction<T, ?> association : associations) {
+            addFetch(new QueryFetch(LambdaUtils.resolveFieldName(association), true));
         }
         return this;
     }
 
+    /**
+     * 以动态 EntityGraph 加载关联属性（字段常量版本）
+     * 
+     * @param associations 关联属性的字段常量数组
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #fetchGraph(SerializableFunction[])
+     */
+    @SafeVarargs
+    public final LambdaQueryWrapper<T> fetchGraph(EntityField<T, ?>... associations) {
+        for (EntityField<T, ?> association : associations) {
+            addFetch(new QueryFetch(association.getName(), true));
+        }
+        return this;
+    }
+
+    /**
+     * 添加随结果加载的关联，已存在的相同关联被忽略
+     * 
+     * @param fetch 关联加载
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> addFetch(QueryFetch fetch) {
+        if (fetches == null) {
+            fetches = new ArrayList<>();
+        }
+        if (!fetches.contains(fetch)) {
+            fetches.add(fetch);
+            shapeKey = null;
+            joinShape = QueryShape.mix(joinShape, QueryShape.fetchHash(fetch));
+        }
+        return this;
+    }
+
+    /**
+     * 获取随结果加载的关联
+     * 
+     * @return 关联加载列表，未指定时为空列表
+     */
+    public List<QueryFetch> getFetches() {
+        return fetches != null ? Collections.unmodifiableList(fetches) : List.of();
+    }
+
+    /**
+     * 查询之后批量加载关联属性
+     * 
+     * <p>与 {@link #fetch} 不同，关联不随主查询连接取回：主查询完成后收集结果实体的 id，
+     * 以一条 IN 查询加载这些实体的该关联，IN 列表按补齐档位分批。每一级关联的往返次数固定，
+     * 不会因连接多个集合而产生笛卡尔积。加载的关联直接填充到结果实体上。</p>
+     * 
+     * @param association 关联属性的 lambda 表达式
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> preload(SerializableFunction<T, ?> association) {
+        return addPreload(LambdaUtils.resolveFieldName(association));
+    }
+
+    /**
+     * 查询之后逐级批量加载两级关联，如 {@code preload(User::getRoles, Role::getPermissions)}
+     * 
+     * @param association 第一级关联属性
+     * @param nested 第二级关联属性，属于第一级关联的实体（集合关联为其元素）
+     * @param <A> 第一级关联的实体类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #preload(SerializableFunction)
+     */
+    public <A> LambdaQueryWrapper<T> preload(SerializableFunction<T, ?> association, SerializableFunction<A, ?> nested) {
+        return addPreload(LambdaUtils.resolvePropertyPath(association, nested));
+    }
+
+    /**
+     * 查询之后逐级批量加载三级关联
+     * 
+     * @param association 第一级关联属性
+     * @param nested 第二级关联属性
+     * @param leaf 第三级关联属性
+     * @param <A> 第一级关联的实体类型
+     * @param <B> 第二级关联的实体类型
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #preload(SerializableFunction)
+     */
+    public <A, B> LambdaQueryWrapper<T> preload(SerializableFunction<T, ?> association, SerializableFunction<A, ?> nested,
+                                                SerializableFunction<B, ?> leaf) {
+        return addPreload(LambdaUtils.resolvePropertyPath(association, nested, leaf));
+    }
+
+    /**
+     * 查询之后批量加载关联属性（字段常量版本），多级关联使用 {@link EntityField#path} 构建的路径
+     * 
+     * @param association 关联属性的字段常量
+     * @return 当前查询包装器实例，支持链式调用
+     * @see #preload(SerializableFunction)
+     */
+    public LambdaQueryWrapper<T> preload(EntityField<T, ?> association) {
+        return addPreload(association.getName());
+    }
+
+    /**
+     * 添加查询之后批量加载的关联路径，已存在的相同路径被忽略
+     * 
+     * @param path 以 {@code .} 分隔的关联属性路径
+     * @return 当前查询包装器实例，支持链式调用
+     */
+    public LambdaQueryWrapper<T> addPreload(String path) {
+        if (preloads == null) {
+            preloads = new ArrayList<>();
+        }
+        if (!preloads.contains(path)) {
+            preloads.add(path);
+        }
+        return this;
+    }
+
+    /**
+     * 获取查询之后批量加载的关联路径
+     * 
+     * @return 关联路径列表，未指定时为空列表
+     */
+    public List<String> getPreloads() {
+        return preloads != null ? Collections.unmodifiableList(preloads) : List.of();
+    }
+
     /**
      * 获取所有 JOIN 条件
      * 
@@ -622,12 +1770,16 @@ public class LambdaQueryWrapper<T> {
     }
 
     /**
-     * 清空所有 JOIN 条件
+     * 清空所有 JOIN 条件和关联加载
      * 
      * @return 当前查询包装器实例，支持链式调用
      */
     public LambdaQueryWrapper<T> clearJoins() {
         joinConditions.clear();
+        fetches = null;
+        preloads = null;
+        shapeKey = null;
+        joinShape = QueryShape.EMPTY;
         return this;
     }
 }
@@ -0,0 +1,457 @@
+package io.github.kttobug.query;
+
+import io.github.kttobug.query.util.PropertyAccessor;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 在内存中按包装器的条件过滤和排序对象。
+ * 
+ * <p>条件被编译为一组闭包，属性经 {@link PropertyAccessor} 的 {@link java.lang.invoke.MethodHandle} 读取，
+ * 编译结果可以反复使用。语义与 SQL 执行路径一致：</p>
+ * <ul>
+ *   <li>按 SQL 的三值逻辑求值：属性或比较值为 null 时比较结果为“未知”，未知与 NOT 组合后仍为未知，
+ *       最终只保留结果为真的对象；</li>
+ *   <li>空 {@code IN} 恒假，空 {@code NOT IN}、空嵌套和格式不符的 BETWEEN 不限制；</li>
+ *   <li>LIKE 的 {@code %} 和 {@code _} 是通配符，区分大小写；</li>
+ *   <li>不同类型的数值按数值大小比较，例如 Integer 属性与 Long 比较值；</li>
+ *   <li>升序时 null 排在最后，降序时排在最前。</li>
+ * </ul>
+ * 
+ * <p>字符串比较使用 Java 的自然顺序，数据库按排序规则比较（例如大小写不敏感）时结果可能不同。
+ * {@code apply()} 的原生 SQL、分组和 HAVING 无法在内存中求值，会抛出
+ * {@link UnsupportedOperationException}；连接条件被忽略，与执行器一致。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class QueryEvaluator {
+
+    private static final int FALSE = 0;
+    private static final int TRUE = 1;
+    private static final int UNKNOWN = 2;
+
+    /** 没有排序条件时的比较器，保持原有顺序 */
+    private static final Comparator<Object> UNORDERED = (left, right) -> 0;
+
+    /** 三值逻辑的条件 */
+    @FunctionalInterface
+    private interface Condition {
+        int test(Object target);
+    }
+
+    private QueryEvaluator() {
+    }
+
+    /**
+     * 把包装器的条件编译为谓词，排序条件被忽略
+     * 
+     * @param wrapper 查询包装器
+     * @param <T> 实体类型
+     * @return 谓词
+     * @throws UnsupportedOperationException 包含无法在内存中求值的条件
+     */
+    public static <T> Predicate<T> predicate(LambdaQueryWrapper<T> wrapper) {
+        for (int i = 0; i < wrapper.size(); i++) {
+            QueryOperator operator = wrapper.getOperator(i);
+            if (operator == QueryOperator.GROUP_BY || operator == QueryOperator.HAVING) {
+                throw new UnsupportedOperationException("Grouped queries cannot be evaluated in memory");
+            }
+        }
+        Condition condition = compile(wrapper.getEntityClass(), wrapper);
+        if (condition == null) {
+            return target -> true;
+        }
+        return target -> condition.test(target) == TRUE;
+    }
+
+    /**
+     * 按排序条件构造比较器
+     * 
+     * @param entityClass 实体类型
+     * @param conditions 条件列表，只使用其中的排序条件
+     * @param <T> 实体类型
+     * @return 比较器，没有排序条件时所有对象相等
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Comparator<T> comparator(Class<T> entityClass, List<QueryCondition> conditions) {
+        Comparator<T> order = null;
+        for (QueryCondition condition : conditions) {
+            boolean ascending = condition.getOperator() == QueryOperator.ORDER_BY_ASC;
+            if (ascending || condition.getOperator() == QueryOperator.ORDER_BY_DESC) {
+                PropertyAccessor accessor = PropertyAccessor.of(entityClass, condition.getField());
+                Comparator<Object> values = ascending
+                        ? Comparator.nullsLast(QueryEvaluator::compare)
+                        : Comparator.nullsLast(QueryEvaluator::compare).reversed();
+                Comparator<T> next = Comparator.comparing(accessor::get, values);
+                order = order == null ? next : order.thenComparing(next);
+            }
+        }
+        return order != null ? order : (Comparator<T>) UNORDERED;
+    }
+
+    /**
+     * 过滤并排序
+     * 
+     * @param wrapper 查询包装器
+     * @param source 待过滤的对象
+     * @param parallel 是否使用并行流，适合大集合
+     * @param <T> 实体类型
+     * @return 满足条件的对象，按排序条件排序
+     */
+    public static <T> List<T> filter(LambdaQueryWrapper<T> wrapper, Collection<? extends T> source, boolean parallel) {
+        Predicate<T> predicate = predicate(wrapper);
+        List<QueryCondition> conditions = wrapper.getConditions();
+        Stream<T> stream = (parallel ? source.parallelStream() : source.stream()).<T>map(element -> element)
+                .filter(predicate);
+        Comparator<T> order = comparator(wrapper.getEntityClass(), conditions);
+        if (order != UNORDERED) {
+            stream = stream.sorted(order);
+        }
+        return stream.collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    // ==================== 编译 ====================
+
+    /**
+     * 编译包装器的 WHERE 条件，返回 null 表示不限制
+     */
+    private static Condition compile(Class<?> entityClass, LambdaQueryWrapper<?> wrapper) {
+        return compile(entityClass, ConditionTree.of(wrapper), wrapper.getConditions());
+    }
+
+    /**
+     * 与执行器的谓词构建一致：不限制的子条件在 AND 中跳过，在 OR 中使整个 OR 不限制
+     */
+    private static Condition compile(Class<?> entityClass, ConditionTree node, List<QueryCondition> conditions) {
+        if (node.getKind() == ConditionTree.Kind.LEAF) {
+            return compileLeaf(entityClass, conditions.get(node.getIndex()));
+        }
+        List<Condition> children = new ArrayList<>(node.getChildren().size());
+        for (ConditionTree child : node.getChildren()) {
+            Condition condition = compile(entityClass, child, conditions);
+            if (condition != null) {
+                children.add(condition);
+            } else if (node.getKind() == ConditionTree.Kind.OR) {
+                return null;
+            }
+        }
+        if (children.size() <= 1) {
+            return children.isEmpty() ? null : children.get(0);
+        }
+        Condition[] array = children.toArray(new Condition[0]);
+        return node.getKind() == ConditionTree.Kind.AND ? and(array) : or(array);
+    }
+
+    private static Condition and(Condition[] conditions) {
+        return target -> {
+            int result = TRUE;
+            for (Condition condition : conditions) {
+                int value = condition.test(target);
+                if (value == FALSE) {
+                    return FALSE;
+                }
+                if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        };
+    }
+
+    private static Condition or(Condition[] conditions) {
+        return target -> {
+            int result = FALSE;
+            for (Condition condition : conditions) {
+                int value = condition.test(target);
+                if (value == TRUE) {
+                    return TRUE;
+                }
+                if (value == UNKNOWN) {
+                    result = UNKNOWN;
+                }
+            }
+            return result;
+        };
+    }
+
+    private static Condition not(Condition condition) {
+        return target -> {
+            int value = condition.test(target);
+            return value == UNKNOWN ? UNKNOWN : TRUE - value;
+        };
+    }
+
+    private static Condition compileLeaf(Class<?> entityClass, QueryCondition condition) {
+        Object value = condition.getValue();
+        switch (condition.getOperator()) {
+            case EQ:
+                return equality(entityClass, condition, false);
+            case NE:
+                return equality(entityClass, condition, true);
+            case GT:
+                return comparison(entityClass, condition, order -> order > 0);
+            case GE:
+                return comparison(entityClass, condition, order -> order >= 0);
+            case LT:
+                return comparison(entityClass, condition, order -> order < 0);
+            case LE:
+                return comparison(entityClass, condition, order -> order <= 0);
+            case LIKE:
+                return like(entityClass, condition, "%", "%");
+            case LEFT_LIKE:
+                return like(entityClass, condition, "%", "");
+            case RIGHT_LIKE:
+                return like(entityClass, condition, "", "%");
+            case IN:
+                return value instanceof Iterable ? in(entityClass, condition, false) : null;
+            case NOT_IN:
+                return value instanceof Iterable ? in(entityClass, condition, true) : null;
+            case IS_NULL:
+                return nullCheck(entityClass, condition, true);
+            case IS_NOT_NULL:
+                return nullCheck(entityClass, condition, false);
+            case BETWEEN:
+                return between(entityClass, condition, false);
+            case NOT_BETWEEN:
+                return between(entityClass, condition, true);
+            case NEST:
+            case NOT:
+                if (!(value instanceof LambdaQueryWrapper)) {
+                    return null;
+                }
+                Condition nested = compile(entityClass, (LambdaQueryWrapper<?>) value);
+                return nested == null || condition.getOperator() == QueryOperator.NEST ? nested : not(nested);
+            case APPLY:
+                throw new UnsupportedOperationException("Native SQL conditions (apply) cannot be evaluated in memory");
+            default:
+                throw new UnsupportedOperationException("Operator not supported in memory: " + condition.getOperator());
+        }
+    }
+
+    @FunctionalInterface
+    private interface OrderTest {
+        boolean test(int order);
+    }
+
+    private static Condition comparison(Class<?> entityClass, QueryCondition condition, OrderTest test) {
+        Object operand = condition.getValue();
+        if (operand == null) {
+            // 与 NULL 比较恒为未知
+            return target -> UNKNOWN;
+        }
+        PropertyAccessor accessor = PropertyAccessor.of(entityClass, condition.getField());
+        return target -> {
+            Object value = accessor.get(target);
+            if (value == null) {
+                return UNKNOWN;
+            }
+            return test.test(compare(value, operand)) ? TRUE : FALSE;
+        };
+    }
+
+    private static Condition equality(Class<?> entityClass, QueryCondition condition, boolean negated) {
+        Object operand = condition.getValue();
+        if (operand == null) {
+            return target -> UNKNOWN;
+        }
+        PropertyAccessor accessor = PropertyAccessor.of(entityClass, condition.getField());
+        return target -> {
+            Object value = accessor.get(target);
+            if (value == null) {
+                return UNKNOWN;
+            }
+            return equal(value, operand) != negated ? TRUE : FALSE;
+        };
+    }
+
+    private static Condition like(Class<?> entityClass, QueryCondition condition, String prefix, String suffix) {
+        List<Pattern> patterns = new ArrayList<>();
+        if (condition.getValue() instanceof Collection) {
+            for (Object element : (Collection<?>) condition.getValue()) {
+                patterns.add(likePattern(prefix + element + suffix));
+            }
+        } else {
+            patterns.add(likePattern(prefix + condition.getValue() + suffix));
+        }
+        PropertyAccessor accessor = PropertyAccessor.of(entityClass, condition.getField());
+        return target -> {
+            Object value = accessor.get(target);
+            if (value == null) {
+                return UNKNOWN;
+            }
+            String text = value.toString();
+            for (Pattern pattern : patterns) {
+                if (pattern.matcher(text).matches()) {
+                    return TRUE;
+                }
+            }
+            return FALSE;
+        };
+    }
+
+    /**
+     * LIKE 模式转换为正则：{@code %} 匹配任意串，{@code _} 匹配单个字符，其余字符按字面匹配
+     */
+    static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder(like.length() + 8);
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < like.length(); i++) {
+            char c = like.charAt(i);
+            if (c == '%' || c == '_') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static Condition in(Class<?> entityClass, QueryCondition condition, boolean negated) {
+        Set<Object> keys = new HashSet<>();
+        boolean containsNull = false;
+        for (Object element : (Iterable<?>) condition.getValue()) {
+            if (element == null) {
+                containsNull = true;
+            } else {
+                keys.add(key(element));
+            }
+        }
+        if (keys.isEmpty() && !containsNull) {
+            // 与执行器一致：空 IN 恒假，空 NOT IN 不限制
+            return negated ? null : target -> FALSE;
+        }
+        boolean unknownIfAbsent = containsNull;
+        PropertyAccessor accessor = PropertyAccessor.of(entityClass, condition.getField());
+        return target -> {
+            Object value = accessor.get(target);
+            if (value == null) {
+                return UNKNOWN;
+            }
+            int result = keys.contains(key(value)) ? TRUE : unknownIfAbsent ? UNKNOWN : FALSE;
+            return negated && result != UNKNOWN ? TRUE - result : result;
+        };
+    }
+
+    private static Condition nullCheck(Class<?> entityClass, QueryCondition condition, boolean isNull) {
+        PropertyAccessor accessor = PropertyAccessor.of(entityClass, condition.getField());
+        return target -> (accessor.get(target) == null) == isNull ? TRUE : FALSE;
+    }
+
+    private static Condition between(Class<?> entityClass, QueryCondition condition, boolean negated) {
+        if (!(condition.getValue() instanceof Collection) || ((Collection<?>) condition.getValue()).size() < 2) {
+            return null;
+        }
+        Iterator<?> bounds = ((Collection<?>) condition.getValue()).iterator();
+        Object lower = bounds.next();
+        Object upper = bounds.next();
+        PropertyAccessor accessor = PropertyAccessor.of(entityClass, condition.getField());
+        Condition between = target -> {
+            Object value = accessor.get(target);
+            if (value == null || lower == null || upper == null) {
+                return UNKNOWN;
+            }
+            return compare(value, lower) >= 0 && compare(value, upper) <= 0 ? TRUE : FALSE;
+        };
+        return negated ? not(between) : between;
+    }
+
+    // ==================== 值比较 ====================
+
+    /**
+     * 比较两个非 null 值，数值按大小比较而不要求类型相同
+     */
+    @SuppressWarnings("unchecked")
+    static int compare(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            return compareNumbers((Number) left, (Number) right);
+        }
+        if (left instanceof Comparable && left.getClass().isInstance(right)) {
+            return ((Comparable<Object>) left).compareTo(right);
+        }
+        if (right instanceof Comparable && right.getClass().isInstance(left)) {
+            return -((Comparable<Object>) right).compareTo(left);
+        }
+        throw new IllegalArgumentException("Cannot compare " + left.getClass().getName()
+                + " with " + right.getClass().getName());
+    }
+
+    /**
+     * 判断两个非 null 值相等，数值按大小比较，可比较的值按 {@code compareTo}，其余按 {@code equals}
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean equal(Object left, Object right) {
+        if (left instanceof Number && right instanceof Number) {
+            return compareNumbers((Number) left, (Number) right) == 0;
+        }
+        if (left instanceof Comparable && left.getClass() == right.getClass()) {
+            return ((Comparable<Object>) left).compareTo(right) == 0;
+        }
+        return left.equals(right);
+    }
+
+    private static int compareNumbers(Number left, Number right) {
+        if (isIntegral(left) && isIntegral(right)) {
+            return Long.compare(left.longValue(), right.longValue());
+        }
+        return toBigDecimal(left).compareTo(toBigDecimal(right));
+    }
+
+    private static boolean isIntegral(Number number) {
+        return number instanceof Integer || number instanceof Long || number instanceof Short || number instanceof Byte;
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof BigDecimal) {
+            return (BigDecimal) number;
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        if (isIntegral(number)) {
+            return BigDecimal.valueOf(number.longValue());
+        }
+        return BigDecimal.valueOf(number.doubleValue());
+    }
+
+    /**
+     * IN 查找用的键：数值统一为 Long 或去掉尾随零的 BigDecimal，使 1、1L、1.0 落在同一个键上
+     */
+    private static Object key(Object value) {
+        if (!(value instanceof Number)) {
+            return value;
+        }
+        Number number = (Number) value;
+        if (isIntegral(number)) {
+            return number.longValue();
+        }
+        BigDecimal decimal = toBigDecimal(number).stripTrailingZeros();
+        if (decimal.scale() <= 0) {
+            try {
+                return decimal.longValueExact();
+            } catch (ArithmeticException e) {
+                // 超出 long 范围的整数保留为 BigDecimal
+            }
+        }
+        return decimal;
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.kttobug.query;
+
+import java.util.Objects;
+
+/**
+ * 随查询结果一起加载的关联属性。
+ *
+ * <p>关联以左外连接随实体一次取回，避免遍历结果时每行触发一次延迟加载（N+1 查询）。
+ * 路径可以是以 {@code .} 分隔的多级关联，如 {@code items.product}，中间各级也一并加载。
+ * {@link #isGraph()} 为 true 时以动态 {@code EntityGraph} 作为 {@code jakarta.persistence.loadgraph}
+ * 提示交给 JPA 实现，否则直接编译为 {@code JOIN FETCH}。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class QueryFetch {
+
+    /** 关联属性路径 */
+    private final String path;
+
+    /** 是否以 EntityGraph 提示加载 */
+    private final boolean graph;
+
+    /**
+     * 构造函数
+     *
+     * @param path 关联属性路径
+     * @param graph 是否以 EntityGraph 提示加载
+     */
+    public QueryFetch(String path, boolean graph) {
+        this.path = Objects.requireNonNull(path, "path");
+        this.graph = graph;
+    }
+
+    /**
+     * 获取关联属性路径
+     *
+     * @return 关联属性路径
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * 是否以 EntityGraph 提示加载
+     *
+     * @return 以 EntityGraph 加载时返回 true，以 JOIN FETCH 加载时返回 false
+     */
+    public boolean isGraph() {
+        return graph;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryFetch{" +
+                "path='" + path + '\'' +
+                ", graph=" + graph +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        QueryFetch that = (QueryFetch) o;
+        return graph == that.graph && path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(path, graph);
+    }
+}
@@ -92,4 +92,7 @@ public enum QueryOperator {
     
     /** 自定义条件操作符 (用于自定义 SQL 片段) */
     APPLY,
+
+    /** 取反操作符 (NOT (...))，值为被取反的查询包装器 */
+    NOT,
 }
\ No newline at end of file
@@ -0,0 +1,850 @@
+package io.github.kttobug.query;
+
+import io.github.kttobug.query.util.BoundedCache;
+import io.github.kttobug.query.util.QueryShape;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于规则的条件改写器。
+ * 
+ * <p>在编译为 SQL 之前化简包装器的条件树，适用于按页面输入动态拼装、容易产生冗余条件的查询：</p>
+ * <ul>
+ *   <li>{@link Rule#FLATTEN_NESTING}：展开多余的嵌套，{@code a AND (b AND c)} → {@code a AND b AND c}，
+ *       {@code NOT (NOT x)} → {@code x}</li>
+ *   <li>{@link Rule#REMOVE_DUPLICATES}：去掉同一层中完全相同的条件</li>
+ *   <li>{@link Rule#MERGE_EQUALS_TO_IN}：同一字段的 {@code eq} / {@code in} 以 OR 连接时合并为一个 {@code IN}</li>
+ *   <li>{@link Rule#FOLD_RANGES}：同一字段的多个上下界只保留最紧的一个，闭区间的
+ *       {@code ge} + {@code le} 合并为 {@code BETWEEN}</li>
+ *   <li>{@link Rule#PRUNE_CONTRADICTIONS}：识别恒假条件（空 {@code IN}、矛盾的等值或区间、
+ *       {@code IS NULL} 与比较条件并存），恒假分支从 OR 中删除，整个查询恒假时不访问数据库</li>
+ * </ul>
+ * 
+ * <p>矛盾的条件在字段为 null 时求值为 UNKNOWN 而不是 FALSE，只是“不可能为真”，
+ * 因此只在取反次数为偶数的位置剪除；位于奇数层 {@code NOT} 之下时原样保留，交给数据库按三值逻辑求值。
+ * 空 {@code IN} 由执行器编译为恒假谓词，任何位置都可以剪除。</p>
+ * 
+ * <p>开区间的 {@code gt} + {@code lt} 不改写为 {@code BETWEEN}，因为 {@code BETWEEN} 包含端点。
+ * 等值和区间推理只针对数值、日期时间等比较语义与数据库一致的类型；字符串受排序规则影响
+ * （例如大小写不敏感），只参与完全相同的去重和 IN 合并。</p>
+ * 
+ * <p>每次改写记入 {@link Result#getRewrites()}，并以 DEBUG 级别输出到本类的日志。
+ * 没有任何规则生效时返回原包装器，不复制条件。实例不可变，可以在线程间共享。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class QueryOptimizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryOptimizer.class);
+
+    /** 缓存的形状判断数量 */
+    private static final int CACHE_SIZE = 1024;
+
+    /** 按结构键缓存“是否可能被改写”，大多数查询不需要构建条件树 */
+    private static final BoundedCache<QueryShape.Key, Boolean> CANDIDATES = new BoundedCache<>(CACHE_SIZE);
+
+    /** 不做任何改写 */
+    public static final QueryOptimizer NONE = new QueryOptimizer(EnumSet.noneOf(Rule.class));
+
+    private static final QueryOptimizer DEFAULTS = new QueryOptimizer(EnumSet.allOf(Rule.class));
+
+    /**
+     * 改写规则
+     */
+    public enum Rule {
+        /** 展开多余的嵌套和双重取反 */
+        FLATTEN_NESTING,
+        /** 去掉同一层中重复的条件 */
+        REMOVE_DUPLICATES,
+        /** 同一字段的等值 OR 合并为 IN */
+        MERGE_EQUALS_TO_IN,
+        /** 合并同一字段的区间条件 */
+        FOLD_RANGES,
+        /** 识别并剪除恒假条件 */
+        PRUNE_CONTRADICTIONS
+    }
+
+    private final Set<Rule> rules;
+
+    private QueryOptimizer(Set<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * 启用全部规则
+     * 
+     * @return 改写器
+     */
+    public static QueryOptimizer defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * 禁用指定规则
+     * 
+     * @param disabled 要禁用的规则
+     * @return 新的改写器
+     */
+    public QueryOptimizer without(Rule... disabled) {
+        EnumSet<Rule> copy = rules.isEmpty() ? EnumSet.noneOf(Rule.class) : EnumSet.copyOf(rules);
+        for (Rule rule : disabled) {
+            copy.remove(rule);
+        }
+        return new QueryOptimizer(copy);
+    }
+
+    /**
+     * 是否启用了指定规则
+     * 
+     * @param rule 规则
+     * @return 是否启用
+     */
+    public boolean isEnabled(Rule rule) {
+        return rules.contains(rule);
+    }
+
+    /**
+     * 改写包装器的条件
+     * 
+     * @param wrapper 查询包装器，不会被修改
+     * @param <T> 实体类型
+     * @return 改写结果
+     */
+    public <T> Result<T> optimize(LambdaQueryWrapper<T> wrapper) {
+        if (rules.isEmpty() || !CANDIDATES.get(wrapper.getShapeKey(), key -> isCandidate(wrapper))) {
+            return new Result<>(wrapper, false, List.of());
+        }
+        List<String> rewrites = new ArrayList<>();
+        Node root = simplify(build(wrapper), false, rewrites);
+        if (rewrites.isEmpty()) {
+            return new Result<>(wrapper, false, List.of());
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Rewrote query on {}: {}", wrapper.getEntityClass().getSimpleName(), rewrites);
+        }
+        if (root.kind == Kind.FALSE) {
+            return new Result<>(wrapper, true, Collections.unmodifiableList(rewrites));
+        }
+
+        LambdaQueryWrapper<T> rewritten = new LambdaQueryWrapper<>(wrapper.getEntityClass());
+        for (JoinCondition join : wrapper.getJoinConditions()) {
+            rewritten.addJoin(join);
+        }
+        for (QueryFetch fetch : wrapper.getFetches()) {
+            rewritten.addFetch(fetch);
+        }
+        wrapper.getPreloads().forEach(rewritten::addPreload);
+        appendWhere(rewritten, root);
+        for (QueryCondition condition : wrapper.getConditions()) {
+            if (!ConditionTree.isPredicate(condition.getOperator())
+                    && condition.getOperator() != QueryOperator.OR && condition.getOperator() != QueryOperator.AND) {
+                rewritten.addCondition(condition);
+            }
+        }
+        return new Result<>(rewritten, false, Collections.unmodifiableList(rewrites));
+    }
+
+    /**
+     * 只有含嵌套、IN / BETWEEN 或同一字段出现多次的查询才可能被改写，结果只取决于形状
+     */
+    private static boolean isCandidate(LambdaQueryWrapper<?> wrapper) {
+        Set<String> fields = new HashSet<>();
+        for (int i = 0; i < wrapper.size(); i++) {
+            QueryOperator operator = wrapper.getOperator(i);
+            if (!ConditionTree.isPredicate(operator)) {
+                continue;
+            }
+            switch (operator) {
+                case NEST:
+                case NOT:
+                case IN:
+                case NOT_IN:
+                case BETWEEN:
+                    return true;
+                default:
+                    if (!fields.add(wrapper.getField(i))) {
+                        return true;
+                    }
+            }
+        }
+        return false;
+    }
+
+    // ==================== 条件树 ====================
+
+    /**
+     * TRUE 是不限制的条件，与执行器一致，取反后仍不限制；TAUTOLOGY 是恒假条件取反的结果，再取反回到 FALSE
+     */
+    private enum Kind {
+        LEAF, AND, OR, NOT, TRUE, TAUTOLOGY, FALSE
+    }
+
+    /** 改写用的条件树，叶子直接持有条件，嵌套包装器展开为子树 */
+    private static final class Node {
+        private static final Node TRUE = new Node(Kind.TRUE, null, List.of());
+        private static final Node TAUTOLOGY = new Node(Kind.TAUTOLOGY, null, List.of());
+        private static final Node FALSE = new Node(Kind.FALSE, null, List.of());
+
+        private final Kind kind;
+        private final QueryCondition condition;
+        private final List<Node> children;
+
+        private Node(Kind kind, QueryCondition condition, List<Node> children) {
+            this.kind = kind;
+            this.condition = condition;
+            this.children = children;
+        }
+
+        static Node leaf(QueryCondition condition) {
+            return new Node(Kind.LEAF, condition, List.of());
+        }
+
+        /** 连接多个子节点，没有子节点时不限制，只有一个时直接返回它 */
+        static Node join(Kind kind, List<Node> children) {
+            if (children.isEmpty()) {
+                return kind == Kind.AND ? TRUE : FALSE;
+            }
+            return children.size() == 1 ? children.get(0) : new Node(kind, null, children);
+        }
+
+        boolean isLeaf(QueryOperator operator) {
+            return kind == Kind.LEAF && condition.getOperator() == operator;
+        }
+    }
+
+    private static Node build(LambdaQueryWrapper<?> wrapper) {
+        return build(ConditionTree.of(wrapper), wrapper.getConditions());
+    }
+
+    private static Node build(ConditionTree tree, List<QueryCondition> conditions) {
+        if (tree.getKind() == ConditionTree.Kind.LEAF) {
+            QueryCondition condition = conditions.get(tree.getIndex());
+            if (condition.getValue() instanceof LambdaQueryWrapper) {
+                Node nested = build((LambdaQueryWrapper<?>) condition.getValue());
+                if (condition.getOperator() == QueryOperator.NEST) {
+                    // 嵌套的 AND / OR 保持为独立节点，是否展开由规则决定
+                    return nested;
+                }
+                if (condition.getOperator() == QueryOperator.NOT) {
+                    return new Node(Kind.NOT, null, List.of(nested));
+                }
+            }
+            return Node.leaf(condition);
+        }
+        List<Node> children = new ArrayList<>(tree.getChildren().size());
+        for (ConditionTree child : tree.getChildren()) {
+            children.add(build(child, conditions));
+        }
+        return tree.getKind() == ConditionTree.Kind.OR ? new Node(Kind.OR, null, children)
+                : new Node(Kind.AND, null, children);
+    }
+
+    // ==================== 化简 ====================
+
+    /**
+     * 化简一个节点。
+     * 
+     * <p>取反次数为偶数的位置只关心条件何时为真，FALSE 代表“不可能为真”；奇数层 {@code NOT} 之下
+     * 只关心条件何时为假，FALSE 只能来自确定为假的条件，矛盾在 null 上为 UNKNOWN，取反后仍不为真，不能剪除。</p>
+     * 
+     * @param negated 节点位于奇数层 NOT 之下
+     */
+    private Node simplify(Node node, boolean negated, List<String> rewrites) {
+        switch (node.kind) {
+            case LEAF:
+                return simplifyLeaf(node, negated, rewrites);
+            case NOT:
+                return simplifyNot(simplify(node.children.get(0), !negated, rewrites), rewrites);
+            case AND:
+            case OR:
+                List<Node> children = new ArrayList<>(node.children.size());
+                for (Node child : node.children) {
+                    Node simplified = simplify(child, negated, rewrites);
+                    if (simplified.kind == node.kind && isEnabled(Rule.FLATTEN_NESTING)) {
+                        rewrites.add("flatten nested " + node.kind + " " + describe(simplified));
+                        children.addAll(simplified.children);
+                    } else {
+                        children.add(simplified);
+                    }
+                }
+                return node.kind == Kind.AND ? simplifyAnd(children, negated, rewrites) : simplifyOr(children, rewrites);
+            default:
+                return node;
+        }
+    }
+
+    private Node simplifyLeaf(Node node, boolean negated, List<String> rewrites) {
+        if (!isEnabled(Rule.PRUNE_CONTRADICTIONS)) {
+            return node;
+        }
+        QueryCondition condition = node.condition;
+        if (condition.getValue() instanceof Iterable && !((Iterable<?>) condition.getValue()).iterator().hasNext()) {
+            // 与执行器一致：空 IN 恒假，空 NOT IN 不限制
+            if (condition.getOperator() == QueryOperator.IN) {
+                rewrites.add("always false: " + describe(node));
+                return Node.FALSE;
+            }
+            if (condition.getOperator() == QueryOperator.NOT_IN) {
+                rewrites.add("always true: " + describe(node));
+                return Node.TRUE;
+            }
+        }
+        if (condition.getOperator() == QueryOperator.BETWEEN && !negated) {
+            // 反向的区间对 null 求值为 UNKNOWN
+            Object[] range = pair(condition.getValue());
+            Integer order = range == null ? null : compareOrdered(range[0], range[1]);
+            if (order != null && order > 0) {
+                rewrites.add("always false: " + describe(node));
+                return Node.FALSE;
+            }
+        }
+        return node;
+    }
+
+    private Node simplifyNot(Node child, List<String> rewrites) {
+        if (child.kind == Kind.TRUE) {
+            // 与执行器一致：被忽略的条件取反后仍被忽略
+            return Node.TRUE;
+        }
+        if (child.kind == Kind.FALSE) {
+            // 子节点与本节点的取反层数奇偶相反：本节点不取反时子节点只会确定为假，取反为真；
+            // 本节点取反时子节点只是不可能为真，取反后不可能为假，在这里同样视为恒真
+            rewrites.add("NOT of an always false condition is never false");
+            return Node.TAUTOLOGY;
+        }
+        if (child.kind == Kind.TAUTOLOGY) {
+            rewrites.add("NOT of a tautology is always false");
+            return Node.FALSE;
+        }
+        if (child.kind == Kind.NOT && isEnabled(Rule.FLATTEN_NESTING)) {
+            rewrites.add("remove double negation " + describe(child));
+            return child.children.get(0);
+        }
+        return new Node(Kind.NOT, null, List.of(child));
+    }
+
+    private Node simplifyAnd(List<Node> children, boolean negated, List<String> rewrites) {
+        List<Node> terms = new ArrayList<>(children.size());
+        boolean tautology = false;
+        for (Node child : children) {
+            if (child.kind == Kind.FALSE) {
+                return Node.FALSE;
+            }
+            tautology |= child.kind == Kind.TAUTOLOGY;
+            if (child.kind != Kind.TRUE && child.kind != Kind.TAUTOLOGY) {
+                terms.add(child);
+            }
+        }
+        if (terms.isEmpty() && tautology) {
+            return Node.TAUTOLOGY;
+        }
+        if (isEnabled(Rule.REMOVE_DUPLICATES)) {
+            removeDuplicates(terms, Kind.AND, rewrites);
+        }
+        if (isEnabled(Rule.PRUNE_CONTRADICTIONS) && !negated) {
+            String contradiction = findContradiction(terms);
+            if (contradiction != null) {
+                rewrites.add("always false: " + contradiction);
+                return Node.FALSE;
+            }
+        }
+        if (isEnabled(Rule.FOLD_RANGES)) {
+            foldRanges(terms, rewrites);
+        }
+        return Node.join(Kind.AND, terms);
+    }
+
+    private Node simplifyOr(List<Node> children, List<String> rewrites) {
+        List<Node> branches = new ArrayList<>(children.size());
+        boolean tautology = false;
+        for (Node child : children) {
+            if (child.kind == Kind.TRUE) {
+                return Node.TRUE;
+            }
+            tautology |= child.kind == Kind.TAUTOLOGY;
+            if (child.kind == Kind.FALSE) {
+                rewrites.add("drop always false OR branch");
+            } else {
+                branches.add(child);
+            }
+        }
+        if (tautology) {
+            return Node.TAUTOLOGY;
+        }
+        if (isEnabled(Rule.REMOVE_DUPLICATES)) {
+            removeDuplicates(branches, Kind.OR, rewrites);
+        }
+        if (isEnabled(Rule.MERGE_EQUALS_TO_IN)) {
+            mergeEqualsToIn(branches, rewrites);
+        }
+        return Node.join(Kind.OR, branches);
+    }
+
+    private static void removeDuplicates(List<Node> terms, Kind parent, List<String> rewrites) {
+        Set<QueryCondition> seen = new HashSet<>();
+        for (Iterator<Node> it = terms.iterator(); it.hasNext(); ) {
+            Node term = it.next();
+            if (term.kind == Kind.LEAF && term.condition.getOperator() != QueryOperator.APPLY
+                    && !seen.add(term.condition)) {
+                rewrites.add("remove duplicate " + parent + " term " + describe(term));
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * {@code f = a OR f = b OR f IN (c, d)} → {@code f IN (a, b, c, d)}，合并结果放在第一次出现的位置
+     */
+    private static void mergeEqualsToIn(List<Node> branches, List<String> rewrites) {
+        Map<String, List<Integer>> byField = new LinkedHashMap<>();
+        for (int i = 0; i < branches.size(); i++) {
+            Node branch = branches.get(i);
+            boolean eq = branch.isLeaf(QueryOperator.EQ) && branch.condition.getValue() != null
+                    && !(branch.condition.getValue() instanceof Iterable);
+            boolean in = branch.isLeaf(QueryOperator.IN) && branch.condition.getValue() instanceof Iterable;
+            if (eq || in) {
+                byField.computeIfAbsent(branch.condition.getField(), key -> new ArrayList<>()).add(i);
+            }
+        }
+        Set<Integer> removed = new HashSet<>();
+        for (Map.Entry<String, List<Integer>> entry : byField.entrySet()) {
+            List<Integer> indexes = entry.getValue();
+            if (indexes.size() < 2) {
+                continue;
+            }
+            Set<Object> values = new LinkedHashSet<>();
+            for (int index : indexes) {
+                QueryCondition condition = branches.get(index).condition;
+                if (condition.getOperator() == QueryOperator.IN) {
+                    ((Iterable<?>) condition.getValue()).forEach(values::add);
+                } else {
+                    values.add(condition.getValue());
+                }
+            }
+            if (values.stream().map(value -> value == null ? null : value.getClass()).distinct().count() > 1) {
+                // 混合类型的值无法作为一个集合参数绑定
+                continue;
+            }
+            rewrites.add("merge " + indexes.size() + " OR terms on '" + entry.getKey() + "' into IN " + values);
+            branches.set(indexes.get(0),
+                    Node.leaf(new QueryCondition(entry.getKey(), QueryOperator.IN, new ArrayList<>(values))));
+            removed.addAll(indexes.subList(1, indexes.size()));
+        }
+        for (int i = branches.size() - 1; i >= 0; i--) {
+            if (removed.contains(i)) {
+                branches.remove(i);
+            }
+        }
+    }
+
+    // ==================== 同一字段的条件推理 ====================
+
+    /** 同一字段在一个 AND 中的全部条件 */
+    private static Map<String, List<Node>> groupByField(List<Node> terms) {
+        Map<String, List<Node>> byField = new LinkedHashMap<>();
+        for (Node term : terms) {
+            if (term.kind == Kind.LEAF && term.condition.getField() != null && !term.condition.getField().isEmpty()
+                    && ConditionTree.isPredicate(term.condition.getOperator())) {
+                byField.computeIfAbsent(term.condition.getField(), key -> new ArrayList<>()).add(term);
+            }
+        }
+        return byField;
+    }
+
+    /**
+     * 查找 AND 中的矛盾，返回描述，没有矛盾时返回 null
+     */
+    private static String findContradiction(List<Node> terms) {
+        for (Map.Entry<String, List<Node>> entry : groupByField(terms).entrySet()) {
+            String field = entry.getKey();
+            boolean isNull = false;
+            boolean constrained = false;
+            Object equal = null;
+            Range range = new Range();
+            List<QueryCondition> others = new ArrayList<>();
+            for (Node term : entry.getValue()) {
+                QueryCondition condition = term.condition;
+                switch (condition.getOperator()) {
+                    case IS_NULL:
+                        isNull = true;
+                        continue;
+                    case IS_NOT_NULL:
+                        constrained = true;
+                        continue;
+                    case EQ:
+                        constrained = true;
+                        if (isComparableForEquality(condition.getValue())) {
+                            if (equal != null && equalValues(equal, condition.getValue()) == Boolean.FALSE) {
+                                return "'" + field + "' = " + equal + " AND '" + field + "' = " + condition.getValue();
+                            }
+                            equal = condition.getValue();
+                        }
+                        continue;
+                    case NE:
+                    case IN:
+                        constrained = true;
+                        others.add(condition);
+                        continue;
+                    default:
+                        constrained |= condition.getOperator() != QueryOperator.NOT_IN
+                                && condition.getOperator() != QueryOperator.NOT_BETWEEN;
+                        range.add(condition);
+                }
+            }
+            if (isNull && constrained) {
+                return "'" + field + "' IS NULL conflicts with other conditions on it";
+            }
+            if (range.isEmpty()) {
+                return "'" + field + "' range " + range;
+            }
+            if (equal != null) {
+                if (!range.contains(equal)) {
+                    return "'" + field + "' = " + equal + " outside range " + range;
+                }
+                for (QueryCondition other : others) {
+                    if (other.getOperator() == QueryOperator.NE && equalValues(equal, other.getValue()) == Boolean.TRUE) {
+                        return "'" + field + "' = " + equal + " AND '" + field + "' <> " + equal;
+                    }
+                    if (other.getOperator() == QueryOperator.IN && other.getValue() instanceof Iterable
+                            && excludes((Iterable<?>) other.getValue(), equal)) {
+                        return "'" + field + "' = " + equal + " not in " + other.getValue();
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 同一字段的多个区间条件合并为最紧的上下界，闭区间写为 BETWEEN
+     */
+    private static void foldRanges(List<Node> terms, List<String> rewrites) {
+        for (Map.Entry<String, List<Node>> entry : groupByField(terms).entrySet()) {
+            List<Node> bounds = new ArrayList<>();
+            Range range = new Range();
+            for (Node term : entry.getValue()) {
+                if (Range.isBound(term.condition.getOperator())) {
+                    bounds.add(term);
+                    range.add(term.condition);
+                }
+            }
+            if (bounds.size() < 2 || !range.isFoldable()) {
+                continue;
+            }
+            List<Node> folded = range.toNodes(entry.getKey());
+            if (folded.size() >= bounds.size()) {
+                continue;
+            }
+            rewrites.add("fold " + bounds.size() + " range terms on '" + entry.getKey() + "' into " + range);
+            int position = terms.indexOf(bounds.get(0));
+            terms.removeAll(bounds);
+            terms.addAll(position, folded);
+        }
+    }
+
+    /** 一个字段的上下界 */
+    private static final class Range {
+        private Object lower;
+        private boolean lowerInclusive;
+        private Object upper;
+        private boolean upperInclusive;
+        /** 出现了无法比较的边界，不做推理 */
+        private boolean opaque;
+
+        static boolean isBound(QueryOperator operator) {
+            switch (operator) {
+                case GT:
+                case GE:
+                case LT:
+                case LE:
+                case BETWEEN:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        void add(QueryCondition condition) {
+            QueryOperator operator = condition.getOperator();
+            if (!isBound(operator)) {
+                return;
+            }
+            if (operator == QueryOperator.BETWEEN) {
+                Object[] pair = pair(condition.getValue());
+                if (pair == null) {
+                    opaque = true;
+                    return;
+                }
+                addLower(pair[0], true);
+                addUpper(pair[1], true);
+            } else if (operator == QueryOperator.GT || operator == QueryOperator.GE) {
+                addLower(condition.getValue(), operator == QueryOperator.GE);
+            } else {
+                addUpper(condition.getValue(), operator == QueryOperator.LE);
+            }
+        }
+
+        private void addLower(Object value, boolean inclusive) {
+            if (!isOrdered(value) || (lower != null && compareOrdered(lower, value) == null)) {
+                opaque = true;
+                return;
+            }
+            int order = lower == null ? -1 : compareOrdered(lower, value);
+            if (order < 0 || (order == 0 && !inclusive)) {
+                lower = value;
+                lowerInclusive = inclusive;
+            }
+        }
+
+        private void addUpper(Object value, boolean inclusive) {
+            if (!isOrdered(value) || (upper != null && compareOrdered(upper, value) == null)) {
+                opaque = true;
+                return;
+            }
+            int order = upper == null ? 1 : compareOrdered(upper, value);
+            if (order > 0 || (order == 0 && !inclusive)) {
+                upper = value;
+                upperInclusive = inclusive;
+            }
+        }
+
+        boolean isFoldable() {
+            return !opaque && (lower == null || upper == null || compareOrdered(lower, upper) != null);
+        }
+
+        /** 上下界确定且不可能有值满足 */
+        boolean isEmpty() {
+            if (!isFoldable() || lower == null || upper == null) {
+                return false;
+            }
+            int order = compareOrdered(lower, upper);
+            return order > 0 || (order == 0 && !(lowerInclusive && upperInclusive));
+        }
+
+        boolean contains(Object value) {
+            if (opaque) {
+                return true;
+            }
+            Integer low = lower == null ? Integer.valueOf(-1) : compareOrdered(lower, value);
+            Integer high = upper == null ? Integer.valueOf(1) : compareOrdered(upper, value);
+            if (low == null || high == null) {
+                return true;
+            }
+            return (low < 0 || (low == 0 && lowerInclusive)) && (high > 0 || (high == 0 && upperInclusive));
+        }
+
+        List<Node> toNodes(String field) {
+            if (lower != null && upper != null && lowerInclusive && upperInclusive) {
+                if (compareOrdered(lower, upper) == 0) {
+                    return List.of(Node.leaf(new QueryCondition(field, QueryOperator.EQ, lower)));
+                }
+                return List.of(Node.leaf(new QueryCondition(field, QueryOperator.BETWEEN, List.of(lower, upper))));
+            }
+            List<Node> nodes = new ArrayList<>(2);
+            if (lower != null) {
+                nodes.add(Node.leaf(new QueryCondition(field,
+                        lowerInclusive ? QueryOperator.GE : QueryOperator.GT, lower)));
+            }
+            if (upper != null) {
+                nodes.add(Node.leaf(new QueryCondition(field,
+                        upperInclusive ? QueryOperator.LE : QueryOperator.LT, upper)));
+            }
+            return nodes;
+        }
+
+        @Override
+        public String toString() {
+            return (lower == null ? "(-inf" : (lowerInclusive ? "[" : "(") + lower) + ", "
+                    + (upper == null ? "+inf)" : upper + (upperInclusive ? "]" : ")"));
+        }
+    }
+
+    /** 比较语义与数据库一致、可以做区间推理的值 */
+    private static boolean isOrdered(Object value) {
+        return value instanceof Number || value instanceof Temporal || value instanceof Date;
+    }
+
+    private static boolean isComparableForEquality(Object value) {
+        return isOrdered(value) || value instanceof Boolean || value instanceof Enum;
+    }
+
+    /** 同类型可排序值的比较结果，不可比较时返回 null */
+    @SuppressWarnings("unchecked")
+    private static Integer compareOrdered(Object left, Object right) {
+        if (!isOrdered(left) || !isOrdered(right) || left.getClass() != right.getClass()
+                || !(left instanceof Comparable)) {
+            return null;
+        }
+        return ((Comparable<Object>) left).compareTo(right);
+    }
+
+    /**
+     * 判断两个值是否相等，无法确定时（如 Integer 与 Long、字符串）返回 null，避免误判矛盾
+     */
+    private static Boolean equalValues(Object left, Object right) {
+        if (right == null || left.getClass() != right.getClass() || !isComparableForEquality(right)) {
+            return null;
+        }
+        Integer order = compareOrdered(left, right);
+        return order != null ? order == 0 : left.equals(right);
+    }
+
+    /** 集合中的每个值都确定不等于给定值 */
+    private static boolean excludes(Iterable<?> values, Object value) {
+        for (Object candidate : values) {
+            if (equalValues(value, candidate) != Boolean.FALSE) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** BETWEEN 的两个端点，格式不符时返回 null */
+    private static Object[] pair(Object value) {
+        if (!(value instanceof Iterable)) {
+            return null;
+        }
+        Iterator<?> it = ((Iterable<?>) value).iterator();
+        Object[] pair = new Object[2];
+        for (int i = 0; i < 2; i++) {
+            if (!it.hasNext()) {
+                return null;
+            }
+            pair[i] = it.next();
+        }
+        return it.hasNext() ? null : pair;
+    }
+
+    // ==================== 重建包装器 ====================
+
+    private static <T> void appendWhere(LambdaQueryWrapper<T> wrapper, Node node) {
+        if (node.kind == Kind.TRUE || node.kind == Kind.TAUTOLOGY) {
+            return;
+        }
+        if (node.kind == Kind.AND) {
+            node.children.forEach(child -> appendTerm(wrapper, child));
+        } else if (node.kind == Kind.OR) {
+            for (int i = 0; i < node.children.size(); i++) {
+                if (i > 0) {
+                    wrapper.or();
+                }
+                Node branch = node.children.get(i);
+                if (branch.kind == Kind.AND) {
+                    branch.children.forEach(child -> appendTerm(wrapper, child));
+                } else {
+                    appendTerm(wrapper, branch);
+                }
+            }
+        } else {
+            appendTerm(wrapper, node);
+        }
+    }
+
+    private static <T> void appendTerm(LambdaQueryWrapper<T> wrapper, Node node) {
+        switch (node.kind) {
+            case LEAF:
+                wrapper.addCondition(node.condition);
+                break;
+            case NOT:
+                wrapper.not(nested(wrapper, node.children.get(0)));
+                break;
+            default:
+                wrapper.nest(nested(wrapper, node));
+        }
+    }
+
+    private static <T> LambdaQueryWrapper<T> nested(LambdaQueryWrapper<T> parent, Node node) {
+        LambdaQueryWrapper<T> nested = new LambdaQueryWrapper<>(parent.getEntityClass());
+        appendWhere(nested, node);
+        return nested;
+    }
+
+    private static String describe(Node node) {
+        switch (node.kind) {
+            case LEAF:
+                QueryCondition condition = node.condition;
+                return "'" + condition.getField() + "' " + condition.getOperator() + " " + condition.getValue();
+            case NOT:
+                return "NOT (" + describe(node.children.get(0)) + ")";
+            case AND:
+            case OR:
+                StringBuilder sb = new StringBuilder("(");
+                for (int i = 0; i < node.children.size(); i++) {
+                    if (i > 0) {
+                        sb.append(' ').append(node.kind).append(' ');
+                    }
+                    sb.append(describe(node.children.get(i)));
+                }
+                return sb.append(')').toString();
+            default:
+                return node.kind.name();
+        }
+    }
+
+    /**
+     * 改写结果
+     * 
+     * @param <T> 实体类型
+     */
+    public static final class Result<T> {
+        private final LambdaQueryWrapper<T> wrapper;
+        private final boolean alwaysFalse;
+        private final List<String> rewrites;
+
+        private Result(LambdaQueryWrapper<T> wrapper, boolean alwaysFalse, List<String> rewrites) {
+            this.wrapper = wrapper;
+            this.alwaysFalse = alwaysFalse;
+            this.rewrites = rewrites;
+        }
+
+        /**
+         * 获取改写后的包装器，没有改写时为原包装器
+         * 
+         * @return 查询包装器
+         */
+        public LambdaQueryWrapper<T> getWrapper() {
+            return wrapper;
+        }
+
+        /**
+         * 条件是否恒假，恒假时查询结果必然为空，不需要访问数据库
+         * 
+         * @return 是否恒假
+         */
+        public boolean isAlwaysFalse() {
+            return alwaysFalse;
+        }
+
+        /**
+         * 是否发生了改写
+         * 
+         * @return 是否改写
+         */
+        public boolean isRewritten() {
+            return !rewrites.isEmpty();
+        }
+
+        /**
+         * 获取按发生顺序记录的改写说明
+         * 
+         * @return 改写说明
+         */
+        public List<String> getRewrites() {
+            return rewrites;
+        }
+    }
+}
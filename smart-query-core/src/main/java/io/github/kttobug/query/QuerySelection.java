@@ -0,0 +1,134 @@
+package io.github.kttobug.query;
+
+import java.util.Objects;
+
+/**
+ * 投影查询中的一列：实体属性路径或其聚合值，以及列别名。
+ *
+ * <p>别名决定结果列的名称，映射到 record、接口或 DTO 时按别名匹配组件、方法或属性。
+ * 未指定别名时取属性路径的驼峰形式，如 {@code customer.region} 的别名为 {@code customerRegion}；
+ * 聚合列在前面加上函数名，如 {@code sumAmount}、{@code countDistinctCustomerId}，{@code COUNT(*)} 为 {@code count}。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class QuerySelection {
+
+    /** 属性路径，{@code COUNT(*)} 为 null */
+    private final String field;
+
+    /** 聚合函数，普通列为 null */
+    private final AggregateFunction function;
+
+    /** 列别名 */
+    private final String alias;
+
+    /**
+     * 构造函数
+     *
+     * @param field 属性路径
+     * @param alias 列别名，为 null 时取属性路径的驼峰形式
+     */
+    public QuerySelection(String field, String alias) {
+        this(field, null, alias);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param field 属性路径，{@code COUNT(*)} 时为 null
+     * @param function 聚合函数，普通列为 null
+     * @param alias 列别名，为 null 时按属性路径和函数生成
+     * @throws NullPointerException 非 {@code COUNT} 的列没有属性路径
+     */
+    public QuerySelection(String field, AggregateFunction function, String alias) {
+        if (function != AggregateFunction.COUNT) {
+            Objects.requireNonNull(field, "field");
+        }
+        this.field = field;
+        this.function = function;
+        this.alias = alias != null ? alias : defaultAlias(field, function);
+    }
+
+    /**
+     * 获取属性路径
+     *
+     * @return 属性路径
+     */
+    public String getField() {
+        return field;
+    }
+
+    /**
+     * 获取聚合函数
+     *
+     * @return 聚合函数，普通列为 null
+     */
+    public AggregateFunction getFunction() {
+        return function;
+    }
+
+    /**
+     * 是否为聚合列
+     *
+     * @return 有聚合函数时返回 true
+     */
+    public boolean isAggregate() {
+        return function != null;
+    }
+
+    /**
+     * 获取列别名
+     *
+     * @return 列别名
+     */
+    public String getAlias() {
+        return alias;
+    }
+
+    private static String defaultAlias(String field, AggregateFunction function) {
+        StringBuilder alias = new StringBuilder();
+        if (function != null) {
+            // COUNT_DISTINCT -> countDistinct
+            String name = function.name();
+            for (int i = 0; i < name.length(); i++) {
+                char c = name.charAt(i);
+                if (c != '_') {
+                    alias.append(i > 0 && name.charAt(i - 1) == '_' ? c : Character.toLowerCase(c));
+                }
+            }
+        }
+        if (field != null) {
+            for (int i = 0; i < field.length(); i++) {
+                char c = field.charAt(i);
+                if (c != '.') {
+                    boolean wordStart = i == 0 ? alias.length() > 0 : field.charAt(i - 1) == '.';
+                    alias.append(wordStart ? Character.toUpperCase(c) : c);
+                }
+            }
+        }
+        return alias.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "QuerySelection{" +
+                "field='" + field + '\'' +
+                ", function=" + function +
+                ", alias='" + alias + '\'' +
+                '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        QuerySelection that = (QuerySelection) o;
+        return Objects.equals(field, that.field) && function == that.function && alias.equals(that.alias);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, function, alias);
+    }
+}
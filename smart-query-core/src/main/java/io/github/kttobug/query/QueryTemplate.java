@@ -0,0 +1,307 @@
+package io.github.kttobug.query;
+
+import io.github.kttobug.query.util.QueryShape;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 不可变的查询模板，由 {@link LambdaQueryWrapper#freeze()} 生成。
+ * 
+ * <p>模板在创建时完成字段解析并固定查询结构，之后不可修改，可以保存在
+ * {@code static final} 字段中被多个线程并发使用。每次执行通过 {@link #bind(String, Object)}
+ * 按绑定槽名称替换条件值，得到的 {@link BoundQuery} 只持有一个值数组。</p>
+ * 
+ * <p>绑定槽默认以字段名命名；同一字段出现多次时需要在构建时用
+ * {@link LambdaQueryWrapper#named(String)} 显式命名，否则按字段名绑定会抛出异常。
+ * 只有带比较值的条件（比较、模糊、IN、BETWEEN）才有绑定槽。</p>
+ * 
+ * <p>使用示例：</p>
+ * <pre>{@code
+ * static final QueryTemplate<User> ACTIVE_IN_DEPT = LambdaQueryWrapper.of(User.class)
+ *     .eq(User::getStatus, 1)
+ *     .eq(User::getDepartment, "").named("dept")
+ *     .orderByDesc(User::getCreateTime)
+ *     .freeze();
+ * 
+ * List<User> users = ACTIVE_IN_DEPT.bind("dept", "研发部").list(userRepository);
+ * }</pre>
+ * 
+ * <p>嵌套查询（{@link LambdaQueryWrapper#nest}）按引用保存，冻结后不应再修改被嵌套的包装器。</p>
+ * 
+ * @param <T> 实体类型
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class QueryTemplate<T> {
+
+    /** 名称对应多个槽时的标记 */
+    private static final int AMBIGUOUS = -1;
+
+    private final Class<T> entityClass;
+
+    private final List<QueryCondition> conditions;
+
+    private final List<JoinCondition> joinConditions;
+
+    private final List<QueryFetch> fetches;
+
+    private final List<String> preloads;
+
+    /** 条件默认值，按条件下标排列 */
+    private final Object[] values;
+
+    /** 每个条件的结构哈希，绑定值改变结构时用于重算形状 */
+    private final long[] conditionHashes;
+
+    private final long seed;
+
+    private final long joinShape;
+
+    private final long shapeId;
+
+    /** 按默认值计算的结构键 */
+    private final QueryShape.Key shapeKey;
+
+    /** 每个条件值的结构，绑定值改变结构时用于重算结构键 */
+    private final Object[] valueKeys;
+
+    /** 槽名到条件下标 */
+    private final Map<String, Integer> slots;
+
+    QueryTemplate(Class<T> entityClass, List<QueryCondition> conditions, Map<Integer, String> slotNames,
+                  List<JoinCondition> joinConditions, List<QueryFetch> fetches, List<String> preloads,
+                  long joinShape) {
+        this.entityClass = entityClass;
+        this.conditions = List.copyOf(conditions);
+        this.joinConditions = List.copyOf(joinConditions);
+        this.fetches = List.copyOf(fetches);
+        this.preloads = List.copyOf(preloads);
+        this.values = new Object[conditions.size()];
+        this.conditionHashes = new long[conditions.size()];
+        this.valueKeys = new Object[conditions.size()];
+        this.seed = QueryShape.seed(entityClass);
+        this.joinShape = joinShape;
+
+        Map<String, Integer> slots = new HashMap<>();
+        for (int i = 0; i < conditions.size(); i++) {
+            QueryCondition condition = conditions.get(i);
+            values[i] = condition.getValue();
+            conditionHashes[i] = QueryShape.conditionHash(condition.getField(), condition.getOperator(), condition.getValue());
+            valueKeys[i] = QueryShape.valueKey(condition.getOperator(), condition.getValue());
+            if (isBindable(condition.getOperator()) && (slotNames == null || !slotNames.containsKey(i))) {
+                slots.merge(condition.getField(), i, (existing, index) -> AMBIGUOUS);
+            }
+        }
+        // 显式命名优先于字段名
+        if (slotNames != null) {
+            Set<String> explicitNames = new HashSet<>();
+            for (Map.Entry<Integer, String> entry : slotNames.entrySet()) {
+                if (!explicitNames.add(entry.getValue())) {
+                    throw new IllegalStateException("Duplicate bind slot name: " + entry.getValue());
+                }
+                slots.put(entry.getValue(), entry.getKey());
+            }
+        }
+        this.slots = Map.copyOf(slots);
+        this.shapeId = shapeOf(conditionHashes);
+        this.shapeKey = keyOf(shapeId, values);
+    }
+
+    /**
+     * 条件是否带有可绑定的比较值
+     * 
+     * @param operator 操作符
+     * @return 是否可绑定
+     */
+    static boolean isBindable(QueryOperator operator) {
+        switch (operator) {
+            case EQ:
+            case NE:
+            case GT:
+            case GE:
+            case LT:
+            case LE:
+            case LIKE:
+            case LEFT_LIKE:
+            case RIGHT_LIKE:
+            case IN:
+            case NOT_IN:
+            case BETWEEN:
+            case NOT_BETWEEN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 绑定一个槽的值，返回本次执行专用的绑定查询
+     * 
+     * @param name 槽名，默认为字段名
+     * @param value 绑定值
+     * @return 绑定查询
+     * @throws IllegalArgumentException 槽不存在或名称对应多个条件
+     */
+    public BoundQuery<T> bind(String name, Object value) {
+        return new BoundQuery<>(this).bind(name, value);
+    }
+
+    /**
+     * 不替换任何值，按模板默认值得到绑定查询
+     * 
+     * @return 绑定查询
+     */
+    public BoundQuery<T> bound() {
+        return new BoundQuery<>(this);
+    }
+
+    /**
+     * 按模板默认值查询列表
+     * 
+     * @param executor 查询执行器，通常是仓库
+     * @return 查询结果列表
+     */
+    public List<T> list(BoundQueryExecutor<T> executor) {
+        return executor.list(bound());
+    }
+
+    /**
+     * 按模板默认值计数
+     * 
+     * @param executor 查询执行器，通常是仓库
+     * @return 结果数量
+     */
+    public long count(BoundQueryExecutor<T> executor) {
+        return executor.count(bound());
+    }
+
+    int slotIndex(String name) {
+        Integer index = slots.get(name);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown bind slot '" + name + "' on template for " + entityClass.getName());
+        }
+        if (index == AMBIGUOUS) {
+            throw new IllegalArgumentException("Bind slot '" + name
+                    + "' matches several conditions, name them with LambdaQueryWrapper.named()");
+        }
+        return index;
+    }
+
+    /**
+     * 计算替换绑定值后的形状，只在值改变了条件结构（如 IN 列表长度档位）时重算
+     */
+    long shapeOf(Object[] boundValues) {
+        long[] hashes = null;
+        for (int i = 0; i < boundValues.length; i++) {
+            if (boundValues[i] != values[i]) {
+                QueryCondition condition = conditions.get(i);
+                long hash = QueryShape.conditionHash(condition.getField(), condition.getOperator(), boundValues[i]);
+                if (hash != conditionHashes[i]) {
+                    if (hashes == null) {
+                        hashes = conditionHashes.clone();
+                    }
+                    hashes[i] = hash;
+                }
+            }
+        }
+        return hashes == null ? shapeId : shapeOf(hashes);
+    }
+
+    /**
+     * 计算替换绑定值后的结构键，只在值改变了条件结构时重新生成
+     */
+    QueryShape.Key shapeKeyOf(Object[] boundValues) {
+        for (int i = 0; i < boundValues.length; i++) {
+            if (boundValues[i] != values[i]
+                    && !Objects.equals(QueryShape.valueKey(conditions.get(i).getOperator(), boundValues[i]), valueKeys[i])) {
+                return keyOf(shapeOf(boundValues), boundValues);
+            }
+        }
+        return shapeKey;
+    }
+
+    private QueryShape.Key keyOf(long id, Object[] conditionValues) {
+        return QueryShape.key(id, entityClass, conditions.size(), index -> conditions.get(index).getOperator(),
+                index -> conditions.get(index).getField(), index -> conditionValues[index], joinConditions, fetches);
+    }
+
+    private long shapeOf(long[] hashes) {
+        long conditionShape = QueryShape.EMPTY;
+        for (long hash : hashes) {
+            conditionShape = QueryShape.mix(conditionShape, hash);
+        }
+        return QueryShape.mix(QueryShape.mix(seed, conditionShape), joinShape);
+    }
+
+    Object[] copyValues() {
+        return values.clone();
+    }
+
+    /**
+     * 获取实体类
+     * 
+     * @return 实体类
+     */
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * 获取模板条件（按默认值），不可修改
+     * 
+     * @return 条件列表
+     */
+    public List<QueryCondition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * 获取 JOIN 条件，不可修改
+     * 
+     * @return JOIN 条件列表
+     */
+    public List<JoinCondition> getJoinConditions() {
+        return joinConditions;
+    }
+
+    /**
+     * 获取随结果加载的关联，不可修改
+     * 
+     * @return 关联加载列表
+     */
+    public List<QueryFetch> getFetches() {
+        return fetches;
+    }
+
+    /**
+     * 获取查询之后批量加载的关联路径，不可修改
+     * 
+     * @return 关联路径列表
+     */
+    public List<String> getPreloads() {
+        return preloads;
+    }
+
+    /**
+     * 获取按默认值计算的形状指纹，与冻结前包装器的 {@link LambdaQueryWrapper#getShapeId()} 相同
+     * 
+     * @return 形状指纹
+     */
+    public long getShapeId() {
+        return shapeId;
+    }
+
+    /**
+     * 获取按默认值计算的结构键，与冻结前包装器的 {@link LambdaQueryWrapper#getShapeKey()} 相等
+     * 
+     * @return 结构键
+     */
+    public QueryShape.Key getShapeKey() {
+        return shapeKey;
+    }
+}
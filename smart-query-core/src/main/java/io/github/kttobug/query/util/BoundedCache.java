@@ -0,0 +1,224 @@
+package io.github.kttobug.query.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 容量受限的近似 LRU 缓存，带命中、未命中和淘汰计数。
+ * 
+ * <p>基于 {@link ConcurrentHashMap}，命中路径不加锁，可被大量线程并发读取。
+ * 每个条目记录最近访问的逻辑时钟，超出容量时淘汰时钟最小的条目；淘汰需要扫描全部条目，
+ * 只发生在未命中写入时。未命中时的加载函数在锁外执行，并发加载同一个键时以先写入者为准。
+ * 适合键空间有限、加载开销远大于查找开销的场景，例如按查询形状缓存编译好的查询。</p>
+ * 
+ * @param <K> 键类型
+ * @param <V> 值类型
+ * @author kttobug
+ * @since 1.1.0
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /** 逻辑时钟，只在写入或访问非最新条目时前进 */
+    private final AtomicLong clock = new AtomicLong();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * 创建缓存
+     * 
+     * @param maxSize 最大条目数，必须大于 0
+     */
+    public BoundedCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 获取缓存值，未命中时调用加载函数并写入缓存
+     * 
+     * @param key 键
+     * @param loader 加载函数，不能返回 null
+     * @return 缓存值
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            hitCount.increment();
+            touch(entry);
+            return entry.value;
+        }
+        missCount.increment();
+        Entry<V> loaded = new Entry<>(loader.apply(key), clock.incrementAndGet());
+        Entry<V> existing = entries.putIfAbsent(key, loaded);
+        if (existing != null) {
+            return existing.value;
+        }
+        if (entries.size() > maxSize) {
+            evict();
+        }
+        return loaded.value;
+    }
+
+    private void touch(Entry<V> entry) {
+        // 热点条目已是最新时不写共享状态，避免并发命中时争用时钟
+        if (entry.lastAccess != clock.get()) {
+            entry.lastAccess = clock.incrementAndGet();
+        }
+    }
+
+    private synchronized void evict() {
+        while (entries.size() > maxSize) {
+            K eldestKey = null;
+            long eldestAccess = Long.MAX_VALUE;
+            for (Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+                if (candidate.getValue().lastAccess < eldestAccess) {
+                    eldestAccess = candidate.getValue().lastAccess;
+                    eldestKey = candidate.getKey();
+                }
+            }
+            if (eldestKey == null || entries.remove(eldestKey) == null) {
+                return;
+            }
+            evictionCount.increment();
+        }
+    }
+
+    /**
+     * 获取缓存值，不触发加载，也不计入统计；命中时刷新条目的访问时间
+     * 
+     * @param key 键
+     * @return 缓存值，不存在时返回 null
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        touch(entry);
+        return entry.value;
+    }
+
+    /**
+     * 写入或替换缓存值，不计入统计
+     * 
+     * @param key 键
+     * @param value 值，不能为 null
+     * @since 1.1.0
+     */
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value, clock.incrementAndGet()));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    /**
+     * 移除一个条目
+     * 
+     * @param key 键
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * 清空缓存，统计计数保留
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 当前条目数
+     * 
+     * @return 条目数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 获取缓存统计信息快照
+     * 
+     * @return 统计信息
+     */
+    public CacheStatistics getStatistics() {
+        return new CacheStatistics(hitCount.sum(), missCount.sum(), evictionCount.sum(), size(), maxSize);
+    }
+
+    /**
+     * 缓存统计信息数据类
+     */
+    public static class CacheStatistics {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+        private final int maxSize;
+
+        public CacheStatistics(long hitCount, long missCount, long evictionCount, int size, int maxSize) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public double getHitRate() {
+            long total = hitCount + missCount;
+            return total > 0 ? (double) hitCount / total : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "CacheStatistics{" +
+                    "hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", evictionCount=" + evictionCount +
+                    ", size=" + size +
+                    ", maxSize=" + maxSize +
+                    '}';
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private volatile long lastAccess;
+
+        Entry(V value, long lastAccess) {
+            this.value = value;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
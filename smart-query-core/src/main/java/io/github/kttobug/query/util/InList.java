@@ -0,0 +1,74 @@
+package io.github.kttobug.query.util;
+
+import java.util.List;
+
+/**
+ * 按 {@link InListStrategy} 整理后的 IN 列表：若干连续区间加剩余的离散值。
+ * 
+ * <p>区间以 {@code BETWEEN} 查询，离散值以 {@code IN} 查询，两者之间为 OR 关系。
+ * {@link #getLayout()} 只由区间个数和是否有离散值决定，执行器把它并入计划缓存键。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class InList {
+
+    private static final Object[] NO_RANGES = new Object[0];
+
+    /** 区间上下界，依次为第 0 个区间的下界、上界，第 1 个区间的下界、上界…… */
+    private final Object[] rangeBounds;
+
+    /** 离散值 */
+    private final List<Object> values;
+
+    InList(Object[] rangeBounds, List<Object> values) {
+        this.rangeBounds = rangeBounds == null ? NO_RANGES : rangeBounds;
+        this.values = values;
+    }
+
+    /**
+     * 获取区间个数
+     * 
+     * @return 区间个数
+     */
+    public int getRangeCount() {
+        return rangeBounds.length >> 1;
+    }
+
+    /**
+     * 获取区间边界，偶数下标为下界，奇数下标为上界
+     * 
+     * @param index 边界下标，范围 {@code [0, 2 * getRangeCount())}
+     * @return 边界值
+     */
+    public Object getRangeBound(int index) {
+        return rangeBounds[index];
+    }
+
+    /**
+     * 获取离散值，不可修改
+     * 
+     * @return 离散值列表
+     */
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * 是否既没有区间也没有离散值
+     * 
+     * @return 是否为空
+     */
+    public boolean isEmpty() {
+        return rangeBounds.length == 0 && values.isEmpty();
+    }
+
+    /**
+     * 获取结构布局：区间个数与是否有离散值，与具体取值和离散值个数无关
+     * 
+     * @return 布局哈希
+     */
+    public long getLayout() {
+        return QueryShape.mix(getRangeCount(), values.isEmpty() ? 0 : 1);
+    }
+}
@@ -0,0 +1,348 @@
+package io.github.kttobug.query.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * IN 列表整理策略。
+ * 
+ * <p>IN 列表的每种长度都会生成一条不同的 SQL，数据库和 Hibernate 的语句缓存随之膨胀。
+ * 本策略在绑定参数前整理列表：</p>
+ * <ul>
+ *   <li>去重：重复值不改变结果，只占用绑定参数；</li>
+ *   <li>补齐：以最后一个值重复填充到 {@link QueryShape#inListBucket(int)} 档位，
+ *       任意长度的列表只产生对数级的 SQL 种类；</li>
+ *   <li>区间压缩（可选）：整数值中连续的一段改写为 {@code BETWEEN}，
+ *       适合按自增主键批量查询的场景。区间个数同样按 2 的幂补齐。</li>
+ * </ul>
+ * 
+ * <p>超大列表还受驱动参数个数上限的约束。超过 {@link #getChunkSize()} 的 IN 列表
+ * 被拆成多条语句分批执行，结果在内存中合并；超过临时表阈值时改为写入临时表后以子查询连接，
+ * 见 {@link #withTemporaryTable(String, int)}。</p>
+ * 
+ * <p>实例不可变，{@code with*} 方法返回新实例。</p>
+ * 
+ * <pre>{@code
+ * InListStrategy strategy = InListStrategy.defaults()
+ *     .withRangeCompaction(16)
+ *     .withChunkSize(1000)
+ *     .withParallelism(4);
+ * }</pre>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class InListStrategy {
+
+    /** 默认每条语句的最大 IN 值个数 */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    /** 不做任何整理，列表原样绑定 */
+    public static final InListStrategy NONE = new InListStrategy(false, false, 0, 0, 1, null, 0);
+
+    private static final InListStrategy DEFAULTS = new InListStrategy(true, true, 0, DEFAULT_CHUNK_SIZE, 1, null, 0);
+
+    private static final Comparator<Object> INTEGRAL_ORDER = Comparator.comparingLong(value -> ((Number) value).longValue());
+
+    /** 临时表名会拼入 SQL，只接受普通标识符 */
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_$]*(\\.[A-Za-z_][A-Za-z0-9_$]*)?");
+
+    private final boolean padding;
+
+    private final boolean deduplication;
+
+    /** 改写为区间的最短连续长度，0 表示不压缩 */
+    private final int minRangeLength;
+
+    /** 每条语句的最大 IN 值个数，0 表示不拆分 */
+    private final int chunkSize;
+
+    /** 分批执行时的最大并发语句数 */
+    private final int parallelism;
+
+    private final String temporaryTable;
+
+    /** 改用临时表的最小值个数，0 表示不使用临时表 */
+    private final int temporaryTableThreshold;
+
+    private InListStrategy(boolean padding, boolean deduplication, int minRangeLength, int chunkSize,
+                           int parallelism, String temporaryTable, int temporaryTableThreshold) {
+        this.padding = padding;
+        this.deduplication = deduplication;
+        this.minRangeLength = minRangeLength;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.temporaryTable = temporaryTable;
+        this.temporaryTableThreshold = temporaryTableThreshold;
+    }
+
+    /**
+     * 默认策略：去重并补齐，超过 {@value #DEFAULT_CHUNK_SIZE} 个值时顺序分批执行，不做区间压缩
+     * 
+     * @return 默认策略
+     */
+    public static InListStrategy defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * 设置是否补齐到长度档位
+     * 
+     * @param padding 是否补齐
+     * @return 新策略
+     */
+    public InListStrategy withPadding(boolean padding) {
+        return new InListStrategy(padding, deduplication, minRangeLength, chunkSize,
+                parallelism, temporaryTable, temporaryTableThreshold);
+    }
+
+    /**
+     * 设置是否去重
+     * 
+     * @param deduplication 是否去重
+     * @return 新策略
+     */
+    public InListStrategy withDeduplication(boolean deduplication) {
+        return new InListStrategy(padding, deduplication, minRangeLength, chunkSize,
+                parallelism, temporaryTable, temporaryTableThreshold);
+    }
+
+    /**
+     * 启用区间压缩：长度不小于 {@code minRangeLength} 的连续整数改写为 BETWEEN。
+     * 压缩隐含去重；传入 0 关闭压缩。
+     * 
+     * @param minRangeLength 最短连续长度，0 或不小于 2
+     * @return 新策略
+     * @throws IllegalArgumentException 长度为负数或 1
+     */
+    public InListStrategy withRangeCompaction(int minRangeLength) {
+        if (minRangeLength < 0 || minRangeLength == 1) {
+            throw new IllegalArgumentException("minRangeLength must be 0 or at least 2: " + minRangeLength);
+        }
+        return new InListStrategy(padding, deduplication, minRangeLength, chunkSize,
+                parallelism, temporaryTable, temporaryTableThreshold);
+    }
+
+    /**
+     * 设置每条语句的最大 IN 值个数，超过时拆成多条语句执行。补齐不会超过该值；
+     * 传入 0 不拆分。
+     * 
+     * <p>只拆分处于顶层 AND 中、值最多的一个 IN 条件，NOT IN 不拆分。
+     * 排序和分页在合并结果时于内存中重新应用。</p>
+     * 
+     * @param chunkSize 最大值个数，0 或正数
+     * @return 新策略
+     * @throws IllegalArgumentException 值为负数
+     */
+    public InListStrategy withChunkSize(int chunkSize) {
+        if (chunkSize < 0) {
+            throw new IllegalArgumentException("chunkSize must not be negative: " + chunkSize);
+        }
+        return new InListStrategy(padding, deduplication, minRangeLength, chunkSize,
+                parallelism, temporaryTable, temporaryTableThreshold);
+    }
+
+    /**
+     * 设置分批执行的最大并发语句数。每条并发语句占用一个连接，实际并发数不超过连接池大小减一。
+     * 
+     * <p>并发执行在没有活动事务或当前事务只读时生效（包括仓库方法默认的只读事务），
+     * 各批次使用独立的 EntityManager，返回的实体处于游离状态；读写事务内始终在当前
+     * EntityManager 中顺序执行。</p>
+     * 
+     * @param parallelism 并发数，1 表示顺序执行
+     * @return 新策略
+     * @throws IllegalArgumentException 值小于 1
+     */
+    public InListStrategy withParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        return new InListStrategy(padding, deduplication, minRangeLength, chunkSize,
+                parallelism, temporaryTable, temporaryTableThreshold);
+    }
+
+    /**
+     * 值个数不少于 {@code threshold} 的 IN / NOT IN 列表写入临时表，以子查询代替绑定参数。
+     * 
+     * <p>表需预先建好，包含 {@code batch_id}（整数）与 {@code item_value}（与字段类型兼容）两列，
+     * 例如：</p>
+     * <pre>{@code
+     * CREATE GLOBAL TEMPORARY TABLE smart_query_in_values (
+     *     batch_id BIGINT NOT NULL,
+     *     item_value BIGINT
+     * ) ON COMMIT DELETE ROWS;
+     * }</pre>
+     * 
+     * <p>写入、查询、清理必须在同一连接上完成，因此只在调用方有活动的读写事务时使用；
+     * 没有事务或事务只读（包括仓库方法默认的只读事务）时退回分批执行。需要 Hibernate 作为 JPA 实现。</p>
+     * 
+     * @param table 表名，可带 schema 前缀
+     * @param threshold 最小值个数，不小于 1
+     * @return 新策略
+     * @throws IllegalArgumentException 表名不是合法标识符或阈值小于 1
+     */
+    public InListStrategy withTemporaryTable(String table, int threshold) {
+        if (table == null || !TABLE_NAME.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid temporary table name: " + table);
+        }
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be at least 1: " + threshold);
+        }
+        return new InListStrategy(padding, deduplication, minRangeLength, chunkSize,
+                parallelism, table, threshold);
+    }
+
+    /**
+     * 是否原样绑定，不做任何整理
+     * 
+     * @return 是否为空操作
+     */
+    public boolean isIdentity() {
+        return !padding && !deduplication && minRangeLength == 0 && chunkSize == 0 && temporaryTable == null;
+    }
+
+    public boolean isPadding() {
+        return padding;
+    }
+
+    public boolean isDeduplication() {
+        return deduplication;
+    }
+
+    public int getMinRangeLength() {
+        return minRangeLength;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public String getTemporaryTable() {
+        return temporaryTable;
+    }
+
+    /**
+     * 列表是否应写入临时表
+     * 
+     * @param size 值个数
+     * @return 是否使用临时表
+     */
+    public boolean useTemporaryTable(int size) {
+        return temporaryTable != null && size >= temporaryTableThreshold;
+    }
+
+    /**
+     * 按策略整理 IN 列表，不拆分
+     * 
+     * @param values 原始列表
+     * @return 整理结果
+     */
+    public InList apply(Iterable<?> values) {
+        return apply(values, false).get(0);
+    }
+
+    /**
+     * 按策略整理 IN 列表，离散值超过 {@link #getChunkSize()} 时拆成多段。
+     * 区间都放在第一段；除最后一段外每段恰好 {@code chunkSize} 个值。
+     * 
+     * @param values 原始列表
+     * @return 整理结果，至少一段
+     */
+    public List<InList> applyChunked(Iterable<?> values) {
+        return apply(values, true);
+    }
+
+    private List<InList> apply(Iterable<?> values, boolean chunked) {
+        Collection<Object> distinct = deduplication || minRangeLength > 0
+                ? new LinkedHashSet<>() : new ArrayList<>();
+        for (Object value : values) {
+            distinct.add(value);
+        }
+        Object[] elements = distinct.toArray();
+
+        Object[] rangeBounds = null;
+        if (minRangeLength > 0 && elements.length >= minRangeLength && isIntegral(elements)) {
+            Arrays.sort(elements, INTEGRAL_ORDER);
+            List<Object> ranges = new ArrayList<>();
+            int remaining = 0;
+            for (int start = 0, end; start < elements.length; start = end) {
+                end = start + 1;
+                while (end < elements.length
+                        && ((Number) elements[end]).longValue() == ((Number) elements[end - 1]).longValue() + 1) {
+                    end++;
+                }
+                if (end - start >= minRangeLength) {
+                    ranges.add(elements[start]);
+                    ranges.add(elements[end - 1]);
+                } else {
+                    // 未成区间的值前移，复用同一数组
+                    for (int i = start; i < end; i++) {
+                        elements[remaining++] = elements[i];
+                    }
+                }
+            }
+            if (!ranges.isEmpty()) {
+                rangeBounds = padding ? pad(ranges.toArray(), ranges.size() >> 1, 2) : ranges.toArray();
+                elements = Arrays.copyOf(elements, remaining);
+            }
+        }
+
+        if (!chunked || chunkSize == 0 || elements.length <= chunkSize) {
+            return List.of(new InList(rangeBounds, discrete(elements)));
+        }
+        List<InList> chunks = new ArrayList<>((elements.length + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < elements.length; from += chunkSize) {
+            Object[] chunk = Arrays.copyOfRange(elements, from, Math.min(from + chunkSize, elements.length));
+            chunks.add(new InList(from == 0 ? rangeBounds : null, discrete(chunk)));
+        }
+        return chunks;
+    }
+
+    private List<Object> discrete(Object[] elements) {
+        return Collections.unmodifiableList(Arrays.asList(padding ? pad(elements, elements.length, 1) : elements));
+    }
+
+    /**
+     * 以最后一组元素重复填充，使组数达到档位；启用拆分时不超过每段上限
+     */
+    private Object[] pad(Object[] elements, int groups, int groupSize) {
+        int bucket = QueryShape.inListBucket(groups);
+        if (chunkSize > 0 && groupSize == 1) {
+            bucket = Math.max(groups, Math.min(bucket, chunkSize));
+        }
+        if (bucket == groups) {
+            return elements;
+        }
+        Object[] padded = Arrays.copyOf(elements, bucket * groupSize);
+        for (int i = groups * groupSize; i < padded.length; i++) {
+            padded[i] = elements[elements.length - groupSize + i % groupSize];
+        }
+        return padded;
+    }
+
+    /**
+     * 所有值是否为同一种整数类型，只有这时连续性才有意义
+     */
+    private static boolean isIntegral(Object[] elements) {
+        Class<?> type = elements[0] == null ? null : elements[0].getClass();
+        if (type != Long.class && type != Integer.class && type != Short.class && type != Byte.class) {
+            return false;
+        }
+        for (Object element : elements) {
+            if (element == null || element.getClass() != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
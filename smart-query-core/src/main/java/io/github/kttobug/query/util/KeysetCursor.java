@@ -0,0 +1,339 @@
+package io.github.kttobug.query.util;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 游标分页的游标编码工具。
+ *
+ * <p>游标保存上一页最后一行的排序键（排序字段值加 id），编码为紧凑的二进制后以 URL 安全的 Base64 输出，
+ * 可以直接放在查询参数中。调用方应把游标当作不透明的字符串，只原样传回。</p>
+ *
+ * <p>游标中带有排序定义的签名，换了排序方式的查询使用旧游标时解码失败，而不是返回错乱的结果。
+ * 游标没有签名校验，不能防篡改；排序键中不应包含不希望暴露给客户端的值。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class KeysetCursor {
+
+    private static final int VERSION = 1;
+
+    private static final int NULL = 0;
+    private static final int FALSE = 1;
+    private static final int TRUE = 2;
+    private static final int INT = 3;
+    private static final int LONG = 4;
+    private static final int SHORT = 5;
+    private static final int BYTE = 6;
+    private static final int FLOAT = 7;
+    private static final int DOUBLE = 8;
+    private static final int BIG_INTEGER = 9;
+    private static final int BIG_DECIMAL = 10;
+    private static final int STRING = 11;
+    private static final int CHAR = 12;
+    private static final int ENUM = 13;
+    private static final int UUID_VALUE = 14;
+    private static final int LOCAL_DATE = 15;
+    private static final int LOCAL_TIME = 16;
+    private static final int LOCAL_DATE_TIME = 17;
+    private static final int INSTANT = 18;
+    private static final int OFFSET_DATE_TIME = 19;
+    private static final int DATE = 20;
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * 编码游标
+     *
+     * @param signature 排序定义的签名
+     * @param values 排序键
+     * @return 游标字符串
+     * @throws IllegalArgumentException 排序键中有不支持的类型
+     */
+    public static String encode(long signature, List<?> values) {
+        Writer writer = new Writer();
+        writer.out.write(VERSION);
+        writer.writeVarLong((int) (signature ^ (signature >>> 32)));
+        writer.writeVarLong(values.size());
+        for (Object value : values) {
+            writer.writeValue(value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(writer.out.toByteArray());
+    }
+
+    /**
+     * 解码游标
+     *
+     * @param cursor 游标字符串
+     * @param signature 当前查询排序定义的签名
+     * @param types 各排序键的类型，用于还原枚举和 {@link Date} 子类
+     * @return 排序键
+     * @throws IllegalArgumentException 游标格式错误，或不是由当前排序定义生成的
+     */
+    public static List<Object> decode(String cursor, long signature, List<Class<?>> types) {
+        Reader reader;
+        try {
+            reader = new Reader(Base64.getUrlDecoder().decode(cursor));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+        try {
+            if (reader.readByte() != VERSION) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            if (reader.readVarLong() != (int) (signature ^ (signature >>> 32))) {
+                throw new IllegalArgumentException("Cursor was created for a different ordering: " + cursor);
+            }
+            long count = reader.readVarLong();
+            if (count != types.size()) {
+                throw new IllegalArgumentException("Cursor was created for a different ordering: " + cursor);
+            }
+            List<Object> values = new ArrayList<>(types.size());
+            for (Class<?> type : types) {
+                values.add(reader.readValue(type));
+            }
+            if (reader.position != reader.data.length) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return values;
+        } catch (IndexOutOfBoundsException | ClassCastException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+
+        void writeValue(Object value) {
+            if (value == null) {
+                out.write(NULL);
+            } else if (value instanceof Boolean) {
+                out.write((Boolean) value ? TRUE : FALSE);
+            } else if (value instanceof Integer) {
+                out.write(INT);
+                writeVarLong((Integer) value);
+            } else if (value instanceof Long) {
+                out.write(LONG);
+                writeVarLong((Long) value);
+            } else if (value instanceof Short) {
+                out.write(SHORT);
+                writeVarLong((Short) value);
+            } else if (value instanceof Byte) {
+                out.write(BYTE);
+                out.write((Byte) value);
+            } else if (value instanceof Float) {
+                out.write(FLOAT);
+                writeFixed(Float.floatToIntBits((Float) value), 4);
+            } else if (value instanceof Double) {
+                out.write(DOUBLE);
+                writeFixed(Double.doubleToLongBits((Double) value), 8);
+            } else if (value instanceof BigInteger) {
+                out.write(BIG_INTEGER);
+                writeBytes(((BigInteger) value).toByteArray());
+            } else if (value instanceof BigDecimal) {
+                out.write(BIG_DECIMAL);
+                writeVarLong(((BigDecimal) value).scale());
+                writeBytes(((BigDecimal) value).unscaledValue().toByteArray());
+            } else if (value instanceof String) {
+                out.write(STRING);
+                writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+            } else if (value instanceof Character) {
+                out.write(CHAR);
+                writeVarLong((Character) value);
+            } else if (value instanceof Enum) {
+                out.write(ENUM);
+                writeBytes(((Enum<?>) value).name().getBytes(StandardCharsets.UTF_8));
+            } else if (value instanceof UUID) {
+                out.write(UUID_VALUE);
+                writeFixed(((UUID) value).getMostSignificantBits(), 8);
+                writeFixed(((UUID) value).getLeastSignificantBits(), 8);
+            } else if (value instanceof LocalDate) {
+                out.write(LOCAL_DATE);
+                writeVarLong(((LocalDate) value).toEpochDay());
+            } else if (value instanceof LocalTime) {
+                out.write(LOCAL_TIME);
+                writeVarLong(((LocalTime) value).toNanoOfDay());
+            } else if (value instanceof LocalDateTime) {
+                out.write(LOCAL_DATE_TIME);
+                writeInstant(((LocalDateTime) value).toInstant(ZoneOffset.UTC));
+            } else if (value instanceof Instant) {
+                out.write(INSTANT);
+                writeInstant((Instant) value);
+            } else if (value instanceof OffsetDateTime) {
+                out.write(OFFSET_DATE_TIME);
+                writeInstant(((OffsetDateTime) value).toInstant());
+                writeVarLong(((OffsetDateTime) value).getOffset().getTotalSeconds());
+            } else if (value instanceof Date) {
+                // java.sql.Timestamp 的纳秒部分不在毫秒值中
+                out.write(DATE);
+                Instant instant = value instanceof java.sql.Timestamp
+                        ? ((java.sql.Timestamp) value).toInstant() : Instant.ofEpochMilli(((Date) value).getTime());
+                writeInstant(instant);
+            } else {
+                throw new IllegalArgumentException("Unsupported cursor value type: " + value.getClass().getName());
+            }
+        }
+
+        void writeInstant(Instant instant) {
+            writeVarLong(instant.getEpochSecond());
+            writeVarLong(instant.getNano());
+        }
+
+        void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        void writeFixed(long value, int bytes) {
+            for (int shift = (bytes - 1) << 3; shift >= 0; shift -= 8) {
+                out.write((int) (value >>> shift));
+            }
+        }
+
+        /**
+         * ZigZag 变长编码，小的正负数都只占一两个字节
+         */
+        void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            while ((zigzag & ~0x7FL) != 0) {
+                out.write((int) ((zigzag & 0x7F) | 0x80));
+                zigzag >>>= 7;
+            }
+            out.write((int) zigzag);
+        }
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Object readValue(Class<?> type) {
+            int tag = readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case FALSE:
+                    return Boolean.FALSE;
+                case TRUE:
+                    return Boolean.TRUE;
+                case INT:
+                    return Math.toIntExact(readVarLong());
+                case LONG:
+                    return readVarLong();
+                case SHORT:
+                    return (short) readVarLong();
+                case BYTE:
+                    return (byte) readByte();
+                case FLOAT:
+                    return Float.intBitsToFloat((int) readFixed(4));
+                case DOUBLE:
+                    return Double.longBitsToDouble(readFixed(8));
+                case BIG_INTEGER:
+                    return new BigInteger(readBytes());
+                case BIG_DECIMAL:
+                    int scale = Math.toIntExact(readVarLong());
+                    return new BigDecimal(new BigInteger(readBytes()), scale);
+                case STRING:
+                    return new String(readBytes(), StandardCharsets.UTF_8);
+                case CHAR:
+                    return (char) readVarLong();
+                case ENUM:
+                    String name = new String(readBytes(), StandardCharsets.UTF_8);
+                    if (type == null || !type.isEnum()) {
+                        throw new IllegalArgumentException("Enum cursor value for non-enum type " + type);
+                    }
+                    return Enum.valueOf((Class) type, name);
+                case UUID_VALUE:
+                    return new UUID(readFixed(8), readFixed(8));
+                case LOCAL_DATE:
+                    return LocalDate.ofEpochDay(readVarLong());
+                case LOCAL_TIME:
+                    return LocalTime.ofNanoOfDay(readVarLong());
+                case LOCAL_DATE_TIME:
+                    return LocalDateTime.ofInstant(readInstant(), ZoneOffset.UTC);
+                case INSTANT:
+                    return readInstant();
+                case OFFSET_DATE_TIME:
+                    Instant instant = readInstant();
+                    return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(Math.toIntExact(readVarLong())));
+                case DATE:
+                    return toDate(readInstant(), type);
+                default:
+                    throw new IllegalArgumentException("Unknown cursor value tag " + tag);
+            }
+        }
+
+        private static Date toDate(Instant instant, Class<?> type) {
+            if (type == java.sql.Timestamp.class) {
+                return java.sql.Timestamp.from(instant);
+            }
+            if (type == java.sql.Date.class) {
+                return new java.sql.Date(instant.toEpochMilli());
+            }
+            if (type == java.sql.Time.class) {
+                return new java.sql.Time(instant.toEpochMilli());
+            }
+            return Date.from(instant);
+        }
+
+        Instant readInstant() {
+            long seconds = readVarLong();
+            return Instant.ofEpochSecond(seconds, readVarLong());
+        }
+
+        byte[] readBytes() {
+            int length = Math.toIntExact(readVarLong());
+            if (length < 0 || length > data.length - position) {
+                throw new IndexOutOfBoundsException("length " + length);
+            }
+            byte[] bytes = new byte[length];
+            System.arraycopy(data, position, bytes, 0, length);
+            position += length;
+            return bytes;
+        }
+
+        long readFixed(int bytes) {
+            long value = 0;
+            for (int i = 0; i < bytes; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new IndexOutOfBoundsException("varint too long");
+        }
+
+        int readByte() {
+            return data[position++] & 0xFF;
+        }
+    }
+}
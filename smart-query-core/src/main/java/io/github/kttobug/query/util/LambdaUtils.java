@@ -5,15 +5,59 @@ import io.github.kttobug.query.SerializableFunction;
 import java.lang.invoke.SerializedLambda;
 import java.lang.reflect.Method;
 
+/**
+ * Lambda 工具类，用于从方法引用中解析实体字段名。
+ *
+ * <p>解析结果按 lambda 的合成类缓存在 {@link ClassValue} 中，同一个方法引用在 JVM 内
+ * 只会反射解析一次。{@code ClassValue} 的条目与合成类同生命周期，热部署卸载类加载器时
+ * 会随之回收；缓存规模也天然受限于已加载的 lambda 类数量。</p>
+ *
+ * @author kttobug
+ * @since 1.0.0
+ */
 public class LambdaUtils {
 
+    /** 按 lambda 合成类缓存的字段名 */
+    private static final ClassValue<FieldNameHolder> FIELD_NAME_CACHE = new ClassValue<>() {
+        @Override
+        protected FieldNameHolder computeValue(Class<?> lambdaClass) {
+            return new FieldNameHolder();
+        }
+    };
+
     public static <T> String resolveFieldName(SerializableFunction<T, ?> func) {
+        FieldNameHolder holder = FIELD_NAME_CACHE.get(func.getClass());
+        String fieldName = holder.fieldName;
+        if (fieldName == null) {
+            // 并发首次解析时可能重复计算，但结果相同，无需加锁
+            fieldName = toPropertyName(resolveImplMethodName(func));
+            holder.fieldName = fieldName;
+        }
+        return fieldName;
+    }
+
+    /**
+     * 解析链式属性路径，例如 {@code (Order::getCustomer, Customer::getRegion) -> "customer.region"}。
+     *
+     * <p>每一段都经过字段名缓存，重复解析只剩字符串拼接。</p>
+     */
+    public static String resolvePropertyPath(SerializableFunction<?, ?>... segments) {
+        if (segments.length == 0) {
+            throw new IllegalArgumentException("属性路径至少需要一段");
+        }
+        StringBuilder path = new StringBuilder(resolveFieldName(segments[0]));
+        for (int i = 1; i < segments.length; i++) {
+            path.append('.').append(resolveFieldName(segments[i]));
+        }
+        return path.toString();
+    }
+
+    private static String resolveImplMethodName(SerializableFunction<?, ?> func) {
         try {
             Method method = func.getClass().getDeclaredMethod("writeReplace");
             method.setAccessible(true);
             SerializedLambda lambda = (SerializedLambda) method.invoke(func);
-            String methodName = lambda.getImplMethodName();
-            return toPropertyName(methodName);
+            return lambda.getImplMethodName();
         } catch (Exception e) {
             throw new RuntimeException("无法从 Lambda 获取字段名", e);
         }
@@ -31,4 +75,11 @@ public class LambdaUtils {
     private static String decapitate(String str) {
         return Character.toLowerCase(str.charAt(0)) + str.substring(1);
     }
+
+    /**
+     * 字段名缓存槽，首次解析后写入。
+     */
+    private static final class FieldNameHolder {
+        private volatile String fieldName;
+    }
 }
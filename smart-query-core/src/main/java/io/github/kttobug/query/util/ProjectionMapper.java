@@ -0,0 +1,386 @@
+package io.github.kttobug.query.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 把投影查询的一行（按列顺序的值数组）映射为目标类型。
+ *
+ * <p>按目标类型选择映射方式：</p>
+ * <ul>
+ *   <li>只有一列且列类型可赋值给目标类型时，直接返回该列的值；</li>
+ *   <li>record 按组件名匹配列名调用规范构造器，组件名对不上但数量与类型一致时按位置调用；</li>
+ *   <li>接口生成只读代理，{@code getX()}、{@code isX()} 或 {@code x()} 返回名为 {@code x} 的列；</li>
+ *   <li>普通类优先使用参数数量与类型按位置匹配的构造器，否则使用无参构造器，
+ *       再按列名调用 setter 或写入字段。</li>
+ * </ul>
+ *
+ * <p>映射方式在创建时解析并校验列类型，结果是一组 {@link MethodHandle}，按目标类型、
+ * 列名和列类型缓存在 {@link ClassValue} 中，与目标类型同生命周期。映射器是无状态的，可在线程间共享。</p>
+ *
+ * @param <R> 目标类型
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class ProjectionMapper<R> {
+
+    private static final ClassValue<Map<List<Object>, ProjectionMapper<?>>> MAPPERS = new ClassValue<>() {
+        @Override
+        protected Map<List<Object>, ProjectionMapper<?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVES = Map.of(
+            boolean.class, Boolean.class, byte.class, Byte.class, short.class, Short.class, char.class, Character.class,
+            int.class, Integer.class, long.class, Long.class, float.class, Float.class, double.class, Double.class);
+
+    private final Class<R> type;
+
+    private final Mapping mapping;
+
+    private ProjectionMapper(Class<R> type, Mapping mapping) {
+        this.type = type;
+        this.mapping = mapping;
+    }
+
+    /**
+     * 获取映射器
+     *
+     * @param type 目标类型
+     * @param names 列名，按列顺序
+     * @param columnTypes 列类型，按列顺序；未知时为 {@code Object.class}
+     * @param <R> 目标类型
+     * @return 映射器
+     * @throws IllegalArgumentException 目标类型无法由这些列构造
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> ProjectionMapper<R> of(Class<R> type, List<String> names, List<Class<?>> columnTypes) {
+        if (names.size() != columnTypes.size()) {
+            throw new IllegalArgumentException("Expected " + names.size() + " column types, got " + columnTypes.size());
+        }
+        List<Object> key = new ArrayList<>(names.size() * 2);
+        key.addAll(names);
+        key.addAll(columnTypes);
+        return (ProjectionMapper<R>) MAPPERS.get(type).computeIfAbsent(key,
+                k -> new ProjectionMapper<>(type, resolve(type, names, columnTypes)));
+    }
+
+    /**
+     * 映射一行
+     *
+     * @param row 按列顺序的值
+     * @return 目标对象；基本类型的组件或参数遇到 null 时抛出 {@link NullPointerException}
+     */
+    public R map(Object[] row) {
+        try {
+            return type.cast(mapping.map(row));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 获取目标类型
+     *
+     * @return 目标类型
+     */
+    public Class<R> getType() {
+        return type;
+    }
+
+    @FunctionalInterface
+    private interface Mapping {
+        Object map(Object[] row) throws Throwable;
+    }
+
+    private static Mapping resolve(Class<?> type, List<String> names, List<Class<?>> columnTypes) {
+        if (names.size() == 1 && wrap(type).isAssignableFrom(wrap(columnTypes.get(0)))) {
+            return row -> row[0];
+        }
+        try {
+            if (type.isRecord()) {
+                return recordMapping(type, names, columnTypes);
+            }
+            if (type.isInterface()) {
+                return interfaceMapping(type, names);
+            }
+            return classMapping(type, names, columnTypes);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access " + type.getName(), e);
+        }
+    }
+
+    private static Mapping recordMapping(Class<?> type, List<String> names, List<Class<?>> columnTypes)
+            throws IllegalAccessException {
+        RecordComponent[] components = type.getRecordComponents();
+        Class<?>[] parameterTypes = Arrays.stream(components).map(RecordComponent::getType).toArray(Class<?>[]::new);
+        Constructor<?> constructor;
+        try {
+            constructor = type.getDeclaredConstructor(parameterTypes);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("No canonical constructor on " + type.getName(), e);
+        }
+        int[] order = new int[components.length];
+        boolean byName = components.length == names.size();
+        for (int i = 0; i < components.length && byName; i++) {
+            order[i] = names.indexOf(components[i].getName());
+            byName = order[i] >= 0;
+        }
+        if (!byName) {
+            if (!isAssignable(parameterTypes, columnTypes)) {
+                throw new IllegalArgumentException("Record " + type.getName() + " components " + componentNames(components)
+                        + " do not match columns " + names + " " + columnTypes);
+            }
+            return spread(constructor, null);
+        }
+        for (int i = 0; i < components.length; i++) {
+            if (!isAssignable(parameterTypes[i], columnTypes.get(order[i]))) {
+                throw new IllegalArgumentException("Column '" + names.get(order[i]) + "' of type "
+                        + columnTypes.get(order[i]).getName() + " cannot be assigned to record component "
+                        + type.getName() + "." + components[i].getName() + " of type " + parameterTypes[i].getName());
+            }
+        }
+        return spread(constructor, isIdentity(order) ? null : order);
+    }
+
+    private static Mapping interfaceMapping(Class<?> type, List<String> names) {
+        Map<Method, Integer> columns = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            if (method.isDefault() || Modifier.isStatic(method.getModifiers()) || isObjectMethod(method)) {
+                continue;
+            }
+            int index = method.getParameterCount() == 0 ? columnIndex(method.getName(), names) : -1;
+            if (index < 0) {
+                throw new IllegalArgumentException("Method " + type.getName() + "." + method.getName()
+                        + "() does not match any of columns " + names);
+            }
+            columns.put(method, index);
+        }
+        ClassLoader loader = type.getClassLoader();
+        Class<?>[] interfaces = {type};
+        return row -> Proxy.newProxyInstance(loader, interfaces, new RowHandler(type, names, row, columns));
+    }
+
+    private static Mapping classMapping(Class<?> type, List<String> names, List<Class<?>> columnTypes)
+            throws IllegalAccessException {
+        if (Modifier.isAbstract(type.getModifiers())) {
+            throw new IllegalArgumentException("Cannot instantiate abstract " + type.getName());
+        }
+        Constructor<?> noArgs = null;
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            if (constructor.getParameterCount() == names.size()
+                    && isAssignable(constructor.getParameterTypes(), columnTypes)) {
+                return spread(constructor, null);
+            }
+            if (constructor.getParameterCount() == 0) {
+                noArgs = constructor;
+            }
+        }
+        if (noArgs == null) {
+            throw new IllegalArgumentException(type.getName() + " has neither a constructor matching columns "
+                    + columnTypes + " nor a no-arg constructor");
+        }
+        noArgs.setAccessible(true);
+        MethodHandle create = MethodHandles.lookup().unreflectConstructor(noArgs)
+                .asType(MethodType.methodType(Object.class));
+        MethodHandle[] setters = new MethodHandle[names.size()];
+        for (int i = 0; i < setters.length; i++) {
+            setters[i] = setter(type, names.get(i), columnTypes.get(i))
+                    .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        }
+        return row -> {
+            Object target = create.invokeExact();
+            for (int i = 0; i < setters.length; i++) {
+                setters[i].invokeExact(target, row[i]);
+            }
+            return target;
+        };
+    }
+
+    private static MethodHandle setter(Class<?> type, String property, Class<?> columnType)
+            throws IllegalAccessException {
+        String name = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name) && method.getParameterCount() == 1
+                    && !Modifier.isStatic(method.getModifiers())
+                    && isAssignable(method.getParameterTypes()[0], columnType)) {
+                method.setAccessible(true);
+                return MethodHandles.lookup().unreflect(method);
+            }
+        }
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(property);
+                if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())
+                        && isAssignable(field.getType(), columnType)) {
+                    field.setAccessible(true);
+                    return MethodHandles.lookup().unreflectSetter(field);
+                }
+            } catch (NoSuchFieldException ignored) {
+                // 继续查找父类
+            }
+        }
+        throw new IllegalArgumentException("No setter or field '" + property + "' of type "
+                + columnType.getName() + " on " + type.getName());
+    }
+
+    /**
+     * 以值数组调用构造器
+     *
+     * @param order 第 i 个参数取第 {@code order[i]} 列，null 表示按列顺序
+     */
+    private static Mapping spread(Constructor<?> constructor, int[] order) throws IllegalAccessException {
+        // 目标类型可能声明为非 public 的嵌套类型
+        constructor.setAccessible(true);
+        int count = constructor.getParameterCount();
+        MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor)
+                .asSpreader(Object[].class, count)
+                .asType(MethodType.methodType(Object.class, Object[].class));
+        if (order == null) {
+            return row -> handle.invokeExact(row);
+        }
+        return row -> {
+            Object[] arguments = new Object[count];
+            for (int i = 0; i < count; i++) {
+                arguments[i] = row[order[i]];
+            }
+            return handle.invokeExact(arguments);
+        };
+    }
+
+    /**
+     * 接口方法名对应的列：{@code getX}、{@code isX} 对应列 {@code x}，其他方法名对应同名列
+     */
+    private static int columnIndex(String methodName, List<String> names) {
+        int index = names.indexOf(methodName);
+        if (index >= 0) {
+            return index;
+        }
+        for (String prefix : new String[]{"get", "is"}) {
+            if (methodName.length() > prefix.length() && methodName.startsWith(prefix)
+                    && Character.isUpperCase(methodName.charAt(prefix.length()))) {
+                String property = Character.toLowerCase(methodName.charAt(prefix.length()))
+                        + methodName.substring(prefix.length() + 1);
+                index = names.indexOf(property);
+                if (index >= 0) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isAssignable(Class<?>[] parameterTypes, List<Class<?>> columnTypes) {
+        if (parameterTypes.length != columnTypes.size()) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!isAssignable(parameterTypes[i], columnTypes.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 列值能否传给该类型的参数；列类型未知（{@code Object}）时在映射时再检查
+     */
+    private static boolean isAssignable(Class<?> target, Class<?> columnType) {
+        return columnType == Object.class || wrap(target).isAssignableFrom(wrap(columnType));
+    }
+
+    private static Class<?> wrap(Class<?> type) {
+        return PRIMITIVES.getOrDefault(type, type);
+    }
+
+    private static boolean isObjectMethod(Method method) {
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isIdentity(int[] order) {
+        for (int i = 0; i < order.length; i++) {
+            if (order[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<String> componentNames(RecordComponent[] components) {
+        List<String> names = new ArrayList<>(components.length);
+        for (RecordComponent component : components) {
+            names.add(component.getName());
+        }
+        return names;
+    }
+
+    /**
+     * 接口代理的调用处理：访问方法返回对应列，equals、hashCode 按列值比较
+     */
+    private static final class RowHandler implements InvocationHandler {
+        private final Class<?> type;
+        private final List<String> names;
+        private final Object[] row;
+        private final Map<Method, Integer> columns;
+
+        RowHandler(Class<?> type, List<String> names, Object[] row, Map<Method, Integer> columns) {
+            this.type = type;
+            this.names = names;
+            this.row = row;
+            this.columns = columns;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Integer index = columns.get(method);
+            if (index != null) {
+                return row[index];
+            }
+            if (method.isDefault()) {
+                return InvocationHandler.invokeDefault(proxy, method, args);
+            }
+            switch (method.getName()) {
+                case "equals":
+                    Object other = args[0];
+                    if (other == null || !Proxy.isProxyClass(other.getClass())
+                            || !(Proxy.getInvocationHandler(other) instanceof RowHandler)) {
+                        return false;
+                    }
+                    RowHandler that = (RowHandler) Proxy.getInvocationHandler(other);
+                    return that.type == type && Arrays.equals(that.row, row);
+                case "hashCode":
+                    return Arrays.hashCode(row);
+                case "toString":
+                    StringBuilder text = new StringBuilder(type.getSimpleName()).append('{');
+                    for (int i = 0; i < row.length; i++) {
+                        text.append(i > 0 ? ", " : "").append(names.get(i)).append('=').append(row[i]);
+                    }
+                    return text.append('}').toString();
+                default:
+                    throw new UnsupportedOperationException(method.toString());
+            }
+        }
+    }
+}
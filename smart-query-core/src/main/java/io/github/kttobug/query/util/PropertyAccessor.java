@@ -0,0 +1,136 @@
+package io.github.kttobug.query.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按属性路径读取对象属性值的访问器。
+ * 
+ * <p>路径以 {@code .} 分隔（如 {@code customer.region}），每一段优先解析为 public getter
+ * （{@code getX} / {@code isX}），没有 getter 时退回字段。经 getter 读取能正确触发
+ * JPA 延迟加载代理的初始化。解析结果是一组 {@link MethodHandle}，按类缓存在
+ * {@link ClassValue} 中，与类同生命周期。</p>
+ * 
+ * <p>中间属性为 {@code null} 时整个路径的值为 {@code null}。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class PropertyAccessor {
+
+    private static final ClassValue<Map<String, PropertyAccessor>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Map<String, PropertyAccessor> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final String path;
+
+    /** 每段一个 {@code (Object) -> Object} 形式的句柄 */
+    private final MethodHandle[] getters;
+
+    private PropertyAccessor(String path, MethodHandle[] getters) {
+        this.path = path;
+        this.getters = getters;
+    }
+
+    /**
+     * 获取属性访问器
+     * 
+     * @param type 根对象类型
+     * @param path 属性路径
+     * @return 访问器
+     * @throws IllegalArgumentException 路径中的某一段既没有 getter 也没有字段
+     */
+    public static PropertyAccessor of(Class<?> type, String path) {
+        return ACCESSORS.get(type).computeIfAbsent(path, p -> resolve(type, p));
+    }
+
+    /**
+     * 读取属性值
+     * 
+     * @param target 根对象
+     * @return 属性值，路径中途遇到 null 时返回 null
+     */
+    public Object get(Object target) {
+        Object value = target;
+        try {
+            for (MethodHandle getter : getters) {
+                if (value == null) {
+                    return null;
+                }
+                value = getter.invokeExact(value);
+            }
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to read property '" + path + "'", e);
+        }
+        return value;
+    }
+
+    /**
+     * 获取属性路径
+     * 
+     * @return 属性路径
+     */
+    public String getPath() {
+        return path;
+    }
+
+    private static PropertyAccessor resolve(Class<?> type, String path) {
+        String[] segments = path.split("\\.");
+        MethodHandle[] getters = new MethodHandle[segments.length];
+        Class<?> current = type;
+        for (int i = 0; i < segments.length; i++) {
+            MethodHandle getter = getter(current, segments[i]);
+            current = getter.type().returnType();
+            getters[i] = getter.asType(MethodType.methodType(Object.class, Object.class));
+        }
+        return new PropertyAccessor(path, getters);
+    }
+
+    private static MethodHandle getter(Class<?> type, String property) {
+        String capitalized = Character.toUpperCase(property.charAt(0)) + property.substring(1);
+        try {
+            for (String name : new String[]{"get" + capitalized, "is" + capitalized}) {
+                Method method = findMethod(type, name);
+                if (method != null) {
+                    // getter 可能声明在非 public 的实体类中
+                    method.setAccessible(true);
+                    return MethodHandles.lookup().unreflect(method);
+                }
+            }
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                try {
+                    Field field = c.getDeclaredField(property);
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        return MethodHandles.lookup().unreflectGetter(field);
+                    }
+                } catch (NoSuchFieldException ignored) {
+                    // 继续查找父类
+                }
+            }
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new IllegalArgumentException("Cannot access property '" + property + "' of " + type.getName(), e);
+        }
+        throw new IllegalArgumentException("No property '" + property + "' on " + type.getName());
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            Method method = type.getMethod(name);
+            return method.getReturnType() != void.class ? method : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,313 @@
+package io.github.kttobug.query.util;
+
+import io.github.kttobug.query.JoinCondition;
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.QueryFetch;
+import io.github.kttobug.query.QueryOperator;
+import io.github.kttobug.query.QuerySelection;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * 查询形状指纹计算工具。
+ * 
+ * <p>查询形状只描述查询的结构：操作符、字段、连接、排序以及 IN 列表长度所在的档位，
+ * 不包含绑定值。结构相同、仅取值不同的查询得到相同的 64 位指纹，可用于监控分组和日志聚合。</p>
+ * 
+ * <p>指纹只依赖 {@link String#hashCode()} 等规范中固定的哈希，因此在不同 JVM、
+ * 不同进程间保持稳定。{@link LambdaQueryWrapper} 在添加条件时增量更新指纹，
+ * 读取指纹不需要遍历条件或拼接字符串。</p>
+ * 
+ * <p>指纹只是哈希，不是标识：{@code apply()} 的 SQL 片段、JOIN 条件等字符串按 32 位哈希计入，
+ * 结构不同的查询可能得到相同的指纹。缓存编译结果时以 {@link Key} 为键，它以指纹为哈希值，
+ * 相等比较逐项比较结构。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class QueryShape {
+
+    /** 空序列的初始值 */
+    public static final long EMPTY = 0x9E3779B97F4A7C15L;
+
+    private static final long VALUE_PRESENT = 0x632BE59BD9B4E019L;
+
+    /** 结构键中“有值”的标记 */
+    private static final Object PRESENT = new Object() {
+        @Override
+        public String toString() {
+            return "?";
+        }
+    };
+
+    private QueryShape() {
+    }
+
+    /**
+     * 将一个元素的哈希并入序列指纹，结果与并入顺序相关
+     * 
+     * @param shape 当前指纹
+     * @param element 元素哈希
+     * @return 新指纹
+     */
+    public static long mix(long shape, long element) {
+        return fmix64(shape * 0x100000001B3L + element + 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * 计算实体类对应的初始指纹
+     * 
+     * @param entityClass 实体类
+     * @return 初始指纹
+     */
+    public static long seed(Class<?> entityClass) {
+        return mix(EMPTY, entityClass.getName().hashCode());
+    }
+
+    /**
+     * 计算单个条件的结构哈希，不包含绑定值
+     * 
+     * @param field 字段名
+     * @param operator 操作符
+     * @param value 条件值，仅用于判断结构（如 IN 列表长度档位、嵌套查询结构）
+     * @return 条件结构哈希
+     */
+    public static long conditionHash(String field, QueryOperator operator, Object value) {
+        long hash = mix(operator.name().hashCode(), field == null ? 0 : field.hashCode());
+        return mix(hash, valueShape(operator, value));
+    }
+
+    /**
+     * 计算 JOIN 条件的结构哈希
+     * 
+     * @param joinCondition JOIN 条件
+     * @return JOIN 结构哈希
+     */
+    public static long joinHash(JoinCondition joinCondition) {
+        long hash = mix(joinCondition.getJoinType().name().hashCode(), hashOf(joinCondition.getTargetEntity()));
+        hash = mix(hash, hashOf(joinCondition.getAlias()));
+        return mix(hash, hashOf(joinCondition.getJoinCondition()));
+    }
+
+    /**
+     * 计算关联加载的结构哈希
+     * 
+     * @param fetch 关联加载
+     * @return 关联加载结构哈希
+     */
+    public static long fetchHash(QueryFetch fetch) {
+        return mix(hashOf(fetch.getPath()), fetch.isGraph() ? 1 : 2);
+    }
+
+    /**
+     * 计算投影列的结构哈希
+     * 
+     * @param selection 投影列
+     * @return 投影列结构哈希
+     */
+    public static long selectionHash(QuerySelection selection) {
+        long hash = mix(hashOf(selection.getField()), hashOf(selection.getFunction()));
+        return mix(hash, hashOf(selection.getAlias()));
+    }
+
+    /**
+     * IN 列表长度档位：向上取整到 2 的幂，长度不同但档位相同的 IN 查询共享同一形状
+     * 
+     * @param size 列表长度
+     * @return 档位
+     */
+    public static int inListBucket(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+
+    private static long valueShape(QueryOperator operator, Object value) {
+        if (value == null) {
+            return 0;
+        }
+        switch (operator) {
+            case IN:
+            case NOT_IN:
+                return value instanceof Iterable ? inListBucket(sizeOf((Iterable<?>) value)) : VALUE_PRESENT;
+            case NEST:
+            case NOT:
+                return value instanceof LambdaQueryWrapper ? ((LambdaQueryWrapper<?>) value).getShapeId() : VALUE_PRESENT;
+            case HAVING:
+                // 比较符、聚合函数和比较值的类型决定编译结果
+                Object[] havingData = (Object[]) value;
+                if (havingData.length < 2 || !(havingData[0] instanceof QueryOperator)) {
+                    return VALUE_PRESENT;
+                }
+                long having = mix(((QueryOperator) havingData[0]).name().hashCode(),
+                        havingData[1] == null ? 0 : hashOf(havingData[1].getClass()));
+                return havingData.length > 2 ? mix(having, hashOf(havingData[2])) : having;
+            case APPLY:
+                // 自定义 SQL 片段和参数类型是结构的一部分，参数值不是
+                Object[] applyData = (Object[]) value;
+                long hash = mix(hashOf(applyData[0]), applyData.length);
+                for (int i = 1; i < applyData.length; i++) {
+                    hash = mix(hash, applyData[i] == null ? 0 : hashOf(applyData[i].getClass()));
+                }
+                return hash;
+            default:
+                // LIKE 集合展开为多个 OR、BETWEEN 取前两个值，长度都会影响结构
+                return value instanceof Iterable ? mix(VALUE_PRESENT, sizeOf((Iterable<?>) value)) : VALUE_PRESENT;
+        }
+    }
+
+    /**
+     * 计算查询的结构键
+     * 
+     * @param shapeId 形状指纹，作为键的哈希值
+     * @param entityClass 实体类
+     * @param size 条件数量
+     * @param operators 按下标取操作符
+     * @param fields 按下标取字段名
+     * @param values 按下标取条件值，仅用于判断结构
+     * @param joins JOIN 条件
+     * @param fetches 关联加载
+     * @return 结构键
+     */
+    public static Key key(long shapeId, Class<?> entityClass, int size, IntFunction<QueryOperator> operators,
+                          IntFunction<String> fields, IntFunction<Object> values, List<JoinCondition> joins,
+                          List<QueryFetch> fetches) {
+        Object[] elements = new Object[3 + size * 3];
+        elements[0] = entityClass;
+        for (int i = 0; i < size; i++) {
+            QueryOperator operator = operators.apply(i);
+            elements[1 + i * 3] = operator;
+            elements[2 + i * 3] = fields.apply(i);
+            elements[3 + i * 3] = valueKey(operator, values.apply(i));
+        }
+        elements[1 + size * 3] = List.copyOf(joins);
+        elements[2 + size * 3] = List.copyOf(fetches);
+        return new Key(shapeId, elements);
+    }
+
+    /**
+     * 条件值的结构，与 {@link #conditionHash} 计入的内容相同，但保留原文以便逐项比较
+     * 
+     * @param operator 操作符
+     * @param value 条件值
+     * @return 可比较的结构描述
+     */
+    public static Object valueKey(QueryOperator operator, Object value) {
+        if (value == null) {
+            return null;
+        }
+        switch (operator) {
+            case IN:
+            case NOT_IN:
+                return value instanceof Iterable ? (Object) inListBucket(sizeOf((Iterable<?>) value)) : PRESENT;
+            case NEST:
+            case NOT:
+                return value instanceof LambdaQueryWrapper ? ((LambdaQueryWrapper<?>) value).getShapeKey() : PRESENT;
+            case HAVING:
+                Object[] havingData = (Object[]) value;
+                if (havingData.length < 2 || !(havingData[0] instanceof QueryOperator)) {
+                    return PRESENT;
+                }
+                return Arrays.asList(havingData[0], havingData[1] == null ? null : havingData[1].getClass(),
+                        havingData.length > 2 ? havingData[2] : null);
+            case APPLY:
+                Object[] applyData = (Object[]) value;
+                Object[] apply = new Object[applyData.length];
+                apply[0] = applyData[0];
+                for (int i = 1; i < applyData.length; i++) {
+                    apply[i] = applyData[i] == null ? null : applyData[i].getClass();
+                }
+                return Arrays.asList(apply);
+            default:
+                return value instanceof Iterable ? (Object) sizeOf((Iterable<?>) value) : PRESENT;
+        }
+    }
+
+    /**
+     * 可作为缓存键的查询形状。
+     * 
+     * <p>哈希值为 64 位指纹，相等比较逐项比较操作符、字段、值的结构、SQL 片段原文、JOIN 与关联加载，
+     * 指纹碰撞的两个查询不会被当作同一形状。</p>
+     */
+    public static final class Key {
+
+        private final long id;
+
+        private final Object[] elements;
+
+        private Key(long id, Object[] elements) {
+            this.id = id;
+            this.elements = elements;
+        }
+
+        /**
+         * 由指纹和任意可比较的结构元素组成键，用于在查询形状之上区分计划用途等附加结构
+         * 
+         * @param id 指纹
+         * @param elements 结构元素，按 {@link Arrays#deepEquals} 比较
+         * @return 结构键
+         */
+        public static Key of(long id, Object... elements) {
+            return new Key(id, elements.clone());
+        }
+
+        /**
+         * 获取指纹
+         * 
+         * @return 64 位指纹
+         */
+        public long getId() {
+            return id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return id == that.id && Arrays.deepEquals(elements, that.elements);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(id);
+        }
+
+        @Override
+        public String toString() {
+            return "QueryShape.Key{" + Long.toHexString(id) + ", " + Arrays.deepToString(elements) + '}';
+        }
+    }
+
+    private static int sizeOf(Iterable<?> values) {
+        if (values instanceof Collection) {
+            return ((Collection<?>) values).size();
+        }
+        int size = 0;
+        for (Iterator<?> it = values.iterator(); it.hasNext(); it.next()) {
+            size++;
+        }
+        return size;
+    }
+
+    private static long hashOf(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof Class) {
+            return ((Class<?>) value).getName().hashCode();
+        }
+        return value.toString().hashCode();
+    }
+
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
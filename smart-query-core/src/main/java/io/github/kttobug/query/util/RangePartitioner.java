@@ -0,0 +1,326 @@
+package io.github.kttobug.query.util;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 区间分区工具，把有序字段的取值范围切成行数大致相等的若干段。
+ *
+ * <p>先在最小值和最大值之间等距取一组探测边界，由数据库统计每个边界之前的行数（累计直方图）；
+ * 行数超过半个分区的区间再细分探测，数据高度倾斜时经过几轮也能找到合适的边界。
+ * 最后从已探测的边界中选出使各段行数最接近平均值的边界。</p>
+ *
+ * <p>支持整数、小数和日期时间类型。边界只需大致准确，内部以 double 插值，
+ * 超过 2<sup>53</sup> 的整数会损失精度，但边界仍然有序且落在取值范围内。非线程安全。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class RangePartitioner {
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVES = Map.of(
+            long.class, Long.class, int.class, Integer.class, short.class, Short.class, byte.class, Byte.class,
+            double.class, Double.class, float.class, Float.class);
+
+    private final Object min;
+
+    private final Object max;
+
+    private final long total;
+
+    private final int partitions;
+
+    /** 已探测的边界及小于该边界的行数 */
+    private final TreeMap<Object, Long> histogram = new TreeMap<>(RangePartitioner::compare);
+
+    /**
+     * @param min 字段最小值
+     * @param max 字段最大值
+     * @param total 非空行数
+     * @param partitions 期望的分区数
+     */
+    public RangePartitioner(Object min, Object max, long total, int partitions) {
+        this.min = min;
+        this.max = max;
+        this.total = total;
+        this.partitions = partitions;
+    }
+
+    /**
+     * 是否支持按该类型的字段分区
+     *
+     * @param type 字段类型，可以是基本类型
+     * @return 支持时返回 true
+     */
+    public static boolean isSupported(Class<?> type) {
+        Class<?> boxed = PRIMITIVES.getOrDefault(type, type);
+        return boxed == Long.class || boxed == Integer.class || boxed == Short.class || boxed == Byte.class
+                || boxed == Double.class || boxed == Float.class || boxed == BigInteger.class || boxed == BigDecimal.class
+                || boxed == LocalDate.class || boxed == LocalDateTime.class || boxed == Instant.class
+                || boxed == OffsetDateTime.class || Date.class.isAssignableFrom(boxed);
+    }
+
+    /**
+     * 下一轮需要统计的探测边界。第一轮在整个取值范围内等距选取，
+     * 之后只细分行数超过半个分区的区间，统计也只需扫描这些区间
+     *
+     * @param count 最多返回的探测边界数
+     * @return 按区间分组的探测边界，不需要继续探测时为空
+     * @throws IllegalArgumentException 类型不支持
+     */
+    public List<Probe> probes(int count) {
+        List<Probe> probes = new ArrayList<>();
+        if (partitions <= 1 || total == 0 || compare(min, max) == 0) {
+            return probes;
+        }
+        if (histogram.isEmpty()) {
+            probes.add(new Probe(null, null, 0, interpolate(min, max, count)));
+            return probes;
+        }
+        // 相邻边界之间为区间 [lower, upper)，两者之前的行数之差即区间行数；最后一个区间包含最大值
+        List<Object[]> heavy = new ArrayList<>();
+        Object lower = min;
+        long lowerCount = 0;
+        for (Map.Entry<Object, Long> entry : histogram.entrySet()) {
+            if (isHeavy(entry.getValue() - lowerCount)) {
+                heavy.add(new Object[]{lower, entry.getKey(), lowerCount});
+            }
+            lower = entry.getKey();
+            lowerCount = entry.getValue();
+        }
+        if (isHeavy(total - lowerCount)) {
+            heavy.add(new Object[]{lower, max, lowerCount});
+        }
+        int share = heavy.isEmpty() ? 0 : Math.max(2, count / heavy.size());
+        int remaining = count;
+        for (Object[] range : heavy) {
+            List<Object> values = new ArrayList<>();
+            for (Object value : interpolate(range[0], range[1], Math.min(share, remaining))) {
+                if (!histogram.containsKey(value)) {
+                    values.add(value);
+                }
+            }
+            if (!values.isEmpty()) {
+                probes.add(new Probe(range[0], range[1], (Long) range[2], values));
+                remaining -= values.size();
+            }
+            if (remaining <= 0) {
+                break;
+            }
+        }
+        return probes;
+    }
+
+    private boolean isHeavy(long rows) {
+        return rows * 2L * partitions > total;
+    }
+
+    /**
+     * 记录一组探测的结果
+     *
+     * @param probe 探测
+     * @param counts 每个探测边界对应的行数：区间内小于该边界的行数，第一轮为全部小于该边界的行数
+     */
+    public void record(Probe probe, long[] counts) {
+        for (int i = 0; i < probe.values.size(); i++) {
+            histogram.put(probe.values.get(i), probe.offset + counts[i]);
+        }
+    }
+
+    /**
+     * 选出分区边界
+     *
+     * @return 分区边界，第 i 个分区为 {@code [bounds[i-1], bounds[i])}；不会产生空分区，因此可能少于 {@code partitions - 1} 个
+     */
+    public List<Object> bounds() {
+        List<Object> candidates = new ArrayList<>(histogram.keySet());
+        List<Object> bounds = new ArrayList<>(Math.max(0, partitions - 1));
+        int last = -1;
+        long lastCount = 0;
+        for (int p = 1; p < partitions; p++) {
+            double target = (double) total * p / partitions;
+            if (target <= lastCount) {
+                // 上一个边界之前的行已超过本段目标，无法再细分时少切一段
+                continue;
+            }
+            int index = last + 1;
+            while (index < candidates.size() && before(candidates, index) < target) {
+                index++;
+            }
+            // 取累计行数最接近目标的一侧
+            if (index > last + 1 && (index == candidates.size()
+                    || target - before(candidates, index - 1) <= before(candidates, index) - target)) {
+                index--;
+            }
+            if (index >= candidates.size()) {
+                break;
+            }
+            long count = before(candidates, index);
+            if (count > lastCount && count < total) {
+                bounds.add(candidates.get(index));
+                last = index;
+                lastCount = count;
+            }
+        }
+        return bounds;
+    }
+
+    private long before(List<Object> candidates, int index) {
+        return histogram.get(candidates.get(index));
+    }
+
+    /**
+     * 在 {@code (low, high]} 之间等距取值，去掉取整后重复的值
+     */
+    private static List<Object> interpolate(Object low, Object high, int count) {
+        double from = toDouble(low);
+        double to = toDouble(high);
+        List<Object> values = new ArrayList<>(count);
+        Object previous = low;
+        for (int i = 1; i <= count; i++) {
+            Object value = fromDouble(from + (to - from) * i / (count + 1), low);
+            if (compare(value, previous) > 0 && compare(value, high) <= 0) {
+                values.add(value);
+                previous = value;
+            }
+        }
+        return values;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object left, Object right) {
+        return ((Comparable) left).compareTo(right);
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).toEpochDay();
+        }
+        if (value instanceof LocalDateTime) {
+            return seconds(((LocalDateTime) value).toInstant(ZoneOffset.UTC));
+        }
+        if (value instanceof Instant) {
+            return seconds((Instant) value);
+        }
+        if (value instanceof OffsetDateTime) {
+            return seconds(((OffsetDateTime) value).toInstant());
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        throw new IllegalArgumentException("Unsupported partition value type: " + value.getClass().getName());
+    }
+
+    private static double seconds(Instant instant) {
+        return instant.getEpochSecond() + instant.getNano() / 1e9;
+    }
+
+    /**
+     * 还原为与 {@code sample} 相同的类型，整数和日期向上取整，使取值范围很窄时也能取到最大值
+     */
+    private static Object fromDouble(double value, Object sample) {
+        if (sample instanceof Long) {
+            return (long) Math.ceil(value);
+        }
+        if (sample instanceof Integer) {
+            return (int) Math.ceil(value);
+        }
+        if (sample instanceof Short) {
+            return (short) Math.ceil(value);
+        }
+        if (sample instanceof Byte) {
+            return (byte) Math.ceil(value);
+        }
+        if (sample instanceof Double) {
+            return value;
+        }
+        if (sample instanceof Float) {
+            return (float) value;
+        }
+        if (sample instanceof BigInteger) {
+            return new BigDecimal(Math.ceil(value)).toBigInteger();
+        }
+        if (sample instanceof BigDecimal) {
+            return BigDecimal.valueOf(value);
+        }
+        if (sample instanceof LocalDate) {
+            return LocalDate.ofEpochDay((long) Math.ceil(value));
+        }
+        if (sample instanceof LocalDateTime) {
+            return LocalDateTime.ofInstant(instant(value), ZoneOffset.UTC);
+        }
+        if (sample instanceof Instant) {
+            return instant(value);
+        }
+        if (sample instanceof OffsetDateTime) {
+            return OffsetDateTime.ofInstant(instant(value), ((OffsetDateTime) sample).getOffset());
+        }
+        long millis = (long) Math.floor(value);
+        if (sample instanceof java.sql.Timestamp) {
+            return new java.sql.Timestamp(millis);
+        }
+        if (sample instanceof java.sql.Date) {
+            return new java.sql.Date(millis);
+        }
+        if (sample instanceof java.sql.Time) {
+            return new java.sql.Time(millis);
+        }
+        return new Date(millis);
+    }
+
+    private static Instant instant(double seconds) {
+        long whole = (long) Math.floor(seconds);
+        // 保留到微秒，避免浮点误差产生的末位噪声
+        long micros = Math.round((seconds - whole) * 1e6);
+        return Instant.ofEpochSecond(whole, Math.min(micros, 999_999) * 1000);
+    }
+
+    /**
+     * 一组探测边界及其所在区间
+     */
+    public static final class Probe {
+        private final Object lower;
+        private final Object upper;
+        /** 区间之前的行数 */
+        private final long offset;
+        private final List<Object> values;
+
+        private Probe(Object lower, Object upper, long offset, List<Object> values) {
+            this.lower = lower;
+            this.upper = upper;
+            this.offset = offset;
+            this.values = values;
+        }
+
+        /**
+         * 区间下界（含），第一轮为 null，统计范围不受限
+         */
+        public Object getLower() {
+            return lower;
+        }
+
+        /**
+         * 区间上界，第一轮为 null；最后一个区间的上界是最大值，统计时需包含
+         */
+        public Object getUpper() {
+            return upper;
+        }
+
+        public List<Object> getValues() {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.github.kttobug.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ConditionTree 单元测试
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("ConditionTree 测试")
+class ConditionTreeTest {
+
+    @Test
+    @DisplayName("测试默认以 AND 连接，排序不进入树")
+    void testConjunction() {
+        ConditionTree tree = ConditionTree.of(LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "a")
+                .and()
+                .gt(TestUser::getAge, 1)
+                .orderByAsc(TestUser::getAge));
+
+        assertEquals("AND(#0, #2)", tree.toString());
+        assertTrue(tree.isConjunction());
+    }
+
+    @Test
+    @DisplayName("测试 AND 优先于 OR")
+    void testOrPrecedence() {
+        ConditionTree tree = ConditionTree.parse(5, index -> new QueryOperator[]{
+                QueryOperator.EQ, QueryOperator.GT, QueryOperator.OR, QueryOperator.EQ, QueryOperator.NEST}[index]);
+
+        assertEquals(ConditionTree.Kind.OR, tree.getKind());
+        assertEquals("OR(AND(#0, #1), AND(#3, #4))", tree.toString());
+        assertFalse(tree.isConjunction());
+    }
+
+    @Test
+    @DisplayName("测试多余的 or() 被忽略")
+    void testDanglingOr() {
+        assertEquals("#1", ConditionTree.parse(3, index -> new QueryOperator[]{
+                QueryOperator.OR, QueryOperator.EQ, QueryOperator.OR}[index]).toString());
+        assertTrue(ConditionTree.parse(1, index -> QueryOperator.ORDER_BY_ASC).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试相同形状共享缓存的树")
+    void testCachedByShape() {
+        ConditionTree first = ConditionTree.of(LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "a").or().eq(TestUser::getName, "b"));
+        ConditionTree second = ConditionTree.of(LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "x").or().eq(TestUser::getName, "y"));
+
+        assertSame(first, second);
+    }
+
+    static class TestUser {
+        private String name;
+        private Integer age;
+
+        public String getName() { return name; }
+        public Integer getAge() { return age; }
+    }
+}
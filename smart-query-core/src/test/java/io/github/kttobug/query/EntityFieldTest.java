@@ -0,0 +1,81 @@
+package io.github.kttobug.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EntityField 单元测试
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("EntityField 测试")
+class EntityFieldTest {
+
+    @Test
+    @DisplayName("测试方法引用创建字段常量")
+    void testOfMethodReference() {
+        EntityField<Order, String> code = EntityField.of(Order::getCode);
+
+        assertEquals("code", code.getName());
+        assertFalse(code.isPath());
+        assertEquals(EntityField.of("code"), code);
+    }
+
+    @Test
+    @DisplayName("测试两段嵌套路径")
+    void testTwoSegmentPath() {
+        EntityField<Order, String> region = EntityField.path(Order::getCustomer, Customer::getRegion);
+
+        assertEquals("customer.region", region.getName());
+        assertTrue(region.isPath());
+    }
+
+    @Test
+    @DisplayName("测试三段嵌套路径与追加路径")
+    void testThreeSegmentPath() {
+        EntityField<Order, String> city = EntityField.path(Order::getCustomer, Customer::getAddress, Address::getCity);
+        EntityField<Order, String> chained = EntityField.of(Order::getCustomer)
+                .then(Customer::getAddress)
+                .then(Address::getCity);
+
+        assertEquals("customer.address.city", city.getName());
+        assertEquals(city, chained);
+    }
+
+    @Test
+    @DisplayName("测试嵌套路径生成查询条件")
+    void testPathCondition() {
+        LambdaQueryWrapper<Order> wrapper = LambdaQueryWrapper.of(Order.class)
+                .eq(EntityField.path(Order::getCustomer, Customer::getRegion), "EU");
+
+        QueryCondition condition = wrapper.getConditions().get(0);
+        assertEquals("customer.region", condition.getField());
+        assertEquals(QueryOperator.EQ, condition.getOperator());
+        assertEquals("EU", condition.getValue());
+    }
+
+    static class Order {
+        private String code;
+        private Customer customer;
+
+        public String getCode() { return code; }
+        public Customer getCustomer() { return customer; }
+    }
+
+    static class Customer {
+        private String region;
+        private Address address;
+
+        public String getRegion() { return region; }
+        public Address getAddress() { return address; }
+    }
+
+    static class Address {
+        private String city;
+
+        public String getCity() { return city; }
+    }
+}
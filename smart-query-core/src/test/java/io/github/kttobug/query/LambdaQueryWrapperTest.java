@@ -7,6 +7,7 @@ import org.junit.jupiter.api.DisplayName;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -298,6 +299,65 @@ class LambdaQueryWrapperTest {
         assertEquals(5000, havingData[1]);
     }
 
+    @Test
+    @DisplayName("测试聚合列与聚合HAVING条件")
+    void testAggregate() {
+        wrapper.select(TestUser::getDepartment).count().sum(TestUser::getSalary).max(TestUser::getAge).as("oldest")
+                .groupBy(TestUser::getDepartment)
+                .having(AggregateFunction.AVG, TestUser::getSalary, QueryOperator.GE, 3000);
+
+        List<QuerySelection> selections = wrapper.getSelections();
+        assertEquals(List.of("department", "count", "sumSalary", "oldest"),
+                selections.stream().map(QuerySelection::getAlias).collect(Collectors.toList()));
+        assertNull(selections.get(1).getField());
+        assertEquals(AggregateFunction.MAX, selections.get(3).getFunction());
+        assertFalse(selections.get(0).isAggregate());
+
+        Object[] havingData = (Object[]) wrapper.getValue(1);
+        assertArrayEquals(new Object[]{QueryOperator.GE, 3000, AggregateFunction.AVG}, havingData);
+        // 投影列不影响条件形状，聚合函数影响投影形状
+        assertEquals(LambdaQueryWrapper.of(TestUser.class).groupBy(TestUser::getDepartment)
+                .having(AggregateFunction.AVG, TestUser::getSalary, QueryOperator.GE, 1).getShapeId(), wrapper.getShapeId());
+        assertNotEquals(LambdaQueryWrapper.of(TestUser.class).groupBy(TestUser::getDepartment)
+                .having(AggregateFunction.SUM, TestUser::getSalary, QueryOperator.GE, 1).getShapeId(), wrapper.getShapeId());
+        assertNotEquals(LambdaQueryWrapper.of(TestUser.class).min(TestUser::getAge).getSelectionShape(),
+                LambdaQueryWrapper.of(TestUser.class).max(TestUser::getAge).getSelectionShape());
+    }
+
+    @Test
+    @DisplayName("测试关联加载")
+    void testFetch() {
+        wrapper.fetch(TestUser::getDepartment, TestUser::getRole).fetchGraph(TestUser::getRole).fetch(TestUser::getRole);
+
+        assertEquals(List.of(new QueryFetch("department", false), new QueryFetch("role", false),
+                new QueryFetch("role", true)), wrapper.getFetches());
+        assertTrue(wrapper.getConditions().isEmpty());
+        // 关联影响查询形状，加载方式不同形状也不同
+        assertNotEquals(LambdaQueryWrapper.of(TestUser.class).getShapeId(), wrapper.getShapeId());
+        assertNotEquals(LambdaQueryWrapper.of(TestUser.class).fetch(TestUser::getDepartment).getShapeId(),
+                LambdaQueryWrapper.of(TestUser.class).fetchGraph(TestUser::getDepartment).getShapeId());
+
+        wrapper.clearJoins();
+        assertTrue(wrapper.getFetches().isEmpty());
+        assertEquals(LambdaQueryWrapper.of(TestUser.class).getShapeId(), wrapper.getShapeId());
+    }
+
+    @Test
+    @DisplayName("测试关联预加载")
+    void testPreload() {
+        long shapeId = wrapper.getShapeId();
+        wrapper.preload(TestUser::getDepartment, TestUser::getName).preload(TestUser::getRole)
+                .preload(EntityField.of("role"));
+
+        assertEquals(List.of("department.name", "role"), wrapper.getPreloads());
+        // 预加载在主查询之后执行，不影响查询形状
+        assertEquals(shapeId, wrapper.getShapeId());
+        assertEquals(wrapper.getPreloads(), wrapper.freeze().getPreloads());
+
+        wrapper.clearJoins();
+        assertTrue(wrapper.getPreloads().isEmpty());
+    }
+
     @Test
     @DisplayName("测试OR逻辑操作符")
     void testOr() {
@@ -337,6 +397,19 @@ class LambdaQueryWrapperTest {
         assertEquals(nestedWrapper, condition.getValue());
     }
 
+    @Test
+    @DisplayName("测试取反")
+    void testNot() {
+        LambdaQueryWrapper<TestUser> nestedWrapper = LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getAge, 30);
+
+        wrapper.not(nestedWrapper);
+
+        assertEquals(QueryOperator.NOT, wrapper.getOperator(0));
+        assertSame(nestedWrapper, wrapper.getValue(0));
+        assertNotEquals(LambdaQueryWrapper.of(TestUser.class).nest(nestedWrapper).getShapeId(), wrapper.getShapeId());
+    }
+
     @Test
     @DisplayName("测试自定义条件")
     void testApply() {
@@ -412,6 +485,82 @@ class LambdaQueryWrapperTest {
         assertTrue(wrapper.isEmpty());
     }
 
+    @Test
+    @DisplayName("测试字段常量与 lambda 生成相同条件")
+    void testEntityFieldMatchesLambda() {
+        EntityField<TestUser, String> name = EntityField.of("name");
+        EntityField<TestUser, Integer> age = EntityField.of("age");
+        List<Integer> range = Arrays.asList(18, 65);
+
+        wrapper.eq(TestUser::getName, "张三")
+               .between(TestUser::getAge, range)
+               .orderByDesc(TestUser::getAge);
+        LambdaQueryWrapper<TestUser> constantWrapper = LambdaQueryWrapper.of(TestUser.class)
+                .eq(name, "张三")
+                .between(age, range)
+                .orderByDesc(age);
+
+        assertEquals(wrapper.getConditions(), constantWrapper.getConditions());
+    }
+
+    @Test
+    @DisplayName("测试字段常量空值忽略")
+    void testEntityFieldWithNullValue() {
+        wrapper.eq(EntityField.<TestUser, String>of("name"), null);
+
+        assertTrue(wrapper.isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试条件扩容与按下标访问")
+    void testConditionStorageGrowth() {
+        for (int i = 0; i < 20; i++) {
+            wrapper.eq(TestUser::getAge, i);
+        }
+
+        assertEquals(20, wrapper.size());
+        assertEquals(QueryOperator.EQ, wrapper.getOperator(19));
+        assertEquals("age", wrapper.getField(19));
+        assertEquals(19, wrapper.getValue(19));
+        assertEquals(new QueryCondition("age", QueryOperator.EQ, 7), wrapper.getConditions().get(7));
+        assertThrows(IndexOutOfBoundsException.class, () -> wrapper.getValue(20));
+    }
+
+    @Test
+    @DisplayName("测试条件视图随修改刷新且可写回包装器")
+    void testConditionView() {
+        wrapper.eq(TestUser::getName, "张三");
+        List<QueryCondition> view = wrapper.getConditions();
+        assertSame(view, wrapper.getConditions());
+        long single = wrapper.getShapeId();
+
+        wrapper.gt(TestUser::getAge, 18);
+        assertEquals(2, view.size());
+        assertEquals(new QueryCondition("age", QueryOperator.GT, 18), view.get(1));
+
+        view.add(new QueryCondition("email", QueryOperator.EQ, "a@b.c"));
+        assertEquals(3, wrapper.size());
+        assertEquals("email", wrapper.getField(2));
+
+        view.add(0, new QueryCondition("role", QueryOperator.NE, "guest"));
+        assertEquals("role", wrapper.getField(0));
+        assertEquals("name", wrapper.getField(1));
+
+        view.set(0, new QueryCondition("role", QueryOperator.EQ, "admin"));
+        assertEquals(QueryOperator.EQ, wrapper.getOperator(0));
+        assertEquals("admin", wrapper.getValue(0));
+
+        view.remove(0);
+        view.removeIf(condition -> !"name".equals(condition.getField()));
+        assertEquals(List.of(new QueryCondition("name", QueryOperator.EQ, "张三")), wrapper.getConditions());
+        assertEquals(single, wrapper.getShapeId());
+        assertEquals(LambdaQueryWrapper.of(TestUser.class).eq(TestUser::getName, "李四").getShapeKey(),
+                wrapper.getShapeKey());
+
+        view.clear();
+        assertTrue(wrapper.isEmpty());
+    }
+
     /**
      * 测试用的用户实体类
      */
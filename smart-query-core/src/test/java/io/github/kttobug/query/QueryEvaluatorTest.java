@@ -0,0 +1,141 @@
+package io.github.kttobug.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryEvaluator 单元测试
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("QueryEvaluator 测试")
+class QueryEvaluatorTest {
+
+    private static final List<TestUser> USERS = List.of(
+            new TestUser("alice", 30),
+            new TestUser("bob", 17),
+            new TestUser("carol", null),
+            new TestUser(null, 45),
+            new TestUser("a_b%c", 30)
+    );
+
+    @Test
+    @DisplayName("测试比较条件和排序")
+    void testComparisonAndOrder() {
+        List<TestUser> result = LambdaQueryWrapper.of(TestUser.class)
+                .gt(TestUser::getAge, 18)
+                .orderByDesc(TestUser::getAge)
+                .orderByAsc(TestUser::getName)
+                .filter(USERS);
+
+        assertEquals(Arrays.asList(null, "a_b%c", "alice"), names(result));
+        // null 视为最大值，降序时排在最前
+        assertEquals("carol", LambdaQueryWrapper.of(TestUser.class).orderByDesc(TestUser::getAge)
+                .filter(USERS).get(0).getName());
+    }
+
+    @Test
+    @DisplayName("测试 null 按三值逻辑处理")
+    void testNullSemantics() {
+        // age 为 null 时 age <> 30 为未知，NOT 之后仍为未知
+        assertEquals(List.of("bob"), names(LambdaQueryWrapper.of(TestUser.class)
+                .ne(TestUser::getAge, 30).isNotNull(TestUser::getName, null).filter(USERS)));
+        assertEquals(List.of("bob"), names(LambdaQueryWrapper.of(TestUser.class)
+                .not(LambdaQueryWrapper.of(TestUser.class).addCondition(new QueryCondition("age", QueryOperator.GE, 18)))
+                .filter(USERS)));
+        assertEquals(List.of("carol"), names(LambdaQueryWrapper.of(TestUser.class)
+                .isNull(TestUser::getAge, null).filter(USERS)));
+        // NOT IN 列表含 null 时没有结果
+        assertTrue(LambdaQueryWrapper.of(TestUser.class)
+                .addCondition(new QueryCondition("age", QueryOperator.NOT_IN, Arrays.asList(1, null)))
+                .filter(USERS).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试 LIKE 通配符")
+    void testLike() {
+        assertEquals(List.of("alice", "a_b%c"), names(LambdaQueryWrapper.of(TestUser.class)
+                .rightLike(TestUser::getName, List.of("a")).filter(USERS)));
+        assertEquals(List.of("a_b%c"), names(LambdaQueryWrapper.of(TestUser.class)
+                .like(TestUser::getName, "b%c").filter(USERS)));
+        assertEquals(List.of("bob", "carol"), names(LambdaQueryWrapper.of(TestUser.class)
+                .leftLike(TestUser::getName, List.of("o_")).filter(USERS)));
+    }
+
+    @Test
+    @DisplayName("测试 IN、BETWEEN 与不同数值类型")
+    void testInAndBetween() {
+        assertEquals(List.of("alice", "a_b%c"), names(LambdaQueryWrapper.of(TestUser.class)
+                .addCondition(new QueryCondition("age", QueryOperator.IN, List.of(30L, 99L))).filter(USERS)));
+        assertEquals(List.of("bob"), names(LambdaQueryWrapper.of(TestUser.class)
+                .addCondition(new QueryCondition("age", QueryOperator.NOT_IN, List.of(30.0, 45)))
+                .filter(USERS)));
+        assertEquals(List.of("alice", "a_b%c"), names(LambdaQueryWrapper.of(TestUser.class)
+                .between(TestUser::getAge, List.of(18, 40)).filter(USERS)));
+        assertTrue(LambdaQueryWrapper.of(TestUser.class)
+                .addCondition(new QueryCondition("age", QueryOperator.IN, List.of())).filter(USERS).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试 OR 与嵌套")
+    void testOrAndNest() {
+        assertEquals(List.of("bob", "carol"), names(LambdaQueryWrapper.of(TestUser.class)
+                .lt(TestUser::getAge, 18)
+                .or()
+                .eq(TestUser::getName, "carol")
+                .filter(USERS)));
+        assertEquals(List.of("alice"), names(LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getAge, 30)
+                .nest(LambdaQueryWrapper.of(TestUser.class).eq(TestUser::getName, "alice").or().eq(TestUser::getName, "x"))
+                .filter(USERS)));
+    }
+
+    @Test
+    @DisplayName("测试并行过滤结果与顺序过滤一致")
+    void testParallel() {
+        List<TestUser> users = IntStream.range(0, 10000)
+                .mapToObj(i -> new TestUser("u" + i, i % 100))
+                .collect(Collectors.toCollection(ArrayList::new));
+        LambdaQueryWrapper<TestUser> wrapper = LambdaQueryWrapper.of(TestUser.class)
+                .addCondition(new QueryCondition("age", QueryOperator.GE, 90))
+                .orderByAsc(TestUser::getAge);
+
+        assertEquals(wrapper.filter(users), wrapper.filter(users, true));
+        assertEquals(1000, wrapper.filter(users, true).size());
+    }
+
+    @Test
+    @DisplayName("测试无法在内存中求值的条件")
+    void testUnsupported() {
+        assertThrows(UnsupportedOperationException.class,
+                () -> LambdaQueryWrapper.of(TestUser.class).apply("age > ?", 1).toPredicate());
+        assertThrows(UnsupportedOperationException.class,
+                () -> LambdaQueryWrapper.of(TestUser.class).groupBy(TestUser::getAge).toPredicate());
+    }
+
+    private static List<String> names(List<TestUser> users) {
+        return users.stream().map(TestUser::getName).collect(Collectors.toList());
+    }
+
+    static class TestUser {
+        private final String name;
+        private final Integer age;
+
+        TestUser(String name, Integer age) {
+            this.name = name;
+            this.age = age;
+        }
+
+        public String getName() { return name; }
+        public Integer getAge() { return age; }
+    }
+}
@@ -0,0 +1,269 @@
+package io.github.kttobug.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryOptimizer 单元测试
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("QueryOptimizer 测试")
+class QueryOptimizerTest {
+
+    private final QueryOptimizer optimizer = QueryOptimizer.defaults();
+
+    @Test
+    @DisplayName("测试没有可改写的条件时返回原包装器")
+    void testUnchanged() {
+        LambdaQueryWrapper<TestUser> wrapper = LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "a")
+                .gt(TestUser::getAge, 1);
+
+        QueryOptimizer.Result<TestUser> result = optimizer.optimize(wrapper);
+
+        assertSame(wrapper, result.getWrapper());
+        assertFalse(result.isRewritten());
+        assertFalse(result.isAlwaysFalse());
+    }
+
+    @Test
+    @DisplayName("测试同一字段的等值 OR 合并为 IN")
+    void testMergeEqualsToIn() {
+        LambdaQueryWrapper<TestUser> wrapper = LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "a")
+                .or()
+                .eq(TestUser::getName, "b")
+                .or()
+                .in(TestUser::getName, List.of("b", "c"))
+                .orderByAsc(TestUser::getAge);
+
+        QueryOptimizer.Result<TestUser> result = optimizer.optimize(wrapper);
+
+        List<QueryCondition> conditions = result.getWrapper().getConditions();
+        assertEquals(2, conditions.size());
+        assertEquals(new QueryCondition("name", QueryOperator.IN, List.of("a", "b", "c")), conditions.get(0));
+        assertEquals(QueryOperator.ORDER_BY_ASC, conditions.get(1).getOperator());
+        assertEquals(1, result.getRewrites().size());
+    }
+
+    @Test
+    @DisplayName("测试闭区间合并为 BETWEEN，开区间只保留最紧的边界")
+    void testFoldRanges() {
+        LambdaQueryWrapper<TestUser> closed = LambdaQueryWrapper.of(TestUser.class)
+                .addCondition(new QueryCondition("age", QueryOperator.GE, 18))
+                .addCondition(new QueryCondition("age", QueryOperator.LE, 60));
+        assertEquals(List.of(new QueryCondition("age", QueryOperator.BETWEEN, List.of(18, 60))),
+                optimizer.optimize(closed).getWrapper().getConditions());
+
+        LambdaQueryWrapper<TestUser> open = LambdaQueryWrapper.of(TestUser.class)
+                .gt(TestUser::getAge, 10)
+                .gt(TestUser::getAge, 20)
+                .lt(TestUser::getAge, 30);
+        assertEquals(List.of(new QueryCondition("age", QueryOperator.GT, 20), new QueryCondition("age", QueryOperator.LT, 30)),
+                optimizer.optimize(open).getWrapper().getConditions());
+    }
+
+    @Test
+    @DisplayName("测试去重并展开多余的嵌套")
+    void testDuplicatesAndNesting() {
+        LambdaQueryWrapper<TestUser> wrapper = LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "a")
+                .nest(LambdaQueryWrapper.of(TestUser.class)
+                        .eq(TestUser::getName, "a")
+                        .ne(TestUser::getAge, 3));
+
+        QueryOptimizer.Result<TestUser> result = optimizer.optimize(wrapper);
+
+        assertEquals(List.of(new QueryCondition("name", QueryOperator.EQ, "a"), new QueryCondition("age", QueryOperator.NE, 3)),
+                result.getWrapper().getConditions());
+        assertEquals(2, result.getRewrites().size());
+    }
+
+    @Test
+    @DisplayName("测试恒假条件使整个查询恒假")
+    void testContradictions() {
+        assertTrue(optimizer.optimize(LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getAge, 1)
+                .eq(TestUser::getAge, 2)).isAlwaysFalse());
+        assertTrue(optimizer.optimize(LambdaQueryWrapper.of(TestUser.class)
+                .gt(TestUser::getAge, 5)
+                .lt(TestUser::getAge, 5)).isAlwaysFalse());
+        assertTrue(optimizer.optimize(LambdaQueryWrapper.of(TestUser.class)
+                .addCondition(new QueryCondition("age", QueryOperator.IN, List.of()))).isAlwaysFalse());
+        // 字符串比较受数据库排序规则影响，不做推理
+        assertFalse(optimizer.optimize(LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "a")
+                .eq(TestUser::getName, "A")).isAlwaysFalse());
+        // Integer 与 Long 无法确定是否相等
+        assertFalse(optimizer.optimize(LambdaQueryWrapper.of(TestUser.class)
+                .addCondition(new QueryCondition("age", QueryOperator.EQ, 1))
+                .addCondition(new QueryCondition("age", QueryOperator.NE, 1L))).isAlwaysFalse());
+    }
+
+    @Test
+    @DisplayName("测试恒假分支从 OR 中删除")
+    void testPruneOrBranch() {
+        LambdaQueryWrapper<TestUser> wrapper = LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getAge, 1)
+                .eq(TestUser::getAge, 2)
+                .or()
+                .eq(TestUser::getName, "a");
+
+        QueryOptimizer.Result<TestUser> result = optimizer.optimize(wrapper);
+
+        assertFalse(result.isAlwaysFalse());
+        assertEquals(List.of(new QueryCondition("name", QueryOperator.EQ, "a")), result.getWrapper().getConditions());
+        assertTrue(ConditionTree.of(result.getWrapper()).isConjunction());
+    }
+
+    @Test
+    @DisplayName("测试禁用规则")
+    void testWithoutRule() {
+        LambdaQueryWrapper<TestUser> wrapper = LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "a")
+                .or()
+                .eq(TestUser::getName, "b");
+
+        assertFalse(optimizer.without(QueryOptimizer.Rule.MERGE_EQUALS_TO_IN).optimize(wrapper).isRewritten());
+        assertFalse(QueryOptimizer.NONE.optimize(wrapper).isRewritten());
+    }
+
+    @Test
+    @DisplayName("测试 NOT 之下的矛盾条件按三值逻辑保留")
+    void testContradictionUnderNot() {
+        LambdaQueryWrapper<TestUser> wrapper = LambdaQueryWrapper.of(TestUser.class)
+                .not(LambdaQueryWrapper.of(TestUser.class).between(TestUser::getAge, List.of(9, 0)));
+
+        QueryOptimizer.Result<TestUser> result = optimizer.optimize(wrapper);
+
+        // age 为 null 时 BETWEEN 为 UNKNOWN，取反后仍不为真，不能改写为不限制
+        assertFalse(result.isAlwaysFalse());
+        List<TestUser> users = List.of(new TestUser("a", null, 1), new TestUser("b", 5, 1));
+        assertEquals(List.of(users.get(1)), QueryEvaluator.filter(result.getWrapper(), users, false));
+
+        LambdaQueryWrapper<TestUser> doubleNegated = LambdaQueryWrapper.of(TestUser.class)
+                .not(LambdaQueryWrapper.of(TestUser.class)
+                        .not(LambdaQueryWrapper.of(TestUser.class)
+                                .addCondition(new QueryCondition("age", QueryOperator.IN, List.of()))));
+        assertTrue(optimizer.optimize(doubleNegated).isAlwaysFalse());
+    }
+
+    @Test
+    @DisplayName("测试随机条件改写前后的结果一致")
+    void testDifferential() {
+        Random random = new Random(20240611L);
+        List<TestUser> users = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            users.add(new TestUser(random.nextInt(5) == 0 ? null : String.valueOf((char) ('a' + random.nextInt(4))),
+                    random.nextInt(4) == 0 ? null : random.nextInt(10),
+                    random.nextInt(4) == 0 ? null : random.nextInt(10)));
+        }
+        for (int round = 0; round < 3000; round++) {
+            LambdaQueryWrapper<TestUser> wrapper = randomWrapper(random, 3);
+
+            QueryOptimizer.Result<TestUser> optimized = optimizer.optimize(wrapper);
+
+            List<TestUser> expected = QueryEvaluator.filter(QueryOptimizer.NONE.optimize(wrapper).getWrapper(),
+                    users, false);
+            List<TestUser> actual = optimized.isAlwaysFalse() ? List.of()
+                    : QueryEvaluator.filter(optimized.getWrapper(), users, false);
+            assertEquals(expected, actual, () -> wrapper.getConditions() + " rewritten by " + optimized.getRewrites());
+        }
+    }
+
+    private static LambdaQueryWrapper<TestUser> randomWrapper(Random random, int depth) {
+        LambdaQueryWrapper<TestUser> wrapper = LambdaQueryWrapper.of(TestUser.class);
+        int terms = 1 + random.nextInt(4);
+        for (int i = 0; i < terms; i++) {
+            if (i > 0 && random.nextInt(3) == 0) {
+                wrapper.or();
+            }
+            int kind = random.nextInt(depth > 0 ? 10 : 8);
+            if (kind == 8) {
+                wrapper.nest(randomWrapper(random, depth - 1));
+            } else if (kind == 9) {
+                wrapper.not(randomWrapper(random, depth - 1));
+            } else {
+                wrapper.addCondition(randomCondition(random));
+            }
+        }
+        return wrapper;
+    }
+
+    private static QueryCondition randomCondition(Random random) {
+        if (random.nextInt(6) == 0) {
+            String name = String.valueOf((char) ('a' + random.nextInt(4)));
+            QueryOperator operator = random.nextBoolean() ? QueryOperator.EQ : QueryOperator.NE;
+            return new QueryCondition("name", operator, name);
+        }
+        String field = random.nextBoolean() ? "age" : "score";
+        int value = random.nextInt(10);
+        switch (random.nextInt(12)) {
+            case 0:
+                return new QueryCondition(field, QueryOperator.EQ, value);
+            case 1:
+                return new QueryCondition(field, QueryOperator.NE, value);
+            case 2:
+                return new QueryCondition(field, QueryOperator.GT, value);
+            case 3:
+                return new QueryCondition(field, QueryOperator.GE, value);
+            case 4:
+                return new QueryCondition(field, QueryOperator.LT, value);
+            case 5:
+                return new QueryCondition(field, QueryOperator.LE, value);
+            case 6:
+                return new QueryCondition(field, QueryOperator.BETWEEN, List.of(value, random.nextInt(10)));
+            case 7:
+                return new QueryCondition(field, QueryOperator.NOT_BETWEEN, List.of(value, random.nextInt(10)));
+            case 8:
+                return new QueryCondition(field, QueryOperator.IN, randomValues(random));
+            case 9:
+                return new QueryCondition(field, QueryOperator.NOT_IN, randomValues(random));
+            case 10:
+                return new QueryCondition(field, QueryOperator.IS_NULL, null);
+            default:
+                return new QueryCondition(field, QueryOperator.IS_NOT_NULL, null);
+        }
+    }
+
+    private static List<Integer> randomValues(Random random) {
+        List<Integer> values = new ArrayList<>();
+        int size = random.nextInt(4);
+        for (int i = 0; i < size; i++) {
+            values.add(random.nextInt(10));
+        }
+        return values;
+    }
+
+    static class TestUser {
+        private String name;
+        private Integer age;
+        private Integer score;
+
+        TestUser() {
+        }
+
+        TestUser(String name, Integer age, Integer score) {
+            this.name = name;
+            this.age = age;
+            this.score = score;
+        }
+
+        public String getName() { return name; }
+        public Integer getAge() { return age; }
+        public Integer getScore() { return score; }
+
+        @Override
+        public String toString() {
+            return name + "/" + age + "/" + score;
+        }
+    }
+}
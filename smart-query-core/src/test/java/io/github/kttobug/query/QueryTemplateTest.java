@@ -0,0 +1,105 @@
+package io.github.kttobug.query;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryTemplate 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("QueryTemplate 测试")
+class QueryTemplateTest {
+
+    @Test
+    @DisplayName("测试冻结后模板与包装器相互独立")
+    void testFreezeCopiesConditions() {
+        LambdaQueryWrapper<TestUser> wrapper = LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "张三");
+        QueryTemplate<TestUser> template = wrapper.freeze();
+
+        wrapper.gt(TestUser::getAge, 18);
+
+        assertEquals(1, template.getConditions().size());
+        assertThrows(UnsupportedOperationException.class,
+                () -> template.getConditions().add(new QueryCondition("age", QueryOperator.GT, 1)));
+        assertEquals(LambdaQueryWrapper.of(TestUser.class).eq(TestUser::getName, "x").getShapeId(),
+                template.getShapeId());
+    }
+
+    @Test
+    @DisplayName("测试按字段名绑定")
+    void testBindByFieldName() {
+        QueryTemplate<TestUser> template = LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "张三")
+                .gt(TestUser::getAge, 18)
+                .freeze();
+
+        BoundQuery<TestUser> bound = template.bind("age", 30);
+
+        assertEquals("张三", bound.getValue(0));
+        assertEquals(30, bound.getValue(1));
+        assertEquals(30, bound.getConditions().get(1).getValue());
+        // 模板默认值不受影响
+        assertEquals(18, template.getConditions().get(1).getValue());
+        assertEquals(template.getShapeId(), bound.getShapeId());
+    }
+
+    @Test
+    @DisplayName("测试同一字段多个条件需要显式命名")
+    void testNamedSlots() {
+        QueryTemplate<TestUser> template = LambdaQueryWrapper.of(TestUser.class)
+                .gt(TestUser::getAge, 0).named("minAge")
+                .lt(TestUser::getAge, 100).named("maxAge")
+                .freeze();
+
+        BoundQuery<TestUser> bound = template.bind("minAge", 20).bind("maxAge", 30);
+        assertEquals(20, bound.getValue(0));
+        assertEquals(30, bound.getValue(1));
+
+        QueryTemplate<TestUser> unnamed = LambdaQueryWrapper.of(TestUser.class)
+                .gt(TestUser::getAge, 0)
+                .lt(TestUser::getAge, 100)
+                .freeze();
+        assertThrows(IllegalArgumentException.class, () -> unnamed.bind("age", 1));
+        assertThrows(IllegalArgumentException.class, () -> unnamed.bind("missing", 1));
+    }
+
+    @Test
+    @DisplayName("测试 named 只能跟在带值的条件之后")
+    void testNamedRequiresBindableCondition() {
+        assertThrows(IllegalStateException.class, () -> LambdaQueryWrapper.of(TestUser.class).named("x"));
+        assertThrows(IllegalStateException.class,
+                () -> LambdaQueryWrapper.of(TestUser.class).orderByAsc(TestUser::getAge).named("x"));
+        assertThrows(IllegalStateException.class, () -> LambdaQueryWrapper.of(TestUser.class)
+                .eq(TestUser::getName, "a").named("x")
+                .eq(TestUser::getAge, 1).named("x")
+                .freeze());
+    }
+
+    @Test
+    @DisplayName("测试绑定值改变 IN 长度档位时形状随之改变")
+    void testBoundShapeFollowsInBucket() {
+        QueryTemplate<TestUser> template = LambdaQueryWrapper.of(TestUser.class)
+                .in(TestUser::getAge, List.of(1, 2, 3))
+                .freeze();
+
+        assertEquals(template.getShapeId(), template.bind("age", List.of(4, 5, 6, 7)).getShapeId());
+        assertNotEquals(template.getShapeId(), template.bind("age", List.of(1, 2, 3, 4, 5)).getShapeId());
+        assertSame(template.getShapeKey(), template.bind("age", List.of(4, 5, 6, 7)).getShapeKey());
+        assertNotEquals(template.getShapeKey(), template.bind("age", List.of(1, 2, 3, 4, 5)).getShapeKey());
+    }
+
+    static class TestUser {
+        private String name;
+        private Integer age;
+
+        public String getName() { return name; }
+        public Integer getAge() { return age; }
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.kttobug.query.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * BoundedCache 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("BoundedCache 测试")
+class BoundedCacheTest {
+
+    @Test
+    @DisplayName("测试命中与未命中计数")
+    void testHitAndMissCount() {
+        BoundedCache<String, String> cache = new BoundedCache<>(4);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("A", cache.get("a", key -> { loads.incrementAndGet(); return "A"; }));
+        assertEquals("A", cache.get("a", key -> { loads.incrementAndGet(); return "other"; }));
+
+        BoundedCache.CacheStatistics statistics = cache.getStatistics();
+        assertEquals(1, loads.get());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(1, statistics.getMissCount());
+        assertEquals(0.5, statistics.getHitRate());
+    }
+
+    @Test
+    @DisplayName("测试超出容量时淘汰最久未使用的条目")
+    void testLruEviction() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(2);
+        cache.get(1, key -> key);
+        cache.get(2, key -> key);
+        // 访问 1 后，2 成为最久未使用
+        cache.get(1, key -> key);
+        cache.get(3, key -> key);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+        assertNotNull(cache.getIfPresent(3));
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("测试清空缓存保留统计")
+    void testClear() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(2);
+        cache.get(1, key -> key);
+        cache.clear();
+
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getStatistics().getMissCount());
+    }
+
+    @Test
+    @DisplayName("测试非法容量")
+    void testInvalidMaxSize() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<>(0));
+    }
+
+    @Test
+    @DisplayName("测试直接写入的条目参与淘汰")
+    void testPut() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(2);
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(1, "c");
+        cache.getIfPresent(2);
+        cache.put(3, "d");
+
+        assertNull(cache.getIfPresent(1));
+        assertEquals("b", cache.getIfPresent(2));
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+        assertEquals(0, cache.getStatistics().getMissCount());
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.kttobug.query.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * InListStrategy 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("InListStrategy 测试")
+class InListStrategyTest {
+
+    @Test
+    @DisplayName("测试去重后补齐到 2 的幂")
+    void testDeduplicateAndPad() {
+        InList inList = InListStrategy.defaults().apply(List.of(3, 1, 3, 5, 7, 1));
+
+        assertEquals(List.of(3, 1, 5, 7), inList.getValues());
+        assertEquals(List.of("a", "b", "c", "c"), InListStrategy.defaults().apply(List.of("a", "b", "c")).getValues());
+        assertEquals(0, inList.getRangeCount());
+    }
+
+    @Test
+    @DisplayName("测试不同长度落在同一档位时布局相同")
+    void testLayoutIndependentOfLength() {
+        InListStrategy strategy = InListStrategy.defaults();
+
+        assertEquals(strategy.apply(List.of(1, 2, 3)).getLayout(), strategy.apply(List.of(9)).getLayout());
+        assertEquals(8, strategy.apply(List.of(1, 2, 3, 4, 5)).getValues().size());
+        assertTrue(strategy.apply(List.of()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试 NONE 原样保留")
+    void testNone() {
+        assertTrue(InListStrategy.NONE.isIdentity());
+        assertEquals(List.of(2, 2, 1), InListStrategy.NONE.apply(List.of(2, 2, 1)).getValues());
+    }
+
+    @Test
+    @DisplayName("测试连续整数压缩为区间")
+    void testRangeCompaction() {
+        InListStrategy strategy = InListStrategy.defaults().withRangeCompaction(3);
+
+        InList inList = strategy.apply(List.of(10L, 4L, 1L, 2L, 3L, 11L, 12L, 13L, 20L));
+
+        assertEquals(2, inList.getRangeCount());
+        assertEquals(1L, inList.getRangeBound(0));
+        assertEquals(4L, inList.getRangeBound(1));
+        assertEquals(10L, inList.getRangeBound(2));
+        assertEquals(13L, inList.getRangeBound(3));
+        assertEquals(List.of(20L), inList.getValues());
+    }
+
+    @Test
+    @DisplayName("测试区间个数同样补齐，非整数不压缩")
+    void testRangePaddingAndNonIntegral() {
+        InListStrategy strategy = InListStrategy.defaults().withRangeCompaction(2);
+
+        InList inList = strategy.apply(List.of(1, 2, 5, 6, 9, 10));
+        assertEquals(4, inList.getRangeCount());
+        assertEquals(9, inList.getRangeBound(6));
+        assertEquals(10, inList.getRangeBound(7));
+        assertTrue(inList.getValues().isEmpty());
+
+        assertEquals(0, strategy.apply(List.of("1", "2", "3")).getRangeCount());
+        assertEquals(0, strategy.apply(List.of(1, 2L, 3)).getRangeCount());
+        assertThrows(IllegalArgumentException.class, () -> strategy.withRangeCompaction(1));
+    }
+
+    @Test
+    @DisplayName("测试超过上限时拆分，补齐不超过上限")
+    void testChunking() {
+        InListStrategy strategy = InListStrategy.defaults().withChunkSize(3);
+
+        List<InList> chunks = strategy.applyChunked(List.of(1, 2, 3, 4, 5, 6, 7, 2));
+        assertEquals(3, chunks.size());
+        assertEquals(List.of(1, 2, 3), chunks.get(0).getValues());
+        assertEquals(List.of(4, 5, 6), chunks.get(1).getValues());
+        assertEquals(List.of(7), chunks.get(2).getValues());
+
+        assertEquals(1, strategy.applyChunked(List.of(1, 2, 3)).size());
+        assertEquals(3, strategy.apply(List.of(1, 2, 3)).getValues().size());
+        assertEquals(1, InListStrategy.defaults().withChunkSize(0).applyChunked(List.of(1, 2, 3, 4, 5)).size());
+    }
+
+    @Test
+    @DisplayName("测试临时表配置校验")
+    void testTemporaryTable() {
+        InListStrategy strategy = InListStrategy.defaults().withTemporaryTable("tmp.in_values", 5000);
+
+        assertTrue(strategy.useTemporaryTable(5000));
+        assertFalse(strategy.useTemporaryTable(4999));
+        assertFalse(InListStrategy.defaults().useTemporaryTable(Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> strategy.withTemporaryTable("t; drop table x", 1));
+        assertThrows(IllegalArgumentException.class, () -> strategy.withParallelism(0));
+    }
+}
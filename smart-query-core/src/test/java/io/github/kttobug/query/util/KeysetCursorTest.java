@@ -0,0 +1,62 @@
+package io.github.kttobug.query.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KeysetCursor 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("KeysetCursor 测试")
+class KeysetCursorTest {
+
+    enum Status { ACTIVE, CLOSED }
+
+    @Test
+    @DisplayName("测试各类型排序键编码后还原")
+    void testRoundTrip() {
+        List<Object> values = Arrays.asList(null, 42, -7L, "订单", new BigDecimal("-12.340"), Status.CLOSED,
+                LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6), OffsetDateTime.of(2024, 1, 2, 3, 4, 5, 0, ZoneOffset.ofHours(8)),
+                UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), true, 1.5d);
+        List<Class<?>> types = Arrays.asList(String.class, Integer.class, Long.class, String.class, BigDecimal.class,
+                Status.class, LocalDateTime.class, OffsetDateTime.class, UUID.class, Boolean.class, Double.class);
+
+        String cursor = KeysetCursor.encode(99, values);
+
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+        assertEquals(values, KeysetCursor.decode(cursor, 99, types));
+    }
+
+    @Test
+    @DisplayName("测试游标紧凑")
+    void testCompact() {
+        // 版本、签名、个数、两个小整数
+        assertTrue(KeysetCursor.encode(QueryShape.EMPTY, List.of(3, 120L)).length() <= 16);
+    }
+
+    @Test
+    @DisplayName("测试拒绝排序定义不同或格式错误的游标")
+    void testInvalid() {
+        String cursor = KeysetCursor.encode(1, List.of(1L));
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(cursor, 2, List.of(Long.class)));
+        assertThrows(IllegalArgumentException.class,
+                () -> KeysetCursor.decode(cursor, 1, List.of(Long.class, Long.class)));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a cursor", 1, List.of(Long.class)));
+        assertThrows(IllegalArgumentException.class,
+                () -> KeysetCursor.decode(cursor.substring(0, cursor.length() - 1), 1, List.of(Long.class)));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.encode(1, List.of(new Object())));
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.kttobug.query.util;
+
+import io.github.kttobug.query.SerializableFunction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LambdaUtils 单元测试
+ *
+ * @author kttobug
+ * @since 1.0.0
+ */
+@DisplayName("LambdaUtils 测试")
+class LambdaUtilsTest {
+
+    @Test
+    @DisplayName("测试解析 getter 字段名")
+    void testResolveGetter() {
+        assertEquals("name", LambdaUtils.resolveFieldName(Sample::getName));
+        assertEquals("createTime", LambdaUtils.resolveFieldName(Sample::getCreateTime));
+    }
+
+    @Test
+    @DisplayName("测试解析 is 前缀字段名")
+    void testResolveBooleanGetter() {
+        assertEquals("active", LambdaUtils.resolveFieldName(Sample::isActive));
+    }
+
+    @Test
+    @DisplayName("测试重复解析命中缓存")
+    void testRepeatedResolutionIsCached() {
+        SerializableFunction<Sample, String> getter = Sample::getName;
+        String first = LambdaUtils.resolveFieldName(getter);
+        String second = LambdaUtils.resolveFieldName(getter);
+
+        assertSame(first, second);
+    }
+
+    @Test
+    @DisplayName("测试不同方法引用互不干扰")
+    void testDistinctMethodReferences() {
+        assertEquals("name", LambdaUtils.resolveFieldName(Sample::getName));
+        assertEquals("age", LambdaUtils.resolveFieldName(Sample::getAge));
+        assertEquals("name", LambdaUtils.resolveFieldName(Sample::getName));
+    }
+
+    @Test
+    @DisplayName("测试并发解析")
+    void testConcurrentResolution() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return LambdaUtils.resolveFieldName(Sample::getAge);
+                }));
+            }
+            start.countDown();
+            for (Future<String> future : futures) {
+                assertEquals("age", future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static class Sample {
+        private String name;
+        private Integer age;
+        private boolean active;
+        private String createTime;
+
+        public String getName() { return name; }
+        public Integer getAge() { return age; }
+        public boolean isActive() { return active; }
+        public String getCreateTime() { return createTime; }
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.kttobug.query.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ProjectionMapper 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("ProjectionMapper 测试")
+class ProjectionMapperTest {
+
+    private static final List<String> NAMES = List.of("name", "id");
+
+    private static final List<Class<?>> TYPES = List.of(String.class, Long.class);
+
+    @Test
+    @DisplayName("测试 record 按组件名匹配列")
+    void testRecordByName() {
+        ProjectionMapper<Row> mapper = ProjectionMapper.of(Row.class, NAMES, TYPES);
+
+        assertEquals(new Row(7L, "alice"), mapper.map(new Object[]{"alice", 7L}));
+        assertSame(mapper, ProjectionMapper.of(Row.class, NAMES, TYPES));
+    }
+
+    @Test
+    @DisplayName("测试 record 按位置匹配列与类型不符")
+    void testRecordByPosition() {
+        ProjectionMapper<Row> mapper = ProjectionMapper.of(Row.class, List.of("a", "b"), List.of(long.class, String.class));
+
+        assertEquals(new Row(7L, "alice"), mapper.map(new Object[]{7L, "alice"}));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProjectionMapper.of(Row.class, List.of("id", "name"), List.of(String.class, String.class)));
+        assertThrows(IllegalArgumentException.class,
+                () -> ProjectionMapper.of(Row.class, List.of("a", "b"), List.of(String.class, Long.class)));
+    }
+
+    @Test
+    @DisplayName("测试接口代理")
+    void testInterface() {
+        ProjectionMapper<View> mapper = ProjectionMapper.of(View.class, NAMES, TYPES);
+        View view = mapper.map(new Object[]{"alice", 7L});
+
+        assertEquals(7L, view.getId());
+        assertEquals("alice", view.name());
+        assertEquals("alice#7", view.label());
+        assertEquals(view, mapper.map(new Object[]{"alice", 7L}));
+        assertNotEquals(view, mapper.map(new Object[]{"bob", 7L}));
+        assertEquals("View{name=alice, id=7}", view.toString());
+        assertThrows(IllegalArgumentException.class, () -> ProjectionMapper.of(View.class, List.of("id"), List.of(Long.class)));
+    }
+
+    @Test
+    @DisplayName("测试普通类的构造器与 setter")
+    void testClass() {
+        Dto byConstructor = ProjectionMapper.of(Dto.class, NAMES, TYPES).map(new Object[]{"alice", 7L});
+        assertEquals("alice", byConstructor.name);
+        assertEquals(7L, byConstructor.id);
+
+        Dto bySetter = ProjectionMapper.of(Dto.class, List.of("id", "name"), List.of(long.class, String.class))
+                .map(new Object[]{7L, "alice"});
+        assertEquals("alice", bySetter.name);
+        assertEquals(7L, bySetter.id);
+    }
+
+    @Test
+    @DisplayName("测试单列直接返回值")
+    void testScalar() {
+        assertEquals(7L, ProjectionMapper.of(Long.class, List.of("id"), List.of(long.class)).map(new Object[]{7L}));
+        assertEquals("alice", ProjectionMapper.of(CharSequence.class, List.of("name"), List.of(String.class))
+                .map(new Object[]{"alice"}));
+    }
+
+    record Row(long id, String name) {
+    }
+
+    interface View {
+        Long getId();
+
+        String name();
+
+        default String label() {
+            return name() + "#" + getId();
+        }
+    }
+
+    static class Dto {
+        private String name;
+        private long id;
+
+        Dto() {
+        }
+
+        Dto(String name, Long id) {
+            this.name = name;
+            this.id = id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.kttobug.query.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PropertyAccessor 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("PropertyAccessor 测试")
+class PropertyAccessorTest {
+
+    @Test
+    @DisplayName("测试 getter、字段与嵌套路径")
+    void testRead() {
+        Sample sample = new Sample("alice", 30, new Sample("bob", 40, null));
+
+        assertEquals("alice", PropertyAccessor.of(Sample.class, "name").get(sample));
+        assertEquals(true, PropertyAccessor.of(Sample.class, "adult").get(sample));
+        assertEquals(40, PropertyAccessor.of(Sample.class, "parent.age").get(sample));
+        assertSame(PropertyAccessor.of(Sample.class, "name"), PropertyAccessor.of(Sample.class, "name"));
+    }
+
+    @Test
+    @DisplayName("测试中间值为 null 与未知属性")
+    void testNullAndUnknown() {
+        Sample sample = new Sample("alice", 30, null);
+
+        assertNull(PropertyAccessor.of(Sample.class, "parent.name").get(sample));
+        assertThrows(IllegalArgumentException.class, () -> PropertyAccessor.of(Sample.class, "missing"));
+    }
+
+    static class Sample {
+        private final String name;
+        private final int age;
+        private final Sample parent;
+
+        Sample(String name, int age, Sample parent) {
+            this.name = name;
+            this.age = age;
+            this.parent = parent;
+        }
+
+        public String getName() { return name; }
+        public boolean isAdult() { return age >= 18; }
+        public Sample getParent() { return parent; }
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.kttobug.query.util;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryShape 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("QueryShape 测试")
+class QueryShapeTest {
+
+    @Test
+    @DisplayName("测试取值不同结构相同的查询指纹相同")
+    void testShapeIgnoresValues() {
+        LambdaQueryWrapper<Sample> first = LambdaQueryWrapper.of(Sample.class)
+                .eq(Sample::getName, "alice")
+                .gt(Sample::getAge, 18)
+                .orderByDesc(Sample::getAge);
+        LambdaQueryWrapper<Sample> second = LambdaQueryWrapper.of(Sample.class)
+                .eq(Sample::getName, "bob")
+                .gt(Sample::getAge, 60)
+                .orderByDesc(Sample::getAge);
+
+        assertEquals(first.getShapeId(), second.getShapeId());
+    }
+
+    @Test
+    @DisplayName("测试字段、操作符和顺序影响指纹")
+    void testShapeDependsOnStructure() {
+        long base = LambdaQueryWrapper.of(Sample.class)
+                .eq(Sample::getName, "a").gt(Sample::getAge, 1).getShapeId();
+
+        assertNotEquals(base, LambdaQueryWrapper.of(Sample.class)
+                .ne(Sample::getName, "a").gt(Sample::getAge, 1).getShapeId());
+        assertNotEquals(base, LambdaQueryWrapper.of(Sample.class)
+                .eq(Sample::getEmail, "a").gt(Sample::getAge, 1).getShapeId());
+        assertNotEquals(base, LambdaQueryWrapper.of(Sample.class)
+                .gt(Sample::getAge, 1).eq(Sample::getName, "a").getShapeId());
+        assertNotEquals(base, LambdaQueryWrapper.of(Other.class)
+                .eq(Other::getName, "a").gt(Other::getAge, 1).getShapeId());
+    }
+
+    @Test
+    @DisplayName("测试 IN 列表长度按档位计入指纹")
+    void testInListBucket() {
+        long three = LambdaQueryWrapper.of(Sample.class).in(Sample::getAge, List.of(1, 2, 3)).getShapeId();
+        long four = LambdaQueryWrapper.of(Sample.class).in(Sample::getAge, List.of(4, 5, 6, 7)).getShapeId();
+        long five = LambdaQueryWrapper.of(Sample.class).in(Sample::getAge, List.of(1, 2, 3, 4, 5)).getShapeId();
+
+        assertEquals(three, four);
+        assertNotEquals(four, five);
+
+        assertEquals(0, QueryShape.inListBucket(0));
+        assertEquals(1, QueryShape.inListBucket(1));
+        assertEquals(2, QueryShape.inListBucket(2));
+        assertEquals(8, QueryShape.inListBucket(5));
+        assertEquals(1024, QueryShape.inListBucket(1000));
+    }
+
+    @Test
+    @DisplayName("测试嵌套查询和 JOIN 计入指纹")
+    void testNestAndJoin() {
+        long plain = LambdaQueryWrapper.of(Sample.class).eq(Sample::getName, "a").getShapeId();
+        long joined = LambdaQueryWrapper.of(Sample.class).eq(Sample::getName, "a")
+                .leftJoin(Other.class, "o", "o.name = name").getShapeId();
+        assertNotEquals(plain, joined);
+
+        long nestedEq = LambdaQueryWrapper.of(Sample.class)
+                .nest(LambdaQueryWrapper.of(Sample.class).eq(Sample::getAge, 1)).getShapeId();
+        long nestedNe = LambdaQueryWrapper.of(Sample.class)
+                .nest(LambdaQueryWrapper.of(Sample.class).ne(Sample::getAge, 1)).getShapeId();
+        assertNotEquals(nestedEq, nestedNe);
+    }
+
+    @Test
+    @DisplayName("测试清空条件后指纹复位")
+    void testClearResetsShape() {
+        long empty = LambdaQueryWrapper.of(Sample.class).getShapeId();
+        LambdaQueryWrapper<Sample> wrapper = LambdaQueryWrapper.of(Sample.class)
+                .eq(Sample::getName, "a")
+                .innerJoin(Other.class, "o", "o.name = name");
+
+        wrapper.clear().clearJoins();
+
+        assertEquals(empty, wrapper.getShapeId());
+    }
+
+    @Test
+    @DisplayName("测试结构键忽略取值但区分指纹碰撞的 SQL 片段")
+    void testShapeKey() {
+        LambdaQueryWrapper<Sample> first = LambdaQueryWrapper.of(Sample.class)
+                .eq(Sample::getName, "alice").in(Sample::getAge, List.of(1, 2, 3));
+        LambdaQueryWrapper<Sample> second = LambdaQueryWrapper.of(Sample.class)
+                .eq(Sample::getName, "bob").in(Sample::getAge, List.of(4, 5, 6, 7));
+        assertEquals(first.getShapeKey(), second.getShapeKey());
+        assertEquals(first.getShapeKey().hashCode(), second.getShapeKey().hashCode());
+
+        // "Aa" 与 "BB" 的 String.hashCode() 相同
+        LambdaQueryWrapper<Sample> aa = LambdaQueryWrapper.of(Sample.class).apply("name = 'Aa'");
+        LambdaQueryWrapper<Sample> bb = LambdaQueryWrapper.of(Sample.class).apply("name = 'BB'");
+        assertEquals(aa.getShapeId(), bb.getShapeId());
+        assertNotEquals(aa.getShapeKey(), bb.getShapeKey());
+
+        LambdaQueryWrapper<Sample> wrapper = LambdaQueryWrapper.of(Sample.class).eq(Sample::getName, "a");
+        QueryShape.Key before = wrapper.getShapeKey();
+        wrapper.gt(Sample::getAge, 1);
+        assertNotEquals(before, wrapper.getShapeKey());
+        assertEquals(wrapper.getShapeKey(), wrapper.freeze().getShapeKey());
+    }
+
+    static class Sample {
+        private String name;
+        private Integer age;
+        private String email;
+
+        public String getName() { return name; }
+        public Integer getAge() { return age; }
+        public String getEmail() { return email; }
+    }
+
+    static class Other {
+        private String name;
+        private Integer age;
+
+        public String getName() { return name; }
+        public Integer getAge() { return age; }
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.kttobug.query.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * RangePartitioner 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("RangePartitioner 测试")
+class RangePartitionerTest {
+
+    @Test
+    @DisplayName("测试支持的字段类型")
+    void testSupported() {
+        assertTrue(RangePartitioner.isSupported(long.class));
+        assertTrue(RangePartitioner.isSupported(LocalDateTime.class));
+        assertTrue(RangePartitioner.isSupported(java.sql.Timestamp.class));
+        assertFalse(RangePartitioner.isSupported(String.class));
+        assertFalse(RangePartitioner.isSupported(UUID.class));
+    }
+
+    @Test
+    @DisplayName("测试首轮探测边界等距且严格递增")
+    void testProbes() {
+        assertEquals(List.of(25L, 50L, 75L), firstProbe(new RangePartitioner(0L, 100L, 100, 4), 3).getValues());
+        // 取值范围过窄时去掉取整后重复的边界
+        assertEquals(List.of(1, 2), firstProbe(new RangePartitioner(0, 2, 100, 4), 8).getValues());
+        assertEquals(List.of(LocalDate.of(2024, 1, 11), LocalDate.of(2024, 1, 21)),
+                firstProbe(new RangePartitioner(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31), 100, 4), 2)
+                        .getValues());
+        assertNull(firstProbe(new RangePartitioner(0L, 100L, 100, 4), 3).getLower());
+        assertTrue(new RangePartitioner(5L, 5L, 100, 4).probes(4).isEmpty());
+        assertTrue(new RangePartitioner(0L, 100L, 100, 1).probes(4).isEmpty());
+        assertTrue(new RangePartitioner(0L, 20L, 0, 4).probes(4).isEmpty());
+    }
+
+    @Test
+    @DisplayName("测试均匀分布一轮即可选出边界")
+    void testUniform() {
+        RangePartitioner partitioner = new RangePartitioner(0L, 80L, 800, 4);
+        RangePartitioner.Probe probe = firstProbe(partitioner, 7);
+        assertEquals(List.of(10L, 20L, 30L, 40L, 50L, 60L, 70L), probe.getValues());
+        partitioner.record(probe, new long[]{100, 200, 300, 400, 500, 600, 700});
+
+        assertTrue(partitioner.probes(7).isEmpty());
+        assertEquals(List.of(20L, 40L, 60L), partitioner.bounds());
+    }
+
+    @Test
+    @DisplayName("测试倾斜分布时细分行数过多的区间")
+    void testSkewed() {
+        // 900 行在 [0, 900)，100 行分散在 [900, 100000]
+        RangePartitioner partitioner = new RangePartitioner(0L, 100_000L, 1000, 4);
+        RangePartitioner.Probe probe = firstProbe(partitioner, 3);
+        assertEquals(List.of(25_000L, 50_000L, 75_000L), probe.getValues());
+        partitioner.record(probe, new long[]{925, 950, 975});
+        assertEquals(List.of(25_000L), partitioner.bounds());
+
+        probe = firstProbe(partitioner, 3);
+        assertEquals(0L, probe.getLower());
+        assertEquals(25_000L, probe.getUpper());
+        assertEquals(List.of(6_250L, 12_500L, 18_750L), probe.getValues());
+        partitioner.record(probe, new long[]{906, 912, 918});
+
+        probe = firstProbe(partitioner, 4);
+        assertEquals(List.of(1_250L, 2_500L, 3_750L, 5_000L), probe.getValues());
+        partitioner.record(probe, new long[]{901, 902, 903, 904});
+
+        partitioner.record(firstProbe(partitioner, 4), new long[]{250, 500, 750, 900});
+        assertEquals(List.of(250L, 500L, 750L), partitioner.bounds());
+    }
+
+    @Test
+    @DisplayName("测试细分区间的行数加上区间之前的行数")
+    void testRefineOffset() {
+        RangePartitioner partitioner = new RangePartitioner(0L, 100L, 100, 2);
+        partitioner.record(firstProbe(partitioner, 1), new long[]{10});
+
+        // [50, 100] 有 90 行，区间内小于 75 的有 30 行
+        RangePartitioner.Probe probe = firstProbe(partitioner, 1);
+        assertEquals(50L, probe.getLower());
+        assertEquals(100L, probe.getUpper());
+        partitioner.record(probe, new long[]{30});
+
+        assertEquals(List.of(75L), partitioner.bounds());
+    }
+
+    @Test
+    @DisplayName("测试不产生空分区")
+    void testNoEmptyPartition() {
+        RangePartitioner allAfter = new RangePartitioner(0L, 20L, 100, 2);
+        allAfter.record(firstProbe(allAfter, 1), new long[]{0});
+        assertTrue(allAfter.bounds().isEmpty());
+
+        RangePartitioner allBefore = new RangePartitioner(0L, 20L, 100, 2);
+        allBefore.record(firstProbe(allBefore, 1), new long[]{100});
+        assertTrue(allBefore.bounds().isEmpty());
+
+        assertTrue(new RangePartitioner(0L, 20L, 100, 4).bounds().isEmpty());
+    }
+
+    private static RangePartitioner.Probe firstProbe(RangePartitioner partitioner, int count) {
+        List<RangePartitioner.Probe> probes = partitioner.probes(count);
+        assertFalse(probes.isEmpty());
+        return probes.get(0);
+    }
+}
@@ -0,0 +1,285 @@
+package io.github.kttobug.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 实体字段常量注解处理器。
+ *
+ * <p>为每个 {@code @Entity} 实体生成一个 {@code <实体名>Fields} 类，其中每个持久化字段
+ * 对应一个 {@code EntityField<实体, 字段类型>} 常量。字段名在编译期确定，
+ * {@code LambdaQueryWrapper} 使用这些常量时无需在运行时解析 lambda；
+ * 字段改名或拼写错误会直接导致编译失败。</p>
+ *
+ * <p>生成示例：</p>
+ * <pre>{@code
+ * public final class UserFields {
+ *     public static final EntityField<User, Long> ID = EntityField.of("id");
+ *     public static final EntityField<User, String> USERNAME = EntityField.of("username");
+ * }
+ * }</pre>
+ *
+ * <p>静态字段、{@code transient} 字段以及标注了 {@code @Transient} 的字段会被跳过；
+ * {@code @MappedSuperclass} 父类中的字段会一并生成。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@SupportedAnnotationTypes({"jakarta.persistence.Entity", "javax.persistence.Entity"})
+public class EntityFieldProcessor extends AbstractProcessor {
+
+    /** 生成类名后缀 */
+    static final String CLASS_SUFFIX = "Fields";
+
+    private static final String ENTITY_FIELD_TYPE = "io.github.kttobug.query.EntityField";
+
+    private static final Set<String> PERSISTENT_SUPERCLASS_ANNOTATIONS = Set.of(
+            "jakarta.persistence.Entity", "jakarta.persistence.MappedSuperclass",
+            "javax.persistence.Entity", "javax.persistence.MappedSuperclass");
+
+    private static final Set<String> TRANSIENT_ANNOTATIONS = Set.of(
+            "jakarta.persistence.Transient", "javax.persistence.Transient");
+
+    private Types types;
+    private Filer filer;
+    private Messager messager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        this.types = processingEnv.getTypeUtils();
+        this.filer = processingEnv.getFiler();
+        this.messager = processingEnv.getMessager();
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement entity : ElementFilter.typesIn(roundEnv.getElementsAnnotatedWith(annotation))) {
+                generate(entity);
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement entity) {
+        Map<String, VariableElement> constants = new LinkedHashMap<>();
+        for (VariableElement field : collectFields(entity)) {
+            String constantName = toConstantName(field.getSimpleName().toString());
+            VariableElement existing = constants.putIfAbsent(constantName, field);
+            if (existing != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "字段 " + field.getSimpleName() + " 与 " + existing.getSimpleName()
+                                + " 生成的常量名 " + constantName + " 冲突", field);
+                return;
+            }
+        }
+
+        String packageName = packageOf(entity).getQualifiedName().toString();
+        String className = generatedSimpleName(entity);
+        String entityType = entity.getQualifiedName().toString();
+
+        try {
+            JavaFileObject file = filer.createSourceFile(
+                    packageName.isEmpty() ? className : packageName + "." + className, entity);
+            try (Writer writer = file.openWriter()) {
+                writeSource(writer, packageName, className, entityType, constants);
+            }
+        } catch (IOException e) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "无法生成字段常量类 " + className + ": " + e.getMessage(), entity);
+        }
+    }
+
+    private void writeSource(Writer writer, String packageName, String className, String entityType,
+                             Map<String, VariableElement> constants) throws IOException {
+        if (!packageName.isEmpty()) {
+            writer.write("package " + packageName + ";\n\n");
+        }
+        writer.write("import " + ENTITY_FIELD_TYPE + ";\n\n");
+        writer.write("import javax.annotation.processing.Generated;\n\n");
+        writer.write("/**\n * {@link " + entityType + "} 的字段常量，由 smart-query-processor 生成，请勿手动修改。\n */\n");
+        writer.write("@Generated(\"" + EntityFieldProcessor.class.getName() + "\")\n");
+        writer.write("public final class " + className + " {\n\n");
+        for (Map.Entry<String, VariableElement> entry : constants.entrySet()) {
+            VariableElement field = entry.getValue();
+            writer.write("    public static final EntityField<" + entityType + ", " + typeName(field.asType()) + "> "
+                    + entry.getKey() + " = EntityField.of(\"" + field.getSimpleName() + "\");\n\n");
+        }
+        writer.write("    private " + className + "() {\n    }\n}\n");
+    }
+
+    /**
+     * 收集实体及其持久化父类中的字段，父类字段在前。
+     */
+    private List<VariableElement> collectFields(TypeElement entity) {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        TypeElement current = entity;
+        while (current != null) {
+            hierarchy.add(0, current);
+            current = persistentSuperclass(current);
+        }
+
+        List<VariableElement> fields = new ArrayList<>();
+        for (TypeElement type : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                if (isPersistent(field)) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    private TypeElement persistentSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        return hasAnnotation(element, PERSISTENT_SUPERCLASS_ANNOTATIONS) ? element : null;
+    }
+
+    private boolean isPersistent(VariableElement field) {
+        Set<Modifier> modifiers = field.getModifiers();
+        return !modifiers.contains(Modifier.STATIC)
+                && !modifiers.contains(Modifier.TRANSIENT)
+                && !hasAnnotation(field, TRANSIENT_ANNOTATIONS);
+    }
+
+    private boolean hasAnnotation(Element element, Set<String> annotationNames) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) mirror.getAnnotationType().asElement();
+            if (annotationNames.contains(annotationType.getQualifiedName().toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成源码中使用的类型名，基本类型装箱，类型变量取擦除类型，并去掉类型注解。
+     */
+    private String typeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return types.boxedClass((PrimitiveType) type).getQualifiedName().toString();
+        }
+        return referenceTypeName(type);
+    }
+
+    private String referenceTypeName(TypeMirror type) {
+        switch (type.getKind()) {
+            case ARRAY:
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                String componentName = component.getKind().isPrimitive()
+                        ? component.getKind().name().toLowerCase()
+                        : referenceTypeName(component);
+                return componentName + "[]";
+            case DECLARED:
+                DeclaredType declared = (DeclaredType) type;
+                StringBuilder name = new StringBuilder(
+                        ((TypeElement) declared.asElement()).getQualifiedName().toString());
+                List<? extends TypeMirror> arguments = declared.getTypeArguments();
+                if (!arguments.isEmpty()) {
+                    name.append('<');
+                    for (int i = 0; i < arguments.size(); i++) {
+                        if (i > 0) {
+                            name.append(", ");
+                        }
+                        name.append(referenceTypeName(arguments.get(i)));
+                    }
+                    name.append('>');
+                }
+                return name.toString();
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                if (wildcard.getExtendsBound() != null) {
+                    return "? extends " + referenceTypeName(wildcard.getExtendsBound());
+                }
+                if (wildcard.getSuperBound() != null) {
+                    return "? super " + referenceTypeName(wildcard.getSuperBound());
+                }
+                return "?";
+            default:
+                return referenceTypeName(types.erasure(type));
+        }
+    }
+
+    private PackageElement packageOf(Element element) {
+        Element current = element;
+        while (current.getKind() != ElementKind.PACKAGE) {
+            current = current.getEnclosingElement();
+        }
+        return (PackageElement) current;
+    }
+
+    /**
+     * 嵌套实体以外部类名作前缀，避免与同包其他实体的生成类重名。
+     */
+    private String generatedSimpleName(TypeElement entity) {
+        StringBuilder name = new StringBuilder(entity.getSimpleName());
+        Element enclosing = entity.getEnclosingElement();
+        TypeElement current = entity;
+        while (current.getNestingKind() == NestingKind.MEMBER) {
+            TypeElement outer = (TypeElement) enclosing;
+            name.insert(0, outer.getSimpleName() + "_");
+            current = outer;
+            enclosing = outer.getEnclosingElement();
+        }
+        return name.append(CLASS_SUFFIX).toString();
+    }
+
+    /**
+     * 驼峰字段名转常量名，例如 {@code createTime -> CREATE_TIME}、{@code userURL -> USER_URL}。
+     */
+    static String toConstantName(String fieldName) {
+        StringBuilder result = new StringBuilder(fieldName.length() + 4);
+        for (int i = 0; i < fieldName.length(); i++) {
+            char c = fieldName.charAt(i);
+            if (Character.isUpperCase(c) && i > 0) {
+                char previous = fieldName.charAt(i - 1);
+                boolean nextIsLower = i + 1 < fieldName.length() && Character.isLowerCase(fieldName.charAt(i + 1));
+                if (Character.isLowerCase(previous) || Character.isDigit(previous)
+                        || (Character.isUpperCase(previous) && nextIsLower)) {
+                    result.append('_');
+                }
+            }
+            result.append(Character.toUpperCase(c));
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,139 @@
+package io.github.kttobug.processor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * EntityFieldProcessor 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("EntityFieldProcessor 测试")
+class EntityFieldProcessorTest {
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    @DisplayName("测试为实体生成字段常量")
+    void testGenerateFieldConstants() throws IOException {
+        writeSource("demo/BaseEntity.java",
+                "package demo;\n"
+                        + "@jakarta.persistence.MappedSuperclass\n"
+                        + "public abstract class BaseEntity {\n"
+                        + "    private Long id;\n"
+                        + "}\n");
+        writeSource("demo/Order.java",
+                "package demo;\n"
+                        + "@jakarta.persistence.Entity\n"
+                        + "public class Order extends BaseEntity {\n"
+                        + "    private static final long serialVersionUID = 1L;\n"
+                        + "    private String orderNo;\n"
+                        + "    private int quantity;\n"
+                        + "    private java.util.List<String> tags;\n"
+                        + "    private transient String cache;\n"
+                        + "    @jakarta.persistence.Transient\n"
+                        + "    private String display;\n"
+                        + "}\n");
+        writeSource("demo/Usage.java",
+                "package demo;\n"
+                        + "import io.github.kttobug.query.LambdaQueryWrapper;\n"
+                        + "class Usage {\n"
+                        + "    LambdaQueryWrapper<Order> wrapper() {\n"
+                        + "        return LambdaQueryWrapper.of(Order.class)\n"
+                        + "                .eq(OrderFields.ORDER_NO, \"A-1\")\n"
+                        + "                .gt(OrderFields.QUANTITY, 3)\n"
+                        + "                .orderByDesc(OrderFields.ID);\n"
+                        + "    }\n"
+                        + "}\n");
+
+        DiagnosticCollector<JavaFileObject> diagnostics = compile();
+        assertTrue(diagnostics.getDiagnostics().stream().noneMatch(d -> d.getKind() == Diagnostic.Kind.ERROR),
+                diagnostics.getDiagnostics().toString());
+
+        String generated = Files.readString(workDir.resolve("generated/demo/OrderFields.java"));
+        assertTrue(generated.contains("EntityField<demo.Order, java.lang.Long> ID = EntityField.of(\"id\")"));
+        assertTrue(generated.contains("EntityField<demo.Order, java.lang.String> ORDER_NO = EntityField.of(\"orderNo\")"));
+        assertTrue(generated.contains("EntityField<demo.Order, java.lang.Integer> QUANTITY = EntityField.of(\"quantity\")"));
+        assertTrue(generated.contains("EntityField<demo.Order, java.util.List<java.lang.String>> TAGS"));
+        assertFalse(generated.contains("SERIAL_VERSION_UID"));
+        assertFalse(generated.contains("CACHE"));
+        assertFalse(generated.contains("DISPLAY"));
+    }
+
+    @Test
+    @DisplayName("测试字段名拼写错误导致编译失败")
+    void testTypoFailsCompilation() throws IOException {
+        writeSource("demo/Account.java",
+                "package demo;\n"
+                        + "@jakarta.persistence.Entity\n"
+                        + "public class Account {\n"
+                        + "    private String email;\n"
+                        + "}\n");
+        writeSource("demo/Usage.java",
+                "package demo;\n"
+                        + "import io.github.kttobug.query.LambdaQueryWrapper;\n"
+                        + "class Usage {\n"
+                        + "    Object wrapper() {\n"
+                        + "        return LambdaQueryWrapper.of(Account.class).eq(AccountFields.EMIAL, \"a@b.c\");\n"
+                        + "    }\n"
+                        + "}\n");
+
+        DiagnosticCollector<JavaFileObject> diagnostics = compile();
+        assertTrue(diagnostics.getDiagnostics().stream()
+                .anyMatch(d -> d.getKind() == Diagnostic.Kind.ERROR && d.getMessage(null).contains("EMIAL")));
+    }
+
+    @Test
+    @DisplayName("测试常量名转换")
+    void testToConstantName() {
+        assertEquals("ID", EntityFieldProcessor.toConstantName("id"));
+        assertEquals("CREATE_TIME", EntityFieldProcessor.toConstantName("createTime"));
+        assertEquals("USER_URL", EntityFieldProcessor.toConstantName("userURL"));
+        assertEquals("URL_PATH", EntityFieldProcessor.toConstantName("URLPath"));
+        assertEquals("ADDRESS2_LINE", EntityFieldProcessor.toConstantName("address2Line"));
+    }
+
+    private void writeSource(String relativePath, String content) throws IOException {
+        Path file = workDir.resolve("src").resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    private DiagnosticCollector<JavaFileObject> compile() throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        Path classes = Files.createDirectories(workDir.resolve("classes"));
+        Path generated = Files.createDirectories(workDir.resolve("generated"));
+
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8);
+             var sources = Files.walk(workDir.resolve("src"))) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromPaths(
+                    sources.filter(p -> p.toString().endsWith(".java")).toList());
+            List<String> options = List.of(
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-d", classes.toString(),
+                    "-s", generated.toString());
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null, units);
+            task.setProcessors(List.of(new EntityFieldProcessor()));
+            task.call();
+        }
+        return diagnostics;
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.kttobug.spring;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * 分批执行超大 IN 列表查询。
+ * 
+ * <p>并发执行时最多 {@code parallelism} 个工作者（含调用线程）从共享计数器领取批次，
+ * 同时占用的连接数不超过并发数。所有查询共用一个有界线程池，线程数不超过 CPU 核数，
+ * 池满时辅助工作者排队；调用线程自身也领取批次，排队的工作者开始时批次可能已被领完，
+ * 因此不会因线程池饱和而阻塞。工作线程为守护线程，空闲后自动回收。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+final class ChunkedExecution {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final ThreadFactory THREAD_FACTORY = runnable -> {
+        Thread thread = new Thread(runnable, "smart-query-chunk-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    };
+
+    /** 线程池的最大线程数 */
+    static final int MAX_WORKERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private static final ThreadPoolExecutor WORKERS = newWorkers();
+
+    private ChunkedExecution() {
+    }
+
+    private static ThreadPoolExecutor newWorkers() {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(MAX_WORKERS, MAX_WORKERS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), THREAD_FACTORY);
+        workers.allowCoreThreadTimeOut(true);
+        return workers;
+    }
+
+    /**
+     * 执行所有批次，结果按批次顺序返回
+     * 
+     * @param count 批次数
+     * @param parallelism 最大并发数，不大于 1 时在调用线程顺序执行
+     * @param task 按批次下标执行查询
+     * @param <R> 单批结果类型
+     * @return 各批结果
+     */
+    @SuppressWarnings("unchecked")
+    static <R> List<R> run(int count, int parallelism, IntFunction<R> task) {
+        Object[] results = new Object[count];
+        if (parallelism <= 1 || count == 1) {
+            for (int i = 0; i < count; i++) {
+                results[i] = task.apply(i);
+            }
+            return (List<R>) Arrays.asList(results);
+        }
+
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                results[i] = task.apply(i);
+            }
+        };
+        int workers = Math.min(parallelism, count);
+        List<Future<?>> futures = new ArrayList<>(workers - 1);
+        for (int i = 1; i < workers; i++) {
+            futures.add(WORKERS.submit(worker));
+        }
+        try {
+            worker.run();
+        } catch (RuntimeException e) {
+            // 让其他工作者尽快停止领取新批次
+            next.set(count);
+            throw e;
+        }
+        for (Future<?> future : futures) {
+            await(future);
+        }
+        return (List<R>) Arrays.asList(results);
+    }
+
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for chunked query", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Chunked query failed", cause);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.util.InList;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.ParameterExpression;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * 编译好的参数化查询，按查询形状缓存复用。
+ * 
+ * <p>条件值不进入 {@link CriteriaQuery} 树，而是以 {@link ParameterExpression} 占位，
+ * 每个占位记录取值位置（第几个条件、集合中的第几个元素）。同形状的查询再次执行时
+ * 只需从条件中取值绑定参数，不再重建查询树。同一个查询树实例反复提交给
+ * Hibernate，配合 {@link #HINT_QUERY_PLAN_CACHEABLE} 可命中其 SQL 翻译缓存。</p>
+ * 
+ * <p>查询树编译完成后只读，可在线程间共享。</p>
+ * 
+ * @param <R> 结果类型
+ * @author kttobug
+ * @since 1.1.0
+ */
+final class CompiledQuery<R> {
+
+    /** Hibernate 6 缓存 Criteria 查询翻译结果的提示 */
+    static final String HINT_QUERY_PLAN_CACHEABLE = "hibernate.query.plan.cacheable";
+
+    /** JPA 按实体图加载关联的提示，图中未列出的属性保持映射定义的加载方式 */
+    static final String HINT_LOAD_GRAPH = "jakarta.persistence.loadgraph";
+
+    private final CriteriaQuery<R> criteria;
+
+    private final List<ParameterSlot> slots;
+
+    /** 随查询加载的实体图，没有时为 null */
+    private final EntityGraph<?> graph;
+
+    CompiledQuery(CriteriaQuery<R> criteria, List<ParameterSlot> slots) {
+        this(criteria, slots, null);
+    }
+
+    CompiledQuery(CriteriaQuery<R> criteria, List<ParameterSlot> slots, EntityGraph<?> graph) {
+        this.criteria = criteria;
+        this.slots = List.copyOf(slots);
+        this.graph = graph;
+    }
+
+    /**
+     * 创建查询并绑定本次执行的参数值
+     * 
+     * @param entityManager 实体管理器
+     * @param values 按条件下标取本次执行的条件值，形状须与编译时相同
+     * @return 已绑定参数的查询
+     */
+    TypedQuery<R> createQuery(EntityManager entityManager, IntFunction<Object> values) {
+        TypedQuery<R> query = entityManager.createQuery(criteria);
+        query.setHint(HINT_QUERY_PLAN_CACHEABLE, true);
+        if (graph != null) {
+            query.setHint(HINT_LOAD_GRAPH, graph);
+        }
+        for (ParameterSlot slot : slots) {
+            query.setParameter(slot.parameter, slot.valueOf(values));
+        }
+        return query;
+    }
+
+    CriteriaQuery<R> getCriteria() {
+        return criteria;
+    }
+
+    int getParameterCount() {
+        return slots.size();
+    }
+
+    /**
+     * 参数占位及其取值位置
+     */
+    static final class ParameterSlot {
+        private final ParameterExpression<Object> parameter;
+        /** 嵌套条件的下标路径，顶层条件为空数组 */
+        private final int[] nestPath;
+        private final int conditionIndex;
+        /** 集合值中的元素下标，-1 表示取整个值 */
+        private final int elementIndex;
+        /** LIKE 模式的前后缀，非 LIKE 参数为 null */
+        private final String prefix;
+        private final String suffix;
+
+        ParameterSlot(ParameterExpression<Object> parameter, int[] nestPath, int conditionIndex, int elementIndex,
+                      String prefix, String suffix) {
+            this.parameter = parameter;
+            this.nestPath = nestPath;
+            this.conditionIndex = conditionIndex;
+            this.elementIndex = elementIndex;
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        Object valueOf(IntFunction<Object> values) {
+            Object value;
+            if (nestPath.length == 0) {
+                value = values.apply(conditionIndex);
+            } else {
+                // 嵌套包装器的值不经过 IN 列表整理，直接从包装器读取
+                LambdaQueryWrapper<?> nested = (LambdaQueryWrapper<?>) values.apply(nestPath[0]);
+                for (int i = 1; i < nestPath.length; i++) {
+                    nested = (LambdaQueryWrapper<?>) nested.getValue(nestPath[i]);
+                }
+                value = nested.getValue(conditionIndex);
+            }
+            if (value instanceof InList) {
+                // 整理后的 IN 列表：元素下标对应区间边界，-1 对应离散值
+                InList inList = (InList) value;
+                return elementIndex >= 0 ? inList.getRangeBound(elementIndex) : inList.getValues();
+            }
+            if (elementIndex >= 0) {
+                value = value instanceof Object[] ? ((Object[]) value)[elementIndex] : elementAt((Iterable<?>) value, elementIndex);
+            } else if (value instanceof Iterable && !(value instanceof Collection)) {
+                value = toList((Iterable<?>) value);
+            }
+            return prefix != null ? prefix + value + suffix : value;
+        }
+
+        private static Object elementAt(Iterable<?> values, int index) {
+            if (values instanceof List) {
+                return ((List<?>) values).get(index);
+            }
+            Iterator<?> it = values.iterator();
+            for (int i = 0; i < index; i++) {
+                it.next();
+            }
+            return it.next();
+        }
+
+        private static List<Object> toList(Iterable<?> values) {
+            List<Object> list = new ArrayList<>();
+            values.forEach(list::add);
+            return list;
+        }
+    }
+}
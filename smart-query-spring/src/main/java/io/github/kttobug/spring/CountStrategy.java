@@ -0,0 +1,155 @@
+package io.github.kttobug.spring;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * 带总数分页（{@link LambdaQueryExecutor#page}）取得总数的方式。
+ *
+ * <p>大表上带条件的精确 {@code count(*)} 往往比本页查询本身还慢，可按场景选择代价更低的方式：</p>
+ * <ul>
+ *   <li>{@link #exact()}：精确计数，方言支持时以窗口函数随本页一起读取，默认方式；</li>
+ *   <li>{@link #slice()}：多读一行判断是否有下一页，不计数，总数只是下界；</li>
+ *   <li>{@link #cached(Duration)}：按查询形状和条件值缓存精确计数，存活期内不感知数据变化；</li>
+ *   <li>{@link #estimated()}：结果不多时精确计数，否则按数据库的统计信息和 id 区间抽样估算。</li>
+ * </ul>
+ *
+ * <p>可在每次调用时传入，也可在仓库接口上以 {@link PageCount} 指定，或声明一个该类型的 Bean 作为所有仓库的默认值。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class CountStrategy {
+
+    /**
+     * 计数方式
+     */
+    public enum Mode {
+
+        /** 精确计数 */
+        EXACT,
+
+        /** 多读一行，不计数 */
+        SLICE,
+
+        /** 限时缓存的精确计数 */
+        CACHED,
+
+        /** 估算 */
+        ESTIMATED
+    }
+
+    private static final CountStrategy EXACT = new CountStrategy(Mode.EXACT, null);
+
+    private static final CountStrategy SLICE = new CountStrategy(Mode.SLICE, null);
+
+    private static final CountStrategy ESTIMATED = new CountStrategy(Mode.ESTIMATED, null);
+
+    private final Mode mode;
+
+    /** 缓存计数的存活时间，其他方式为 null */
+    private final Duration ttl;
+
+    private CountStrategy(Mode mode, Duration ttl) {
+        this.mode = mode;
+        this.ttl = ttl;
+    }
+
+    /**
+     * 精确计数
+     *
+     * @return 计数策略
+     */
+    public static CountStrategy exact() {
+        return EXACT;
+    }
+
+    /**
+     * 多读一行判断是否有下一页，不执行计数。总数为已读到的行数：有下一页时比本页末尾多一行
+     *
+     * @return 计数策略
+     */
+    public static CountStrategy slice() {
+        return SLICE;
+    }
+
+    /**
+     * 按查询形状和条件值缓存精确计数
+     *
+     * @param ttl 存活时间
+     * @return 计数策略
+     * @throws IllegalArgumentException 存活时间不是正数
+     */
+    public static CountStrategy cached(Duration ttl) {
+        Objects.requireNonNull(ttl, "ttl");
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("TTL must be positive: " + ttl);
+        }
+        return new CountStrategy(Mode.CACHED, ttl);
+    }
+
+    /**
+     * 估算计数：结果不多时精确计数，否则以数据库统计信息中的表行数乘以 id 区间抽样得到的选择率，
+     * 没有统计信息时按抽样的行密度推算表行数
+     *
+     * @return 计数策略
+     */
+    public static CountStrategy estimated() {
+        return ESTIMATED;
+    }
+
+    /**
+     * 按 {@link PageCount} 注解创建
+     *
+     * @param annotation 仓库接口上的注解
+     * @return 计数策略
+     */
+    static CountStrategy of(PageCount annotation) {
+        switch (annotation.value()) {
+            case SLICE:
+                return SLICE;
+            case CACHED:
+                return cached(Duration.ofSeconds(annotation.ttlSeconds()));
+            case ESTIMATED:
+                return ESTIMATED;
+            default:
+                return EXACT;
+        }
+    }
+
+    /**
+     * 获取计数方式
+     *
+     * @return 计数方式
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 获取缓存计数的存活时间
+     *
+     * @return 存活时间，非缓存方式为 null
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    @Override
+    public String toString() {
+        return ttl != null ? "CountStrategy{" + mode + ", ttl=" + ttl + '}' : "CountStrategy{" + mode + '}';
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        CountStrategy that = (CountStrategy) o;
+        return mode == that.mode && Objects.equals(ttl, that.ttl);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(mode, ttl);
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.kttobug.spring;
+
+/**
+ * 深分页的延迟连接设置。
+ *
+ * <p>{@code OFFSET} 较大时，数据库需要按排序读出并丢弃前面的全部行；若每行都读取整个实体，丢弃的行也要回表。
+ * 延迟连接把分页拆为两步：先以相同的条件、排序和 {@code OFFSET/LIMIT} 只查询 id，排序列与 id 在同一索引中时
+ * 可以只扫描索引；再以 {@code id IN (...)} 加载本页实体，按第一步的顺序返回。</p>
+ *
+ * <p>偏移量不小于 {@link #getMinOffset()} 的 {@code listWithPagination} 等分页查询自动使用延迟连接，
+ * 浅分页仍是一条语句。声明一个该类型的 Bean 可以调整阈值或关闭。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class DeferredJoin {
+
+    /** 默认的起始偏移量 */
+    public static final int DEFAULT_MIN_OFFSET = 1000;
+
+    private static final DeferredJoin DEFAULTS = new DeferredJoin(DEFAULT_MIN_OFFSET);
+
+    private static final DeferredJoin DISABLED = new DeferredJoin(-1);
+
+    /** 使用延迟连接的最小偏移量，-1 表示关闭 */
+    private final int minOffset;
+
+    private DeferredJoin(int minOffset) {
+        this.minOffset = minOffset;
+    }
+
+    /**
+     * 偏移量达到 {@link #DEFAULT_MIN_OFFSET} 时使用延迟连接
+     *
+     * @return 延迟连接设置
+     */
+    public static DeferredJoin defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * 不使用延迟连接
+     *
+     * @return 延迟连接设置
+     */
+    public static DeferredJoin disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * 偏移量达到 {@code minOffset} 时使用延迟连接
+     *
+     * @param minOffset 最小偏移量（行数，即页码乘以每页条数）
+     * @return 延迟连接设置
+     * @throws IllegalArgumentException 最小偏移量为负数
+     */
+    public static DeferredJoin fromOffset(int minOffset) {
+        if (minOffset < 0) {
+            throw new IllegalArgumentException("Minimum offset must not be negative: " + minOffset);
+        }
+        return new DeferredJoin(minOffset);
+    }
+
+    /**
+     * 是否启用
+     *
+     * @return 启用时返回 true
+     */
+    public boolean isEnabled() {
+        return minOffset >= 0;
+    }
+
+    /**
+     * 获取使用延迟连接的最小偏移量
+     *
+     * @return 最小偏移量，关闭时为 -1
+     */
+    public int getMinOffset() {
+        return minOffset;
+    }
+
+    /**
+     * 该偏移量的分页查询是否使用延迟连接
+     *
+     * @param offset 偏移量
+     * @return 使用时返回 true
+     */
+    public boolean appliesTo(int offset) {
+        return minOffset >= 0 && offset >= minOffset;
+    }
+
+    @Override
+    public String toString() {
+        return isEnabled() ? "DeferredJoin{minOffset=" + minOffset + '}' : "DeferredJoin{disabled}";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return minOffset == ((DeferredJoin) o).minOffset;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(minOffset);
+    }
+}
@@ -0,0 +1,263 @@
+package io.github.kttobug.spring;
+
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 实体属性表，字段名到 JPA Metamodel 属性的不可变映射。
+ * 
+ * <p>在仓库启动时按实体类型构建一次。构建谓词时通过 {@code root.get(Attribute)}
+ * 取路径，Hibernate 不必在每次执行时按名称重新解析属性；未知字段在生成 SQL 之前
+ * 就会被拒绝。</p>
+ * 
+ * <p>以 {@code .} 分隔的嵌套路径（如 {@code customer.region}）在首次使用时解析为
+ * 属性链并缓存。取路径时同一查询内的路径前缀共享一个 {@link Join}，
+ * 对 {@code customer.*} 的多个条件只产生一次连接。</p>
+ * 
+ * @param <T> 实体类型
+ * @author kttobug
+ * @since 1.1.0
+ */
+public final class EntityAttributeTable<T> {
+
+    private final Class<T> entityClass;
+
+    private final Map<String, Attribute<? super T, ?>> attributes;
+
+    /** 单一 id 属性名，复合主键或非实体类型时为 null */
+    private final String idAttributeName;
+
+    /** 已解析的嵌套路径，规模受限于代码中出现的不同路径数 */
+    private final Map<String, List<Attribute<?, ?>>> resolvedPaths = new ConcurrentHashMap<>();
+
+    private EntityAttributeTable(Class<T> entityClass, Map<String, Attribute<? super T, ?>> attributes,
+                                 String idAttributeName) {
+        this.entityClass = entityClass;
+        this.attributes = Map.copyOf(attributes);
+        this.idAttributeName = idAttributeName;
+    }
+
+    /**
+     * 根据 Metamodel 构建实体属性表
+     * 
+     * @param metamodel JPA Metamodel
+     * @param entityClass 实体类
+     * @param <T> 实体类型
+     * @return 实体属性表
+     */
+    public static <T> EntityAttributeTable<T> of(Metamodel metamodel, Class<T> entityClass) {
+        ManagedType<T> managedType = metamodel.managedType(entityClass);
+        Map<String, Attribute<? super T, ?>> attributes = new HashMap<>();
+        List<String> ids = new ArrayList<>(1);
+        for (Attribute<? super T, ?> attribute : managedType.getAttributes()) {
+            attributes.put(attribute.getName(), attribute);
+            if (attribute instanceof SingularAttribute && ((SingularAttribute<?, ?>) attribute).isId()) {
+                ids.add(attribute.getName());
+            }
+        }
+        return new EntityAttributeTable<>(entityClass, attributes, ids.size() == 1 ? ids.get(0) : null);
+    }
+
+    /**
+     * 获取字段对应的属性
+     * 
+     * @param field 字段名
+     * @return 属性
+     * @throws IllegalArgumentException 字段不是该实体的持久化属性
+     */
+    public Attribute<? super T, ?> getAttribute(String field) {
+        Attribute<? super T, ?> attribute = attributes.get(field);
+        if (attribute == null) {
+            throw new IllegalArgumentException(
+                    "Unknown field '" + field + "' on entity " + entityClass.getName());
+        }
+        return attribute;
+    }
+
+    /**
+     * 获取字段或嵌套路径对应的属性链
+     * 
+     * @param path 字段名或以 {@code .} 分隔的属性路径
+     * @return 属性链，单个字段时只有一个元素
+     * @throws IllegalArgumentException 路径中存在未知属性
+     */
+    public List<Attribute<?, ?>> getAttributePath(String path) {
+        if (path.indexOf('.') < 0) {
+            return List.of(getAttribute(path));
+        }
+        List<Attribute<?, ?>> chain = resolvedPaths.get(path);
+        if (chain == null) {
+            // 解析失败时直接抛出，不缓存
+            chain = resolvePath(path);
+            resolvedPaths.putIfAbsent(path, chain);
+        }
+        return chain;
+    }
+
+    /**
+     * 字段或属性路径的值是否可能为 null
+     * 
+     * <p>路径上任一属性可选（{@code optional}）或是集合属性时返回 true；
+     * 基本类型、{@code @Column(nullable = false)} 和 id 属性不可为 null。</p>
+     * 
+     * @param path 字段名或以 {@code .} 分隔的属性路径
+     * @return 可能为 null 时返回 true
+     * @throws IllegalArgumentException 路径中存在未知属性
+     */
+    public boolean isNullable(String path) {
+        for (Attribute<?, ?> attribute : getAttributePath(path)) {
+            if (!(attribute instanceof SingularAttribute) || ((SingularAttribute<?, ?>) attribute).isOptional()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private List<Attribute<?, ?>> resolvePath(String path) {
+        String[] segments = path.split("\\.");
+        List<Attribute<?, ?>> chain = new ArrayList<>(segments.length);
+        Attribute<?, ?> current = getAttribute(segments[0]);
+        chain.add(current);
+        for (int i = 1; i < segments.length; i++) {
+            ManagedType<?> owner = targetManagedType(current);
+            if (owner == null) {
+                throw new IllegalArgumentException("Cannot navigate into '" + segments[i - 1]
+                        + "' of path '" + path + "' on entity " + entityClass.getName());
+            }
+            try {
+                current = owner.getAttribute(segments[i]);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown field '" + segments[i] + "' in path '" + path
+                        + "' on entity " + entityClass.getName(), e);
+            }
+            chain.add(current);
+        }
+        return List.copyOf(chain);
+    }
+
+    private static ManagedType<?> targetManagedType(Attribute<?, ?> attribute) {
+        Type<?> type;
+        if (attribute instanceof PluralAttribute) {
+            type = ((PluralAttribute<?, ?, ?>) attribute).getElementType();
+        } else if (attribute instanceof SingularAttribute) {
+            type = ((SingularAttribute<?, ?>) attribute).getType();
+        } else {
+            return null;
+        }
+        return type instanceof ManagedType ? (ManagedType<?>) type : null;
+    }
+
+    /**
+     * 通过属性对象从查询根取路径
+     * 
+     * <p>不复用连接，适用于单个字段或一次性查询。</p>
+     * 
+     * @param from 查询根
+     * @param field 字段名或属性路径
+     * @param <Y> 字段类型
+     * @return 字段路径
+     */
+    public <Y> Path<Y> getPath(From<?, ?> from, String field) {
+        return getPath(from, field, new HashMap<>());
+    }
+
+    /**
+     * 通过属性对象从查询根取路径，路径前缀的连接记录在 {@code joins} 中复用
+     * 
+     * @param from 查询根
+     * @param field 字段名或属性路径
+     * @param joins 当前查询的连接缓存，键为路径前缀
+     * @param <Y> 字段类型
+     * @return 字段路径
+     */
+    public <Y> Path<Y> getPath(From<?, ?> from, String field, Map<String, From<?, ?>> joins) {
+        return getPath(from, field, joins, prefix -> JoinType.INNER);
+    }
+
+    /**
+     * 通过属性对象从查询根取路径，关联按路径前缀决定连接方式
+     * 
+     * <p>连接方式只在前缀第一次连接时决定，之后的路径复用同一个连接。</p>
+     * 
+     * @param from 查询根
+     * @param field 字段名或属性路径
+     * @param joins 当前查询的连接缓存，键为路径前缀
+     * @param joinTypes 按路径前缀给出连接方式
+     * @param <Y> 字段类型
+     * @return 字段路径
+     */
+    @SuppressWarnings("unchecked")
+    public <Y> Path<Y> getPath(From<?, ?> from, String field, Map<String, From<?, ?>> joins,
+                               Function<String, JoinType> joinTypes) {
+        List<Attribute<?, ?>> chain = getAttributePath(field);
+        if (chain.size() == 1) {
+            return (Path<Y>) get(from, chain.get(0));
+        }
+
+        Path<?> current = from;
+        int prefixEnd = -1;
+        for (int i = 0; i < chain.size() - 1; i++) {
+            Attribute<?, ?> attribute = chain.get(i);
+            prefixEnd = field.indexOf('.', prefixEnd + 1);
+            if (attribute.isAssociation() && current instanceof From) {
+                From<?, ?> parent = (From<?, ?>) current;
+                current = joins.computeIfAbsent(field.substring(0, prefixEnd),
+                        prefix -> join(parent, attribute, joinTypes.apply(prefix)));
+            } else {
+                // 嵌入属性无需连接，直接导航
+                current = get(current, attribute);
+            }
+        }
+        return (Path<Y>) get(current, chain.get(chain.size() - 1));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Path<?> get(Path<?> parent, Attribute<?, ?> attribute) {
+        if (attribute instanceof SingularAttribute) {
+            return parent.get((SingularAttribute) attribute);
+        }
+        // 集合属性的 get(PluralAttribute) 只返回 Expression，按名称取路径
+        return parent.get(attribute.getName());
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Join<?, ?> join(From<?, ?> parent, Attribute<?, ?> attribute, JoinType joinType) {
+        if (attribute instanceof SingularAttribute) {
+            return parent.join((SingularAttribute) attribute, joinType);
+        }
+        return parent.join(attribute.getName(), joinType);
+    }
+
+    /**
+     * 获取实体类
+     * 
+     * @return 实体类
+     */
+    public Class<T> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * 获取 id 属性名
+     * 
+     * @return 单一 id 属性名，复合主键（{@code @IdClass}）时为 null
+     */
+    public String getIdAttributeName() {
+        return idAttributeName;
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.kttobug.spring;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link QueryResultCache} 的 Hibernate 集成：写事件监听与按 id 批量加载。
+ *
+ * <p>写操作在刷新时和事务提交后各通知一次：刷新时的通知使并发读取不会写入执行期间的旧结果，
+ * 提交后的通知使在提交前读到旧数据的结果失效。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+final class HibernateResultCache {
+
+    private HibernateResultCache() {
+    }
+
+    /**
+     * 为持久化单元注册写事件监听
+     *
+     * @throws IllegalStateException JPA 实现不是 Hibernate
+     */
+    static void register(EntityManagerFactory entityManagerFactory, QueryResultCache cache) {
+        SessionFactoryImplementor sessionFactory;
+        try {
+            sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Query result cache requires Hibernate as the JPA provider", e);
+        }
+        if (!cache.markBound(sessionFactory)) {
+            return;
+        }
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        Listener listener = new Listener(cache);
+        registry.appendListeners(EventType.POST_INSERT, listener);
+        registry.appendListeners(EventType.POST_UPDATE, listener);
+        registry.appendListeners(EventType.POST_DELETE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+    }
+
+    /**
+     * 按 id 批量加载实体，保持 id 的顺序；已在持久化上下文中的实体不再查询。
+     *
+     * @return 实体列表，任何一个 id 已不存在时返回 null
+     */
+    static <T> List<T> load(EntityManager entityManager, Class<T> entityClass, List<?> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        EntityManagerFactory factory = entityManager.getEntityManagerFactory();
+        // 优先使用当前事务或 open-in-view 绑定的 EntityManager，否则临时创建
+        EntityManager target = EntityManagerFactoryUtils.getTransactionalEntityManager(factory);
+        if (target != null) {
+            return load(target.unwrap(Session.class), entityClass, ids);
+        }
+        EntityManager temporary = factory.createEntityManager();
+        try {
+            return load(temporary.unwrap(Session.class), entityClass, ids);
+        } finally {
+            temporary.close();
+        }
+    }
+
+    private static <T> List<T> load(Session session, Class<T> entityClass, List<?> ids) {
+        List<Object> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<T> loaded = session.byMultipleIds(entityClass).enableSessionCheck(true).multiLoad(distinct);
+        Map<Object, T> byId = new HashMap<>(distinct.size() * 2);
+        for (int i = 0; i < distinct.size(); i++) {
+            T entity = loaded.get(i);
+            if (entity == null) {
+                return null;
+            }
+            byId.put(distinct.get(i), entity);
+        }
+        List<T> result = new ArrayList<>(ids.size());
+        for (Object id : ids) {
+            result.add(byId.get(id));
+        }
+        return result;
+    }
+
+    private static final class Listener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+            PostCommitDeleteEventListener {
+
+        private final QueryResultCache cache;
+
+        Listener(QueryResultCache cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public void onPostInsert(PostInsertEvent event) {
+            cache.invalidate(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            cache.invalidate(event.getPersister().getMappedClass());
+        }
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            EntityPersister persister = event.getPersister();
+            int[] dirty = event.getDirtyProperties();
+            List<String> properties = null;
+            if (dirty != null) {
+                String[] names = persister.getPropertyNames();
+                properties = new ArrayList<>(dirty.length);
+                for (int index : dirty) {
+                    properties.add(names[index]);
+                }
+            }
+            cache.onUpdate(persister.getMappedClass(), properties);
+        }
+
+        @Override
+        public void onPostInsertCommitFailed(PostInsertEvent event) {
+            // 回滚后数据恢复原状，刷新时已经使结果失效
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.kttobug.spring;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 基于 Hibernate 滚动游标的流式读取。
+ *
+ * <p>结果按 JDBC fetch size 分批从数据库读取，每读完一批就把上一批实体移出持久化上下文，
+ * 内存占用只与 fetch size 有关。流关闭时释放游标及 {@code onClose} 中的资源。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+final class HibernateScroll {
+
+    private HibernateScroll() {
+    }
+
+    /**
+     * 以只读、仅向前的游标执行查询
+     *
+     * @param entityManager 执行查询的实体管理器
+     * @param query 已绑定参数的查询
+     * @param fetchSize 每批读取的行数，也是移出持久化上下文的间隔
+     * @param clearContext 持久化上下文是否为本次读取独占；独占时整体清空，否则只移出本次读取的实体
+     * @param onClose 流关闭时执行
+     * @throws IllegalStateException JPA 实现不是 Hibernate
+     */
+    static <T> Stream<T> stream(EntityManager entityManager, TypedQuery<T> query, int fetchSize,
+                                boolean clearContext, Runnable onClose) {
+        Session session;
+        SelectionQuery<T> selection;
+        try {
+            session = entityManager.unwrap(Session.class);
+            @SuppressWarnings("unchecked")
+            SelectionQuery<T> unwrapped = query.unwrap(SelectionQuery.class);
+            selection = unwrapped;
+        } catch (RuntimeException e) {
+            onClose.run();
+            throw new IllegalStateException("Streaming requires Hibernate as the JPA provider", e);
+        }
+        ScrollableResults<T> results;
+        try {
+            results = selection.setFetchSize(fetchSize)
+                    .setReadOnly(true)
+                    .setCacheMode(CacheMode.IGNORE)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+        } catch (RuntimeException e) {
+            onClose.run();
+            throw e;
+        }
+        Cursor<T> cursor = new Cursor<>(session, results, fetchSize, clearContext);
+        return StreamSupport.stream(cursor, false).onClose(() -> {
+            try {
+                results.close();
+            } finally {
+                onClose.run();
+            }
+        });
+    }
+
+    private static final class Cursor<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Session session;
+        private final ScrollableResults<T> results;
+        private final int fetchSize;
+        private final boolean clearContext;
+        /** 上一批已交给调用方的实体，下一批开始前移出持久化上下文 */
+        private final List<T> batch;
+        private long returned;
+
+        Cursor(Session session, ScrollableResults<T> results, int fetchSize, boolean clearContext) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.session = session;
+            this.results = results;
+            this.fetchSize = fetchSize;
+            this.clearContext = clearContext;
+            this.batch = new ArrayList<>(clearContext ? 0 : fetchSize);
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            // 顺序流中已交出的元素都已处理完毕，读取下一批之前释放
+            if (returned > 0 && returned % fetchSize == 0) {
+                if (clearContext) {
+                    session.clear();
+                } else {
+                    release();
+                }
+            }
+            if (!results.next()) {
+                return false;
+            }
+            T row = results.get();
+            returned++;
+            if (!clearContext) {
+                batch.add(row);
+            }
+            action.accept(row);
+            return true;
+        }
+
+        /**
+         * 共享的持久化上下文中只移出本次读取加载的只读实体，调用方此前加载的实体不受影响
+         */
+        private void release() {
+            for (T entity : batch) {
+                if (session.contains(entity) && session.isReadOnly(entity)) {
+                    session.detach(entity);
+                }
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.kttobug.spring;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * IN 列表临时表：把超大列表写入预建的表，查询改为 {@code IN (SELECT ...)}。
+ * 
+ * <p>每次执行使用随机的批次号区分，写入、查询、删除在同一事务的同一连接上完成。
+ * 依赖 Hibernate 的 JDBC 批量写入和 {@link SqlFragments}，只在配置了临时表策略时加载。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+final class InListTable {
+
+    /** 每个 JDBC 批次写入的行数 */
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private InListTable() {
+    }
+
+    /**
+     * 一次执行写入临时表的一组值
+     */
+    static final class Batch {
+        private final long id = ThreadLocalRandom.current().nextLong();
+        private final Collection<?> values;
+
+        Batch(Collection<?> values) {
+            this.values = values;
+        }
+
+        long getId() {
+            return id;
+        }
+    }
+
+    static void insert(EntityManager entityManager, String table, Batch batch) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "insert into " + table + " (batch_id, item_value) values (?, ?)")) {
+                int pending = 0;
+                for (Object value : batch.values) {
+                    statement.setLong(1, batch.id);
+                    statement.setObject(2, value);
+                    statement.addBatch();
+                    if (++pending == INSERT_BATCH_SIZE) {
+                        statement.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    statement.executeBatch();
+                }
+            }
+        });
+    }
+
+    static void delete(EntityManager entityManager, String table, Batch batch) {
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "delete from " + table + " where batch_id = ?")) {
+                statement.setLong(1, batch.id);
+                statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * 构建 {@code path [NOT] IN (SELECT item_value FROM table WHERE batch_id = ?)}
+     */
+    static Predicate predicate(CriteriaBuilder builder, String table, Expression<?> path,
+                               Expression<Long> batchId, boolean negated) {
+        String pattern = (negated ? "? not in" : "? in") + " (select item_value from " + table + " where batch_id = ?)";
+        return SqlFragments.predicate(builder, pattern, path, batchId);
+    }
+}
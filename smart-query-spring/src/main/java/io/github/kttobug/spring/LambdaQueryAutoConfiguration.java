@@ -1,6 +1,8 @@
 package io.github.kttobug.spring;
 
+import io.github.kttobug.query.QueryOptimizer;
 import io.github.kttobug.query.QueryPerformanceMonitor;
+import io.github.kttobug.query.util.InListStrategy;
 import jakarta.persistence.EntityManager;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -17,6 +19,24 @@ public class LambdaQueryAutoConfiguration {
         return new QueryPerformanceMonitor();
     }
     
+    @Bean
+    @ConditionalOnMissingBean
+    public QueryPlanCache queryPlanCache() {
+        return new QueryPlanCache();
+    }
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public InListStrategy inListStrategy() {
+        return InListStrategy.defaults();
+    }
+    
+    @Bean
+    @ConditionalOnMissingBean
+    public QueryOptimizer queryOptimizer() {
+        return QueryOptimizer.defaults();
+    }
+    
     @Bean
     @ConditionalOnMissingBean
     public SmartQueryService smartQueryService() {
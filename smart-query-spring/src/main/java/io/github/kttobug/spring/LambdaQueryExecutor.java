@@ -1,35 +1,91 @@
 package io.github.kttobug.spring;
 
 
+import io.github.kttobug.query.BoundQueryExecutor;
+import io.github.kttobug.query.KeysetPage;
 import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.SerializableFunction;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+public interface LambdaQueryExecutor<T> extends BoundQueryExecutor<T> {
+    // 流式查询默认每批读取的行数
+    int DEFAULT_FETCH_SIZE = 500;
 
-public interface LambdaQueryExecutor<T> {
     List<T> list(LambdaQueryWrapper<T> queryWrapper);
 
     default List<T> findAll(LambdaQueryWrapper<T> queryWrapper) {
         return list(queryWrapper);
     }
 
-    // 分页查询
-    default List<T> listWithPagination(LambdaQueryWrapper<T> queryWrapper, int page, int size) {
-        return list(queryWrapper);
-    }
+    // 分页查询，page 从 0 开始；不是默认方法，仓库代理才会调用到实现中的延迟连接和结果缓存
+    List<T> listWithPagination(LambdaQueryWrapper<T> queryWrapper, int page, int size);
+
+    // 分页查询并返回总数：数据库支持窗口函数时以 count(*) over() 随本页一起读取总数，只执行一条语句；
+    // Pageable 的排序追加在包装器的排序之后
+    Page<T> page(LambdaQueryWrapper<T> queryWrapper, Pageable pageable);
+
+    // 按指定的计数策略取得总数，不指定时使用仓库上 @PageCount 或 CountStrategy Bean 设置的默认值
+    Page<T> page(LambdaQueryWrapper<T> queryWrapper, Pageable pageable, CountStrategy countStrategy);
+
+    // 切片分页：多读一行判断是否有下一页，不计数
+    Slice<T> slice(LambdaQueryWrapper<T> queryWrapper, Pageable pageable);
+
+    // 游标分页：按排序字段加 id 定位上一页末尾，cursor 为 null 时取第一页，深度不影响查询代价
+    KeysetPage<T> listAfter(LambdaQueryWrapper<T> queryWrapper, String cursor, int size);
+
+    // 流式查询：按 fetch size 分批读取并释放已处理的实体，内存占用与结果规模无关；流使用后必须关闭
+    Stream<T> stream(LambdaQueryWrapper<T> queryWrapper);
+
+    Stream<T> stream(LambdaQueryWrapper<T> queryWrapper, int fetchSize);
 
-    // 计数查询
-    default long count(LambdaQueryWrapper<T> queryWrapper) {
-        return 0L;
+    // 逐行处理全部结果，结束或出错时释放游标
+    default void forEach(LambdaQueryWrapper<T> queryWrapper, Consumer<? super T> action) {
+        try (Stream<T> stream = stream(queryWrapper)) {
+            stream.forEach(action);
+        }
     }
 
+    // 并行分区扫描：按 id 区间把结果切成行数相近的分区，各分区在独立线程、EntityManager 和只读事务中读取；
+    // consumer 会被多个线程并发调用，不保证顺序
+    void parallelScan(LambdaQueryWrapper<T> queryWrapper, int partitions, Consumer<? super T> consumer);
+
+    // 按指定的数值或日期字段分区
+    <R extends Comparable<? super R>> void parallelScan(LambdaQueryWrapper<T> queryWrapper,
+                                                        SerializableFunction<T, R> column, int partitions,
+                                                        Consumer<? super T> consumer);
+
+    // 投影查询：只读取 select() 指定的列，按别名映射为 record、接口或 DTO；结果不是实体，不进入持久化上下文
+    <R> List<R> listAs(LambdaQueryWrapper<T> queryWrapper, Class<R> type);
+
+    // 投影查询的 Tuple 形式，按别名或下标取列
+    List<Tuple> listTuples(LambdaQueryWrapper<T> queryWrapper);
+
+    // 计数查询，执行 count(*)
+    long count(LambdaQueryWrapper<T> queryWrapper);
+
+    // 最多统计 limit 行，只读取 limit 行而不是计算全部行数，用于"是否至少有 n 条"之类的判断
+    long countUpTo(LambdaQueryWrapper<T> queryWrapper, int limit);
+
+    // 第一条结果，只读取一行；没有结果时返回 null
+    T first(LambdaQueryWrapper<T> queryWrapper);
+
+    // 唯一结果，读取两行判断是否重复；没有结果时返回 null，多于一条时抛出 IncorrectResultSizeDataAccessException
+    T one(LambdaQueryWrapper<T> queryWrapper);
+
     // 获取单个结果
     default T getOne(LambdaQueryWrapper<T> queryWrapper) {
-        List<T> results = list(queryWrapper);
-        return results.isEmpty() ? null : results.get(0);
+        return first(queryWrapper);
     }
 
-    // 检查是否存在
+    // 检查是否存在，找到一行即停止
     default boolean exists(LambdaQueryWrapper<T> queryWrapper) {
-        return count(queryWrapper) > 0;
+        return countUpTo(queryWrapper, 1) > 0;
     }
 }
\ No newline at end of file
@@ -1,112 +1,1630 @@
 package io.github.kttobug.spring;
 
+import io.github.kttobug.query.AggregateFunction;
+import io.github.kttobug.query.BoundQuery;
+import io.github.kttobug.query.ConditionTree;
+import io.github.kttobug.query.KeysetPage;
 import io.github.kttobug.query.LambdaQueryWrapper;
 import io.github.kttobug.query.QueryCondition;
+import io.github.kttobug.query.QueryEvaluator;
+import io.github.kttobug.query.QueryFetch;
 import io.github.kttobug.query.QueryOperator;
+import io.github.kttobug.query.QueryOptimizer;
+import io.github.kttobug.query.QuerySelection;
+import io.github.kttobug.query.SerializableFunction;
+import io.github.kttobug.query.util.BoundedCache;
+import io.github.kttobug.query.util.InList;
+import io.github.kttobug.query.util.InListStrategy;
+import io.github.kttobug.query.util.KeysetCursor;
+import io.github.kttobug.query.util.LambdaUtils;
+import io.github.kttobug.query.util.ProjectionMapper;
+import io.github.kttobug.query.util.PropertyAccessor;
+import io.github.kttobug.query.util.QueryShape;
+import io.github.kttobug.query.util.RangePartitioner;
+import jakarta.persistence.EntityGraph;
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Subgraph;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.*;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.Type;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.support.JpaEntityInformation;
 import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.lang.invoke.MethodType;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 public class LambdaQueryExecutorImpl<T> extends SimpleJpaRepository<T, Long> implements LambdaQueryExecutor<T> {
 
+    /** 计划用途，与形状指纹混合后作为缓存键 */
+    private static final long PLAN_LIST = 1;
+    private static final long PLAN_COUNT = 2;
+    /** 游标分页的列表查询，可空排序字段显式指定 null 的位置 */
+    private static final long PLAN_KEYSET = 3;
+    /** 只读取常量的限行查询，用于存在性检查和有上限的计数 */
+    private static final long PLAN_PROBE = 4;
+    /** 投影查询，与投影列的形状一起并入缓存键 */
+    private static final long PLAN_PROJECTION = 5;
+    /** 只读取 id 的分页查询，集合关联随实体加载时先按它取得本页的 id */
+    private static final long PLAN_IDS = 6;
+    /** 按 id 加载实体及其关联，只与关联的形状有关 */
+    private static final long PLAN_FETCH = 7;
+    /** 按 id 加载一级预加载关联，与所属实体和关联属性一起并入缓存键 */
+    private static final long PLAN_PRELOAD = 8;
+    /** 带 {@code count(*) over()} 窗口计数列的分页查询 */
+    private static final long PLAN_PAGE = 9;
+    /** IN 列表拆批后的单批列表查询，null 按最大值排序，各批截取的前几行与合并时的排序一致 */
+    private static final long PLAN_CHUNK = 10;
+
+    /** 估算计数时结果不超过该行数则精确计数；抽样的 id 区间段数和总宽度 */
+    private static final int ESTIMATE_EXACT_LIMIT = 1000;
+    private static final int SAMPLE_WINDOWS = 8;
+    private static final int SAMPLE_SIZE = 8192;
+
+    /** IN 列表策略不拆分时，预加载和按 id 加载每条语句的 id 个数上限 */
+    private static final int PRELOAD_CHUNK_SIZE = 1000;
+
+    /** 延迟连接以一个 IN 列表加载本页实体，每页条数超过该值时不使用 */
+    private static final int DEFERRED_JOIN_MAX_PAGE_SIZE = 1000;
+
+    /** 并行扫描每个分区对应的直方图探测边界数、每轮探测边界数上限，以及最多探测轮数 */
+    private static final int HISTOGRAM_RESOLUTION = 8;
+    private static final int MAX_HISTOGRAM_BUCKETS = 256;
+    private static final int HISTOGRAM_PASSES = 6;
+
     private final EntityManager entityManager;
 
+    /** 启动时构建的字段名到 Metamodel 属性的映射 */
+    private final EntityAttributeTable<T> attributeTable;
+
+    /** 按查询形状缓存的编译结果 */
+    private final QueryPlanCache planCache;
+
+    /** 区分不同持久化单元的键种子，编译结果只能在所属持久化单元内复用 */
+    private final long planKeySeed;
+
+    /** 计划所属的元模型，不同持久化单元的计划互不共享 */
+    private final Metamodel planScope;
+
+    /** IN 列表整理策略 */
+    private final InListStrategy inListStrategy;
+
+    /** 编译前的条件改写器 */
+    private final QueryOptimizer queryOptimizer;
+
+    /** 查询结果缓存，null 表示不缓存 */
+    private final QueryResultCache resultCache;
+
+    /** 按查询形状缓存的结果依赖 */
+    private final BoundedCache<QueryShape.Key, List<AtomicLong>> cacheDependencies;
+
+    /** 数据库方言是否支持窗口函数，首次分页查询时确定 */
+    private volatile Boolean windowFunctions;
+
+    /** 仓库默认的计数策略 */
+    private final CountStrategy countStrategy;
+
+    /** 深分页的延迟连接设置 */
+    private final DeferredJoin deferredJoin;
+
+    /** 限时缓存的计数，按查询形状和条件值区分 */
+    private final BoundedCache<QueryResultCache.Key, TimedCount> countCache =
+            new BoundedCache<>(QueryResultCache.DEFAULT_MAX_SIZE);
+
     public LambdaQueryExecutorImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        this(entityInformation, entityManager,
+                EntityAttributeTable.of(entityManager.getMetamodel(), entityInformation.getJavaType()));
+    }
+
+    public LambdaQueryExecutorImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager,
+                                   EntityAttributeTable<T> attributeTable) {
+        this(entityInformation, entityManager, attributeTable, new QueryPlanCache());
+    }
+
+    public LambdaQueryExecutorImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager,
+                                   EntityAttributeTable<T> attributeTable, QueryPlanCache planCache) {
+        this(entityInformation, entityManager, attributeTable, planCache, InListStrategy.defaults());
+    }
+
+    public LambdaQueryExecutorImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager,
+                                   EntityAttributeTable<T> attributeTable, QueryPlanCache planCache,
+                                   InListStrategy inListStrategy) {
+        this(entityInformation, entityManager, attributeTable, planCache, inListStrategy, QueryOptimizer.defaults());
+    }
+
+    public LambdaQueryExecutorImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager,
+                                   EntityAttributeTable<T> attributeTable, QueryPlanCache planCache,
+                                   InListStrategy inListStrategy, QueryOptimizer queryOptimizer) {
+        this(entityInformation, entityManager, attributeTable, planCache, inListStrategy, queryOptimizer, null);
+    }
+
+    public LambdaQueryExecutorImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager,
+                                   EntityAttributeTable<T> attributeTable, QueryPlanCache planCache,
+                                   InListStrategy inListStrategy, QueryOptimizer queryOptimizer,
+                                   QueryResultCache resultCache) {
+        this(entityInformation, entityManager, attributeTable, planCache, inListStrategy, queryOptimizer, resultCache,
+                CountStrategy.exact());
+    }
+
+    public LambdaQueryExecutorImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager,
+                                   EntityAttributeTable<T> attributeTable, QueryPlanCache planCache,
+                                   InListStrategy inListStrategy, QueryOptimizer queryOptimizer,
+                                   QueryResultCache resultCache, CountStrategy countStrategy) {
+        this(entityInformation, entityManager, attributeTable, planCache, inListStrategy, queryOptimizer, resultCache,
+                countStrategy, DeferredJoin.defaults());
+    }
+
+    public LambdaQueryExecutorImpl(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager,
+                                   EntityAttributeTable<T> attributeTable, QueryPlanCache planCache,
+                                   InListStrategy inListStrategy, QueryOptimizer queryOptimizer,
+                                   QueryResultCache resultCache, CountStrategy countStrategy,
+                                   DeferredJoin deferredJoin) {
         super(entityInformation, entityManager);
         this.entityManager = entityManager;
+        this.attributeTable = attributeTable;
+        this.planCache = planCache;
+        this.planScope = entityManager.getMetamodel();
+        this.planKeySeed = System.identityHashCode(planScope);
+        this.inListStrategy = inListStrategy;
+        this.queryOptimizer = queryOptimizer;
+        this.resultCache = resultCache;
+        this.cacheDependencies = resultCache != null ? new BoundedCache<>(QueryPlanCache.DEFAULT_MAX_SIZE) : null;
+        this.countStrategy = countStrategy;
+        this.deferredJoin = deferredJoin;
+        if (resultCache != null) {
+            resultCache.bind(entityManager.getEntityManagerFactory());
+        }
     }
 
     public LambdaQueryExecutorImpl(Class<T> domainClass, EntityManager entityManager) {
         super(domainClass, entityManager);
         this.entityManager = entityManager;
+        this.attributeTable = EntityAttributeTable.of(entityManager.getMetamodel(), domainClass);
+        this.planCache = new QueryPlanCache();
+        this.planScope = entityManager.getMetamodel();
+        this.planKeySeed = System.identityHashCode(planScope);
+        this.inListStrategy = InListStrategy.defaults();
+        this.queryOptimizer = QueryOptimizer.defaults();
+        this.resultCache = null;
+        this.cacheDependencies = null;
+        this.countStrategy = CountStrategy.exact();
+        this.deferredJoin = DeferredJoin.defaults();
     }
 
     @Override
     public List<T> list(LambdaQueryWrapper<T> queryWrapper) {
-        return entityManager.createQuery(buildCriteriaQuery(queryWrapper)).getResultList();
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(queryWrapper);
+        if (optimized.isAlwaysFalse()) {
+            return new ArrayList<>();
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        return preload(cachedList(listKey(wrapper.getShapeKey(), wrapper.size(), wrapper::getValue, 0, -1),
+                wrapper::getConditions, wrapper.getFetches(), () -> executeList(wrapper.getShapeId(),
+                        wrapper.getEntityClass(), wrapper::getConditions, wrapper.getFetches(), prepare(wrapper), 0, -1)),
+                wrapper.getPreloads());
+    }
+
+    @Override
+    public List<T> list(BoundQuery<T> query) {
+        long shapeId = query.getShapeId();
+        List<QueryFetch> fetches = query.getTemplate().getFetches();
+        return preload(cachedList(listKey(query.getShapeKey(), query.getTemplate().getConditions().size(), query::getValue, 0, -1),
+                query::getConditions, fetches, () -> executeList(shapeId, query.getEntityClass(), query::getConditions,
+                        fetches, prepare(query), 0, -1)), query.getTemplate().getPreloads());
+    }
+
+    @Override
+    public long count(BoundQuery<T> query) {
+        long shapeId = query.getShapeId();
+        return cachedCount(countKey(query.getShapeKey(), query.getTemplate().getConditions().size(), query::getValue),
+                query::getConditions, () -> executeCount(shapeId, query.getEntityClass(), query::getConditions,
+                        prepare(query)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Stream<T> stream(LambdaQueryWrapper<T> queryWrapper) {
+        return stream(queryWrapper, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * 仓库默认的只读事务在方法返回时就结束，流在其后才被消费，因此不开启新事务
+     */
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Stream<T> stream(LambdaQueryWrapper<T> queryWrapper, int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive: " + fetchSize);
+        }
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(queryWrapper);
+        if (optimized.isAlwaysFalse()) {
+            return Stream.empty();
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        if (hasCollectionFetch(wrapper.getFetches())) {
+            // 集合关联的 JOIN FETCH 每个子元素一行，同一实体的行必须读完才能输出
+            throw new UnsupportedOperationException("Cannot stream a query that fetches a collection; "
+                    + "fetch it per batch or use list/listWithPagination");
+        }
+        QueryValues values = prepare(wrapper);
+        if (!values.isChunked()) {
+            return scroll(wrapper.getShapeId(), wrapper.getEntityClass(), wrapper::getConditions, wrapper.getFetches(),
+                    values, fetchSize);
+        }
+        // 各批按顺序依次读取；有排序时需要合并全部结果，无法逐行输出
+        for (int i = 0; i < wrapper.size(); i++) {
+            QueryOperator operator = wrapper.getOperator(i);
+            if (operator == QueryOperator.ORDER_BY_ASC || operator == QueryOperator.ORDER_BY_DESC) {
+                throw new UnsupportedOperationException("Cannot stream an ordered query whose IN list is split into "
+                        + values.getChunkCount() + " chunks; use a temporary table or a larger chunk size");
+            }
+        }
+        return IntStream.range(0, values.getChunkCount()).boxed().flatMap(index ->
+                scroll(wrapper.getShapeId(), wrapper.getEntityClass(), wrapper::getConditions, wrapper.getFetches(),
+                        values.chunk(index), fetchSize));
+    }
+
+    /**
+     * 以滚动游标执行列表查询。事务内在当前持久化上下文中读取，可以读到本事务的修改；
+     * 否则使用独立的 EntityManager 和事务（部分驱动只在事务内按 fetch size 分批读取），流关闭时回滚并关闭。
+     */
+    private Stream<T> scroll(long shapeId, Class<T> entityClass, Supplier<List<QueryCondition>> conditions,
+                             List<QueryFetch> fetches, QueryValues values, int fetchSize) {
+        CompiledQuery<T> plan = listPlan(shapeId, entityClass, conditions, fetches, values, PLAN_LIST);
+        if (entityManager.isJoinedToTransaction()) {
+            List<InListTable.Batch> batches = values.getBatches();
+            String table = inListStrategy.getTemporaryTable();
+            for (InListTable.Batch batch : batches) {
+                InListTable.insert(entityManager, table, batch);
+            }
+            return HibernateScroll.stream(entityManager, plan.createQuery(entityManager, values), fetchSize, false, () -> {
+                for (InListTable.Batch batch : batches) {
+                    InListTable.delete(entityManager, table, batch);
+                }
+            });
+        }
+        EntityManager streamManager = entityManager.getEntityManagerFactory().createEntityManager();
+        Runnable release = () -> {
+            try {
+                if (streamManager.getTransaction().isActive()) {
+                    streamManager.getTransaction().rollback();
+                }
+            } finally {
+                streamManager.close();
+            }
+        };
+        try {
+            streamManager.getTransaction().begin();
+            return HibernateScroll.stream(streamManager, plan.createQuery(streamManager, values), fetchSize, true, release);
+        } catch (RuntimeException e) {
+            if (streamManager.isOpen()) {
+                release.run();
+            }
+            throw e;
+        }
     }
 
-    private CriteriaQuery<T> buildCriteriaQuery(LambdaQueryWrapper<T> queryWrapper) {
+    // ==================== 并行扫描 ====================
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void parallelScan(LambdaQueryWrapper<T> queryWrapper, int partitions, Consumer<? super T> consumer) {
+        String idName = attributeTable.getIdAttributeName();
+        if (idName == null) {
+            throw new UnsupportedOperationException("Parallel scan without a partition column requires a single id "
+                    + "attribute on " + getDomainClass().getName());
+        }
+        parallelScan(queryWrapper, idName, partitions, consumer);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public <R extends Comparable<? super R>> void parallelScan(LambdaQueryWrapper<T> queryWrapper,
+                                                               SerializableFunction<T, R> column, int partitions,
+                                                               Consumer<? super T> consumer) {
+        parallelScan(queryWrapper, LambdaUtils.resolveFieldName(column), partitions, consumer);
+    }
+
+    /**
+     * 按字段区间把查询切成若干分区，每个分区以 {@code column >= lower AND column < upper} 限定，
+     * 在独立线程中以 {@link #stream} 读取（工作线程中没有事务，使用独立的 EntityManager 和只读游标）。
+     * 可空字段的 null 行单独作为一个分区。
+     */
+    private void parallelScan(LambdaQueryWrapper<T> queryWrapper, String column, int partitions,
+                              Consumer<? super T> consumer) {
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partition count must be positive: " + partitions);
+        }
+        List<Attribute<?, ?>> path = attributeTable.getAttributePath(column);
+        Class<?> type = path.get(path.size() - 1).getJavaType();
+        if (!RangePartitioner.isSupported(type)) {
+            throw new IllegalArgumentException("Cannot partition on " + column + " of type " + type.getName());
+        }
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(queryWrapper);
+        if (optimized.isAlwaysFalse()) {
+            return;
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        for (int i = 0; i < wrapper.size(); i++) {
+            QueryOperator operator = wrapper.getOperator(i);
+            if (operator == QueryOperator.GROUP_BY || operator == QueryOperator.HAVING) {
+                throw new UnsupportedOperationException("Parallel scan does not support " + operator);
+            }
+        }
+
+        List<Object> bounds = partitions > 1 ? partitionBounds(wrapper, column, partitions) : List.of();
+        List<LambdaQueryWrapper<T>> parts = new ArrayList<>(bounds.size() + 2);
+        for (int i = 0; i <= bounds.size(); i++) {
+            LambdaQueryWrapper<T> part = restriction(wrapper);
+            if (i > 0) {
+                part.addCondition(new QueryCondition(column, QueryOperator.GE, bounds.get(i - 1)));
+            }
+            if (i < bounds.size()) {
+                part.addCondition(new QueryCondition(column, QueryOperator.LT, bounds.get(i)));
+            }
+            parts.add(part);
+        }
+        if (!bounds.isEmpty() && attributeTable.isNullable(column)) {
+            parts.add(restriction(wrapper).addCondition(new QueryCondition(column, QueryOperator.IS_NULL, null)));
+        }
+
+        int concurrency = Math.min(parts.size(), ParallelScan.connectionLimit(entityManager.getEntityManagerFactory()));
+        ParallelScan.run(parts.size(), concurrency, (index, running) -> {
+            try (Stream<T> rows = stream(parts.get(index))) {
+                rows.takeWhile(row -> running.getAsBoolean()).forEach(consumer);
+            }
+        });
+    }
+
+    /**
+     * 选出分区边界：先查询字段的最小值、最大值和非空行数，再分几轮探测边界。每轮一次查询统计各探测边界之前的行数
+     * （累计直方图），之后的几轮只细分并扫描行数过多的区间，字段上有索引时代价很小
+     */
+    private List<Object> partitionBounds(LambdaQueryWrapper<T> wrapper, String column, int partitions) {
+        QueryValues values = prepare(wrapper);
+        Object[] range = columnStatistics(wrapper, values, column, List.of());
+        if (range[0] == null) {
+            return List.of();
+        }
+        RangePartitioner partitioner = new RangePartitioner(range[0], range[1], ((Number) range[2]).longValue(),
+                partitions);
+        int resolution = Math.min(partitions * HISTOGRAM_RESOLUTION, MAX_HISTOGRAM_BUCKETS);
+        for (int pass = 0; pass < HISTOGRAM_PASSES; pass++) {
+            List<RangePartitioner.Probe> probes = partitioner.probes(resolution);
+            if (probes.isEmpty()) {
+                break;
+            }
+            Object[] counts = columnStatistics(wrapper, values, column, probes);
+            int offset = 0;
+            for (RangePartitioner.Probe probe : probes) {
+                long[] before = new long[probe.getValues().size()];
+                for (int i = 0; i < before.length; i++) {
+                    before[i] = ((Number) counts[offset++]).longValue();
+                }
+                partitioner.record(probe, before);
+            }
+        }
+        return partitioner.bounds();
+    }
+
+    /**
+     * 没有探测边界时查询字段的最小值、最大值和非空行数，否则查询各探测区间内小于各边界的行数；
+     * IN 列表被拆分时逐批查询后合并
+     */
+    private Object[] columnStatistics(LambdaQueryWrapper<T> wrapper, QueryValues values, String column,
+                                      List<RangePartitioner.Probe> probes) {
+        List<Object[]> rows = withTemporaryTables(values, () -> values.isChunked()
+                ? runChunks(values, (manager, chunk) -> columnStatistics(manager, wrapper, chunk, column, probes))
+                : List.<Object[]>of(columnStatistics(entityManager, wrapper, values, column, probes)));
+        Object[] merged = new Object[rows.get(0).length];
+        // 探测查询全部是计数，范围查询的前两列是最小值和最大值
+        int firstCount = probes.isEmpty() ? 2 : 0;
+        long[] counts = new long[merged.length - firstCount];
+        for (Object[] row : rows) {
+            if (firstCount > 0 && row[0] != null) {
+                merged[0] = merged[0] == null || compare(row[0], merged[0]) < 0 ? row[0] : merged[0];
+                merged[1] = merged[1] == null || compare(row[1], merged[1]) > 0 ? row[1] : merged[1];
+            }
+            for (int i = 0; i < counts.length; i++) {
+                Object count = row[firstCount + i];
+                counts[i] += count != null ? ((Number) count).longValue() : 0;
+            }
+        }
+        for (int i = 0; i < counts.length; i++) {
+            merged[firstCount + i] = counts[i];
+        }
+        return merged;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object[] columnStatistics(EntityManager manager, LambdaQueryWrapper<T> wrapper, QueryValues values,
+                                      String column, List<RangePartitioner.Probe> probes) {
         CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<T> query = builder.createQuery(queryWrapper.getEntityClass());
-        Root<T> root = query.from(queryWrapper.getEntityClass());
+        CriteriaQuery<Object[]> query = builder.createQuery(Object[].class);
+        Root<T> root = query.from(wrapper.getEntityClass());
+        QueryContext context = new QueryContext(builder, query, root, attributeTable);
+        processConditions(wrapper.getConditions(), values, context);
+        Expression<Comparable> path = context.path(column);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        Map<ParameterExpression<Comparable>, Object> bindings = new HashMap<>();
+        if (probes.isEmpty()) {
+            selections.add(builder.least(path));
+            selections.add(builder.greatest(path));
+            selections.add(builder.count(path));
+        }
+        List<Predicate> ranges = new ArrayList<>(probes.size());
+        for (RangePartitioner.Probe probe : probes) {
+            Predicate lower = null;
+            if (probe.getLower() != null) {
+                lower = builder.greaterThanOrEqualTo(path, bind(builder, bindings, probe.getLower()));
+                ranges.add(builder.and(lower, builder.lessThan(path, bind(builder, bindings, probe.getUpper()))));
+            }
+            for (Object value : probe.getValues()) {
+                Predicate before = builder.lessThan(path, bind(builder, bindings, value));
+                selections.add(builder.sum(builder.<Integer>selectCase()
+                        .when(lower != null ? builder.and(lower, before) : before, 1).otherwise(0)));
+            }
+        }
+        query.multiselect(selections);
+
+        // 细分轮次只扫描需要细分的区间
+        List<Predicate> predicates = new ArrayList<>(context.getPredicates());
+        if (!ranges.isEmpty()) {
+            predicates.add(builder.or(ranges.toArray(new Predicate[0])));
+        }
+        if (!predicates.isEmpty()) {
+            query.where(predicates.toArray(new Predicate[0]));
+        }
+
+        TypedQuery<Object[]> typed = new CompiledQuery<>(query, context.getSlots()).createQuery(manager, values);
+        bindings.forEach((parameter, value) -> typed.setParameter(parameter, (Comparable) value));
+        return typed.getSingleResult();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static ParameterExpression<Comparable> bind(CriteriaBuilder builder,
+                                                        Map<ParameterExpression<Comparable>, Object> bindings,
+                                                        Object value) {
+        ParameterExpression<Comparable> parameter = builder.parameter((Class<Comparable>) value.getClass());
+        bindings.put(parameter, value);
+        return parameter;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object left, Object right) {
+        return ((Comparable) left).compareTo(right);
+    }
+
+    /**
+     * 只保留包装器的过滤条件和随实体加载的关联：过滤条件整体加括号作为一个嵌套条件，排序、分组不再生效
+     */
+    private LambdaQueryWrapper<T> restriction(LambdaQueryWrapper<T> wrapper) {
+        LambdaQueryWrapper<T> restriction = LambdaQueryWrapper.of(wrapper.getEntityClass());
+        wrapper.getFetches().forEach(restriction::addFetch);
+        for (int i = 0; i < wrapper.size(); i++) {
+            if (ConditionTree.isPredicate(wrapper.getOperator(i))) {
+                return restriction.nest(wrapper);
+            }
+        }
+        return restriction;
+    }
+
+    // ==================== 结果缓存 ====================
+
+    /**
+     * 只在没有事务或只读事务中使用结果缓存：读写事务可能读到本事务未提交的修改
+     */
+    private boolean isResultCacheable() {
+        return resultCache != null && (!TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly());
+    }
+
+    private QueryResultCache.Key listKey(QueryShape.Key shape, int size, IntFunction<Object> source,
+                                         int firstResult, int maxResults) {
+        if (!isResultCacheable()) {
+            return null;
+        }
+        return QueryResultCache.Key.list(getDomainClass(), shape, firstResult, maxResults, cacheValues(size, source));
+    }
+
+    private QueryResultCache.Key countKey(QueryShape.Key shape, int size, IntFunction<Object> source) {
+        if (!isResultCacheable()) {
+            return null;
+        }
+        return QueryResultCache.Key.count(getDomainClass(), shape, cacheValues(size, source));
+    }
+
+    /**
+     * 命中时按缓存的 id 加载实体，有随实体加载的关联时一并取回；其中有实体已被删除时丢弃结果重新查询
+     * 
+     * @param key 缓存键，null 表示不使用缓存
+     */
+    private List<T> cachedList(QueryResultCache.Key key, Supplier<List<QueryCondition>> conditions,
+                               List<QueryFetch> fetches, Supplier<List<T>> query) {
+        if (key == null) {
+            return query.get();
+        }
+        Object cached = resultCache.get(key);
+        if (cached != null) {
+            List<?> ids = (List<?>) cached;
+            List<T> entities = fetches.isEmpty() || attributeTable.getIdAttributeName() == null
+                    ? HibernateResultCache.load(entityManager, getDomainClass(), ids)
+                    : fetchByIds(getDomainClass(), fetches, ids);
+            if (entities != null && entities.size() == ids.size()) {
+                return entities;
+            }
+            resultCache.discard(key);
+        }
+        // 依赖版本必须在执行之前记录，执行期间的写操作才能使本次结果失效
+        QueryResultCache.Snapshot snapshot = resultCache.snapshot(resultDependencies(key, conditions));
+        List<T> result = query.get();
+        PersistenceUnitUtil unitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Object> ids = new ArrayList<>(result.size());
+        for (T entity : result) {
+            ids.add(unitUtil.getIdentifier(entity));
+        }
+        resultCache.put(key, ids, snapshot);
+        return result;
+    }
+
+    private long cachedCount(QueryResultCache.Key key, Supplier<List<QueryCondition>> conditions, Supplier<Long> query) {
+        if (key == null) {
+            return query.get();
+        }
+        Object cached = resultCache.get(key);
+        if (cached != null) {
+            return (Long) cached;
+        }
+        QueryResultCache.Snapshot snapshot = resultCache.snapshot(resultDependencies(key, conditions));
+        Long result = query.get();
+        resultCache.put(key, result, snapshot);
+        return result;
+    }
+
+    private List<AtomicLong> resultDependencies(QueryResultCache.Key key, Supplier<List<QueryCondition>> conditions) {
+        return cacheDependencies.get(key.getShape(), shape -> {
+            List<AtomicLong> dependencies = new ArrayList<>();
+            dependencies.add(resultCache.rows(getDomainClass()));
+            collectDependencies(conditions.get(), dependencies);
+            return dependencies;
+        });
+    }
+
+    /**
+     * 结果依赖条件、排序和分组引用的每个实体属性，以及这些属性所在实体的行集合；
+     * 自定义 SQL 片段可能引用任何列，依赖实体上的任何修改
+     */
+    private void collectDependencies(List<QueryCondition> conditions, List<AtomicLong> dependencies) {
+        for (QueryCondition condition : conditions) {
+            if (condition.getOperator() == QueryOperator.APPLY) {
+                dependencies.add(resultCache.any(getDomainClass()));
+            }
+            if (condition.getValue() instanceof LambdaQueryWrapper) {
+                collectDependencies(((LambdaQueryWrapper<?>) condition.getValue()).getConditions(), dependencies);
+            }
+            if (condition.getField() == null || condition.getField().isEmpty()) {
+                continue;
+            }
+            for (Attribute<?, ?> attribute : attributeTable.getAttributePath(condition.getField())) {
+                ManagedType<?> owner = attribute.getDeclaringType();
+                // 嵌入对象内属性的修改以所属实体属性的名义通知
+                if (owner.getPersistenceType() == Type.PersistenceType.EMBEDDABLE) {
+                    continue;
+                }
+                dependencies.add(resultCache.column(owner.getJavaType(), attribute.getName()));
+                dependencies.add(resultCache.rows(owner.getJavaType()));
+            }
+        }
+    }
+
+    /**
+     * 缓存键中的条件值，嵌套包装器展开，集合和数组复制一份避免之后被修改
+     */
+    private static List<Object> cacheValues(int size, IntFunction<Object> source) {
+        List<Object> values = new ArrayList<>(size);
+        collectValues(size, source, values);
+        return values;
+    }
+
+    private static void collectValues(int size, IntFunction<Object> source, List<Object> values) {
+        for (int i = 0; i < size; i++) {
+            Object value = source.apply(i);
+            if (value instanceof LambdaQueryWrapper) {
+                LambdaQueryWrapper<?> nested = (LambdaQueryWrapper<?>) value;
+                collectValues(nested.size(), nested::getValue, values);
+            } else if (value instanceof Iterable) {
+                List<Object> copy = new ArrayList<>();
+                ((Iterable<?>) value).forEach(copy::add);
+                values.add(copy);
+            } else if (value instanceof Object[]) {
+                values.add(Arrays.asList(((Object[]) value).clone()));
+            } else {
+                values.add(value);
+            }
+        }
+    }
+
+    /**
+     * 执行列表查询；IN 列表被拆分时逐批执行，合并后在内存中重新排序和分页
+     * 
+     * @param maxResults 最大结果数，-1 表示不分页
+     */
+    private List<T> executeList(long shapeId, Class<T> entityClass, Supplier<List<QueryCondition>> conditions,
+                                List<QueryFetch> fetches, QueryValues values, int firstResult, int maxResults) {
+        return executeList(shapeId, entityClass, conditions, fetches, values, firstResult, maxResults, PLAN_LIST);
+    }
+
+    /**
+     * 分页且随实体加载集合关联时，数据库对连接后的行分页会截断实体的集合；偏移量达到延迟连接的阈值时，
+     * 丢弃的行不必回表读取整个实体。这两种情况先分页查询本页的 id，再按 id 加载实体及其关联，按 id 的顺序返回
+     */
+    private List<T> executeList(long shapeId, Class<T> entityClass, Supplier<List<QueryCondition>> conditions,
+                                List<QueryFetch> fetches, QueryValues values, int firstResult, int maxResults,
+                                long purpose) {
+        boolean collectionFetch = hasCollectionFetch(fetches);
+        boolean deferred = deferredJoin.appliesTo(firstResult) && maxResults >= 0
+                && maxResults <= DEFERRED_JOIN_MAX_PAGE_SIZE;
+        if ((collectionFetch && (firstResult > 0 || maxResults >= 0) || deferred) && !values.isChunked()
+                && attributeTable.getIdAttributeName() != null) {
+            TypedQuery<Object> query = idPlan(shapeId, entityClass, conditions, values, purpose)
+                    .createQuery(entityManager, values);
+            if (firstResult > 0) {
+                query.setFirstResult(firstResult);
+            }
+            if (maxResults >= 0) {
+                query.setMaxResults(maxResults);
+            }
+            List<Object> ids = withTemporaryTables(values, query::getResultList);
+            return fetchByIds(entityClass, fetches, ids);
+        }
+        if (!values.isChunked()) {
+            TypedQuery<T> query = listPlan(shapeId, entityClass, conditions, fetches, values, purpose)
+                    .createQuery(entityManager, values);
+            if (firstResult > 0) {
+                query.setFirstResult(firstResult);
+            }
+            if (maxResults >= 0) {
+                query.setMaxResults(maxResults);
+            }
+            return withTemporaryTables(values, query::getResultList);
+        }
+
+        // 每批只需取到目标页末尾，各批按相同顺序排好后合并；集合关联随实体加载时每批全部读取
+        int limit = maxResults >= 0 && !collectionFetch ? firstResult + maxResults : -1;
+        long chunkPurpose = purpose == PLAN_KEYSET ? PLAN_KEYSET : PLAN_CHUNK;
+        List<List<T>> parts = withTemporaryTables(values, () -> runChunks(values, (manager, chunk) -> {
+            TypedQuery<T> query = listPlan(shapeId, entityClass, conditions, fetches, chunk, chunkPurpose)
+                    .createQuery(manager, chunk);
+            if (limit >= 0) {
+                query.setMaxResults(limit);
+            }
+            return query.getResultList();
+        }));
+        List<T> merged = new ArrayList<>();
+        parts.forEach(merged::addAll);
+        // 按排序条件重新排序，null 视为最大值
+        merged.sort(QueryEvaluator.comparator(entityClass, conditions.get()));
+        if (maxResults < 0) {
+            return merged;
+        }
+        int from = Math.min(firstResult, merged.size());
+        return new ArrayList<>(merged.subList(from, Math.min(from + maxResults, merged.size())));
+    }
+
+    private long executeCount(long shapeId, Class<T> entityClass, Supplier<List<QueryCondition>> conditions,
+                              QueryValues values) {
+        if (!values.isChunked()) {
+            return withTemporaryTables(values, () ->
+                    countPlan(shapeId, entityClass, conditions, values).createQuery(entityManager, values).getSingleResult());
+        }
+        checkUngrouped(conditions.get(), values);
+        // 各批的 IN 值互不相同，同一行只会被一批计入
+        List<Long> counts = withTemporaryTables(values, () -> runChunks(values, (manager, chunk) ->
+                countPlan(shapeId, entityClass, conditions, chunk).createQuery(manager, chunk).getSingleResult()));
+        return counts.stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * 读取最多 {@code limit} 行常量，行数即结果；IN 列表被拆分时逐批读取，凑够 {@code limit} 行即停止
+     */
+    private long executeProbe(long shapeId, Class<T> entityClass, Supplier<List<QueryCondition>> conditions,
+                              QueryValues values, int limit) {
+        if (!values.isChunked()) {
+            return withTemporaryTables(values, () -> (long) probePlan(shapeId, entityClass, conditions, values)
+                    .createQuery(entityManager, values).setMaxResults(limit).getResultList().size());
+        }
+        checkUngrouped(conditions.get(), values);
+        // 各批的 IN 值互不相同，同一行只会被一批读到
+        long found = 0;
+        for (int i = 0; i < values.getChunkCount() && found < limit; i++) {
+            QueryValues chunk = values.chunk(i);
+            found += probePlan(shapeId, entityClass, conditions, chunk).createQuery(entityManager, chunk)
+                    .setMaxResults((int) (limit - found)).getResultList().size();
+        }
+        return found;
+    }
+
+    /**
+     * 同一分组的行可能分布在多批中，各批的分组数不能相加
+     */
+    private static void checkUngrouped(List<QueryCondition> conditions, QueryValues values) {
+        if (isGrouped(conditions)) {
+            throw new UnsupportedOperationException("Cannot count the groups of a query whose IN list is split into "
+                    + values.getChunkCount() + " chunks; use a temporary table or a larger chunk size");
+        }
+    }
+
+    private static boolean isGrouped(List<QueryCondition> conditions) {
+        for (QueryCondition condition : conditions) {
+            if (condition.getOperator() == QueryOperator.GROUP_BY || condition.getOperator() == QueryOperator.HAVING) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private CompiledQuery<T> listPlan(long shapeId, Class<T> entityClass, Supplier<List<QueryCondition>> conditions,
+                                      List<QueryFetch> fetches, QueryValues values, long purpose) {
+        return planCache.get(planKey(shapeId, values, purpose),
+                () -> compileListQuery(entityClass, conditions.get(), fetches, values,
+                        purpose == PLAN_KEYSET || purpose == PLAN_CHUNK));
+    }
+
+    private CompiledQuery<Object> idPlan(long shapeId, Class<T> entityClass, Supplier<List<QueryCondition>> conditions,
+                                         QueryValues values, long purpose) {
+        return planCache.get(planKey(shapeId, values, QueryShape.mix(PLAN_IDS, purpose)),
+                () -> compileIdQuery(entityClass, conditions.get(), values, purpose == PLAN_KEYSET));
+    }
+
+    /**
+     * 按 id 加载实体及其关联，结果按 {@code ids} 的顺序排列；查询期间被删除的实体不在结果中。
+     * id 列表与预加载一样经 {@link #idListStrategy()} 补齐和分批，不同页大小共用同一条语句
+     */
+    private List<T> fetchByIds(Class<T> entityClass, List<QueryFetch> fetches, List<?> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long fetchShape = QueryShape.seed(entityClass);
+        for (QueryFetch fetch : fetches) {
+            fetchShape = QueryShape.mix(fetchShape, QueryShape.fetchHash(fetch));
+        }
+        QueryShape.Key key = QueryShape.Key.of(QueryShape.mix(QueryShape.mix(planKeySeed, fetchShape), PLAN_FETCH),
+                planScope, entityClass, List.copyOf(fetches), PLAN_FETCH);
+        CompiledQuery<T> plan = planCache.get(key, () -> compileFetchQuery(entityClass, fetches));
+        // 集合关联的 JOIN FETCH 使同一实体出现多次，按 id 去重
+        PersistenceUnitUtil unitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        Map<Object, T> byId = new HashMap<>();
+        for (InList chunk : idListStrategy().applyChunked(ids)) {
+            for (T row : plan.createQuery(entityManager, index -> chunk).getResultList()) {
+                byId.put(unitUtil.getIdentifier(row), row);
+            }
+        }
+        List<T> result = new ArrayList<>(ids.size());
+        for (Object id : new LinkedHashSet<>(ids)) {
+            T entity = byId.get(id);
+            if (entity != null) {
+                result.add(entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 是否有随实体加载的集合关联（路径上任一级是集合）
+     */
+    private boolean hasCollectionFetch(List<QueryFetch> fetches) {
+        for (QueryFetch fetch : fetches) {
+            for (Attribute<?, ?> attribute : attributeTable.getAttributePath(fetch.getPath())) {
+                if (attribute.isCollection()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private CompiledQuery<Long> countPlan(long shapeId, Class<T> entityClass, Supplier<List<QueryCondition>> conditions,
+                                          QueryValues values) {
+        return planCache.get(planKey(shapeId, values, PLAN_COUNT),
+                () -> compileCountQuery(entityClass, conditions.get(), values));
+    }
+
+    private CompiledQuery<Integer> probePlan(long shapeId, Class<T> entityClass,
+                                             Supplier<List<QueryCondition>> conditions, QueryValues values) {
+        return planCache.get(planKey(shapeId, values, PLAN_PROBE),
+                () -> compileProbeQuery(entityClass, conditions.get(), values));
+    }
+
+    /**
+     * 逐批执行。允许并发且可以在其他连接上读取时，各批使用独立的 EntityManager 并发执行，
+     * 并发数同时受连接池大小限制；否则在当前 EntityManager 中顺序执行，保证读到本事务的数据。
+     */
+    private <R> List<R> runChunks(QueryValues values, BiFunction<EntityManager, QueryValues, R> task) {
+        int parallelism = inListStrategy.getParallelism();
+        if (parallelism > 1 && values.getChunkCount() > 1 && chunksMayRunConcurrently(values)) {
+            EntityManagerFactory factory = entityManager.getEntityManagerFactory();
+            parallelism = Math.min(parallelism, ParallelScan.connectionLimit(factory));
+            return ChunkedExecution.run(values.getChunkCount(), parallelism, index -> {
+                EntityManager chunkManager = factory.createEntityManager();
+                try {
+                    return task.apply(chunkManager, values.chunk(index));
+                } finally {
+                    chunkManager.close();
+                }
+            });
+        }
+        return ChunkedExecution.run(values.getChunkCount(), 1, index -> task.apply(entityManager, values.chunk(index)));
+    }
+
+    /**
+     * 其他连接能否读到与当前事务相同的数据：没有事务，或当前事务只读且没有写入临时表批次。
+     * 仓库方法默认运行在只读事务中；读写事务可能有尚未提交的修改，只能在本事务的连接上读取。
+     */
+    private boolean chunksMayRunConcurrently(QueryValues values) {
+        if (!entityManager.isJoinedToTransaction()) {
+            return true;
+        }
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && values.getBatches().isEmpty();
+    }
+
+    /**
+     * 写入本次执行的临时表批次，查询结束后删除
+     */
+    private <R> R withTemporaryTables(QueryValues values, Supplier<R> query) {
+        List<InListTable.Batch> batches = values.getBatches();
+        if (batches.isEmpty()) {
+            return query.get();
+        }
+        String table = inListStrategy.getTemporaryTable();
+        for (InListTable.Batch batch : batches) {
+            InListTable.insert(entityManager, table, batch);
+        }
+        try {
+            return query.get();
+        } finally {
+            for (InListTable.Batch batch : batches) {
+                InListTable.delete(entityManager, table, batch);
+            }
+        }
+    }
+
+    private QueryValues prepare(LambdaQueryWrapper<T> queryWrapper) {
+        return prepare(queryWrapper.getShapeKey(), queryWrapper.size(), queryWrapper::getOperator, queryWrapper::getValue);
+    }
+
+    private QueryValues prepare(BoundQuery<T> query) {
+        List<QueryCondition> conditions = query.getTemplate().getConditions();
+        return prepare(query.getShapeKey(), conditions.size(), index -> conditions.get(index).getOperator(), query::getValue);
+    }
+
+    /**
+     * 按 IN 列表策略整理本次执行的条件值，没有需要整理的 IN 条件时直接使用原值。
+     * 超大列表在读写事务内优先写入临时表，否则拆分值最多的一个 IN 条件；
+     * 只读事务（包括仓库方法默认的事务）的连接不能写入，不使用临时表；
+     * 顶层含 OR 时拆分会改变语义，不拆分。
+     */
+    private QueryValues prepare(QueryShape.Key shape, int size, IntFunction<QueryOperator> operators,
+                                IntFunction<Object> source) {
+        QueryValues values = new QueryValues(shape, source, size);
+        if (inListStrategy.isIdentity()) {
+            return values;
+        }
+        boolean chunkable = ConditionTree.of(shape, size, operators).isConjunction();
+        boolean temporaryTables = inListStrategy.getTemporaryTable() != null && entityManager.isJoinedToTransaction()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        for (int i = 0; i < size; i++) {
+            QueryOperator operator = operators.apply(i);
+            if (operator != QueryOperator.IN && operator != QueryOperator.NOT_IN) {
+                continue;
+            }
+            Object value = source.apply(i);
+            if (!(value instanceof Iterable)) {
+                continue;
+            }
+            Iterable<?> list = (Iterable<?>) value;
+            if (temporaryTables) {
+                Collection<Object> distinct = new LinkedHashSet<>();
+                list.forEach(distinct::add);
+                if (inListStrategy.useTemporaryTable(distinct.size())) {
+                    values.putBatch(i, new InListTable.Batch(distinct));
+                    continue;
+                }
+            }
+            if (operator == QueryOperator.IN && chunkable) {
+                List<InList> chunks = inListStrategy.applyChunked(list);
+                if (chunks.size() > values.getChunkCount()) {
+                    if (values.isChunked()) {
+                        int previous = values.getChunkedIndex();
+                        values.putInList(previous, inListStrategy.apply((Iterable<?>) source.apply(previous)));
+                    }
+                    values.putChunks(i, chunks);
+                } else {
+                    values.putInList(i, chunks.size() == 1 ? chunks.get(0) : inListStrategy.apply(list));
+                }
+            } else {
+                values.putInList(i, inListStrategy.apply(list));
+            }
+        }
+        return values;
+    }
+
+    private QueryShape.Key planKey(long shapeId, QueryValues values, long purpose) {
+        return planKey(shapeId, values, purpose, null);
+    }
+
+    /**
+     * 计划缓存键：以指纹混合为哈希值，相等比较逐项比较查询结构、IN 列表布局和计划用途
+     * 
+     * @param detail 查询形状之外影响编译结果的结构，如投影列
+     */
+    private QueryShape.Key planKey(long shapeId, QueryValues values, long purpose, Object detail) {
+        long id = QueryShape.mix(QueryShape.mix(QueryShape.mix(planKeySeed, shapeId), values.getLayout()), purpose);
+        return QueryShape.Key.of(id, planScope, values.getShape(), values.getLayoutKey(), purpose, detail);
+    }
+
+    /**
+     * 一次执行的条件值：IN 列表替换为整理后的 {@link InList} 或临时表批次，其余条件取原值
+     */
+    private static final class QueryValues implements IntFunction<Object> {
+        /** 临时表批次的布局标记 */
+        private static final long TEMPORARY_TABLE = 0x7F4A7C159E3779B9L;
+
+        private final QueryShape.Key shape;
+        private final IntFunction<Object> source;
+        private final int size;
+        private Object[] prepared;
+        private List<InListTable.Batch> batches = List.of();
+        /** IN 列表布局，区间压缩或临时表改变了查询结构时并入计划缓存键 */
+        private long layout = QueryShape.EMPTY;
+        /** 被拆分的条件下标，-1 表示未拆分 */
+        private int chunkedIndex = -1;
+        private List<InList> chunks = List.of();
+
+        QueryValues(QueryShape.Key shape, IntFunction<Object> source, int size) {
+            this.shape = shape;
+            this.source = source;
+            this.size = size;
+        }
+
+        private void put(int index, Object value, long valueLayout) {
+            if (prepared == null) {
+                prepared = new Object[size];
+            }
+            prepared[index] = value;
+            layout = QueryShape.mix(QueryShape.mix(layout, index), valueLayout);
+        }
+
+        void putInList(int index, InList inList) {
+            if (index == chunkedIndex) {
+                chunkedIndex = -1;
+                chunks = List.of();
+            }
+            put(index, inList, inList.getLayout());
+        }
+
+        void putBatch(int index, InListTable.Batch batch) {
+            put(index, batch, TEMPORARY_TABLE);
+            if (batches.isEmpty()) {
+                batches = new ArrayList<>();
+            }
+            batches.add(batch);
+        }
+
+        void putChunks(int index, List<InList> chunks) {
+            this.chunkedIndex = index;
+            this.chunks = chunks;
+        }
+
+        boolean isChunked() {
+            return chunkedIndex >= 0;
+        }
+
+        int getChunkedIndex() {
+            return chunkedIndex;
+        }
+
+        int getChunkCount() {
+            return chunks.size();
+        }
+
+        /**
+         * 第 {@code index} 批的条件值，被拆分的条件替换为该批的值
+         */
+        QueryValues chunk(int index) {
+            QueryValues chunk = new QueryValues(shape, source, size);
+            chunk.prepared = prepared == null ? null : prepared.clone();
+            chunk.layout = layout;
+            chunk.put(chunkedIndex, chunks.get(index), chunks.get(index).getLayout());
+            return chunk;
+        }
 
-        QueryContext context = new QueryContext(builder, root);
+        List<InListTable.Batch> getBatches() {
+            return batches;
+        }
+
+        QueryShape.Key getShape() {
+            return shape;
+        }
+
+        long getLayout() {
+            return layout;
+        }
 
-        for (QueryCondition condition : queryWrapper.getConditions()) {
-            processCondition(condition, context);
+        /**
+         * 可比较的 IN 列表布局：每个条件整理后的区间个数与是否有离散值，临时表批次为 -1，未整理为 0
+         */
+        Object getLayoutKey() {
+            if (prepared == null) {
+                return null;
+            }
+            int[] key = new int[size];
+            for (int i = 0; i < size; i++) {
+                Object value = prepared[i];
+                if (value instanceof InList) {
+                    InList inList = (InList) value;
+                    key[i] = 1 + (inList.getRangeCount() << 1 | (inList.getValues().isEmpty() ? 0 : 1));
+                } else if (value != null) {
+                    key[i] = -1;
+                }
+            }
+            return key;
         }
 
+        /**
+         * 整理后的值，未整理的条件返回 null
+         */
+        Object getPrepared(int index) {
+            return prepared == null ? null : prepared[index];
+        }
+
+        @Override
+        public Object apply(int index) {
+            Object value = getPrepared(index);
+            if (value == null) {
+                return source.apply(index);
+            }
+            // 临时表条件只绑定批次号
+            return value instanceof InListTable.Batch ? (Object) ((InListTable.Batch) value).getId() : value;
+        }
+    }
+
+    /**
+     * @param nullsLargest 可空排序字段按 null 最大排序，与游标条件的比较方式一致
+     */
+    private CompiledQuery<T> compileListQuery(Class<T> entityClass, List<QueryCondition> conditions,
+                                              List<QueryFetch> fetches, QueryValues values, boolean nullsLargest) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        query.select(root);
+        EntityGraph<T> graph = applyFetches(entityClass, root, fetches);
+
+        QueryContext context = new QueryContext(builder, query, root, attributeTable);
+        context.setNullsLargest(nullsLargest);
+        processConditions(conditions, values, context);
+
         // 应用 WHERE 条件
         if (!context.getPredicates().isEmpty()) {
             query.where(context.getPredicates().toArray(new Predicate[0]));
         }
 
-        // 应用 GROUP BY
+        // 应用 GROUP BY 和 HAVING
         if (!context.getGroupByExpressions().isEmpty()) {
             query.groupBy(context.getGroupByExpressions());
         }
+        if (!context.getHavingPredicates().isEmpty()) {
+            query.having(context.getHavingPredicates().toArray(new Predicate[0]));
+        }
 
         // 应用 ORDER BY
         if (!context.getOrders().isEmpty()) {
             query.orderBy(context.getOrders());
         }
 
-        return query;
+        return new CompiledQuery<>(query, context.getSlots(), graph);
     }
 
-    private void processCondition(QueryCondition condition, QueryContext context) {
+    /**
+     * 与列表查询的条件和排序相同，只读取 id
+     */
+    private CompiledQuery<Object> compileIdQuery(Class<T> entityClass, List<QueryCondition> conditions,
+                                                 QueryValues values, boolean nullsLargest) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> query = builder.createQuery(Object.class);
+        Root<T> root = query.from(entityClass);
+        query.select(root.get(attributeTable.getIdAttributeName()));
+
+        QueryContext context = new QueryContext(builder, query, root, attributeTable);
+        context.setNullsLargest(nullsLargest);
+        processConditions(conditions, values, context);
+        if (!context.getPredicates().isEmpty()) {
+            query.where(context.getPredicates().toArray(new Predicate[0]));
+        }
+        if (!context.getGroupByExpressions().isEmpty()) {
+            query.groupBy(context.getGroupByExpressions());
+        }
+        if (!context.getHavingPredicates().isEmpty()) {
+            query.having(context.getHavingPredicates().toArray(new Predicate[0]));
+        }
+        if (!context.getOrders().isEmpty()) {
+            query.orderBy(context.getOrders());
+        }
+
+        return new CompiledQuery<>(query, context.getSlots());
+    }
+
+    /**
+     * 按 id 列表加载实体及其关联，id 列表绑定为第 0 个条件的值
+     */
+    private CompiledQuery<T> compileFetchQuery(Class<T> entityClass, List<QueryFetch> fetches) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        query.select(root);
+        EntityGraph<T> graph = applyFetches(entityClass, root, fetches);
+
+        QueryContext context = new QueryContext(builder, query, root, attributeTable);
+        query.where(root.get(attributeTable.getIdAttributeName()).in(context.collectionParameter()));
+
+        return new CompiledQuery<>(query, context.getSlots(), graph);
+    }
+
+    /**
+     * 为随实体加载的关联添加左外连接抓取，或收集到实体图中；多个路径的公共前缀只连接一次
+     *
+     * @return 实体图，没有以实体图加载的关联时为 null
+     */
+    private EntityGraph<T> applyFetches(Class<T> entityClass, Root<T> root, List<QueryFetch> fetches) {
+        EntityGraph<T> graph = null;
+        Map<String, FetchParent<?, ?>> joined = new HashMap<>();
+        Map<String, Subgraph<?>> subgraphs = new HashMap<>();
+        for (QueryFetch fetch : fetches) {
+            List<Attribute<?, ?>> chain = attributeTable.getAttributePath(fetch.getPath());
+            for (Attribute<?, ?> attribute : chain) {
+                if (!attribute.isAssociation() && !attribute.isCollection()) {
+                    throw new IllegalArgumentException("Cannot fetch '" + fetch.getPath() + "': '"
+                            + attribute.getName() + "' is not an association");
+                }
+            }
+            if (fetch.isGraph() && graph == null) {
+                graph = entityManager.createEntityGraph(entityClass);
+            }
+            FetchParent<?, ?> parent = root;
+            Subgraph<?> subgraph = null;
+            String prefix = "";
+            for (int i = 0; i < chain.size(); i++) {
+                String name = chain.get(i).getName();
+                prefix = prefix.isEmpty() ? name : prefix + "." + name;
+                if (!fetch.isGraph()) {
+                    FetchParent<?, ?> owner = parent;
+                    parent = joined.computeIfAbsent(prefix, path -> owner.fetch(name, JoinType.LEFT));
+                } else if (i == chain.size() - 1 && !subgraphs.containsKey(prefix)) {
+                    if (subgraph == null) {
+                        graph.addAttributeNodes(name);
+                    } else {
+                        subgraph.addAttributeNodes(name);
+                    }
+                } else if (i < chain.size() - 1) {
+                    Subgraph<?> owner = subgraph;
+                    EntityGraph<T> rootGraph = graph;
+                    subgraph = subgraphs.computeIfAbsent(prefix, path ->
+                            owner == null ? rootGraph.addSubgraph(name) : owner.addSubgraph(name));
+                }
+            }
+        }
+        return graph;
+    }
+
+    private CompiledQuery<Long> compileCountQuery(Class<T> entityClass, List<QueryCondition> conditions,
+                                                  QueryValues values) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        if (isGrouped(conditions)) {
+            return compileGroupCountQuery(entityClass, conditions, values, query);
+        }
+        Root<T> root = query.from(entityClass);
+        query.select(builder.count(root));
+
+        // 计数只需要 WHERE 条件，排序被忽略
+        QueryContext context = new QueryContext(builder, query, root, attributeTable);
+        processConditions(conditions, values, context);
+        if (!context.getPredicates().isEmpty()) {
+            query.where(context.getPredicates().toArray(new Predicate[0]));
+        }
+
+        return new CompiledQuery<>(query, context.getSlots());
+    }
+
+    /**
+     * 分组查询的计数是分组数：{@code select count(*) from (select 1 from ... group by ... having ...)}
+     */
+    private CompiledQuery<Long> compileGroupCountQuery(Class<T> entityClass, List<QueryCondition> conditions,
+                                                       QueryValues values, CriteriaQuery<Long> query) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        Subquery<Integer> groups = query.subquery(Integer.class);
+        Root<T> root = groups.from(entityClass);
+        // FROM 中的子查询，列必须有别名
+        Expression<Integer> column = builder.literal(1);
+        column.alias("g");
+        groups.select(column);
+
+        QueryContext context = new QueryContext(builder, groups, root, attributeTable);
+        processConditions(conditions, values, context);
+        if (!context.getPredicates().isEmpty()) {
+            groups.where(context.getPredicates().toArray(new Predicate[0]));
+        }
+        if (!context.getGroupByExpressions().isEmpty()) {
+            groups.groupBy(context.getGroupByExpressions());
+        }
+        if (!context.getHavingPredicates().isEmpty()) {
+            groups.having(context.getHavingPredicates().toArray(new Predicate[0]));
+        }
+        SqlFragments.from(query, groups);
+        query.select(builder.count(builder.literal(1)));
+
+        return new CompiledQuery<>(query, context.getSlots());
+    }
+
+    private CompiledQuery<Integer> compileProbeQuery(Class<T> entityClass, List<QueryCondition> conditions,
+                                                     QueryValues values) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = builder.createQuery(Integer.class);
+        Root<T> root = query.from(entityClass);
+        // 只需要知道行是否存在，不读取任何列
+        query.select(builder.literal(1));
+
+        // 有分组时每个分组一行，读到的行数即分组数
+        QueryContext context = new QueryContext(builder, query, root, attributeTable);
+        processConditions(conditions, values, context);
+        if (!context.getPredicates().isEmpty()) {
+            query.where(context.getPredicates().toArray(new Predicate[0]));
+        }
+        if (!context.getGroupByExpressions().isEmpty()) {
+            query.groupBy(context.getGroupByExpressions());
+        }
+        if (!context.getHavingPredicates().isEmpty()) {
+            query.having(context.getHavingPredicates().toArray(new Predicate[0]));
+        }
+
+        return new CompiledQuery<>(query, context.getSlots());
+    }
+
+    /**
+     * 只读取投影列，结果是标量值或聚合值，不创建也不管理实体
+     */
+    private CompiledQuery<Tuple> compileProjectionQuery(Class<T> entityClass, List<QueryCondition> conditions,
+                                                        List<QuerySelection> selections, QueryValues values) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+
+        QueryContext context = new QueryContext(builder, query, root, attributeTable);
+        // 先编译条件，投影列的关联路径按条件决定连接方式
+        processConditions(conditions, values, context);
+        List<Selection<?>> columns = new ArrayList<>(selections.size());
+        for (QuerySelection selection : selections) {
+            AggregateFunction function = selection.getFunction();
+            if (function != AggregateFunction.COUNT && function != AggregateFunction.COUNT_DISTINCT) {
+                List<Attribute<?, ?>> chain = attributeTable.getAttributePath(selection.getField());
+                Attribute<?, ?> attribute = chain.get(chain.size() - 1);
+                if (attribute.isAssociation() || attribute.isCollection()) {
+                    // 关联实体会被加载进持久化上下文
+                    throw new IllegalArgumentException("Projection column '" + selection.getField()
+                            + "' must be a basic or embedded attribute");
+                }
+            }
+            Expression<?> column = function != null
+                    ? aggregate(function, selection.getField(), context) : context.path(selection.getField());
+            columns.add(column.alias(selection.getAlias()));
+        }
+        query.multiselect(columns);
+
+        checkGrouping(conditions, selections);
+        if (!context.getPredicates().isEmpty()) {
+            query.where(context.getPredicates().toArray(new Predicate[0]));
+        }
+        if (!context.getGroupByExpressions().isEmpty()) {
+            query.groupBy(context.getGroupByExpressions());
+        }
+        if (!context.getHavingPredicates().isEmpty()) {
+            query.having(context.getHavingPredicates().toArray(new Predicate[0]));
+        }
+        if (!context.getOrders().isEmpty()) {
+            query.orderBy(context.getOrders());
+        }
+
+        return new CompiledQuery<>(query, context.getSlots());
+    }
+
+    /**
+     * 有聚合列时，普通投影列必须是分组字段，否则数据库会拒绝查询
+     */
+    private static void checkGrouping(List<QueryCondition> conditions, List<QuerySelection> selections) {
+        if (selections.stream().noneMatch(QuerySelection::isAggregate)) {
+            return;
+        }
+        for (QuerySelection selection : selections) {
+            if (!selection.isAggregate() && conditions.stream().noneMatch(condition ->
+                    condition.getOperator() == QueryOperator.GROUP_BY && condition.getField().equals(selection.getField()))) {
+                throw new IllegalArgumentException("Column '" + selection.getField()
+                        + "' is selected with aggregates and must also appear in groupBy()");
+            }
+        }
+    }
+
+    /**
+     * 聚合表达式；属性路径为空时为 {@code COUNT(*)}。整数求和按 Long、浮点求和按 Double 计算，
+     * 结果类型与 JPA 规范一致，不会因字段类型溢出
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Expression<?> aggregate(AggregateFunction function, String field, QueryContext context) {
+        CriteriaBuilder builder = context.getBuilder();
+        if (field == null || field.isEmpty()) {
+            return builder.count(context.getRoot());
+        }
+        Path path = context.path(field);
+        switch (function) {
+            case COUNT:
+                return builder.count(path);
+            case COUNT_DISTINCT:
+                return builder.countDistinct(path);
+            case SUM:
+                Class<?> type = MethodType.methodType(path.getJavaType()).wrap().returnType();
+                if (type == Integer.class || type == Short.class || type == Byte.class) {
+                    return builder.sumAsLong(path);
+                }
+                return type == Float.class ? builder.sumAsDouble(path) : builder.sum(path);
+            case AVG:
+                return builder.avg(path);
+            case MIN:
+                return builder.least(path);
+            case MAX:
+                return builder.greatest(path);
+            default:
+                throw new UnsupportedOperationException("Aggregate function not supported: " + function);
+        }
+    }
+
+    private void processConditions(List<QueryCondition> conditions, QueryValues values, QueryContext context) {
+        ConditionTree tree = ConditionTree.of(values.getShape(), conditions.size(), index -> conditions.get(index).getOperator());
+        context.requireJoins(requiredJoins(tree, conditions));
+        // 排序、分组等不属于 WHERE 的条件按出现顺序处理
+        for (int i = 0; i < conditions.size(); i++) {
+            QueryCondition condition = conditions.get(i);
+            if (!ConditionTree.isPredicate(condition.getOperator())) {
+                context.setConditionIndex(i);
+                processCondition(condition, context);
+            }
+        }
+        context.addPredicate(buildPredicate(tree, conditions, values, context));
+    }
+
+    /**
+     * 可以内连接的关联路径前缀：顶层 AND 中拒绝 null 的条件所用的路径，关联为 null 的行本来就不会匹配。
+     * 其余路径（OR、NOT、嵌套、IS NULL、NOT IN、排序、分组和投影）左外连接，不丢失关联为 null 的行
+     */
+    private Set<String> requiredJoins(ConditionTree tree, List<QueryCondition> conditions) {
+        List<ConditionTree> conjuncts;
+        if (tree.getKind() == ConditionTree.Kind.LEAF) {
+            conjuncts = Collections.singletonList(tree);
+        } else if (tree.getKind() == ConditionTree.Kind.AND) {
+            conjuncts = tree.getChildren();
+        } else {
+            return Collections.emptySet();
+        }
+        Set<String> required = new HashSet<>();
+        for (ConditionTree conjunct : conjuncts) {
+            if (conjunct.getKind() == ConditionTree.Kind.LEAF) {
+                QueryCondition condition = conditions.get(conjunct.getIndex());
+                // 集合路径在子查询中连接
+                if (rejectsNull(condition) && collectionPrefix(condition.getField()) == null) {
+                    addPrefixes(condition.getField(), required);
+                }
+            }
+        }
+        return required;
+    }
+
+    /**
+     * 字段为 null 时条件不成立；条件被跳过时不取路径，不影响连接
+     */
+    private static boolean rejectsNull(QueryCondition condition) {
         switch (condition.getOperator()) {
             case EQ:
-                context.addPredicate(buildEqualPredicate(condition, context));
-                break;
             case NE:
-                context.addPredicate(buildNotEqualPredicate(condition, context));
-                break;
             case GT:
-                context.addPredicate(buildGreaterThanPredicate(condition, context));
-                break;
             case GE:
-                context.addPredicate(buildGreaterThanOrEqualPredicate(condition, context));
-                break;
             case LT:
-                context.addPredicate(buildLessThanPredicate(condition, context));
-                break;
             case LE:
-                context.addPredicate(buildLessThanOrEqualPredicate(condition, context));
-                break;
             case LIKE:
-                context.addPredicate(buildLikePredicate(condition, context, "%", "%"));
-                break;
             case LEFT_LIKE:
-                context.addPredicate(buildLikePredicate(condition, context, "%", ""));
-                break;
             case RIGHT_LIKE:
-                context.addPredicate(buildLikePredicate(condition, context, "", "%"));
-                break;
             case IN:
-                context.addPredicate(buildInPredicate(condition, context));
-                break;
+            case BETWEEN:
+            case IS_NOT_NULL:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void addPrefixes(String field, Set<String> prefixes) {
+        for (int end = field.indexOf('.'); end > 0; end = field.indexOf('.', end + 1)) {
+            prefixes.add(field.substring(0, end));
+        }
+    }
+
+    /**
+     * 属性路径中第一个集合属性及之前的前缀，路径不经过集合时为 null
+     */
+    private String collectionPrefix(String field) {
+        if (field == null || field.indexOf('.') < 0) {
+            return null;
+        }
+        List<Attribute<?, ?>> chain = attributeTable.getAttributePath(field);
+        int end = -1;
+        for (int i = 0; i < chain.size() - 1; i++) {
+            end = field.indexOf('.', end + 1);
+            if (chain.get(i).isCollection()) {
+                return field.substring(0, end);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 把条件树编译为一个谓词。返回 null 表示不限制：AND 中跳过，OR 中使整个 OR 不限制，
+     * 此时已编译的兄弟谓词被丢弃，它们登记的参数槽位一并撤销。
+     * 
+     * @param values 本次执行的条件值，嵌套包装器内为 null
+     */
+    private Predicate buildPredicate(ConditionTree node, List<QueryCondition> conditions, QueryValues values,
+                                     QueryContext context) {
+        if (node.getKind() == ConditionTree.Kind.LEAF) {
+            context.setConditionIndex(node.getIndex());
+            return buildLeafPredicate(conditions.get(node.getIndex()),
+                    values != null ? values.getPrepared(node.getIndex()) : null, context);
+        }
+        List<ConditionTree> children = node.getChildren();
+        List<Predicate> predicates = new ArrayList<>(children.size());
+        int slotMark = context.getSlots().size();
+        for (ConditionTree child : children) {
+            Predicate predicate = buildPredicate(child, conditions, values, context);
+            if (predicate != null) {
+                predicates.add(predicate);
+            } else if (node.getKind() == ConditionTree.Kind.OR) {
+                context.discardSlots(slotMark);
+                return null;
+            }
+        }
+        if (predicates.size() <= 1) {
+            return predicates.isEmpty() ? null : predicates.get(0);
+        }
+        Predicate[] array = predicates.toArray(new Predicate[0]);
+        return node.getKind() == ConditionTree.Kind.AND
+                ? context.getBuilder().and(array) : context.getBuilder().or(array);
+    }
+
+    private Predicate buildLeafPredicate(QueryCondition condition, Object prepared, QueryContext context) {
+        String collection = context.isCorrelated() ? null : collectionPrefix(condition.getField());
+        if (collection != null) {
+            return buildExistsPredicate(condition, prepared, collection, context);
+        }
+        if (prepared instanceof InList) {
+            // 整理后的 IN 列表结构由区间布局决定，而不是原始列表
+            return buildInListPredicate(condition, (InList) prepared, context,
+                    condition.getOperator() == QueryOperator.NOT_IN);
+        }
+        if (prepared instanceof InListTable.Batch) {
+            return InListTable.predicate(context.getBuilder(), inListStrategy.getTemporaryTable(),
+                    context.path(condition.getField()), context.parameter(Long.class),
+                    condition.getOperator() == QueryOperator.NOT_IN);
+        }
+        switch (condition.getOperator()) {
+            case EQ:
+                return buildEqualPredicate(condition, context);
+            case NE:
+                return buildNotEqualPredicate(condition, context);
+            case GT:
+                return buildGreaterThanPredicate(condition, context);
+            case GE:
+                return buildGreaterThanOrEqualPredicate(condition, context);
+            case LT:
+                return buildLessThanPredicate(condition, context);
+            case LE:
+                return buildLessThanOrEqualPredicate(condition, context);
+            case LIKE:
+                return buildLikePredicate(condition, context, "%", "%");
+            case LEFT_LIKE:
+                return buildLikePredicate(condition, context, "%", "");
+            case RIGHT_LIKE:
+                return buildLikePredicate(condition, context, "", "%");
+            case IN:
+                return buildInPredicate(condition, context);
             case NOT_IN:
-                context.addPredicate(buildNotInPredicate(condition, context));
-                break;
+                return buildNotInPredicate(condition, context);
             case IS_NULL:
-                context.addPredicate(buildIsNullPredicate(condition, context));
-                break;
+                return buildIsNullPredicate(condition, context);
             case IS_NOT_NULL:
-                context.addPredicate(buildIsNotNullPredicate(condition, context));
-                break;
+                return buildIsNotNullPredicate(condition, context);
             case BETWEEN:
-                context.addPredicate(buildBetweenPredicate(condition, context, false));
-                break;
+                return buildBetweenPredicate(condition, context, false);
             case NOT_BETWEEN:
-                context.addPredicate(buildBetweenPredicate(condition, context, true));
-                break;
+                return buildBetweenPredicate(condition, context, true);
+            case NEST:
+                return buildNestedPredicate(condition, context, false);
+            case NOT:
+                return buildNestedPredicate(condition, context, true);
+            case APPLY:
+                return buildApplyPredicate(condition, context);
+            default:
+                throw new UnsupportedOperationException("Operator not supported: " + condition.getOperator());
+        }
+    }
+
+    /**
+     * 经过集合属性的路径条件编译为关联子查询 {@code EXISTS}：存在满足条件的元素即匹配。
+     * 连接集合会让根实体按元素重复，列表出现重复行，计数也会偏大
+     */
+    private Predicate buildExistsPredicate(QueryCondition condition, Object prepared, String collection,
+                                           QueryContext context) {
+        Subquery<Integer> subquery = context.getQuery().subquery(Integer.class);
+        Root<?> correlated = subquery.correlate(context.getRoot());
+        subquery.select(context.getBuilder().literal(1));
+        Set<String> required = new HashSet<>();
+        addPrefixes(collection + ".", required);
+        if (rejectsNull(condition)) {
+            addPrefixes(condition.getField(), required);
+        }
+        Predicate predicate = context.correlate(correlated, required,
+                () -> buildLeafPredicate(condition, prepared, context));
+        if (predicate == null) {
+            return null;
+        }
+        return context.getBuilder().exists(subquery.where(predicate));
+    }
+
+    private void processCondition(QueryCondition condition, QueryContext context) {
+        switch (condition.getOperator()) {
             case ORDER_BY_ASC:
                 context.addOrder(buildAscOrder(condition, context));
                 break;
@@ -120,41 +1638,161 @@ public class LambdaQueryExecutorImpl<T> extends SimpleJpaRepository<T, Long> imp
                 processHavingCondition(condition, context);
                 break;
             case OR:
-                processOrCondition(condition, context);
-                break;
             case AND:
-                processAndCondition(condition, context);
-                break;
-            case NEST:
-                processNestCondition(condition, context);
-                break;
-            case APPLY:
-                processApplyCondition(condition, context);
+                // 连接符已在条件树中体现
                 break;
             default:
                 throw new UnsupportedOperationException("Operator not supported: " + condition.getOperator());
         }
-    }
+    }
+
+    // 查询上下文类，用于存储查询构建过程中的状态
+    private static class QueryContext {
+        private final CriteriaBuilder builder;
+        private final AbstractQuery<?> query;
+        private final EntityAttributeTable<?> attributeTable;
+        /** 当前取路径的根，编译集合路径的子查询时为关联到外层的根 */
+        private Root<?> root;
+        private Map<String, From<?, ?>> joins = new HashMap<>();
+        /** 内连接的路径前缀，其余关联左外连接 */
+        private Set<String> requiredJoins = Collections.emptySet();
+        private boolean correlated;
+        private final List<Predicate> predicates = new ArrayList<>();
+        private final List<Order> orders = new ArrayList<>();
+        private final List<Expression<?>> groupByExpressions = new ArrayList<>();
+        private final List<Predicate> havingPredicates = new ArrayList<>();
+        private final List<CompiledQuery.ParameterSlot> slots = new ArrayList<>();
+        private int conditionIndex;
+        private boolean nullsLargest;
+        /** 当前所在的嵌套条件下标，由外到内 */
+        private int[] nestPath = new int[0];
+
+        public QueryContext(CriteriaBuilder builder, AbstractQuery<?> query, Root<?> root,
+                            EntityAttributeTable<?> attributeTable) {
+            this.builder = builder;
+            this.query = query;
+            this.root = root;
+            this.attributeTable = attributeTable;
+        }
+
+        public CriteriaBuilder getBuilder() {
+            return builder;
+        }
+
+        public Root<?> getRoot() {
+            return root;
+        }
+
+        public AbstractQuery<?> getQuery() {
+            return query;
+        }
+
+        public <Y> Path<Y> path(String field) {
+            return attributeTable.getPath(root, field, joins,
+                    prefix -> requiredJoins.contains(prefix) ? JoinType.INNER : JoinType.LEFT);
+        }
+
+        public void requireJoins(Set<String> requiredJoins) {
+            this.requiredJoins = requiredJoins;
+        }
+
+        public boolean isCorrelated() {
+            return correlated;
+        }
+
+        /**
+         * 在关联子查询的根上编译谓词，子查询有自己的连接，参数槽位仍登记在外层查询
+         */
+        public <R> R correlate(Root<?> correlatedRoot, Set<String> required, Supplier<R> action) {
+            Root<?> outerRoot = root;
+            Map<String, From<?, ?>> outerJoins = joins;
+            Set<String> outerRequired = requiredJoins;
+            root = correlatedRoot;
+            joins = new HashMap<>();
+            requiredJoins = required;
+            correlated = true;
+            try {
+                return action.get();
+            } finally {
+                root = outerRoot;
+                joins = outerJoins;
+                requiredJoins = outerRequired;
+                correlated = false;
+            }
+        }
+
+        public void setConditionIndex(int conditionIndex) {
+            this.conditionIndex = conditionIndex;
+        }
 
-    // 查询上下文类，用于存储查询构建过程中的状态
-    private static class QueryContext {
-        private final CriteriaBuilder builder;
-        private final Root<?> root;
-        private final List<Predicate> predicates = new ArrayList<>();
-        private final List<Order> orders = new ArrayList<>();
-        private final List<Expression<?>> groupByExpressions = new ArrayList<>();
+        public boolean isNullsLargest() {
+            return nullsLargest;
+        }
 
-        public QueryContext(CriteriaBuilder builder, Root<?> root) {
-            this.builder = builder;
-            this.root = root;
+        public void setNullsLargest(boolean nullsLargest) {
+            this.nullsLargest = nullsLargest;
         }
 
-        public CriteriaBuilder getBuilder() {
-            return builder;
+        /**
+         * 进入当前条件对应的嵌套包装器，之后的条件下标相对于嵌套包装器
+         */
+        public void enterNest() {
+            int[] path = Arrays.copyOf(nestPath, nestPath.length + 1);
+            path[nestPath.length] = conditionIndex;
+            nestPath = path;
         }
 
-        public Root<?> getRoot() {
-            return root;
+        public void exitNest() {
+            conditionIndex = nestPath[nestPath.length - 1];
+            nestPath = Arrays.copyOf(nestPath, nestPath.length - 1);
+        }
+
+        /**
+         * 为当前条件的整个值创建参数
+         */
+        public <Y> ParameterExpression<Y> parameter(Class<? extends Y> type) {
+            return parameter(type, -1, null, null);
+        }
+
+        /**
+         * 为当前条件集合值中的一个元素创建参数
+         */
+        public <Y> ParameterExpression<Y> parameter(Class<? extends Y> type, int elementIndex) {
+            return parameter(type, elementIndex, null, null);
+        }
+
+        /**
+         * 为 IN 创建集合参数，列表长度变化不影响编译结果
+         */
+        public ParameterExpression<Collection<?>> collectionParameter() {
+            return parameter(Collection.class, -1, null, null);
+        }
+
+        /**
+         * 为 LIKE 创建字符串参数，绑定时拼接前后缀
+         */
+        public ParameterExpression<String> likeParameter(int elementIndex, String prefix, String suffix) {
+            return parameter(String.class, elementIndex, prefix, suffix);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <Y> ParameterExpression<Y> parameter(Class<?> type, int elementIndex, String prefix, String suffix) {
+            // 基本类型属性的参数按包装类型声明，避免绑定装箱值时类型校验失败
+            Class<?> parameterType = MethodType.methodType(type).wrap().returnType();
+            ParameterExpression<Object> parameter = (ParameterExpression<Object>) builder.parameter(parameterType);
+            slots.add(new CompiledQuery.ParameterSlot(parameter, nestPath, conditionIndex, elementIndex, prefix, suffix));
+            return (ParameterExpression<Y>) parameter;
+        }
+
+        public List<CompiledQuery.ParameterSlot> getSlots() {
+            return slots;
+        }
+
+        /**
+         * 撤销 {@code size} 之后登记的参数槽位，它们所在的谓词没有进入查询
+         */
+        public void discardSlots(int size) {
+            slots.subList(size, slots.size()).clear();
         }
 
         public List<Predicate> getPredicates() {
@@ -186,76 +1824,125 @@ public class LambdaQueryExecutorImpl<T> extends SimpleJpaRepository<T, Long> imp
                 groupByExpressions.add(expression);
             }
         }
+
+        public List<Predicate> getHavingPredicates() {
+            return havingPredicates;
+        }
+
+        public void addHaving(Predicate predicate) {
+            havingPredicates.add(predicate);
+        }
     }
 
-    // 构建各种谓词的方法
+    // 构建各种谓词的方法，条件值一律以参数占位，编译结果只依赖查询形状
     private Predicate buildEqualPredicate(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().equal(context.getRoot().get(condition.getField()), condition.getValue());
+        Path<Object> path = context.path(condition.getField());
+        return context.getBuilder().equal(path, context.parameter(path.getJavaType()));
     }
 
     private Predicate buildNotEqualPredicate(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().notEqual(context.getRoot().get(condition.getField()), condition.getValue());
+        Path<Object> path = context.path(condition.getField());
+        return context.getBuilder().notEqual(path, context.parameter(path.getJavaType()));
     }
 
-    private Predicate buildGreaterThanPredicate(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().greaterThan(context.getRoot().get(condition.getField()), (Comparable) condition.getValue());
+    private <Y extends Comparable<? super Y>> Predicate buildGreaterThanPredicate(QueryCondition condition, QueryContext context) {
+        Path<Y> path = context.path(condition.getField());
+        return context.getBuilder().greaterThan(path, context.<Y>parameter(path.getJavaType()));
     }
 
-    private Predicate buildGreaterThanOrEqualPredicate(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().greaterThanOrEqualTo(context.getRoot().get(condition.getField()), (Comparable) condition.getValue());
+    private <Y extends Comparable<? super Y>> Predicate buildGreaterThanOrEqualPredicate(QueryCondition condition, QueryContext context) {
+        Path<Y> path = context.path(condition.getField());
+        return context.getBuilder().greaterThanOrEqualTo(path, context.<Y>parameter(path.getJavaType()));
     }
 
-    private Predicate buildLessThanPredicate(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().lessThan(context.getRoot().get(condition.getField()), (Comparable) condition.getValue());
+    private <Y extends Comparable<? super Y>> Predicate buildLessThanPredicate(QueryCondition condition, QueryContext context) {
+        Path<Y> path = context.path(condition.getField());
+        return context.getBuilder().lessThan(path, context.<Y>parameter(path.getJavaType()));
     }
 
-    private Predicate buildLessThanOrEqualPredicate(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().lessThanOrEqualTo(context.getRoot().get(condition.getField()), (Comparable) condition.getValue());
+    private <Y extends Comparable<? super Y>> Predicate buildLessThanOrEqualPredicate(QueryCondition condition, QueryContext context) {
+        Path<Y> path = context.path(condition.getField());
+        return context.getBuilder().lessThanOrEqualTo(path, context.<Y>parameter(path.getJavaType()));
     }
 
     private Predicate buildLikePredicate(QueryCondition condition, QueryContext context, String prefix, String suffix) {
+        Path<String> path = context.path(condition.getField());
         if (condition.getValue() instanceof Collection) {
-            Collection<?> values = (Collection<?>) condition.getValue();
-            return context.getBuilder().or(values.stream()
-                    .map(value -> context.getBuilder().like(context.getRoot().get(condition.getField()), prefix + value + suffix)).toArray(Predicate[]::new));
+            // 集合长度是形状的一部分，每个元素一个参数
+            int size = ((Collection<?>) condition.getValue()).size();
+            Predicate[] predicates = new Predicate[size];
+            for (int i = 0; i < size; i++) {
+                predicates[i] = context.getBuilder().like(path, context.likeParameter(i, prefix, suffix));
+            }
+            return context.getBuilder().or(predicates);
         } else {
-            return context.getBuilder().like(context.getRoot().get(condition.getField()), prefix + condition.getValue() + suffix);
+            return context.getBuilder().like(path, context.likeParameter(-1, prefix, suffix));
         }
     }
 
     private Predicate buildInPredicate(QueryCondition condition, QueryContext context) {
-        if (condition.getValue() instanceof Collection) {
-            Collection<?> values = (Collection<?>) condition.getValue();
-            return context.getRoot().get(condition.getField()).in(values);
+        if (condition.getValue() instanceof Iterable) {
+            if (isEmpty((Iterable<?>) condition.getValue())) {
+                return context.getBuilder().disjunction();
+            }
+            return context.path(condition.getField()).in(context.collectionParameter());
         }
         return null;
     }
 
     private Predicate buildNotInPredicate(QueryCondition condition, QueryContext context) {
-        if (condition.getValue() instanceof Collection) {
-            Collection<?> values = (Collection<?>) condition.getValue();
-            return context.getBuilder().not(context.getRoot().get(condition.getField()).in(values));
+        if (condition.getValue() instanceof Iterable) {
+            if (isEmpty((Iterable<?>) condition.getValue())) {
+                return null;
+            }
+            return context.getBuilder().not(
+                    context.path(condition.getField()).in(context.collectionParameter()));
         }
         return null;
     }
 
+    private <Y extends Comparable<? super Y>> Predicate buildInListPredicate(QueryCondition condition, InList inList,
+                                                                          QueryContext context, boolean negated) {
+        if (inList.isEmpty()) {
+            return negated ? null : context.getBuilder().disjunction();
+        }
+        Path<Y> path = context.path(condition.getField());
+        int rangeCount = inList.getRangeCount();
+        Predicate[] predicates = new Predicate[rangeCount + (inList.getValues().isEmpty() ? 0 : 1)];
+        for (int i = 0; i < rangeCount; i++) {
+            predicates[i] = context.getBuilder().between(path,
+                    context.<Y>parameter(path.getJavaType(), i << 1),
+                    context.<Y>parameter(path.getJavaType(), (i << 1) + 1));
+        }
+        if (rangeCount < predicates.length) {
+            predicates[rangeCount] = path.in(context.collectionParameter());
+        }
+        Predicate predicate = predicates.length == 1 ? predicates[0] : context.getBuilder().or(predicates);
+        return negated ? context.getBuilder().not(predicate) : predicate;
+    }
+
+    private static boolean isEmpty(Iterable<?> values) {
+        // 空列表与非空列表的 IN 长度档位不同，属于不同形状
+        return !values.iterator().hasNext();
+    }
+
     private Predicate buildIsNullPredicate(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().isNull(context.getRoot().get(condition.getField()));
+        return context.getBuilder().isNull(context.path(condition.getField()));
     }
 
     private Predicate buildIsNotNullPredicate(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().isNotNull(context.getRoot().get(condition.getField()));
+        return context.getBuilder().isNotNull(context.path(condition.getField()));
     }
 
-    private Predicate buildBetweenPredicate(QueryCondition condition, QueryContext context, boolean negated) {
+    private <Y extends Comparable<? super Y>> Predicate buildBetweenPredicate(QueryCondition condition, QueryContext context, boolean negated) {
         if (condition.getValue() instanceof Collection) {
             Collection<?> values = (Collection<?>) condition.getValue();
-            Object[] array = values.toArray();
-            if (array.length >= 2) {
+            if (values.size() >= 2) {
+                Path<Y> path = context.path(condition.getField());
                 Predicate betweenPredicate = context.getBuilder().between(
-                        context.getRoot().get(condition.getField()),
-                        (Comparable) array[0],
-                        (Comparable) array[1]
+                        path,
+                        context.<Y>parameter(path.getJavaType(), 0),
+                        context.<Y>parameter(path.getJavaType(), 1)
                 );
                 return negated ? context.getBuilder().not(betweenPredicate) : betweenPredicate;
             }
@@ -265,160 +1952,808 @@ public class LambdaQueryExecutorImpl<T> extends SimpleJpaRepository<T, Long> imp
 
     // 构建排序和分组的方法
     private Order buildAscOrder(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().asc(context.getRoot().get(condition.getField()));
+        if (context.isNullsLargest() && attributeTable.isNullable(condition.getField())) {
+            return SqlFragments.nullsLargest(context.getBuilder(), context.path(condition.getField()), true);
+        }
+        return context.getBuilder().asc(context.path(condition.getField()));
     }
 
     private Order buildDescOrder(QueryCondition condition, QueryContext context) {
-        return context.getBuilder().desc(context.getRoot().get(condition.getField()));
+        if (context.isNullsLargest() && attributeTable.isNullable(condition.getField())) {
+            return SqlFragments.nullsLargest(context.getBuilder(), context.path(condition.getField()), false);
+        }
+        return context.getBuilder().desc(context.path(condition.getField()));
     }
 
     private Expression<?> buildGroupByExpression(QueryCondition condition, QueryContext context) {
-        return context.getRoot().get(condition.getField());
+        return context.path(condition.getField());
     }
 
     // 处理特殊条件的方法
+    /**
+     * HAVING 条件的值为 {@code [比较符, 比较值]}，聚合条件再加上聚合函数；比较值以参数绑定，
+     * 参数按比较值的类型声明，比较值类型已计入查询形状
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
     private void processHavingCondition(QueryCondition condition, QueryContext context) {
-        // HAVING 条件需要特殊处理，这里简化处理
         Object[] havingData = (Object[]) condition.getValue();
-        if (havingData != null && havingData.length >= 2) {
-            QueryOperator havingOperator = (QueryOperator) havingData[0];
-            Object havingValue = havingData[1];
-            // 这里需要根据具体需求实现 HAVING 逻辑
-            // 由于 JPA Criteria API 对 HAVING 支持有限，可能需要使用原生 SQL
+        QueryOperator operator = (QueryOperator) havingData[0];
+        if (havingData[1] == null) {
+            throw new IllegalArgumentException("HAVING value must not be null for '" + condition.getField() + "'");
+        }
+        Expression expression = havingData.length > 2
+                ? aggregate((AggregateFunction) havingData[2], condition.getField(), context)
+                : context.path(condition.getField());
+        ParameterExpression value = context.parameter(havingData[1].getClass(), 1);
+        CriteriaBuilder builder = context.getBuilder();
+        switch (operator) {
+            case EQ:
+                context.addHaving(builder.equal(expression, value));
+                break;
+            case NE:
+                context.addHaving(builder.notEqual(expression, value));
+                break;
+            case GT:
+                context.addHaving(builder.greaterThan(expression, value));
+                break;
+            case GE:
+                context.addHaving(builder.greaterThanOrEqualTo(expression, value));
+                break;
+            case LT:
+                context.addHaving(builder.lessThan(expression, value));
+                break;
+            case LE:
+                context.addHaving(builder.lessThanOrEqualTo(expression, value));
+                break;
+            default:
+                throw new IllegalArgumentException("HAVING operator not supported: " + operator);
         }
     }
 
-    private void processOrCondition(QueryCondition condition, QueryContext context) {
-        // OR 操作符需要特殊处理，这里简化处理
-        // 实际实现中需要更复杂的逻辑来处理 OR 条件
-    }
-
-    private void processAndCondition(QueryCondition condition, QueryContext context) {
-        // AND 操作符是默认行为，不需要特殊处理
-    }
-
-    private void processNestCondition(QueryCondition condition, QueryContext context) {
-        // 嵌套查询需要特殊处理
-        if (condition.getValue() instanceof LambdaQueryWrapper) {
-            LambdaQueryWrapper<T> nestedWrapper = (LambdaQueryWrapper<T>) condition.getValue();
-            // 这里需要递归处理嵌套查询
-            // 简化实现：暂时跳过
+    /**
+     * 嵌套包装器编译为括号内的子谓词，参数按嵌套路径从外层值中取。
+     * 
+     * <p>只含一个 NEST / NOT 条件的嵌套逐层展开，取反次数在这里抵消。Hibernate 的 {@code not()}
+     * 直接翻转 AND / OR 谓词自身的取反标记，对同一谓词取反两次会丢失一次，因此取反总是包在新的 AND 外层。</p>
+     */
+    private Predicate buildNestedPredicate(QueryCondition condition, QueryContext context, boolean negated) {
+        if (!(condition.getValue() instanceof LambdaQueryWrapper)) {
+            return null;
+        }
+        LambdaQueryWrapper<?> nestedWrapper = (LambdaQueryWrapper<?>) condition.getValue();
+        context.enterNest();
+        int depth = 1;
+        try {
+            while (nestedWrapper.size() == 1 && nestedWrapper.getValue(0) instanceof LambdaQueryWrapper
+                    && (nestedWrapper.getOperator(0) == QueryOperator.NEST
+                    || nestedWrapper.getOperator(0) == QueryOperator.NOT)) {
+                negated ^= nestedWrapper.getOperator(0) == QueryOperator.NOT;
+                nestedWrapper = (LambdaQueryWrapper<?>) nestedWrapper.getValue(0);
+                context.setConditionIndex(0);
+                context.enterNest();
+                depth++;
+            }
+            Predicate predicate = buildPredicate(ConditionTree.of(nestedWrapper), nestedWrapper.getConditions(),
+                    null, context);
+            if (predicate == null || !negated) {
+                return predicate;
+            }
+            CriteriaBuilder builder = context.getBuilder();
+            return builder.not(builder.and(predicate));
+        } finally {
+            for (int i = 0; i < depth; i++) {
+                context.exitNest();
+            }
         }
     }
 
-    private void processApplyCondition(QueryCondition condition, QueryContext context) {
-        // 自定义条件，需要特殊处理
+    /**
+     * 自定义 SQL 片段，{@code ?} 依次绑定参数
+     */
+    private Predicate buildApplyPredicate(QueryCondition condition, QueryContext context) {
         Object[] applyData = (Object[]) condition.getValue();
-        if (applyData != null && applyData.length >= 1) {
-            String customCondition = (String) applyData[0];
-            // 这里需要解析自定义条件并转换为 Predicate
-            // 由于复杂性，这里暂时跳过
+        if (applyData == null || applyData.length == 0 || !(applyData[0] instanceof String)) {
+            return null;
         }
+        Expression<?>[] arguments = new Expression<?>[applyData.length - 1];
+        for (int i = 1; i < applyData.length; i++) {
+            arguments[i - 1] = context.parameter(applyData[i] != null ? applyData[i].getClass() : Object.class, i);
+        }
+        return SqlFragments.predicate(context.getBuilder(), (String) applyData[0], arguments);
     }
 
-    // 添加分页查询方法
+    @Override
     public List<T> listWithPagination(LambdaQueryWrapper<T> queryWrapper, int page, int size) {
-        CriteriaQuery<T> criteriaQuery = buildCriteriaQuery(queryWrapper);
-        return entityManager.createQuery(criteriaQuery)
-                .setFirstResult(page * size)
-                .setMaxResults(size)
-                .getResultList();
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(queryWrapper);
+        if (optimized.isAlwaysFalse()) {
+            return new ArrayList<>();
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        return preload(cachedList(listKey(wrapper.getShapeKey(), wrapper.size(), wrapper::getValue, page * size, size),
+                wrapper::getConditions, wrapper.getFetches(), () -> executeList(wrapper.getShapeId(),
+                        wrapper.getEntityClass(), wrapper::getConditions, wrapper.getFetches(), prepare(wrapper),
+                        page * size, size)), wrapper.getPreloads());
     }
 
-    // 添加计数查询方法
+    @Override
     public long count(LambdaQueryWrapper<T> queryWrapper) {
-        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<Long> query = builder.createQuery(Long.class);
-        Root<T> root = query.from(queryWrapper.getEntityClass());
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(queryWrapper);
+        if (optimized.isAlwaysFalse()) {
+            return 0;
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        return cachedCount(countKey(wrapper.getShapeKey(), wrapper.size(), wrapper::getValue),
+                wrapper::getConditions, () -> executeCount(wrapper.getShapeId(), wrapper.getEntityClass(),
+                        wrapper::getConditions, prepare(wrapper)));
+    }
 
-        query.select(builder.count(root));
+    @Override
+    public long countUpTo(LambdaQueryWrapper<T> queryWrapper, int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit must not be negative: " + limit);
+        }
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(queryWrapper);
+        if (limit == 0 || optimized.isAlwaysFalse()) {
+            return 0;
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        long shapeId = wrapper.getShapeId();
+        QueryShape.Key cacheShape = QueryShape.Key.of(QueryShape.mix(QueryShape.mix(shapeId, PLAN_PROBE), limit),
+                wrapper.getShapeKey(), PLAN_PROBE, limit);
+        return cachedCount(countKey(cacheShape, wrapper.size(), wrapper::getValue), wrapper::getConditions,
+                () -> executeProbe(shapeId, wrapper.getEntityClass(), wrapper::getConditions, prepare(wrapper), limit));
+    }
 
-        List<Predicate> predicates = buildPredicates(queryWrapper, builder, root);
-        if (!predicates.isEmpty()) {
-            query.where(predicates.toArray(new Predicate[0]));
+    @Override
+    public T first(LambdaQueryWrapper<T> queryWrapper) {
+        List<T> rows = listWithPagination(queryWrapper, 0, 1);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    @Override
+    public T one(LambdaQueryWrapper<T> queryWrapper) {
+        // 多读一行即可判断结果是否唯一
+        List<T> rows = listWithPagination(queryWrapper, 0, 2);
+        if (rows.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException("Query returned more than one "
+                    + getDomainClass().getName(), 1);
         }
+        return rows.isEmpty() ? null : rows.get(0);
+    }
 
-        return entityManager.createQuery(query).getSingleResult();
+    // ==================== 带总数分页 ====================
+
+    @Override
+    public Page<T> page(LambdaQueryWrapper<T> queryWrapper, Pageable pageable) {
+        return page(queryWrapper, pageable, countStrategy);
     }
 
-    // 提取构建 Predicate 的逻辑
-    private List<Predicate> buildPredicates(LambdaQueryWrapper<T> queryWrapper, CriteriaBuilder builder, Root<T> root) {
-        List<Predicate> predicates = new ArrayList<>();
+    /**
+     * 精确计数能用窗口计数时只执行一条语句，总数随本页的每一行返回；偏移超出结果范围时没有行携带总数，再单独计数。
+     * 否则条件值只整理一次，分页查询与计数查询共用，计数在能由本页推算时省略
+     */
+    @Override
+    public Page<T> page(LambdaQueryWrapper<T> queryWrapper, Pageable pageable, CountStrategy countStrategy) {
+        Objects.requireNonNull(countStrategy, "countStrategy");
+        if (pageable.isUnpaged()) {
+            List<T> content = list(sorted(queryWrapper, pageable.getSort()));
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(sorted(queryWrapper, pageable.getSort()));
+        if (optimized.isAlwaysFalse()) {
+            return new PageImpl<>(new ArrayList<>(), pageable, 0);
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        long shapeId = wrapper.getShapeId();
+        int offset = Math.toIntExact(pageable.getOffset());
+        int size = pageable.getPageSize();
+        QueryValues values = prepare(wrapper);
+
+        if (countStrategy.getMode() == CountStrategy.Mode.SLICE) {
+            List<T> rows = sliceRows(wrapper, values, offset, size);
+            // 总数为下界：有下一页时比本页末尾多一行
+            long total = offset + rows.size();
+            return new PageImpl<>(rows.size() > size ? new ArrayList<>(rows.subList(0, size)) : rows, pageable, total);
+        }
 
-        for (QueryCondition condition : queryWrapper.getConditions()) {
-            // 只处理 WHERE 条件，跳过排序、分组等
-            if (isWhereCondition(condition.getOperator())) {
-                Predicate predicate = buildPredicate(condition, builder, root);
-                if (predicate != null) {
-                    predicates.add(predicate);
+        QueryResultCache.Key listKey = listKey(wrapper.getShapeKey(), wrapper.size(), wrapper::getValue, offset, size);
+        if (countStrategy.getMode() == CountStrategy.Mode.EXACT && listKey == null
+                && isWindowCountable(wrapper, values)) {
+            TypedQuery<Tuple> query = pagePlan(shapeId, wrapper, values).createQuery(entityManager, values);
+            query.setFirstResult(offset);
+            query.setMaxResults(size);
+            List<Tuple> rows = withTemporaryTables(values, query::getResultList);
+            if (!rows.isEmpty() || offset == 0) {
+                List<T> content = new ArrayList<>(rows.size());
+                for (Tuple row : rows) {
+                    content.add(wrapper.getEntityClass().cast(row.get(0)));
                 }
+                long total = rows.isEmpty() ? 0 : rows.get(0).get(1, Long.class);
+                return new PageImpl<>(preload(content, wrapper.getPreloads()), pageable, total);
             }
         }
 
-        return predicates;
+        List<T> content = preload(cachedList(listKey, wrapper::getConditions, wrapper.getFetches(),
+                () -> executeList(shapeId, wrapper.getEntityClass(), wrapper::getConditions, wrapper.getFetches(),
+                        values, offset, size)), wrapper.getPreloads());
+        switch (countStrategy.getMode()) {
+            case CACHED:
+                return PageableExecutionUtils.getPage(content, pageable,
+                        () -> timedCount(wrapper, values, countStrategy.getTtl()));
+            case ESTIMATED:
+                return PageableExecutionUtils.getPage(content, pageable, () -> executeEstimate(shapeId,
+                        wrapper.getEntityClass(), wrapper::getConditions, values));
+            default:
+                return PageableExecutionUtils.getPage(content, pageable, () -> cachedCount(
+                        countKey(wrapper.getShapeKey(), wrapper.size(), wrapper::getValue), wrapper::getConditions,
+                        () -> executeCount(shapeId, wrapper.getEntityClass(), wrapper::getConditions, values)));
+        }
     }
 
-    private boolean isWhereCondition(QueryOperator operator) {
-        return operator != QueryOperator.ORDER_BY_ASC &&
-                operator != QueryOperator.ORDER_BY_DESC &&
-                operator != QueryOperator.GROUP_BY;
+    @Override
+    public Slice<T> slice(LambdaQueryWrapper<T> queryWrapper, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(list(sorted(queryWrapper, pageable.getSort())), pageable, false);
+        }
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(sorted(queryWrapper, pageable.getSort()));
+        if (optimized.isAlwaysFalse()) {
+            return new SliceImpl<>(new ArrayList<>(), pageable, false);
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        int size = pageable.getPageSize();
+        List<T> rows = sliceRows(wrapper, prepare(wrapper), Math.toIntExact(pageable.getOffset()), size);
+        if (rows.size() <= size) {
+            return new SliceImpl<>(rows, pageable, false);
+        }
+        return new SliceImpl<>(new ArrayList<>(rows.subList(0, size)), pageable, true);
     }
 
-    private Predicate buildPredicate(QueryCondition condition, CriteriaBuilder builder, Root<T> root) {
-                    switch (condition.getOperator()) {
-                        case EQ:
-                            return builder.equal(root.get(condition.getField()), condition.getValue());
-            case NE:
-                return builder.notEqual(root.get(condition.getField()), condition.getValue());
-            case GT:
-                return builder.greaterThan(root.get(condition.getField()), (Comparable) condition.getValue());
-            case GE:
-                return builder.greaterThanOrEqualTo(root.get(condition.getField()), (Comparable) condition.getValue());
-            case LT:
-                return builder.lessThan(root.get(condition.getField()), (Comparable) condition.getValue());
-            case LE:
-                return builder.lessThanOrEqualTo(root.get(condition.getField()), (Comparable) condition.getValue());
-                        case LIKE:
-                            return builder.like(root.get(condition.getField()), "%" + condition.getValue() + "%");
-            case LEFT_LIKE:
-                return builder.like(root.get(condition.getField()), "%" + condition.getValue());
-            case RIGHT_LIKE:
-                return builder.like(root.get(condition.getField()), condition.getValue() + "%");
-            case IN:
-                if (condition.getValue() instanceof Collection) {
-                    return root.get(condition.getField()).in((Collection<?>) condition.getValue());
-                }
-                break;
-            case NOT_IN:
-                if (condition.getValue() instanceof Collection) {
-                    return builder.not(root.get(condition.getField()).in((Collection<?>) condition.getValue()));
+    /**
+     * 多读一行的分页查询，预加载只作用于本页
+     */
+    private List<T> sliceRows(LambdaQueryWrapper<T> wrapper, QueryValues values, int offset, int size) {
+        long shapeId = wrapper.getShapeId();
+        List<T> rows = cachedList(listKey(wrapper.getShapeKey(), wrapper.size(), wrapper::getValue, offset, size + 1),
+                wrapper::getConditions, wrapper.getFetches(), () -> executeList(shapeId, wrapper.getEntityClass(),
+                        wrapper::getConditions, wrapper.getFetches(), values, offset, size + 1));
+        preload(rows.size() > size ? rows.subList(0, size) : rows, wrapper.getPreloads());
+        return rows;
+    }
+
+    /**
+     * 限时缓存的精确计数，不随写操作失效
+     */
+    private long timedCount(LambdaQueryWrapper<T> wrapper, QueryValues values, Duration ttl) {
+        QueryResultCache.Key key = QueryResultCache.Key.count(getDomainClass(), wrapper.getShapeKey(),
+                cacheValues(wrapper.size(), wrapper::getValue));
+        long now = System.nanoTime();
+        TimedCount cached = countCache.getIfPresent(key);
+        if (cached != null && now - cached.expiresAt < 0) {
+            return cached.value;
+        }
+        long count = executeCount(wrapper.getShapeId(), wrapper.getEntityClass(), wrapper::getConditions, values);
+        countCache.put(key, new TimedCount(count, now + ttl.toNanos()));
+        return count;
+    }
+
+    private static final class TimedCount {
+        private final long value;
+        /** 过期时刻，{@link System#nanoTime()} */
+        private final long expiresAt;
+
+        TimedCount(long value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 估算计数。先最多读取 {@link #ESTIMATE_EXACT_LIMIT} 行常量，不足时即为精确值；
+     * 否则在 id 范围内均匀取 {@link #SAMPLE_WINDOWS} 段连续区间，以一条查询统计区间内的行数和满足条件的行数得到选择率，
+     * 乘以统计信息中的表行数，没有统计信息时按区间内的行密度推算。id 不是整数或 IN 列表被拆分时精确计数
+     */
+    private long executeEstimate(long shapeId, Class<T> entityClass, Supplier<List<QueryCondition>> conditions,
+                                 QueryValues values) {
+        if (values.isChunked() || isGrouped(conditions.get())) {
+            return executeCount(shapeId, entityClass, conditions, values);
+        }
+        long probed = executeProbe(shapeId, entityClass, conditions, values, ESTIMATE_EXACT_LIMIT);
+        if (probed < ESTIMATE_EXACT_LIMIT) {
+            return probed;
+        }
+        long tableRows = TableStatistics.estimateRows(entityManager, entityClass);
+        boolean filtered = conditions.get().stream().anyMatch(condition -> ConditionTree.isPredicate(condition.getOperator()));
+        if (!filtered && tableRows >= 0) {
+            return Math.max(tableRows, probed);
+        }
+        String idName = attributeTable.getIdAttributeName();
+        Class<?> idType = idName != null ? MethodType.methodType(attributeTable.getAttribute(idName).getJavaType())
+                .wrap().returnType() : null;
+        if (idType != Long.class && idType != Integer.class) {
+            return executeCount(shapeId, entityClass, conditions, values);
+        }
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> bounds = builder.createTupleQuery();
+        Root<T> boundsRoot = bounds.from(entityClass);
+        Path<Number> boundsId = boundsRoot.get(idName);
+        bounds.multiselect(builder.min(boundsId), builder.max(boundsId));
+        Tuple range = entityManager.createQuery(bounds).getSingleResult();
+        long min = ((Number) range.get(0)).longValue();
+        long span = ((Number) range.get(1)).longValue() - min + 1;
+        long width = Math.max(1, Math.min(span / SAMPLE_WINDOWS, SAMPLE_SIZE / SAMPLE_WINDOWS));
+
+        // 条件值按计划绑定，区间边界另行绑定
+        CriteriaQuery<Tuple> sample = builder.createTupleQuery();
+        Root<T> root = sample.from(entityClass);
+        QueryContext context = new QueryContext(builder, sample, root, attributeTable);
+        processConditions(conditions.get(), values, context);
+        Predicate matched = builder.and(context.getPredicates().toArray(new Predicate[0]));
+        Path<Long> id = root.get(idName);
+        List<ParameterExpression<Long>> lows = new ArrayList<>(SAMPLE_WINDOWS);
+        Predicate[] windows = new Predicate[SAMPLE_WINDOWS];
+        for (int i = 0; i < SAMPLE_WINDOWS; i++) {
+            ParameterExpression<Long> low = builder.parameter(Long.class);
+            lows.add(low);
+            windows[i] = builder.between(id, low, builder.sum(low, width - 1));
+        }
+        sample.multiselect(builder.count(root),
+                builder.sumAsLong(builder.<Integer>selectCase().when(matched, 1).otherwise(0)));
+        sample.where(builder.or(windows));
+        TypedQuery<Tuple> query = new CompiledQuery<>(sample, context.getSlots()).createQuery(entityManager, values);
+        for (int i = 0; i < SAMPLE_WINDOWS; i++) {
+            query.setParameter(lows.get(i), min + span * i / SAMPLE_WINDOWS);
+        }
+        Tuple counts = withTemporaryTables(values, query::getSingleResult);
+        long rows = ((Number) counts.get(0)).longValue();
+        if (rows == 0) {
+            return executeCount(shapeId, entityClass, conditions, values);
+        }
+        long matches = counts.get(1) != null ? ((Number) counts.get(1)).longValue() : 0;
+        double total = tableRows >= 0 ? tableRows : (double) rows * span / (width * SAMPLE_WINDOWS);
+        return Math.max(Math.round(total * matches / rows), probed);
+    }
+
+    /**
+     * 在包装器的排序之后追加 {@link Sort} 中的排序，属性名按实体属性路径解析
+     */
+    private LambdaQueryWrapper<T> sorted(LambdaQueryWrapper<T> wrapper, Sort sort) {
+        if (sort.isUnsorted()) {
+            return wrapper;
+        }
+        LambdaQueryWrapper<T> sorted = LambdaQueryWrapper.of(wrapper.getEntityClass());
+        wrapper.getJoinConditions().forEach(sorted::addJoin);
+        wrapper.getFetches().forEach(sorted::addFetch);
+        wrapper.getPreloads().forEach(sorted::addPreload);
+        wrapper.getConditions().forEach(sorted::addCondition);
+        for (Sort.Order order : sort) {
+            // 未知属性在这里抛出，而不是留到编译查询时
+            attributeTable.getAttributePath(order.getProperty());
+            sorted.addCondition(new QueryCondition(order.getProperty(),
+                    order.isAscending() ? QueryOperator.ORDER_BY_ASC : QueryOperator.ORDER_BY_DESC, null));
+        }
+        return sorted;
+    }
+
+    /**
+     * 窗口计数与 {@link #count} 结果一致的前提：方言支持窗口函数，结果行与实体一一对应（没有分组和集合关联），
+     * 且 IN 列表没有拆成多条语句
+     */
+    private boolean isWindowCountable(LambdaQueryWrapper<T> wrapper, QueryValues values) {
+        if (values.isChunked() || hasCollectionFetch(wrapper.getFetches())) {
+            return false;
+        }
+        for (int i = 0; i < wrapper.size(); i++) {
+            QueryOperator operator = wrapper.getOperator(i);
+            if (operator == QueryOperator.GROUP_BY || operator == QueryOperator.HAVING) {
+                return false;
+            }
+        }
+        Boolean supported = windowFunctions;
+        if (supported == null) {
+            supported = SqlFragments.supportsWindowFunctions(entityManager.getEntityManagerFactory());
+            windowFunctions = supported;
+        }
+        return supported;
+    }
+
+    private CompiledQuery<Tuple> pagePlan(long shapeId, LambdaQueryWrapper<T> wrapper, QueryValues values) {
+        return planCache.get(planKey(shapeId, values, PLAN_PAGE),
+                () -> compilePageQuery(wrapper.getEntityClass(), wrapper.getConditions(), wrapper.getFetches(), values));
+    }
+
+    /**
+     * 与列表查询相同，另加一列 {@code count(*) over()}：窗口函数在 LIMIT / OFFSET 之前计算，即过滤后的总行数
+     */
+    private CompiledQuery<Tuple> compilePageQuery(Class<T> entityClass, List<QueryCondition> conditions,
+                                                  List<QueryFetch> fetches, QueryValues values) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(entityClass);
+        EntityGraph<T> graph = applyFetches(entityClass, root, fetches);
+        query.multiselect(root, SqlFragments.countOver(builder, root));
+
+        QueryContext context = new QueryContext(builder, query, root, attributeTable);
+        processConditions(conditions, values, context);
+        if (!context.getPredicates().isEmpty()) {
+            query.where(context.getPredicates().toArray(new Predicate[0]));
+        }
+        if (!context.getOrders().isEmpty()) {
+            query.orderBy(context.getOrders());
+        }
+
+        return new CompiledQuery<>(query, context.getSlots(), graph);
+    }
+
+    // ==================== 关联预加载 ====================
+
+    /**
+     * 逐级加载关联：每一级收集上一级实体的 id，按补齐档位分批，以 {@code LEFT JOIN FETCH}
+     * 查询这些实体及该关联。查询结果与上一级实体处于同一持久化上下文，集合和代理随之初始化。
+     * 已加载的关联不再查询，每级的语句数只取决于实体个数和每批上限
+     *
+     * @return {@code entities} 本身
+     */
+    private List<T> preload(List<T> entities, List<String> paths) {
+        if (paths.isEmpty() || entities.isEmpty()) {
+            return entities;
+        }
+        InListStrategy strategy = idListStrategy();
+        for (String path : paths) {
+            Class<?> ownerClass = getDomainClass();
+            Collection<Object> owners = new ArrayList<>(entities);
+            for (Attribute<?, ?> attribute : attributeTable.getAttributePath(path)) {
+                if (!attribute.isAssociation() && !attribute.isCollection()) {
+                    throw new IllegalArgumentException("Cannot preload '" + path + "': '"
+                            + attribute.getName() + "' is not an association");
                 }
-                break;
-            case IS_NULL:
-                return builder.isNull(root.get(condition.getField()));
-            case IS_NOT_NULL:
-                return builder.isNotNull(root.get(condition.getField()));
-            case BETWEEN:
-                if (condition.getValue() instanceof Collection) {
-                    Collection<?> values = (Collection<?>) condition.getValue();
-                    Object[] array = values.toArray();
-                    if (array.length >= 2) {
-                        return builder.between(root.get(condition.getField()),
-                                (Comparable) array[0], (Comparable) array[1]);
-                    }
+                owners = preloadLevel(ownerClass, attribute.getName(), owners, strategy);
+                ownerClass = attribute instanceof PluralAttribute
+                        ? ((PluralAttribute<?, ?, ?>) attribute).getElementType().getJavaType()
+                        : attribute.getJavaType();
+                if (owners.isEmpty()) {
+                    break;
                 }
-                break;
-            case NOT_BETWEEN:
-                if (condition.getValue() instanceof Collection) {
-                    Collection<?> values = (Collection<?>) condition.getValue();
-                    Object[] array = values.toArray();
-                    if (array.length >= 2) {
-                        return builder.not(builder.between(root.get(condition.getField()),
-                                (Comparable) array[0], (Comparable) array[1]));
-                    }
+            }
+        }
+        return entities;
+    }
+
+    /**
+     * 按 id 批量加载时 id 列表的处理方式：沿用配置的分批上限和临界值，去重并补齐到固定档位，
+     * 不做区间压缩，使同一条语句适用于任意个数的 id
+     */
+    private InListStrategy idListStrategy() {
+        InListStrategy strategy = inListStrategy.withRangeCompaction(0).withDeduplication(true).withPadding(true);
+        return strategy.getChunkSize() == 0 ? strategy.withChunkSize(PRELOAD_CHUNK_SIZE) : strategy;
+    }
+
+    /**
+     * 加载一级关联
+     *
+     * @return 关联到的实体，作为下一级的所属实体；同一实体只出现一次
+     */
+    private Collection<Object> preloadLevel(Class<?> ownerClass, String attributeName, Collection<Object> owners,
+                                            InListStrategy strategy) {
+        PersistenceUnitUtil unitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Object> ids = new ArrayList<>();
+        for (Object owner : owners) {
+            if (!unitUtil.isLoaded(owner, attributeName)) {
+                ids.add(unitUtil.getIdentifier(owner));
+            }
+        }
+        if (!ids.isEmpty()) {
+            CompiledQuery<?> plan = preloadPlan(ownerClass, attributeName);
+            for (InList chunk : strategy.applyChunked(ids)) {
+                plan.createQuery(entityManager, index -> chunk).getResultList();
+            }
+        }
+
+        // 关联的实体可能是代理或持久化集合，经 getter 读取
+        PropertyAccessor accessor = PropertyAccessor.of(ownerClass, attributeName);
+        Set<Object> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object owner : owners) {
+            Object value = accessor.get(owner);
+            if (value instanceof Collection) {
+                targets.addAll((Collection<?>) value);
+            } else if (value != null) {
+                targets.add(value);
+            }
+        }
+        return targets;
+    }
+
+    private CompiledQuery<?> preloadPlan(Class<?> ownerClass, String attributeName) {
+        QueryShape.Key key = QueryShape.Key.of(QueryShape.mix(QueryShape.mix(QueryShape.mix(planKeySeed,
+                QueryShape.seed(ownerClass)), attributeName.hashCode()), PLAN_PRELOAD),
+                planScope, ownerClass, attributeName, PLAN_PRELOAD);
+        return planCache.get(key, () -> compilePreloadQuery(ownerClass, attributeName));
+    }
+
+    /**
+     * 按 id 列表加载实体及其一个关联，id 列表绑定为第 0 个条件的值
+     */
+    private <E> CompiledQuery<E> compilePreloadQuery(Class<E> ownerClass, String attributeName) {
+        EntityType<E> entityType = entityManager.getMetamodel().entity(ownerClass);
+        if (!entityType.hasSingleIdAttribute()) {
+            throw new UnsupportedOperationException("Preloading requires a single id attribute on "
+                    + ownerClass.getName());
+        }
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<E> query = builder.createQuery(ownerClass);
+        Root<E> root = query.from(ownerClass);
+        root.fetch(attributeName, JoinType.LEFT);
+        query.select(root);
+
+        QueryContext context = new QueryContext(builder, query, root, attributeTable);
+        String idName = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        query.where(root.get(idName).in(context.collectionParameter()));
+
+        return new CompiledQuery<>(query, context.getSlots());
+    }
+
+    // ==================== 投影查询 ====================
+
+    @Override
+    public <R> List<R> listAs(LambdaQueryWrapper<T> queryWrapper, Class<R> type) {
+        List<QuerySelection> selections = selections(queryWrapper);
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(queryWrapper);
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        long shapeId = QueryShape.mix(wrapper.getShapeId(), queryWrapper.getSelectionShape());
+        QueryValues values = prepare(wrapper);
+        CompiledQuery<Tuple> plan = projectionPlan(shapeId, wrapper, selections, values);
+        // 映射方式在执行前解析，目标类型与投影列不匹配时不必等到有结果才报错
+        List<Class<?>> columnTypes = new ArrayList<>(selections.size());
+        for (Selection<?> column : plan.getCriteria().getSelection().getCompoundSelectionItems()) {
+            columnTypes.add(column.getJavaType());
+        }
+        List<String> aliases = new ArrayList<>(selections.size());
+        selections.forEach(selection -> aliases.add(selection.getAlias()));
+        ProjectionMapper<R> mapper = ProjectionMapper.of(type, aliases, columnTypes);
+        if (optimized.isAlwaysFalse()) {
+            return new ArrayList<>();
+        }
+        List<Tuple> tuples = executeProjection(shapeId, wrapper, selections, values);
+        List<R> result = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            result.add(mapper.map(tuple.toArray()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Tuple> listTuples(LambdaQueryWrapper<T> queryWrapper) {
+        List<QuerySelection> selections = selections(queryWrapper);
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(queryWrapper);
+        if (optimized.isAlwaysFalse()) {
+            return new ArrayList<>();
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        long shapeId = QueryShape.mix(wrapper.getShapeId(), queryWrapper.getSelectionShape());
+        return executeProjection(shapeId, wrapper, selections, prepare(wrapper));
+    }
+
+    /**
+     * 投影列取自调用方的包装器，优化器改写后的包装器只保留条件和 JOIN
+     */
+    private List<QuerySelection> selections(LambdaQueryWrapper<T> queryWrapper) {
+        List<QuerySelection> selections = queryWrapper.getSelections();
+        if (selections.isEmpty()) {
+            throw new IllegalArgumentException("No columns selected, call select() before a projection query");
+        }
+        return selections;
+    }
+
+    /**
+     * 执行投影查询；IN 列表被拆分时逐批执行，合并后按排序条件在内存中重新排序，排序字段须在投影列中
+     */
+    private List<Tuple> executeProjection(long shapeId, LambdaQueryWrapper<T> wrapper, List<QuerySelection> selections,
+                                          QueryValues values) {
+        if (!values.isChunked()) {
+            TypedQuery<Tuple> query = projectionPlan(shapeId, wrapper, selections, values)
+                    .createQuery(entityManager, values);
+            return withTemporaryTables(values, query::getResultList);
+        }
+        // 各批分别聚合的结果无法合并为整体的分组结果
+        for (int i = 0; i < wrapper.size(); i++) {
+            if (wrapper.getOperator(i) == QueryOperator.GROUP_BY || wrapper.getOperator(i) == QueryOperator.HAVING) {
+                throw new UnsupportedOperationException("Cannot group a projection whose IN list is split into "
+                        + values.getChunkCount() + " chunks; use a temporary table or a larger chunk size");
+            }
+        }
+        if (selections.stream().anyMatch(QuerySelection::isAggregate)) {
+            throw new UnsupportedOperationException("Cannot aggregate a projection whose IN list is split into "
+                    + values.getChunkCount() + " chunks; use a temporary table or a larger chunk size");
+        }
+        Comparator<Tuple> order = projectionOrder(wrapper, selections);
+        List<List<Tuple>> parts = withTemporaryTables(values, () -> runChunks(values, (manager, chunk) ->
+                projectionPlan(shapeId, wrapper, selections, chunk).createQuery(manager, chunk).getResultList()));
+        List<Tuple> merged = new ArrayList<>();
+        parts.forEach(merged::addAll);
+        if (order != null) {
+            merged.sort(order);
+        }
+        return merged;
+    }
+
+    /**
+     * 按排序条件比较投影行，null 视为最大值，与实体列表合并时的顺序一致
+     * 
+     * @return 比较器，没有排序条件时为 null
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<Tuple> projectionOrder(LambdaQueryWrapper<T> wrapper, List<QuerySelection> selections) {
+        Comparator<Tuple> order = null;
+        for (int i = 0; i < wrapper.size(); i++) {
+            QueryOperator operator = wrapper.getOperator(i);
+            if (operator != QueryOperator.ORDER_BY_ASC && operator != QueryOperator.ORDER_BY_DESC) {
+                continue;
+            }
+            int column = -1;
+            for (int j = 0; j < selections.size() && column < 0; j++) {
+                column = selections.get(j).getField().equals(wrapper.getField(i)) ? j : -1;
+            }
+            if (column < 0) {
+                throw new UnsupportedOperationException("Cannot order a projection whose IN list is split into chunks by '"
+                        + wrapper.getField(i) + "' unless it is selected; use a temporary table or a larger chunk size");
+            }
+            int index = column;
+            Comparator<Comparable> values = operator == QueryOperator.ORDER_BY_ASC
+                    ? Comparator.nullsLast(Comparator.<Comparable>naturalOrder())
+                    : Comparator.nullsLast(Comparator.<Comparable>naturalOrder()).reversed();
+            Comparator<Tuple> next = Comparator.comparing(tuple -> (Comparable) tuple.get(index), values);
+            order = order == null ? next : order.thenComparing(next);
+        }
+        return order;
+    }
+
+    /**
+     * @param shapeId 条件形状与投影列形状的混合
+     */
+    private CompiledQuery<Tuple> projectionPlan(long shapeId, LambdaQueryWrapper<T> wrapper,
+                                                List<QuerySelection> selections, QueryValues values) {
+        return planCache.get(planKey(shapeId, values, PLAN_PROJECTION, List.copyOf(selections)),
+                () -> compileProjectionQuery(wrapper.getEntityClass(), wrapper.getConditions(), selections, values));
+    }
+
+    @Override
+    public KeysetPage<T> listAfter(LambdaQueryWrapper<T> queryWrapper, String cursor, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Page size must be positive: " + size);
+        }
+        QueryOptimizer.Result<T> optimized = queryOptimizer.optimize(queryWrapper);
+        if (optimized.isAlwaysFalse()) {
+            return new KeysetPage<>(new ArrayList<>(), null);
+        }
+        LambdaQueryWrapper<T> wrapper = optimized.getWrapper();
+        List<QueryCondition> sortKeys = sortKeys(wrapper);
+        long signature = keysetSignature(sortKeys);
+
+        // 原条件整体加括号，再与游标条件以 AND 连接
+        LambdaQueryWrapper<T> query = restriction(wrapper);
+        if (cursor != null) {
+            List<Class<?>> types = new ArrayList<>(sortKeys.size());
+            for (QueryCondition key : sortKeys) {
+                List<Attribute<?, ?>> path = attributeTable.getAttributePath(key.getField());
+                types.add(path.get(path.size() - 1).getJavaType());
+            }
+            if (!appendSeek(query, sortKeys, KeysetCursor.decode(cursor, signature, types))) {
+                return new KeysetPage<>(new ArrayList<>(), null);
+            }
+        }
+        sortKeys.forEach(query::addCondition);
+
+        // 多取一行判断是否还有下一页
+        LambdaQueryWrapper<T> composed = queryOptimizer.optimize(query).getWrapper();
+        List<T> rows = executeList(composed.getShapeId(), composed.getEntityClass(), composed::getConditions,
+                composed.getFetches(), prepare(composed), 0, size + 1, PLAN_KEYSET);
+        if (rows.size() <= size) {
+            return new KeysetPage<>(preload(rows, wrapper.getPreloads()), null);
+        }
+        List<T> content = preload(new ArrayList<>(rows.subList(0, size)), wrapper.getPreloads());
+        T last = content.get(size - 1);
+        List<Object> values = new ArrayList<>(sortKeys.size());
+        for (QueryCondition key : sortKeys) {
+            values.add(PropertyAccessor.of(wrapper.getEntityClass(), key.getField()).get(last));
+        }
+        return new KeysetPage<>(content, KeysetCursor.encode(signature, values));
+    }
+
+    /**
+     * 游标分页的排序键：包装器中的排序条件，以 id 升序补足为全序；排序到 id 为止，之后的排序不再起作用
+     */
+    private List<QueryCondition> sortKeys(LambdaQueryWrapper<T> wrapper) {
+        String idName = attributeTable.getIdAttributeName();
+        if (idName == null) {
+            throw new UnsupportedOperationException("Keyset pagination requires a single id attribute on "
+                    + wrapper.getEntityClass().getName());
+        }
+        List<QueryCondition> keys = new ArrayList<>();
+        for (int i = 0; i < wrapper.size(); i++) {
+            QueryOperator operator = wrapper.getOperator(i);
+            if (operator == QueryOperator.GROUP_BY || operator == QueryOperator.HAVING) {
+                throw new UnsupportedOperationException("Keyset pagination does not support " + operator);
+            }
+            if (operator == QueryOperator.ORDER_BY_ASC || operator == QueryOperator.ORDER_BY_DESC) {
+                keys.add(new QueryCondition(wrapper.getField(i), operator, null));
+                if (idName.equals(wrapper.getField(i))) {
+                    return keys;
                 }
-                break;
+            }
         }
-        return null;
+        keys.add(new QueryCondition(idName, QueryOperator.ORDER_BY_ASC, null));
+        return keys;
+    }
+
+    private long keysetSignature(List<QueryCondition> sortKeys) {
+        long signature = QueryShape.seed(getDomainClass());
+        for (QueryCondition key : sortKeys) {
+            signature = QueryShape.mix(signature, QueryShape.conditionHash(key.getField(), key.getOperator(), null));
+        }
+        return signature;
+    }
+
+    /**
+     * 追加"位于游标之后"的条件，null 视为最大值：
+     * {@code k1 > v1 OR (k1 = v1 AND k2 > v2) OR ...}。
+     * 第一个排序键另加一个单边界条件（如 {@code k1 >= v1}），让数据库直接按索引定位起点。
+     * 
+     * @return 游标之后不可能还有数据时返回 false
+     */
+    private boolean appendSeek(LambdaQueryWrapper<T> query, List<QueryCondition> sortKeys, List<Object> values) {
+        Class<T> entityClass = query.getEntityClass();
+        LambdaQueryWrapper<T> seek = LambdaQueryWrapper.of(entityClass);
+        int branches = 0;
+        for (int i = 0; i < sortKeys.size(); i++) {
+            LambdaQueryWrapper<T> after = after(sortKeys.get(i), values.get(i));
+            if (after == null) {
+                continue;
+            }
+            if (branches++ > 0) {
+                seek.or();
+            }
+            for (int j = 0; j < i; j++) {
+                String field = sortKeys.get(j).getField();
+                seek.addCondition(values.get(j) == null
+                        ? new QueryCondition(field, QueryOperator.IS_NULL, null)
+                        : new QueryCondition(field, QueryOperator.EQ, values.get(j)));
+            }
+            seek.nest(after);
+        }
+        if (branches == 0) {
+            return false;
+        }
+        QueryCondition first = sortKeys.get(0);
+        boolean ascending = first.getOperator() == QueryOperator.ORDER_BY_ASC;
+        if (sortKeys.size() > 1 && values.get(0) != null && (!ascending || !attributeTable.isNullable(first.getField()))) {
+            query.addCondition(new QueryCondition(first.getField(), ascending ? QueryOperator.GE : QueryOperator.LE,
+                    values.get(0)));
+        }
+        query.nest(seek);
+        return true;
+    }
+
+    /**
+     * 单个排序键上"位于 value 之后"的条件
+     * 
+     * @return 条件，不可能有更靠后的值时返回 null
+     */
+    private LambdaQueryWrapper<T> after(QueryCondition key, Object value) {
+        LambdaQueryWrapper<T> after = LambdaQueryWrapper.of(getDomainClass());
+        String field = key.getField();
+        if (key.getOperator() == QueryOperator.ORDER_BY_ASC) {
+            if (value == null) {
+                return null;
+            }
+            after.addCondition(new QueryCondition(field, QueryOperator.GT, value));
+            if (attributeTable.isNullable(field)) {
+                after.or().addCondition(new QueryCondition(field, QueryOperator.IS_NULL, null));
+            }
+        } else if (value == null) {
+            after.addCondition(new QueryCondition(field, QueryOperator.IS_NOT_NULL, null));
+        } else {
+            after.addCondition(new QueryCondition(field, QueryOperator.LT, value));
+        }
+        return after;
     }
-}
\ No newline at end of file
+}
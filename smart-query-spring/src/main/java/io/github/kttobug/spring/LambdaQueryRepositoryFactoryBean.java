@@ -1,6 +1,10 @@
 package io.github.kttobug.spring;
 
+import io.github.kttobug.query.QueryOptimizer;
+import io.github.kttobug.query.util.InListStrategy;
 import jakarta.persistence.EntityManager;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
 import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
@@ -8,24 +12,80 @@ import org.springframework.data.repository.core.RepositoryMetadata;
 import org.springframework.data.repository.core.support.RepositoryComposition;
 import org.springframework.data.repository.core.support.RepositoryFragment;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class LambdaQueryRepositoryFactoryBean<R extends JpaRepository<T, ID>, T, ID>
         extends JpaRepositoryFactoryBean<R, T, ID> {
 
+    private QueryPlanCache planCache;
+
+    private InListStrategy inListStrategy;
+
+    private QueryOptimizer queryOptimizer;
+
+    private QueryResultCache resultCache;
+
+    private CountStrategy countStrategy;
+
+    private DeferredJoin deferredJoin;
+
     public LambdaQueryRepositoryFactoryBean(Class<? extends R> repositoryInterface) {
         super(repositoryInterface);
     }
 
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        super.setBeanFactory(beanFactory);
+        // 未启用自动配置时各仓库工厂使用独立的计划缓存
+        this.planCache = beanFactory.getBeanProvider(QueryPlanCache.class).getIfAvailable(QueryPlanCache::new);
+        this.inListStrategy = beanFactory.getBeanProvider(InListStrategy.class).getIfAvailable(InListStrategy::defaults);
+        this.queryOptimizer = beanFactory.getBeanProvider(QueryOptimizer.class).getIfAvailable(QueryOptimizer::defaults);
+        // 结果缓存需要显式声明 Bean 才启用
+        this.resultCache = beanFactory.getBeanProvider(QueryResultCache.class).getIfAvailable();
+        this.countStrategy = beanFactory.getBeanProvider(CountStrategy.class).getIfAvailable(CountStrategy::exact);
+        this.deferredJoin = beanFactory.getBeanProvider(DeferredJoin.class).getIfAvailable(DeferredJoin::defaults);
+    }
+
     @Override
     protected JpaRepositoryFactory createRepositoryFactory(EntityManager em) {
-        return new LambdaQueryRepositoryFactory(em);
+        return new LambdaQueryRepositoryFactory(em, planCache != null ? planCache : new QueryPlanCache(),
+                inListStrategy != null ? inListStrategy : InListStrategy.defaults(),
+                queryOptimizer != null ? queryOptimizer : QueryOptimizer.defaults(), resultCache,
+                countStrategy != null ? countStrategy : CountStrategy.exact(),
+                deferredJoin != null ? deferredJoin : DeferredJoin.defaults());
     }
 
     private static class LambdaQueryRepositoryFactory extends JpaRepositoryFactory {
         private final EntityManager entityManager;
 
-        public LambdaQueryRepositoryFactory(EntityManager em) {
+        private final QueryPlanCache planCache;
+
+        private final InListStrategy inListStrategy;
+
+        private final QueryOptimizer queryOptimizer;
+
+        private final QueryResultCache resultCache;
+
+        /** 未在仓库接口上以 {@link PageCount} 指定时的计数策略 */
+        private final CountStrategy countStrategy;
+
+        private final DeferredJoin deferredJoin;
+
+        /** 按实体类型缓存的属性表，同一实体的多个仓库共享 */
+        private final Map<Class<?>, EntityAttributeTable<?>> attributeTables = new ConcurrentHashMap<>();
+
+        public LambdaQueryRepositoryFactory(EntityManager em, QueryPlanCache planCache, InListStrategy inListStrategy,
+                                            QueryOptimizer queryOptimizer, QueryResultCache resultCache,
+                                            CountStrategy countStrategy, DeferredJoin deferredJoin) {
             super(em);
             this.entityManager = em;
+            this.planCache = planCache;
+            this.inListStrategy = inListStrategy;
+            this.queryOptimizer = queryOptimizer;
+            this.resultCache = resultCache;
+            this.countStrategy = countStrategy;
+            this.deferredJoin = deferredJoin;
         }
 
         @Override
@@ -33,14 +93,29 @@ public class LambdaQueryRepositoryFactoryBean<R extends JpaRepository<T, ID>, T,
             RepositoryComposition.RepositoryFragments fragments = super.getRepositoryFragments(metadata);
 
             if (LambdaQueryExecutor.class.isAssignableFrom(metadata.getRepositoryInterface())) {
-                LambdaQueryExecutorImpl<?> executor = new LambdaQueryExecutorImpl<>(
-                        getEntityInformation(metadata.getDomainType()),
-                        entityManager
-                );
-                fragments = fragments.append(RepositoryFragment.implemented(executor));
+                PageCount pageCount = metadata.getRepositoryInterface().getAnnotation(PageCount.class);
+                fragments = fragments.append(RepositoryFragment.implemented(createExecutor(metadata.getDomainType(),
+                        pageCount != null ? CountStrategy.of(pageCount) : countStrategy)));
             }
 
             return fragments;
         }
+
+        @SuppressWarnings("unchecked")
+        private <T> LambdaQueryExecutorImpl<T> createExecutor(Class<T> domainType, CountStrategy countStrategy) {
+            EntityAttributeTable<T> attributeTable = (EntityAttributeTable<T>) attributeTables.computeIfAbsent(
+                    domainType, type -> EntityAttributeTable.of(entityManager.getMetamodel(), type));
+            return new LambdaQueryExecutorImpl<>(
+                    getEntityInformation(domainType),
+                    entityManager,
+                    attributeTable,
+                    planCache,
+                    inListStrategy,
+                    queryOptimizer,
+                    resultCache,
+                    countStrategy,
+                    deferredJoin
+            );
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package io.github.kttobug.spring;
+
+import java.lang.annotation.*;
+
+/**
+ * 指定仓库 {@link LambdaQueryExecutor#page} 默认的计数策略
+ *
+ * <pre>{@code
+ * @PageCount(value = CountStrategy.Mode.CACHED, ttlSeconds = 30)
+ * public interface OrderRepository extends JpaRepository<Order, Long>, LambdaQueryExecutor<Order> {
+ * }
+ * }</pre>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ * @see CountStrategy
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PageCount {
+
+    /**
+     * 计数方式
+     *
+     * @return 计数方式
+     */
+    CountStrategy.Mode value() default CountStrategy.Mode.EXACT;
+
+    /**
+     * 缓存计数的存活秒数，只对 {@link CountStrategy.Mode#CACHED} 生效
+     *
+     * @return 存活秒数
+     */
+    long ttlSeconds() default 60;
+}
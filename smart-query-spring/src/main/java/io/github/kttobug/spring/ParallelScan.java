@@ -0,0 +1,172 @@
+package io.github.kttobug.spring;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import javax.sql.DataSource;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 并行执行分区扫描。
+ *
+ * <p>每个分区一个线程，Java 21 及以上使用虚拟线程，否则使用守护平台线程。
+ * 同时执行的分区数由信号量限制，每个分区占用一个连接，上限取连接池大小减一，
+ * 给调用线程和其他请求留出连接。任一分区失败后其余分区在下一行停止，异常在全部分区结束后抛出。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+final class ParallelScan {
+
+    /** 常见连接池读取最大连接数的方法：HikariCP、Commons DBCP2、Tomcat JDBC */
+    private static final String[] POOL_SIZE_GETTERS = {"getMaximumPoolSize", "getMaxTotal", "getMaxActive"};
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    /** {@code Thread.startVirtualThread(Runnable)}，运行时低于 Java 21 时为 null */
+    private static final MethodHandle START_VIRTUAL_THREAD = findStartVirtualThread();
+
+    private ParallelScan() {
+    }
+
+    /**
+     * 扫描单个分区
+     */
+    @FunctionalInterface
+    interface Partition {
+        /**
+         * @param index 分区下标
+         * @param running 其他分区失败后返回 false，扫描应尽快停止
+         */
+        void scan(int index, BooleanSupplier running);
+    }
+
+    /**
+     * 执行全部分区，所有分区结束后返回
+     *
+     * @param count 分区数
+     * @param concurrency 最大并发数
+     * @param partition 按分区下标执行扫描
+     */
+    static void run(int count, int concurrency, Partition partition) {
+        Semaphore permits = new Semaphore(Math.max(1, concurrency));
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            threads.add(start(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    fail(running, failure, e);
+                    return;
+                }
+                try {
+                    if (running.get()) {
+                        partition.scan(index, running::get);
+                    }
+                } catch (Throwable e) {
+                    fail(running, failure, e);
+                } finally {
+                    permits.release();
+                }
+            }));
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            running.set(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for parallel scan", e);
+        }
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause != null) {
+            throw new IllegalStateException("Parallel scan failed", cause);
+        }
+    }
+
+    private static void fail(AtomicBoolean running, AtomicReference<Throwable> failure, Throwable cause) {
+        running.set(false);
+        if (!failure.compareAndSet(null, cause)) {
+            failure.get().addSuppressed(cause);
+        }
+    }
+
+    /**
+     * 分区扫描可以同时占用的连接数
+     *
+     * @return 连接池大小减一；无法识别连接池时为 CPU 核数
+     */
+    static int connectionLimit(EntityManagerFactory entityManagerFactory) {
+        int poolSize = poolSize(entityManagerFactory);
+        return Math.max(1, poolSize > 0 ? poolSize - 1 : Runtime.getRuntime().availableProcessors());
+    }
+
+    private static int poolSize(EntityManagerFactory entityManagerFactory) {
+        try {
+            ConnectionProvider provider = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getServiceRegistry().getService(ConnectionProvider.class);
+            if (provider == null || !provider.isUnwrappableAs(DataSource.class)) {
+                return -1;
+            }
+            DataSource dataSource = provider.unwrap(DataSource.class);
+            for (String getter : POOL_SIZE_GETTERS) {
+                try {
+                    Object size = dataSource.getClass().getMethod(getter).invoke(dataSource);
+                    if (size instanceof Integer && (Integer) size > 0) {
+                        return (Integer) size;
+                    }
+                } catch (NoSuchMethodException e) {
+                    // 不是这种连接池
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // 非 Hibernate 或无法识别的数据源
+        }
+        return -1;
+    }
+
+    private static Thread start(Runnable task) {
+        if (START_VIRTUAL_THREAD != null) {
+            try {
+                return (Thread) START_VIRTUAL_THREAD.invokeExact(task);
+            } catch (UnsupportedOperationException e) {
+                // Java 19/20 未开启预览特性
+            } catch (Throwable e) {
+                throw new IllegalStateException("Failed to start virtual thread", e);
+            }
+        }
+        Thread thread = new Thread(task, "smart-query-scan-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private static MethodHandle findStartVirtualThread() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Thread.class, "startVirtualThread",
+                    MethodType.methodType(Thread.class, Runnable.class));
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.util.BoundedCache;
+import io.github.kttobug.query.util.QueryShape;
+
+import java.util.function.Supplier;
+
+/**
+ * 查询计划缓存
+ * 
+ * <p>以查询结构键（{@link QueryShape.Key}）缓存编译好的参数化 {@code CriteriaQuery}，容量受限，按 LRU 淘汰。
+ * 键的哈希值是形状指纹，命中时还要逐项比较结构，指纹碰撞的查询各自编译。
+ * 自动配置注册为单例 Bean，所有 {@link LambdaQueryExecutor} 仓库共享；
+ * 注入后可通过 {@link #getStatistics()} 查看命中率。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+public class QueryPlanCache {
+
+    /** 默认最大缓存计划数 */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final BoundedCache<QueryShape.Key, CompiledQuery<?>> plans;
+
+    public QueryPlanCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public QueryPlanCache(int maxSize) {
+        this.plans = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * 获取计划，未命中时编译并缓存
+     * 
+     * @param key 查询结构与计划用途组成的键
+     * @param compiler 编译函数
+     * @param <R> 结果类型
+     * @return 编译好的查询
+     */
+    @SuppressWarnings("unchecked")
+    <R> CompiledQuery<R> get(QueryShape.Key key, Supplier<CompiledQuery<R>> compiler) {
+        return (CompiledQuery<R>) plans.get(key, k -> compiler.get());
+    }
+
+    /**
+     * 获取缓存统计信息
+     * 
+     * @return 命中、未命中、淘汰次数及当前容量
+     */
+    public BoundedCache.CacheStatistics getStatistics() {
+        return plans.getStatistics();
+    }
+
+    /**
+     * 清空所有缓存的计划
+     */
+    public void clear() {
+        plans.clear();
+    }
+}
@@ -0,0 +1,385 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.util.BoundedCache;
+import io.github.kttobug.query.util.QueryShape;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 查询结果缓存
+ *
+ * <p>按查询的结构键加绑定值缓存 {@code list} 的实体 id 列表和 {@code count} 的结果。
+ * 命中时通过持久化上下文按 id 批量加载实体（已加载的实体不再查询），缓存本身不持有实体。
+ * 默认不启用，声明一个该类型的 Bean 后所有 {@link LambdaQueryExecutor} 仓库共享。</p>
+ *
+ * <p>失效由写操作驱动：Hibernate 的插入、删除事件使该实体类型上的全部结果失效，
+ * 更新事件只使引用了被修改属性的结果失效。每个结果记录它依赖的计数器及写入时的取值，
+ * 写操作只递增计数器，读取时比较取值判断是否过期，因此写路径是常数开销；
+ * 查询执行期间发生的写操作同样会使结果在写入缓存前就被判为过期。
+ * 条目数和存活时间都有上限，超出容量时按 LRU 淘汰。</p>
+ *
+ * <p>批量 JPQL / 原生 SQL 更新不触发实体事件，执行后需调用 {@link #invalidate(Class)} 或 {@link #clear()}。
+ * 依赖 Hibernate 的事件机制。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public class QueryResultCache {
+
+    /** 默认最大缓存结果数 */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    /** 默认存活时间 */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+    private final BoundedCache<Key, Entry> results;
+
+    private final long ttlNanos;
+
+    /** 实体类型上的行集合变化（插入、删除或无法确定修改属性的更新） */
+    private final Map<Class<?>, AtomicLong> rowVersions = new ConcurrentHashMap<>();
+
+    /** 实体类型上的任何变化 */
+    private final Map<Class<?>, AtomicLong> anyVersions = new ConcurrentHashMap<>();
+
+    /** 实体属性的修改 */
+    private final Map<Class<?>, Map<String, AtomicLong>> columnVersions = new ConcurrentHashMap<>();
+
+    /** 已注册事件监听的持久化单元 */
+    private final Set<Object> boundFactories = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder staleCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+
+    public QueryResultCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL);
+    }
+
+    public QueryResultCache(int maxSize, Duration ttl) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be positive: " + ttl);
+        }
+        this.results = new BoundedCache<>(maxSize);
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * 使实体类型及其父类型上缓存的全部结果失效，用于批量更新之后
+     *
+     * @param entityClass 实体类型
+     */
+    public void invalidate(Class<?> entityClass) {
+        for (Class<?> type = entityClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            bump(rowVersions, type);
+            bump(anyVersions, type);
+        }
+    }
+
+    /**
+     * 清空所有缓存的结果，统计计数保留
+     */
+    public void clear() {
+        results.clear();
+    }
+
+    /**
+     * 获取缓存统计信息
+     *
+     * @return 命中、未命中、失效、过期、淘汰次数及当前容量
+     */
+    public Statistics getStatistics() {
+        BoundedCache.CacheStatistics statistics = results.getStatistics();
+        return new Statistics(hitCount.sum(), missCount.sum(), staleCount.sum(), expiredCount.sum(),
+                statistics.getEvictionCount(), statistics.getSize(), statistics.getMaxSize());
+    }
+
+    // ==================== 执行器使用 ====================
+
+    /**
+     * 为持久化单元注册写事件监听，每个持久化单元只注册一次
+     */
+    void bind(EntityManagerFactory entityManagerFactory) {
+        HibernateResultCache.register(entityManagerFactory, this);
+    }
+
+    boolean markBound(Object sessionFactory) {
+        return boundFactories.add(sessionFactory);
+    }
+
+    /**
+     * 获取有效的缓存结果，过期或已失效时返回 null
+     */
+    Object get(Key key) {
+        Entry entry = results.getIfPresent(key);
+        if (entry == null) {
+            missCount.increment();
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt > 0) {
+            results.invalidate(key);
+            expiredCount.increment();
+            missCount.increment();
+            return null;
+        }
+        if (!entry.isCurrent()) {
+            results.invalidate(key);
+            staleCount.increment();
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return entry.value;
+    }
+
+    /**
+     * 丢弃一个无法使用的结果，例如其中的实体已被删除
+     */
+    void discard(Key key) {
+        results.invalidate(key);
+        staleCount.increment();
+    }
+
+    /**
+     * 在执行查询之前记录依赖的当前版本
+     */
+    Snapshot snapshot(List<AtomicLong> dependencies) {
+        AtomicLong[] counters = dependencies.toArray(new AtomicLong[0]);
+        long[] versions = new long[counters.length];
+        for (int i = 0; i < counters.length; i++) {
+            versions[i] = counters[i].get();
+        }
+        return new Snapshot(counters, versions);
+    }
+
+    /**
+     * 写入结果；查询执行期间依赖发生变化时不写入
+     */
+    void put(Key key, Object value, Snapshot snapshot) {
+        Entry entry = new Entry(value, snapshot, System.nanoTime() + ttlNanos);
+        if (entry.isCurrent()) {
+            results.put(key, entry);
+        }
+    }
+
+    AtomicLong rows(Class<?> type) {
+        return rowVersions.computeIfAbsent(type, key -> new AtomicLong());
+    }
+
+    AtomicLong any(Class<?> type) {
+        return anyVersions.computeIfAbsent(type, key -> new AtomicLong());
+    }
+
+    AtomicLong column(Class<?> type, String property) {
+        return columnVersions.computeIfAbsent(type, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(property, key -> new AtomicLong());
+    }
+
+    /**
+     * 实体被更新
+     *
+     * @param properties 被修改的属性名，无法确定时为 null
+     */
+    void onUpdate(Class<?> entityClass, List<String> properties) {
+        if (properties == null) {
+            invalidate(entityClass);
+            return;
+        }
+        for (Class<?> type = entityClass; type != null && type != Object.class; type = type.getSuperclass()) {
+            bump(anyVersions, type);
+            Map<String, AtomicLong> columns = columnVersions.get(type);
+            if (columns != null) {
+                for (String property : properties) {
+                    AtomicLong version = columns.get(property);
+                    if (version != null) {
+                        version.incrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void bump(Map<Class<?>, AtomicLong> versions, Class<?> type) {
+        // 没有结果依赖的类型不需要计数器
+        AtomicLong version = versions.get(type);
+        if (version != null) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * 缓存键：实体类型、查询的结构键、结果种类与分页、全部绑定值
+     */
+    static final class Key {
+        private final Class<?> entityClass;
+        private final QueryShape.Key shape;
+        /** 列表为分页起点，计数为 -1 */
+        private final int firstResult;
+        private final int maxResults;
+        private final List<Object> values;
+        private final int hash;
+
+        private Key(Class<?> entityClass, QueryShape.Key shape, int firstResult, int maxResults, List<Object> values) {
+            this.entityClass = entityClass;
+            this.shape = shape;
+            this.firstResult = firstResult;
+            this.maxResults = maxResults;
+            this.values = values;
+            this.hash = Objects.hash(entityClass, shape, firstResult, maxResults, values);
+        }
+
+        static Key list(Class<?> entityClass, QueryShape.Key shape, int firstResult, int maxResults,
+                        List<Object> values) {
+            return new Key(entityClass, shape, firstResult, maxResults, values);
+        }
+
+        static Key count(Class<?> entityClass, QueryShape.Key shape, List<Object> values) {
+            return new Key(entityClass, shape, -1, -1, values);
+        }
+
+        QueryShape.Key getShape() {
+            return shape;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && firstResult == other.firstResult && maxResults == other.maxResults
+                    && entityClass == other.entityClass && shape.equals(other.shape) && values.equals(other.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * 查询执行前的依赖版本
+     */
+    static final class Snapshot {
+        private final AtomicLong[] counters;
+        private final long[] versions;
+
+        private Snapshot(AtomicLong[] counters, long[] versions) {
+            this.counters = counters;
+            this.versions = versions;
+        }
+
+        boolean isCurrent() {
+            for (int i = 0; i < counters.length; i++) {
+                if (counters[i].get() != versions[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final Snapshot snapshot;
+        private final long expiresAt;
+
+        Entry(Object value, Snapshot snapshot, long expiresAt) {
+            this.value = value;
+            this.snapshot = snapshot;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isCurrent() {
+            return snapshot.isCurrent();
+        }
+    }
+
+    /**
+     * 结果缓存统计信息
+     */
+    public static class Statistics {
+        private final long hitCount;
+        private final long missCount;
+        private final long staleCount;
+        private final long expiredCount;
+        private final long evictionCount;
+        private final int size;
+        private final int maxSize;
+
+        public Statistics(long hitCount, long missCount, long staleCount, long expiredCount, long evictionCount,
+                          int size, int maxSize) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.staleCount = staleCount;
+            this.expiredCount = expiredCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+            this.maxSize = maxSize;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * 未命中次数，包含因失效或过期而未命中的次数
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * 因写操作失效而丢弃的结果数
+         */
+        public long getStaleCount() {
+            return staleCount;
+        }
+
+        public long getExpiredCount() {
+            return expiredCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public double getHitRate() {
+            long total = hitCount + missCount;
+            return total > 0 ? (double) hitCount / total : 0;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{" +
+                    "hitCount=" + hitCount +
+                    ", missCount=" + missCount +
+                    ", staleCount=" + staleCount +
+                    ", expiredCount=" + expiredCount +
+                    ", evictionCount=" + evictionCount +
+                    ", size=" + size +
+                    ", maxSize=" + maxSize +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.kttobug.spring;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.hibernate.query.criteria.JpaSelectCriteria;
+
+/**
+ * 把原生 SQL 片段嵌入 Criteria 查询，以及其他 JPA Criteria 无法表达的 Hibernate 扩展。
+ * 
+ * <p>JPA Criteria 无法表达任意 SQL，这里借助 Hibernate 的 {@code sql()} 表达式：
+ * 片段中的 {@code ?} 依次替换为参数表达式（属性路径或绑定参数）。
+ * 只在用到 {@code apply()}、IN 列表临时表、游标分页的可空排序字段、窗口计数或分组计数时加载，其他情况下不要求 Hibernate。</p>
+ * 
+ * @author kttobug
+ * @since 1.1.0
+ */
+final class SqlFragments {
+
+    private SqlFragments() {
+    }
+
+    /**
+     * 构建布尔 SQL 片段谓词
+     * 
+     * @param builder 查询构建器，必须来自 Hibernate
+     * @param pattern SQL 片段，{@code ?} 为参数占位
+     * @param arguments 依次替换占位的表达式
+     * @return 谓词
+     * @throws IllegalStateException JPA 实现不是 Hibernate
+     */
+    static Predicate predicate(CriteriaBuilder builder, String pattern, Expression<?>... arguments) {
+        if (!(builder instanceof HibernateCriteriaBuilder)) {
+            throw new IllegalStateException("Native SQL fragments require Hibernate as the JPA provider");
+        }
+        return builder.isTrue(((HibernateCriteriaBuilder) builder).sql(pattern, Boolean.class, arguments));
+    }
+
+    /**
+     * 构建 null 视为最大值的排序：升序时 null 在最后，降序时 null 在最前，
+     * 与 {@link io.github.kttobug.query.QueryEvaluator#comparator} 一致，不依赖数据库的默认行为
+     * 
+     * @param builder 查询构建器，必须来自 Hibernate
+     * @param expression 排序表达式
+     * @param ascending 是否升序
+     * @return 排序
+     * @throws IllegalStateException JPA 实现不是 Hibernate
+     */
+    static Order nullsLargest(CriteriaBuilder builder, Expression<?> expression, boolean ascending) {
+        if (!(builder instanceof HibernateCriteriaBuilder)) {
+            throw new IllegalStateException("Explicit null ordering requires Hibernate as the JPA provider");
+        }
+        HibernateCriteriaBuilder hibernate = (HibernateCriteriaBuilder) builder;
+        return ascending ? hibernate.asc(expression, false) : hibernate.desc(expression, true);
+    }
+
+    /**
+     * 以子查询为查询的 FROM：{@code select ... from (subquery)}
+     * 
+     * @param query 外层查询，必须来自 Hibernate
+     * @param subquery 由外层查询创建的子查询
+     * @return 子查询结果的根
+     * @throws IllegalStateException JPA 实现不是 Hibernate
+     */
+    static From<?, ?> from(CriteriaQuery<?> query, Subquery<?> subquery) {
+        if (!(query instanceof JpaSelectCriteria)) {
+            throw new IllegalStateException("Subqueries in FROM require Hibernate as the JPA provider");
+        }
+        return ((JpaSelectCriteria<?>) query).from(subquery);
+    }
+
+    /**
+     * 数据库方言是否支持窗口函数
+     * 
+     * @param entityManagerFactory 持久化单元
+     * @return 支持时返回 true；JPA 实现不是 Hibernate 时返回 false
+     */
+    static boolean supportsWindowFunctions(EntityManagerFactory entityManagerFactory) {
+        try {
+            return entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                    .getJdbcServices().getDialect().supportsWindowFunctions();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 构建 {@code count(x) over()}：分页之前的结果总行数，随每一行返回
+     * 
+     * @param builder 查询构建器，必须来自 Hibernate
+     * @param expression 计数的表达式
+     * @return 窗口计数表达式
+     * @throws IllegalStateException JPA 实现不是 Hibernate
+     */
+    static Expression<Long> countOver(CriteriaBuilder builder, Expression<?> expression) {
+        if (!(builder instanceof HibernateCriteriaBuilder)) {
+            throw new IllegalStateException("Window functions require Hibernate as the JPA provider");
+        }
+        HibernateCriteriaBuilder hibernate = (HibernateCriteriaBuilder) builder;
+        return hibernate.count(expression, hibernate.createWindow());
+    }
+}
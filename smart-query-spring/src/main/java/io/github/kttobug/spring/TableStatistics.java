@@ -0,0 +1,94 @@
+package io.github.kttobug.spring;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.OracleDialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.dialect.SQLServerDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.List;
+
+/**
+ * 从数据库的统计信息读取表的估计行数，用于 {@link CountStrategy#estimated()}。
+ *
+ * <p>估计行数来自优化器使用的统计信息（PostgreSQL 的 {@code pg_class.reltuples}、
+ * MySQL 的 {@code information_schema.tables.table_rows} 等），只读系统目录，与表大小无关；
+ * 统计信息在 ANALYZE 之后才更新，可能与实际行数有偏差。依赖 Hibernate。</p>
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+final class TableStatistics {
+
+    private TableStatistics() {
+    }
+
+    /**
+     * 读取实体主表的估计行数
+     *
+     * @param entityManager 实体管理器
+     * @param entityClass 实体类型
+     * @return 估计行数；方言不支持、没有统计信息或 JPA 实现不是 Hibernate 时返回 -1
+     */
+    static long estimateRows(EntityManager entityManager, Class<?> entityClass) {
+        SessionFactoryImplementor sessionFactory;
+        EntityPersister persister;
+        try {
+            sessionFactory = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class);
+            persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityClass);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+        if (!(persister instanceof AbstractEntityPersister)) {
+            return -1;
+        }
+        Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+        String sql = statisticsQuery(dialect);
+        if (sql == null) {
+            return -1;
+        }
+        String table = ((AbstractEntityPersister) persister).getTableName();
+        // PostgreSQL、SQL Server 按可带模式限定的表名解析，其余统计视图中的表名不带模式
+        boolean qualified = dialect instanceof PostgreSQLDialect || dialect instanceof SQLServerDialect;
+        List<?> rows;
+        try {
+            rows = entityManager.createNativeQuery(sql)
+                    .setParameter(1, qualified ? table : table.substring(table.lastIndexOf('.') + 1))
+                    .getResultList();
+        } catch (RuntimeException e) {
+            // 没有读取系统视图的权限等
+            return -1;
+        }
+        if (rows.isEmpty() || !(rows.get(0) instanceof Number)) {
+            return -1;
+        }
+        long estimate = ((Number) rows.get(0)).longValue();
+        return estimate >= 0 ? estimate : -1;
+    }
+
+    private static String statisticsQuery(Dialect dialect) {
+        if (dialect instanceof PostgreSQLDialect) {
+            // 从未分析过的表 reltuples 为 -1
+            return "select reltuples from pg_class where oid = to_regclass(?1)";
+        }
+        if (dialect instanceof MySQLDialect) {
+            return "select table_rows from information_schema.tables where table_schema = database() and table_name = ?1";
+        }
+        if (dialect instanceof H2Dialect) {
+            return "select row_count_estimate from information_schema.tables "
+                    + "where table_schema = schema() and upper(table_name) = upper(?1)";
+        }
+        if (dialect instanceof OracleDialect) {
+            return "select num_rows from user_tables where table_name = upper(?1)";
+        }
+        if (dialect instanceof SQLServerDialect) {
+            return "select sum(row_count) from sys.dm_db_partition_stats where object_id = object_id(?1) and index_id < 2";
+        }
+        return null;
+    }
+}
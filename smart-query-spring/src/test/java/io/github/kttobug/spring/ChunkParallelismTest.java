@@ -0,0 +1,111 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.util.InListStrategy;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分批查询并发执行条件的集成测试，数据需要提交后才能被其他连接读到，因此不使用测试事务
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:chunks;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=io.github.kttobug.spring.ChunkThreadRecorder"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {TestApplication.class, ChunkParallelismTest.Config.class})
+@DisplayName("分批查询并发测试")
+class ChunkParallelismTest {
+
+    private static final int ROWS = 64;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        InListStrategy parallelInListStrategy() {
+            return InListStrategy.defaults().withChunkSize(4).withParallelism(4);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<TestOrder> orders = new ArrayList<>();
+        for (long id = 1; id <= ROWS; id++) {
+            orders.add(new TestOrder(id, (int) (id % 2), "c" + id, (int) id, null));
+        }
+        repository.saveAll(orders);
+        ChunkThreadRecorder.THREADS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("测试仓库默认的只读事务中各批并发执行")
+    void testConcurrentInReadOnlyTransaction() {
+        List<Long> expected = LongStream.rangeClosed(1, ROWS).boxed().collect(Collectors.toList());
+
+        List<TestOrder> orders = repository.list(byIds(expected));
+
+        assertEquals(expected, orders.stream().map(TestOrder::getId).toList());
+        assertTrue(ChunkThreadRecorder.THREADS.size() > 1, "chunks ran on " + ChunkThreadRecorder.THREADS);
+        assertEquals(ROWS, repository.count(byIds(expected)));
+    }
+
+    @Test
+    @DisplayName("测试读写事务中各批顺序执行并读到未提交的修改")
+    void testSequentialInReadWriteTransaction() {
+        List<Long> ids = LongStream.rangeClosed(1, ROWS).boxed().collect(Collectors.toList());
+        String caller = Thread.currentThread().getName();
+
+        long updated = new TransactionTemplate(transactionManager).execute(status -> {
+            TestOrder order = repository.findById(1L).orElseThrow();
+            order.setStatus(9);
+            repository.flush();
+            return repository.list(byIds(ids)).stream().filter(row -> row.getStatus() == 9).count();
+        });
+
+        assertEquals(1, updated);
+        assertEquals(List.of(caller), List.copyOf(ChunkThreadRecorder.THREADS));
+    }
+
+    private static LambdaQueryWrapper<TestOrder> byIds(List<Long> ids) {
+        return LambdaQueryWrapper.of(TestOrder.class).in(TestOrder::getId, ids).orderByAsc(TestOrder::getId);
+    }
+}
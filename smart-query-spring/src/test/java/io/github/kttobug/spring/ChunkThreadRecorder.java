@@ -0,0 +1,25 @@
+package io.github.kttobug.spring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 记录执行 orders 表查询的线程，用于判断分批查询是否并发执行
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public class ChunkThreadRecorder implements StatementInspector {
+
+    static final Set<String> THREADS = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public String inspect(String sql) {
+        if (sql.startsWith("select") && sql.contains(" from orders ")) {
+            THREADS.add(Thread.currentThread().getName());
+        }
+        return sql;
+    }
+}
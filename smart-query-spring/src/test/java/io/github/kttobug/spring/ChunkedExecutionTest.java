@@ -0,0 +1,72 @@
+package io.github.kttobug.spring;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ChunkedExecution 单元测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DisplayName("ChunkedExecution 测试")
+class ChunkedExecutionTest {
+
+    @Test
+    @DisplayName("测试结果按批次顺序返回")
+    void testResultOrder() {
+        List<Integer> results = ChunkedExecution.run(50, 4, index -> index * 10);
+
+        assertEquals(IntStream.range(0, 50).map(index -> index * 10).boxed().toList(), results);
+    }
+
+    @Test
+    @DisplayName("测试同时执行的批次数不超过并发数")
+    void testBoundedConcurrency() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        ChunkedExecution.run(40, 3, index -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            running.decrementAndGet();
+            return index;
+        });
+
+        assertTrue(peak.get() <= Math.min(3, ChunkedExecution.MAX_WORKERS + 1));
+    }
+
+    @Test
+    @DisplayName("测试并发数为 1 时在调用线程执行")
+    void testSequential() {
+        Thread caller = Thread.currentThread();
+
+        List<Boolean> onCaller = ChunkedExecution.run(5, 1, index -> Thread.currentThread() == caller);
+
+        assertEquals(List.of(true, true, true, true, true), onCaller);
+    }
+
+    @Test
+    @DisplayName("测试批次失败时抛出原异常")
+    void testFailure() {
+        IllegalStateException failure = assertThrows(IllegalStateException.class, () ->
+                ChunkedExecution.run(20, 4, index -> {
+                    if (index == 7) {
+                        throw new IllegalStateException("chunk 7");
+                    }
+                    return index;
+                }));
+
+        assertEquals("chunk 7", failure.getMessage());
+    }
+}
@@ -0,0 +1,124 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.QueryOptimizer;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * or / nest / not 条件组合的集成测试，条件不经 {@link QueryOptimizer} 化简，直接检验执行器的编译结果
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest
+@ContextConfiguration(classes = {TestApplication.class, ConditionTreeQueryTest.Config.class})
+@DisplayName("条件组合测试")
+class ConditionTreeQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        QueryOptimizer unoptimized() {
+            return QueryOptimizer.NONE;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new TestOrder(1L, 1, "a", 10, null));
+        entityManager.persist(new TestOrder(2L, 1, "b", 20, null));
+        entityManager.persist(new TestOrder(3L, 2, "a", 30, null));
+        entityManager.persist(new TestOrder(4L, 2, "b", 40, null));
+        entityManager.persist(new TestOrder(5L, 3, "c", null, null));
+        entityManager.flush();
+    }
+
+    @Test
+    @DisplayName("测试 or 的优先级低于 and")
+    void testOr() {
+        assertEquals(List.of(1L, 4L), ids(query()
+                .eq(TestOrder::getStatus, 1).eq(TestOrder::getCode, "a")
+                .or()
+                .eq(TestOrder::getStatus, 2).eq(TestOrder::getCode, "b")));
+        assertEquals(List.of(1L, 3L, 5L), ids(query()
+                .eq(TestOrder::getCode, "a").or().eq(TestOrder::getStatus, 3)));
+    }
+
+    @Test
+    @DisplayName("测试嵌套条件作为一个整体参与组合")
+    void testNest() {
+        assertEquals(List.of(1L, 3L), ids(query()
+                .eq(TestOrder::getCode, "a")
+                .nest(query().eq(TestOrder::getStatus, 1).or().eq(TestOrder::getStatus, 2))));
+        assertEquals(List.of(2L, 4L, 5L), ids(query()
+                .nest(query().eq(TestOrder::getCode, "b"))
+                .or()
+                .nest(query().gt(TestOrder::getStatus, 2))));
+    }
+
+    @Test
+    @DisplayName("测试 or 中的空嵌套使整个 or 不限制")
+    void testEmptyNestInOr() {
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), ids(query()
+                .eq(TestOrder::getStatus, 1).or().nest(query())));
+        assertEquals(List.of(3L, 4L), ids(query()
+                .eq(TestOrder::getStatus, 2)
+                .nest(query().eq(TestOrder::getCode, "a").or().nest(query()))));
+        assertEquals(5, repository.count(query().eq(TestOrder::getCode, "a").or().not(query())));
+    }
+
+    @Test
+    @DisplayName("测试 not 取反整个嵌套条件")
+    void testNot() {
+        assertEquals(List.of(2L, 3L, 4L, 5L), ids(query()
+                .not(query().eq(TestOrder::getStatus, 1).eq(TestOrder::getCode, "a"))));
+        assertEquals(List.of(4L), ids(query()
+                .not(query().eq(TestOrder::getStatus, 1).or().eq(TestOrder::getCode, "a"))
+                .lt(TestOrder::getAmount, 100)));
+    }
+
+    @Test
+    @DisplayName("测试双重 not 不丢失取反")
+    void testDoubleNot() {
+        assertEquals(List.of(1L), ids(query()
+                .not(query().not(query().eq(TestOrder::getStatus, 1).eq(TestOrder::getCode, "a")))));
+        assertEquals(List.of(1L, 2L, 3L), ids(query()
+                .not(query().not(query().eq(TestOrder::getStatus, 1).or().eq(TestOrder::getCode, "a")))));
+        assertEquals(List.of(2L, 3L, 4L, 5L), ids(query()
+                .not(query().not(query().not(query().eq(TestOrder::getStatus, 1).eq(TestOrder::getCode, "a"))))));
+        assertEquals(List.of(1L), ids(query()
+                .not(query().not(query().eq(TestOrder::getStatus, 1).eq(TestOrder::getCode, "a"))
+                        .or().eq(TestOrder::getStatus, 3))));
+    }
+
+    private static LambdaQueryWrapper<TestOrder> query() {
+        return LambdaQueryWrapper.of(TestOrder.class);
+    }
+
+    private List<Long> ids(LambdaQueryWrapper<TestOrder> wrapper) {
+        return repository.list(wrapper.orderByAsc(TestOrder::getId)).stream().map(TestOrder::getId).toList();
+    }
+}
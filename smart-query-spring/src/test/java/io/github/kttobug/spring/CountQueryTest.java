@@ -0,0 +1,79 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 仓库计数与分页方法的集成测试：经仓库代理调用时执行的是实现中的方法
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.kttobug.spring.SqlRecorder")
+@ContextConfiguration(classes = TestApplication.class)
+@DisplayName("计数查询测试")
+class CountQueryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= 10; id++) {
+            entityManager.persist(new TestOrder(id, (int) (id % 2), "c" + id, (int) id, null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("测试计数执行 count 而不是读取全部行")
+    void testCountStatement() {
+        assertEquals(5, repository.count(LambdaQueryWrapper.of(TestOrder.class).eq(TestOrder::getStatus, 1)));
+
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        String sql = SqlRecorder.STATEMENTS.get(0);
+        assertTrue(sql.startsWith("select count("), sql);
+        assertFalse(sql.contains(" fetch first "), sql);
+    }
+
+    @Test
+    @DisplayName("测试条件恒为假时不执行查询")
+    void testAlwaysFalse() {
+        assertEquals(0, repository.count(LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 1).eq(TestOrder::getStatus, 2)));
+        assertEquals(List.of(), repository.listWithPagination(LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 1).eq(TestOrder::getStatus, 2), 0, 5));
+
+        assertTrue(SqlRecorder.STATEMENTS.isEmpty(), SqlRecorder.STATEMENTS.toString());
+    }
+
+    @Test
+    @DisplayName("测试分页查询按页大小读取")
+    void testListWithPagination() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class).orderByDesc(TestOrder::getId);
+
+        assertEquals(List.of(7L, 6L, 5L), repository.listWithPagination(wrapper, 1, 3).stream()
+                .map(TestOrder::getId).toList());
+        assertEquals(List.of(1L), repository.listWithPagination(wrapper, 3, 3).stream()
+                .map(TestOrder::getId).toList());
+    }
+}
@@ -0,0 +1,141 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import io.github.kttobug.spring.sample.TestSlicedOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 计数策略集成测试。估算计数读取数据库的统计信息，数据提交后统计才可见，因此不使用测试事务
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:counts;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = TestApplication.class)
+@DisplayName("计数策略测试")
+class CountStrategyTest {
+
+    private static final int ROWS = 12;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @Autowired
+    private TestSlicedOrderRepository slicedRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        List<TestOrder> orders = new ArrayList<>();
+        for (long id = 1; id <= ROWS; id++) {
+            orders.add(new TestOrder(id, 1, "c" + id, (int) id, null));
+        }
+        repository.saveAll(orders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("测试不计数时总数为已读到的行数")
+    void testSlice() {
+        Page<TestOrder> first = repository.page(byStatus(1), PageRequest.of(0, 5), CountStrategy.slice());
+        assertEquals(5, first.getContent().size());
+        assertEquals(6, first.getTotalElements());
+        assertTrue(first.hasNext());
+
+        Page<TestOrder> last = repository.page(byStatus(1), PageRequest.of(2, 5), CountStrategy.slice());
+        assertEquals(List.of(11L, 12L), ids(last.getContent()));
+        assertEquals(ROWS, last.getTotalElements());
+        assertFalse(last.hasNext());
+
+        Slice<TestOrder> slice = repository.slice(byStatus(1), PageRequest.of(1, 6));
+        assertEquals(6, slice.getContent().size());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    @DisplayName("测试仓库上的注解指定默认计数策略")
+    void testRepositoryDefault() {
+        Page<TestOrder> page = slicedRepository.page(byStatus(1), PageRequest.of(0, 5));
+
+        assertEquals(6, page.getTotalElements());
+        assertEquals(ROWS, slicedRepository.page(byStatus(1), PageRequest.of(0, 5), CountStrategy.exact())
+                .getTotalElements());
+    }
+
+    @Test
+    @DisplayName("测试缓存的计数在存活期内不随写操作变化，按条件值区分")
+    void testCached() {
+        CountStrategy cached = CountStrategy.cached(Duration.ofHours(1));
+        assertEquals(ROWS, repository.page(byStatus(1), PageRequest.of(0, 5), cached).getTotalElements());
+
+        repository.save(new TestOrder(100L, 1, "new", 100, null));
+        repository.save(new TestOrder(101L, 2, "new", 101, null));
+
+        assertEquals(ROWS, repository.page(byStatus(1), PageRequest.of(1, 5), cached).getTotalElements());
+        assertEquals(ROWS + 1, repository.page(byStatus(1), PageRequest.of(1, 5)).getTotalElements());
+        assertEquals(1, repository.page(byStatus(2), PageRequest.of(0, 5), cached).getTotalElements());
+    }
+
+    @Test
+    @DisplayName("测试结果不多时估算计数即精确计数")
+    void testEstimatedSmall() {
+        assertEquals(ROWS, repository.page(byStatus(1), PageRequest.of(0, 5), CountStrategy.estimated())
+                .getTotalElements());
+        assertEquals(0, repository.page(byStatus(3), PageRequest.of(0, 5), CountStrategy.estimated())
+                .getTotalElements());
+    }
+
+    @Test
+    @DisplayName("测试结果较多时按抽样估算计数")
+    void testEstimatedLarge() {
+        jdbcTemplate.update("insert into orders (id, status, code, amount) "
+                + "select x, mod(x, 3), 'g', mod(x, 100) from system_range(1001, 5000)");
+        jdbcTemplate.execute("analyze");
+        long exact = repository.count(byStatus(0).ne(TestOrder::getAmount, 7));
+
+        Page<TestOrder> page = repository.page(byStatus(0).ne(TestOrder::getAmount, 7), PageRequest.of(0, 5),
+                CountStrategy.estimated());
+
+        assertEquals(5, page.getContent().size());
+        assertTrue(Math.abs(page.getTotalElements() - exact) <= exact / 5,
+                "estimated " + page.getTotalElements() + ", exact " + exact);
+    }
+
+    private static LambdaQueryWrapper<TestOrder> byStatus(int status) {
+        return LambdaQueryWrapper.of(TestOrder.class).eq(TestOrder::getStatus, status).orderByAsc(TestOrder::getId);
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).toList();
+    }
+}
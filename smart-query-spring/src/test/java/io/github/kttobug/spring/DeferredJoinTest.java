@@ -0,0 +1,121 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 延迟连接分页集成测试，阈值调低到偏移量 4
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.kttobug.spring.SqlRecorder")
+@ContextConfiguration(classes = {TestApplication.class, DeferredJoinTest.Config.class})
+@DisplayName("延迟连接分页测试")
+class DeferredJoinTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        DeferredJoin shallowDeferredJoin() {
+            return DeferredJoin.fromOffset(4);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= ROWS; id++) {
+            entityManager.persist(new TestOrder(id, (int) (id % 2), "c" + id, amountOf(id), null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("测试逐页读取的结果与原排序一致")
+    void testPagesKeepOrder() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .orderByDesc(TestOrder::getAmount).orderByAsc(TestOrder::getCode);
+        List<Long> paged = new ArrayList<>();
+        for (int page = 0; page * 3 < ROWS; page++) {
+            paged.addAll(ids(repository.listWithPagination(wrapper, page, 3)));
+        }
+
+        List<Long> expected = LongStream.rangeClosed(1, ROWS).boxed()
+                .sorted(Comparator.comparing(DeferredJoinTest::amountOf).reversed()
+                        .thenComparing(id -> "c" + id))
+                .toList();
+        assertEquals(expected, paged);
+    }
+
+    @Test
+    @DisplayName("测试偏移量达到阈值时先查询 id 再按 id 加载")
+    void testTwoPhases() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 1).orderByDesc(TestOrder::getId);
+
+        assertEquals(List.of(19L, 17L, 15L), ids(repository.listWithPagination(wrapper, 0, 3)));
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        SqlRecorder.STATEMENTS.clear();
+        entityManager.clear();
+
+        assertEquals(List.of(11L, 9L, 7L, 5L), ids(repository.listWithPagination(wrapper, 1, 4)));
+        assertEquals(2, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        String idQuery = SqlRecorder.STATEMENTS.get(0);
+        assertTrue(idQuery.startsWith("select to1_0.id from orders "), idQuery);
+        assertTrue(idQuery.contains(" offset "), idQuery);
+        // 第二阶段只加载本页的 4 个 id，不像切片那样多读一行
+        String fetch = SqlRecorder.STATEMENTS.get(1);
+        assertTrue(fetch.contains(".id in (?,?,?,?)"), fetch);
+    }
+
+    @Test
+    @DisplayName("测试按 id 加载的实体已在持久化上下文中时结果相同")
+    void testManagedEntities() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class).orderByAsc(TestOrder::getId);
+        List<TestOrder> all = repository.list(wrapper);
+
+        List<TestOrder> page = repository.listWithPagination(wrapper, 3, 4);
+
+        assertEquals(List.of(13L, 14L, 15L, 16L), ids(page));
+        assertSame(all.get(12), page.get(0));
+    }
+
+    private static Integer amountOf(long id) {
+        return (int) (id % 7);
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).toList();
+    }
+}
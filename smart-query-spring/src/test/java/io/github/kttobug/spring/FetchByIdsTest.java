@@ -0,0 +1,127 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.util.InListStrategy;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestItem;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 先分页查询 id、再按 id 加载实体的集成测试：id 列表与预加载一样补齐和分批
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.kttobug.spring.SqlRecorder")
+@ContextConfiguration(classes = {TestApplication.class, FetchByIdsTest.Config.class})
+@DisplayName("按 id 加载测试")
+class FetchByIdsTest {
+
+    private static final int ROWS = 12;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        InListStrategy chunkedInListStrategy() {
+            return InListStrategy.defaults().withChunkSize(4);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        long itemId = 1;
+        for (long id = 1; id <= ROWS; id++) {
+            TestOrder order = entityManager.persist(new TestOrder(id, 1, "c" + id, (int) id, null));
+            for (int i = 0; i < id % 3; i++) {
+                entityManager.persist(new TestItem(itemId++, "s" + id + "-" + i, order));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("测试分页加载集合关联时集合完整且按 id 顺序返回")
+    void testCollectionFetchPages() {
+        for (int page = 0; page * 5 < ROWS; page++) {
+            List<TestOrder> orders = repository.slice(byAmountDesc(), PageRequest.of(page, 5)).getContent();
+            long first = ROWS - page * 5L;
+            assertEquals(LongStream.iterate(first, id -> id - 1).limit(Math.min(5, first)).boxed().toList(),
+                    orders.stream().map(TestOrder::getId).toList());
+            for (TestOrder order : orders) {
+                assertEquals(order.getId() % 3, order.getItems().size());
+            }
+            entityManager.clear();
+        }
+    }
+
+    @Test
+    @DisplayName("测试 id 个数不同的页补齐后使用同一条语句")
+    void testPaddedIds() {
+        repository.listWithPagination(byAmountDesc(), 0, 3);
+        String three = fetchStatements().get(0);
+        entityManager.clear();
+        SqlRecorder.STATEMENTS.clear();
+
+        repository.listWithPagination(byAmountDesc(), 0, 4);
+        String four = fetchStatements().get(0);
+
+        assertEquals(four, three);
+        assertEquals(4, parameterCount(three));
+    }
+
+    @Test
+    @DisplayName("测试 id 个数超过分批上限时分批加载")
+    void testChunkedIds() {
+        List<TestOrder> orders = repository.listWithPagination(byAmountDesc(), 0, 10);
+
+        assertEquals(LongStream.iterate(ROWS, id -> id - 1).limit(10).boxed().toList(),
+                orders.stream().map(TestOrder::getId).toList());
+        List<String> fetches = fetchStatements();
+        assertEquals(3, fetches.size());
+        assertTrue(fetches.stream().allMatch(sql -> parameterCount(sql) <= 4), fetches.toString());
+    }
+
+    private static LambdaQueryWrapper<TestOrder> byAmountDesc() {
+        return LambdaQueryWrapper.of(TestOrder.class).fetch(TestOrder::getItems).orderByDesc(TestOrder::getAmount);
+    }
+
+    /**
+     * 按 id 加载实体的语句：JOIN 明细表且以 id 列表为条件
+     */
+    private static List<String> fetchStatements() {
+        return SqlRecorder.STATEMENTS.stream()
+                .filter(sql -> sql.contains(" join test_item ") && sql.contains(" in ("))
+                .toList();
+    }
+
+    private static long parameterCount(String sql) {
+        return sql.chars().filter(c -> c == '?').count();
+    }
+}
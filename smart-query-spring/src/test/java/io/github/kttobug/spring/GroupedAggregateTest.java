@@ -0,0 +1,115 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.AggregateFunction;
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.QueryOperator;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import jakarta.persistence.Tuple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 分组聚合集成测试：聚合列、HAVING 过滤，以及分组查询的计数为分组数
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest
+@ContextConfiguration(classes = TestApplication.class)
+@DisplayName("分组聚合测试")
+class GroupedAggregateTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    record StatusTotal(Integer status, Long count, Long sumAmount, Double avgAmount) {
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 状态 0：6 行，合计 63；状态 1：7 行，合计 70；状态 2：7 行，合计 77
+        for (long id = 1; id <= ROWS; id++) {
+            entityManager.persist(new TestOrder(id, (int) (id % 3), "c" + id, (int) id, null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("测试按分组计算 count、sum 与 avg")
+    void testAggregates() {
+        List<Tuple> rows = repository.listTuples(totals().orderByAsc(TestOrder::getStatus));
+
+        assertEquals(3, rows.size());
+        assertEquals(List.of(0, 1, 2), rows.stream().map(row -> row.get("status", Integer.class)).toList());
+        assertEquals(List.of(6L, 7L, 7L), rows.stream().map(row -> row.get("count", Long.class)).toList());
+        assertEquals(List.of(63L, 70L, 77L), rows.stream().map(row -> row.get("sumAmount", Long.class)).toList());
+        assertEquals(10.5, rows.get(0).get("avgAmount", Double.class), 1e-9);
+    }
+
+    @Test
+    @DisplayName("测试 HAVING 按聚合值过滤分组，映射为 record")
+    void testHaving() {
+        List<StatusTotal> totals = repository.listAs(totals()
+                .having(AggregateFunction.SUM, TestOrder::getAmount, QueryOperator.GT, 65)
+                .orderByDesc(TestOrder::getStatus), StatusTotal.class);
+
+        assertEquals(List.of(new StatusTotal(2, 7L, 77L, 11.0), new StatusTotal(1, 7L, 70L, 10.0)), totals);
+    }
+
+    @Test
+    @DisplayName("测试 WHERE 在分组前过滤，按行数过滤分组")
+    void testWhereAndHavingCount() {
+        List<Tuple> rows = repository.listTuples(LambdaQueryWrapper.of(TestOrder.class)
+                .gt(TestOrder::getAmount, 10).select(TestOrder::getStatus).count()
+                .groupBy(TestOrder::getStatus).havingCount(QueryOperator.GE, 4L).orderByAsc(TestOrder::getStatus));
+
+        // 金额大于 10 后：状态 0 有 12、15、18，状态 1 有 13、16、19，状态 2 有 11、14、17、20
+        assertEquals(1, rows.size());
+        assertEquals(2, rows.get(0).get("status", Integer.class));
+        assertEquals(4L, rows.get(0).get("count", Long.class));
+    }
+
+    @Test
+    @DisplayName("测试分组查询的计数为分组数")
+    void testCountGroups() {
+        assertEquals(3, repository.count(totals()));
+        assertEquals(2, repository.count(totals()
+                .having(AggregateFunction.SUM, TestOrder::getAmount, QueryOperator.GT, 65)));
+        assertEquals(0, repository.count(totals()
+                .having(AggregateFunction.SUM, TestOrder::getAmount, QueryOperator.GT, 100)));
+        // 金额小于 3 的两行分属两个分组
+        assertEquals(2, repository.count(LambdaQueryWrapper.of(TestOrder.class).lt(TestOrder::getAmount, 3)
+                .groupBy(TestOrder::getStatus).havingCount(QueryOperator.EQ, 1L)));
+    }
+
+    @Test
+    @DisplayName("测试分组查询的存在判断与有限计数按分组计")
+    void testProbeGroups() {
+        assertEquals(2, repository.countUpTo(totals(), 2));
+        assertEquals(3, repository.countUpTo(totals(), 10));
+        assertTrue(repository.exists(totals().having(AggregateFunction.SUM, TestOrder::getAmount, QueryOperator.GT, 70)));
+        assertFalse(repository.exists(totals().having(AggregateFunction.SUM, TestOrder::getAmount, QueryOperator.GT, 100)));
+    }
+
+    private static LambdaQueryWrapper<TestOrder> totals() {
+        return LambdaQueryWrapper.of(TestOrder.class).select(TestOrder::getStatus).count()
+                .sum(TestOrder::getAmount).avg(TestOrder::getAmount).groupBy(TestOrder::getStatus);
+    }
+}
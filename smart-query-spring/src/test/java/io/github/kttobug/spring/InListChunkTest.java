@@ -0,0 +1,126 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.util.InListStrategy;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IN 列表补齐与分批执行的集成测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest
+@ContextConfiguration(classes = {TestApplication.class, InListChunkTest.Config.class})
+@DisplayName("IN 列表分批测试")
+class InListChunkTest {
+
+    private static final int ROWS = 40;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @Autowired
+    private QueryPlanCache planCache;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        InListStrategy chunkedInListStrategy() {
+            return InListStrategy.defaults().withChunkSize(8);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 每 3 行一个 null 金额，金额与 id 的顺序相反
+        for (long id = 1; id <= ROWS; id++) {
+            entityManager.persist(new TestOrder(id, (int) (id % 4), "c" + id, amountOf(id), null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        planCache.clear();
+    }
+
+    @Test
+    @DisplayName("测试长度在同一档位的 IN 列表复用计划")
+    void testPaddingSharesPlan() {
+        long misses = planCache.getStatistics().getMissCount();
+
+        assertEquals(List.of(1L, 2L, 3L), ids(repository.list(LambdaQueryWrapper.of(TestOrder.class)
+                .in(TestOrder::getId, List.of(1L, 2L, 3L)).orderByAsc(TestOrder::getId))));
+        assertEquals(List.of(4L, 5L, 6L, 7L), ids(repository.list(LambdaQueryWrapper.of(TestOrder.class)
+                .in(TestOrder::getId, List.of(4L, 5L, 6L, 7L)).orderByAsc(TestOrder::getId))));
+        assertEquals(misses + 1, planCache.getStatistics().getMissCount());
+
+        assertEquals(List.of(9L), ids(repository.list(LambdaQueryWrapper.of(TestOrder.class)
+                .in(TestOrder::getId, List.of(9L, 9L, 9L)))));
+    }
+
+    @Test
+    @DisplayName("测试分批结果合并后的顺序与分页")
+    void testChunkMergeOrder() {
+        List<Long> all = LongStream.rangeClosed(1, ROWS).boxed().collect(Collectors.toList());
+        List<Long> expected = all.stream()
+                .sorted(Comparator.comparing(InListChunkTest::amountOf,
+                        Comparator.nullsLast(Comparator.<Integer>naturalOrder())).thenComparing(id -> id))
+                .toList();
+
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .in(TestOrder::getId, all)
+                .orderByAsc(TestOrder::getAmount)
+                .orderByAsc(TestOrder::getId);
+        assertEquals(expected, ids(repository.list(wrapper)));
+        assertEquals(expected.subList(0, 5), ids(repository.listWithPagination(wrapper, 0, 5)));
+        assertEquals(expected.subList(25, 30), ids(repository.listWithPagination(wrapper, 5, 5)));
+        assertEquals(ROWS, repository.count(wrapper));
+    }
+
+    @Test
+    @DisplayName("测试可空排序字段降序时 null 排在最前")
+    void testChunkNullsFirstDescending() {
+        List<Long> all = LongStream.rangeClosed(1, ROWS).boxed().collect(Collectors.toList());
+        List<Long> expected = all.stream()
+                .sorted(Comparator.comparing(InListChunkTest::amountOf,
+                        Comparator.nullsLast(Comparator.<Integer>naturalOrder())).thenComparing(id -> id).reversed())
+                .limit(6)
+                .toList();
+
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .in(TestOrder::getId, all)
+                .orderByDesc(TestOrder::getAmount)
+                .orderByDesc(TestOrder::getId);
+        assertEquals(expected, ids(repository.listWithPagination(wrapper, 0, 6)));
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).toList();
+    }
+
+    private static Integer amountOf(long id) {
+        return id % 3 == 0 ? null : (int) (100 - id);
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.util.InListStrategy;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * IN 列表临时表集成测试：只在读写事务内写入临时表，只读事务中按每批上限拆分。
+ * 需要区分仓库方法自己的只读事务和调用方的读写事务，因此不使用测试事务
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:in-tables;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=io.github.kttobug.spring.SqlRecorder"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {TestApplication.class, InListTemporaryTableTest.Config.class})
+@DisplayName("IN 列表临时表测试")
+class InListTemporaryTableTest {
+
+    private static final int ROWS = 40;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        InListStrategy temporaryTableInListStrategy() {
+            return InListStrategy.defaults().withChunkSize(8).withTemporaryTable("in_values", 16);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("create table if not exists in_values (batch_id bigint not null, item_value bigint)");
+        List<TestOrder> orders = new ArrayList<>();
+        for (long id = 1; id <= ROWS; id++) {
+            orders.add(new TestOrder(id, (int) (id % 2), "c" + id, (int) id, null));
+        }
+        repository.saveAll(orders);
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("测试读写事务中写入临时表，查询后清理")
+    void testReadWriteTransaction() {
+        List<Long> ids = LongStream.rangeClosed(3, 30).boxed().toList();
+
+        List<Long> found = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Long> result = ids(repository.list(byIds(ids)));
+            assertEquals(0, jdbcTemplate.queryForObject("select count(*) from in_values", Long.class));
+            return result;
+        });
+
+        assertEquals(ids, found);
+        List<String> queries = orderQueries();
+        assertEquals(1, queries.size(), queries.toString());
+        assertTrue(queries.get(0).contains(" from in_values "), queries.get(0));
+    }
+
+    @Test
+    @DisplayName("测试仓库默认的只读事务中不写入临时表，按每批上限拆分")
+    void testRepositoryReadOnlyTransaction() {
+        List<Long> ids = LongStream.rangeClosed(3, 30).boxed().toList();
+
+        assertEquals(ids, ids(repository.list(byIds(ids))));
+        assertEquals(ids.size(), repository.count(byIds(ids)));
+
+        List<String> queries = orderQueries();
+        assertTrue(queries.stream().noneMatch(sql -> sql.contains("in_values")), queries.toString());
+        assertTrue(queries.size() > 2, queries.toString());
+    }
+
+    @Test
+    @DisplayName("测试调用方的只读事务中不写入临时表")
+    void testCallerReadOnlyTransaction() {
+        List<Long> ids = LongStream.rangeClosed(1, 20).boxed().toList();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        assertEquals(ids, readOnly.execute(status -> ids(repository.list(byIds(ids)))));
+        assertTrue(orderQueries().stream().noneMatch(sql -> sql.contains("in_values")), orderQueries().toString());
+    }
+
+    private static LambdaQueryWrapper<TestOrder> byIds(List<Long> ids) {
+        return LambdaQueryWrapper.of(TestOrder.class).in(TestOrder::getId, ids).orderByAsc(TestOrder::getId);
+    }
+
+    private static List<String> orderQueries() {
+        return SqlRecorder.STATEMENTS.stream().filter(sql -> sql.startsWith("select") && sql.contains(" from orders "))
+                .toList();
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).toList();
+    }
+}
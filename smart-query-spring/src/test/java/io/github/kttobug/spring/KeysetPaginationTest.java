@@ -0,0 +1,144 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.KeysetPage;
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 游标分页集成测试：逐页读完的结果与按相同排序（null 视为最大值）一次读取的结果一致
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest
+@ContextConfiguration(classes = TestApplication.class)
+@DisplayName("游标分页测试")
+class KeysetPaginationTest {
+
+    private static final int ROWS = 23;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= ROWS; id++) {
+            entityManager.persist(new TestOrder(id, status(id), "c" + id, amountOf(id), null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("测试未指定排序时按 id 升序")
+    void testDefaultOrder() {
+        assertEquals(LongStream.rangeClosed(1, ROWS).boxed().toList(),
+                walk(LambdaQueryWrapper.of(TestOrder.class), 5));
+    }
+
+    @Test
+    @DisplayName("测试可空字段升序时 null 排在最后")
+    void testNullableAscending() {
+        assertEquals(expected(Comparator.comparing(KeysetPaginationTest::amountOf, nullsLargest()), id -> true),
+                walk(LambdaQueryWrapper.of(TestOrder.class).orderByAsc(TestOrder::getAmount), 5));
+    }
+
+    @Test
+    @DisplayName("测试可空字段降序时 null 排在最前")
+    void testNullableDescending() {
+        assertEquals(expected(Comparator.comparing(KeysetPaginationTest::amountOf, nullsLargest().reversed()),
+                        id -> true),
+                walk(LambdaQueryWrapper.of(TestOrder.class).orderByDesc(TestOrder::getAmount), 4));
+    }
+
+    @Test
+    @DisplayName("测试多个排序键与过滤条件")
+    void testCompositeOrderWithFilter() {
+        Comparator<Long> order = Comparator.comparing(KeysetPaginationTest::status)
+                .thenComparing(KeysetPaginationTest::amountOf, nullsLargest().reversed());
+        assertEquals(expected(order, id -> status(id) != 0),
+                walk(LambdaQueryWrapper.of(TestOrder.class).ne(TestOrder::getStatus, 0)
+                        .orderByAsc(TestOrder::getStatus).orderByDesc(TestOrder::getAmount), 3));
+    }
+
+    @Test
+    @DisplayName("测试行数恰为页大小整数倍时最后一页没有下一页")
+    void testExactLastPage() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class).lt(TestOrder::getId, 11L);
+        KeysetPage<TestOrder> first = repository.listAfter(wrapper, null, 5);
+        assertTrue(first.hasNext());
+        KeysetPage<TestOrder> second = repository.listAfter(wrapper, first.getNextCursor(), 5);
+        assertEquals(List.of(6L, 7L, 8L, 9L, 10L), ids(second.getContent()));
+        assertFalse(second.hasNext());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("测试游标不能用于不同的排序")
+    void testCursorBoundToOrdering() {
+        String cursor = repository.listAfter(LambdaQueryWrapper.of(TestOrder.class)
+                .orderByAsc(TestOrder::getAmount), null, 5).getNextCursor();
+
+        // 仓库代理把 IllegalArgumentException 转换为 InvalidDataAccessApiUsageException
+        assertInstanceOf(IllegalArgumentException.class, assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> repository.listAfter(LambdaQueryWrapper.of(TestOrder.class)
+                        .orderByDesc(TestOrder::getAmount), cursor, 5)).getCause());
+        assertInstanceOf(IllegalArgumentException.class, assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> repository.listAfter(LambdaQueryWrapper.of(TestOrder.class), "not-a-cursor", 5)).getCause());
+    }
+
+    private List<Long> walk(LambdaQueryWrapper<TestOrder> wrapper, int size) {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            KeysetPage<TestOrder> page = repository.listAfter(wrapper, cursor, size);
+            assertTrue(page.getContent().size() <= size);
+            ids.addAll(ids(page.getContent()));
+            cursor = page.getNextCursor();
+            assertTrue(ids.size() <= ROWS, "cursor does not advance");
+        } while (cursor != null);
+        return ids;
+    }
+
+    private static List<Long> expected(Comparator<Long> order, Predicate<Long> filter) {
+        return LongStream.rangeClosed(1, ROWS).boxed().filter(filter)
+                .sorted(order.thenComparing(id -> id)).toList();
+    }
+
+    private static Comparator<Integer> nullsLargest() {
+        return Comparator.nullsLast(Comparator.naturalOrder());
+    }
+
+    private static int status(long id) {
+        return (int) (id % 3);
+    }
+
+    private static Integer amountOf(long id) {
+        return id % 4 == 0 ? null : (int) (id * 7 % 10);
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).toList();
+    }
+}
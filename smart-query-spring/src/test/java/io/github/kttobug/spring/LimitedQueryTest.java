@@ -0,0 +1,121 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.ContextConfiguration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 只读取有限行的查询集成测试：first、one、exists 与 countUpTo
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.kttobug.spring.SqlRecorder")
+@ContextConfiguration(classes = TestApplication.class)
+@DisplayName("有限行查询测试")
+class LimitedQueryTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= ROWS; id++) {
+            entityManager.persist(new TestOrder(id, (int) (id % 2), "c" + id, (int) id, null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("测试 first 只读取一行")
+    void testFirst() {
+        TestOrder first = repository.first(LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 0).orderByDesc(TestOrder::getAmount));
+
+        assertEquals(20L, first.getId());
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        assertTrue(SqlRecorder.STATEMENTS.get(0).contains(" fetch first "), SqlRecorder.STATEMENTS.get(0));
+        assertNull(repository.first(byStatus(5)));
+    }
+
+    @Test
+    @DisplayName("测试 one 返回唯一结果，没有结果时返回 null")
+    void testOne() {
+        TestOrder one = repository.one(LambdaQueryWrapper.of(TestOrder.class).eq(TestOrder::getCode, "c7"));
+
+        assertEquals(7L, one.getId());
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        assertTrue(SqlRecorder.STATEMENTS.get(0).contains(" fetch first "), SqlRecorder.STATEMENTS.get(0));
+        assertNull(repository.one(byStatus(5)));
+    }
+
+    @Test
+    @DisplayName("测试 one 读到第二行时抛出异常")
+    void testOneNotUnique() {
+        IncorrectResultSizeDataAccessException error = assertThrows(IncorrectResultSizeDataAccessException.class,
+                () -> repository.one(LambdaQueryWrapper.of(TestOrder.class).gt(TestOrder::getAmount, 18)));
+
+        assertEquals(1, error.getExpectedSize());
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+    }
+
+    @Test
+    @DisplayName("测试 exists 找到一行即停止，不计算总数")
+    void testExists() {
+        assertTrue(repository.exists(byStatus(1)));
+        assertFalse(repository.exists(byStatus(5)));
+
+        assertEquals(2, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        for (String sql : SqlRecorder.STATEMENTS) {
+            assertFalse(sql.contains("count("), sql);
+            assertTrue(sql.contains(" fetch first "), sql);
+        }
+    }
+
+    @Test
+    @DisplayName("测试 countUpTo 最多统计到上限")
+    void testCountUpTo() {
+        assertEquals(3, repository.countUpTo(byStatus(1), 3));
+        assertEquals(10, repository.countUpTo(byStatus(1), 15));
+        assertEquals(10, repository.countUpTo(byStatus(1), 10));
+
+        assertTrue(SqlRecorder.STATEMENTS.stream().noneMatch(sql -> sql.contains("count(")),
+                SqlRecorder.STATEMENTS.toString());
+    }
+
+    @Test
+    @DisplayName("测试上限为 0 时不执行查询，上限为负数时抛出异常")
+    void testCountUpToBounds() {
+        assertEquals(0, repository.countUpTo(byStatus(1), 0));
+        assertTrue(SqlRecorder.STATEMENTS.isEmpty(), SqlRecorder.STATEMENTS.toString());
+
+        InvalidDataAccessApiUsageException error = assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> repository.countUpTo(byStatus(1), -1));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        assertTrue(SqlRecorder.STATEMENTS.isEmpty(), SqlRecorder.STATEMENTS.toString());
+    }
+
+    private static LambdaQueryWrapper<TestOrder> byStatus(int status) {
+        return LambdaQueryWrapper.of(TestOrder.class).eq(TestOrder::getStatus, status);
+    }
+}
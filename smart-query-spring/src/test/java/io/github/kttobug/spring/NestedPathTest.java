@@ -0,0 +1,167 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.EntityField;
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestCustomer;
+import io.github.kttobug.spring.sample.TestItem;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 关联路径条件集成测试：可选关联不丢失关联为 null 的行，集合路径不重复根实体
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest
+@ContextConfiguration(classes = TestApplication.class)
+@DisplayName("关联路径条件测试")
+class NestedPathTest {
+
+    private static final int ROWS = 12;
+
+    private static final EntityField<TestOrder, String> REGION = EntityField.path(TestOrder::getCustomer,
+            TestCustomer::getRegion);
+
+    private static final EntityField<TestOrder, String> NAME = EntityField.path(TestOrder::getCustomer,
+            TestCustomer::getName);
+
+    private static final EntityField<TestOrder, String> SKU = EntityField.of("items.sku");
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    /** 未持久化前的订单，客户关联已初始化，用于内存求值 */
+    private final List<TestOrder> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 第 4 个客户位置为 null：每 4 个订单中有一个没有客户，另有一个客户没有地区
+        TestCustomer[] customers = {
+                entityManager.persist(new TestCustomer(1L, "alice", "EU")),
+                entityManager.persist(new TestCustomer(2L, "bob", "US")),
+                entityManager.persist(new TestCustomer(3L, "carol", null)),
+                null
+        };
+        long itemId = 1;
+        for (long id = 1; id <= ROWS; id++) {
+            TestOrder order = entityManager.persist(new TestOrder(id, (int) (id % 2), "c" + id, (int) id,
+                    customers[(int) (id % 4)]));
+            orders.add(order);
+            for (int i = 0; i < id % 3; i++) {
+                entityManager.persist(new TestItem(itemId++, i == 1 ? "hot" : "s" + id + "-" + i, order));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("测试 OR 中的关联路径保留没有客户的订单")
+    void testOrKeepsMissingAssociation() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .eq(REGION, "EU").or().eq(TestOrder::getStatus, 1);
+
+        assertMatchesEvaluator(wrapper);
+        assertTrue(ids(repository.list(wrapper)).containsAll(List.of(3L, 7L, 11L)));
+    }
+
+    @Test
+    @DisplayName("测试关联路径判空包含关联本身为 null 的行")
+    void testIsNullKeepsMissingAssociation() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class).isNull(REGION, null);
+
+        assertMatchesEvaluator(wrapper);
+        assertEquals(6, repository.count(wrapper));
+    }
+
+    @Test
+    @DisplayName("测试取反的关联路径条件按三值逻辑求值")
+    void testNotKeepsMissingAssociation() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .not(LambdaQueryWrapper.of(TestOrder.class).eq(REGION, "EU").eq(TestOrder::getStatus, 1));
+
+        assertMatchesEvaluator(wrapper);
+    }
+
+    @Test
+    @DisplayName("测试顶层 AND 中的关联路径仍以内连接过滤")
+    void testConjunction() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .eq(REGION, "US").gt(TestOrder::getAmount, 3);
+
+        assertMatchesEvaluator(wrapper);
+        assertEquals(List.of(5L, 9L), ids(repository.list(wrapper.orderByAsc(TestOrder::getId))));
+    }
+
+    @Test
+    @DisplayName("测试按关联路径排序不丢失没有客户的订单")
+    void testOrderByPath() {
+        List<TestOrder> sorted = repository.list(LambdaQueryWrapper.of(TestOrder.class)
+                .orderByAsc(NAME).orderByAsc(TestOrder::getId));
+
+        assertEquals(ROWS, sorted.size());
+        assertTrue(ids(sorted).containsAll(List.of(3L, 7L, 11L)));
+    }
+
+    @Test
+    @DisplayName("测试集合路径条件按存在判断，不重复订单也不放大计数")
+    void testCollectionPath() {
+        LambdaQueryWrapper<TestOrder> hot = LambdaQueryWrapper.of(TestOrder.class)
+                .eq(SKU, "hot").orderByAsc(TestOrder::getId);
+        assertEquals(List.of(2L, 5L, 8L, 11L), ids(repository.list(hot)));
+        assertEquals(4, repository.count(hot));
+
+        // 有两条明细的订单两条都匹配，仍只出现一次
+        LambdaQueryWrapper<TestOrder> any = LambdaQueryWrapper.of(TestOrder.class)
+                .isNotNull(SKU, null).orderByAsc(TestOrder::getId);
+        assertEquals(List.of(1L, 2L, 4L, 5L, 7L, 8L, 10L, 11L), ids(repository.list(any)));
+        Page<TestOrder> page = repository.page(any, PageRequest.of(1, 3));
+        assertEquals(List.of(5L, 7L, 8L), ids(page.getContent()));
+        assertEquals(8, page.getTotalElements());
+
+        // 取反为不存在满足条件的明细
+        LambdaQueryWrapper<TestOrder> cold = LambdaQueryWrapper.of(TestOrder.class)
+                .not(LambdaQueryWrapper.of(TestOrder.class).eq(SKU, "hot")).orderByAsc(TestOrder::getId);
+        assertEquals(List.of(1L, 3L, 4L, 6L, 7L, 9L, 10L, 12L), ids(repository.list(cold)));
+    }
+
+    @Test
+    @DisplayName("测试集合路径与 OR 组合")
+    void testCollectionPathInOr() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .eq(SKU, "hot").or().isNull(REGION, null).orderByAsc(TestOrder::getId);
+
+        assertEquals(List.of(2L, 3L, 5L, 6L, 7L, 8L, 10L, 11L), ids(repository.list(wrapper)));
+        assertEquals(8, repository.count(wrapper));
+    }
+
+    private void assertMatchesEvaluator(LambdaQueryWrapper<TestOrder> wrapper) {
+        List<Long> expected = ids(wrapper.filter(orders));
+        List<Long> actual = ids(repository.list(wrapper)).stream().sorted().toList();
+        assertEquals(expected, actual);
+        assertEquals(expected.size(), repository.count(wrapper));
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).toList();
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 带总数分页集成测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.kttobug.spring.SqlRecorder")
+@ContextConfiguration(classes = TestApplication.class)
+@DisplayName("带总数分页测试")
+class PageQueryTest {
+
+    private static final int ROWS = 20;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        for (long id = 1; id <= ROWS; id++) {
+            entityManager.persist(new TestOrder(id, (int) (id % 2), "c" + id, (int) (id % 7), null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("测试本页与总数以一条语句读取")
+    void testSingleStatement() {
+        Page<TestOrder> page = repository.page(LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 1).orderByAsc(TestOrder::getId), PageRequest.of(1, 3));
+
+        assertEquals(List.of(7L, 9L, 11L), ids(page.getContent()));
+        assertEquals(10, page.getTotalElements());
+        assertEquals(4, page.getTotalPages());
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        assertTrue(SqlRecorder.STATEMENTS.get(0).contains(" over("), SqlRecorder.STATEMENTS.get(0));
+    }
+
+    @Test
+    @DisplayName("测试结果与分别查询列表和计数一致")
+    void testMatchesListAndCount() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .gt(TestOrder::getAmount, 1).orderByDesc(TestOrder::getAmount).orderByAsc(TestOrder::getId);
+        long total = repository.count(wrapper);
+
+        for (int number = 0; number * 4 < total; number++) {
+            Page<TestOrder> page = repository.page(wrapper, PageRequest.of(number, 4));
+            assertEquals(ids(repository.listWithPagination(wrapper, number, 4)), ids(page.getContent()));
+            assertEquals(total, page.getTotalElements());
+        }
+    }
+
+    @Test
+    @DisplayName("测试 Pageable 的排序追加在包装器的排序之后")
+    void testPageableSortAppended() {
+        Page<TestOrder> page = repository.page(LambdaQueryWrapper.of(TestOrder.class).orderByAsc(TestOrder::getStatus),
+                PageRequest.of(0, 4, Sort.by(Sort.Direction.DESC, "id")));
+
+        assertEquals(List.of(20L, 18L, 16L, 14L), ids(page.getContent()));
+        assertEquals(ROWS, page.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("测试越过末页时仍返回总数")
+    void testBeyondLastPage() {
+        Page<TestOrder> page = repository.page(LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 0), PageRequest.of(5, 4));
+
+        assertTrue(page.getContent().isEmpty());
+        assertEquals(10, page.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("测试不分页与空结果")
+    void testUnpagedAndEmpty() {
+        Page<TestOrder> unpaged = repository.page(LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 1), Pageable.unpaged());
+        assertEquals(10, unpaged.getTotalElements());
+        assertEquals(10, unpaged.getContent().size());
+
+        Page<TestOrder> empty = repository.page(LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 5), PageRequest.of(0, 4));
+        assertTrue(empty.getContent().isEmpty());
+        assertEquals(0, empty.getTotalElements());
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).toList();
+    }
+}
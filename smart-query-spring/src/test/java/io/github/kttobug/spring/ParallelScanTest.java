@@ -0,0 +1,111 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 并行分区扫描集成测试。各分区在工作线程中使用独立连接，只能读到已提交的数据，因此不使用测试事务
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:parallel-scans;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = TestApplication.class)
+@DisplayName("并行扫描测试")
+class ParallelScanTest {
+
+    private static final int ROWS = 50;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        List<TestOrder> orders = new ArrayList<>();
+        for (long id = 1; id <= ROWS; id++) {
+            orders.add(new TestOrder(id, (int) (id % 3), "c" + id, amountOf(id), null));
+        }
+        repository.saveAll(orders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("测试按 id 分区扫描每行恰好处理一次，在工作线程中执行")
+    void testParallelScanById() {
+        Queue<Long> seen = new ConcurrentLinkedQueue<>();
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        repository.parallelScan(LambdaQueryWrapper.of(TestOrder.class).ne(TestOrder::getStatus, 0), 4, order -> {
+            seen.add(order.getId());
+            threads.add(Thread.currentThread());
+        });
+
+        List<Long> expected = LongStream.rangeClosed(1, ROWS).filter(id -> id % 3 != 0).boxed().toList();
+        assertEquals(expected, seen.stream().sorted().toList());
+        assertFalse(threads.contains(Thread.currentThread()));
+        assertTrue(threads.size() > 1, "scanned on " + threads.size() + " thread(s)");
+    }
+
+    @Test
+    @DisplayName("测试按可空字段分区时 null 行单独成区")
+    void testParallelScanNullableColumn() {
+        Queue<Long> seen = new ConcurrentLinkedQueue<>();
+
+        repository.parallelScan(LambdaQueryWrapper.of(TestOrder.class), TestOrder::getAmount, 3,
+                order -> seen.add(order.getId()));
+
+        assertEquals(LongStream.rangeClosed(1, ROWS).boxed().toList(), seen.stream().sorted().toList());
+    }
+
+    @Test
+    @DisplayName("测试分区失败时异常传给调用方")
+    void testParallelScanFailure() {
+        ScanFailure failure = new ScanFailure();
+
+        ScanFailure thrown = assertThrows(ScanFailure.class, () ->
+                repository.parallelScan(LambdaQueryWrapper.of(TestOrder.class), 4, order -> {
+                    if (order.getId() == 17L) {
+                        throw failure;
+                    }
+                }));
+
+        assertSame(failure, thrown);
+        assertEquals(ROWS, repository.count(LambdaQueryWrapper.of(TestOrder.class)));
+    }
+
+    /** 不会被仓库代理转换的异常，校验原样传出 */
+    private static final class ScanFailure extends RuntimeException {
+    }
+
+    private static Integer amountOf(long id) {
+        return id % 5 == 0 ? null : (int) (id * 13 % 17);
+    }
+}
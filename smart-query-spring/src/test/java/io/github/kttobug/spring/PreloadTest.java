@@ -0,0 +1,165 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.util.InListStrategy;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestCustomer;
+import io.github.kttobug.spring.sample.TestItem;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import jakarta.persistence.PersistenceUnitUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 关联预加载集成测试：每级每个补齐后的批次一条语句，加载后访问关联不再执行 SQL
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.kttobug.spring.SqlRecorder")
+@ContextConfiguration(classes = {TestApplication.class, PreloadTest.Config.class})
+@DisplayName("关联预加载测试")
+class PreloadTest {
+
+    private static final int ROWS = 10;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        InListStrategy chunkedInListStrategy() {
+            return InListStrategy.defaults().withChunkSize(4);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // 订单 id 为 3 的倍数时没有明细，为 4 的倍数时没有客户
+        TestCustomer[] customers = {
+                entityManager.persist(new TestCustomer(1L, "alice", "EU")),
+                entityManager.persist(new TestCustomer(2L, "bob", "US")),
+                entityManager.persist(new TestCustomer(3L, "carol", "EU"))
+        };
+        long itemId = 1;
+        for (long id = 1; id <= ROWS; id++) {
+            TestOrder order = entityManager.persist(new TestOrder(id, 1, "c" + id, (int) id,
+                    id % 4 == 0 ? null : customers[(int) (id % 3)]));
+            for (int i = 0; i < id % 3; i++) {
+                entityManager.persist(new TestItem(itemId++, "s" + id + "-" + i, order));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("测试集合关联按批加载，访问集合不再执行 SQL")
+    void testCollection() {
+        List<TestOrder> orders = repository.list(byId().preload(TestOrder::getItems));
+
+        // 主查询一条，10 个 id 按每批 4 个分为 3 批
+        assertEquals(4, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        assertPreloads("test_item", 3);
+        SqlRecorder.STATEMENTS.clear();
+
+        PersistenceUnitUtil unitUtil = unitUtil();
+        for (TestOrder order : orders) {
+            assertTrue(unitUtil.isLoaded(order, "items"));
+            assertEquals(order.getId() % 3, order.getItems().size());
+        }
+        assertTrue(SqlRecorder.STATEMENTS.isEmpty(), SqlRecorder.STATEMENTS.toString());
+    }
+
+    @Test
+    @DisplayName("测试单值关联按批加载，没有客户的订单不影响加载")
+    void testSingular() {
+        List<TestOrder> orders = repository.list(byId().preload(TestOrder::getCustomer));
+
+        // 没有客户的 2 个订单的关联已确定为 null，其余 8 个分为 2 批
+        assertEquals(3, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        assertPreloads("test_customer", 2);
+        SqlRecorder.STATEMENTS.clear();
+
+        for (TestOrder order : orders) {
+            TestCustomer customer = order.getCustomer();
+            assertEquals(order.getId() % 4 == 0, customer == null);
+            if (customer != null) {
+                assertNotNull(customer.getName());
+            }
+        }
+        assertTrue(SqlRecorder.STATEMENTS.isEmpty(), SqlRecorder.STATEMENTS.toString());
+    }
+
+    @Test
+    @DisplayName("测试多级路径逐级加载，已加载的一级不再查询")
+    void testMultiLevel() {
+        List<TestOrder> orders = repository.list(byId()
+                .preload(TestOrder::getItems, TestItem::getOrder, TestOrder::getCustomer));
+
+        // 明细一级 3 批；明细所属的订单已在上下文中，不查询；有明细且有客户的 5 个订单分 2 批
+        assertEquals(6, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        assertPreloads("test_item", 3);
+        assertPreloads("test_customer", 2);
+        SqlRecorder.STATEMENTS.clear();
+
+        for (TestOrder order : orders) {
+            for (TestItem item : order.getItems()) {
+                assertSame(order, item.getOrder());
+                if (order.getCustomer() != null) {
+                    assertNotNull(order.getCustomer().getName());
+                }
+            }
+        }
+        assertTrue(SqlRecorder.STATEMENTS.isEmpty(), SqlRecorder.STATEMENTS.toString());
+    }
+
+    @Test
+    @DisplayName("测试已加载的关联不再查询")
+    void testAlreadyLoaded() {
+        repository.list(byId().fetch(TestOrder::getItems).preload(TestOrder::getItems));
+
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+    }
+
+    private static LambdaQueryWrapper<TestOrder> byId() {
+        return LambdaQueryWrapper.of(TestOrder.class).orderByAsc(TestOrder::getId);
+    }
+
+    private PersistenceUnitUtil unitUtil() {
+        return entityManager.getEntityManager().getEntityManagerFactory().getPersistenceUnitUtil();
+    }
+
+    /**
+     * 连接指定表的预加载语句：条数与批数相同，id 列表补齐到不超过每批上限的档位
+     */
+    private static void assertPreloads(String table, int chunks) {
+        List<String> preloads = SqlRecorder.STATEMENTS.stream()
+                .filter(sql -> sql.contains(" join " + table + " ")).toList();
+        assertEquals(chunks, preloads.size(), preloads.toString());
+        for (String sql : preloads) {
+            long parameters = sql.chars().filter(c -> c == '?').count();
+            assertTrue(parameters <= 4 && Long.bitCount(parameters) == 1, sql);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.EntityField;
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.util.InListStrategy;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestCustomer;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import jakarta.persistence.Tuple;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 投影查询集成测试：只读取投影列，映射为 record 或接口，结果不进入持久化上下文
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "io.github.kttobug.spring.SqlRecorder")
+@ContextConfiguration(classes = {TestApplication.class, ProjectionTest.Config.class})
+@DisplayName("投影查询测试")
+class ProjectionTest {
+
+    private static final int ROWS = 20;
+
+    private static final EntityField<TestOrder, String> REGION = EntityField.path(TestOrder::getCustomer,
+            TestCustomer::getRegion);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        InListStrategy chunkedInListStrategy() {
+            return InListStrategy.defaults().withChunkSize(4);
+        }
+    }
+
+    record OrderCode(Long id, String code) {
+    }
+
+    record OrderRegion(Long id, String customerRegion) {
+    }
+
+    interface OrderAmount {
+        Long getId();
+
+        Integer getAmount();
+    }
+
+    @BeforeEach
+    void setUp() {
+        TestCustomer customer = entityManager.persist(new TestCustomer(1L, "alice", "EU"));
+        for (long id = 1; id <= ROWS; id++) {
+            entityManager.persist(new TestOrder(id, (int) (id % 2), "c" + id, amountOf(id),
+                    id % 2 == 0 ? customer : null));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    @DisplayName("测试只读取投影列，按组件名映射为 record")
+    void testRecord() {
+        List<OrderCode> codes = repository.listAs(LambdaQueryWrapper.of(TestOrder.class)
+                .select(TestOrder::getId, TestOrder::getCode).lt(TestOrder::getId, 4L).orderByAsc(TestOrder::getId),
+                OrderCode.class);
+
+        assertEquals(List.of(new OrderCode(1L, "c1"), new OrderCode(2L, "c2"), new OrderCode(3L, "c3")), codes);
+        assertEquals(1, SqlRecorder.STATEMENTS.size(), SqlRecorder.STATEMENTS.toString());
+        String sql = SqlRecorder.STATEMENTS.get(0);
+        assertTrue(sql.startsWith("select to1_0.id,to1_0.code from orders "), sql);
+    }
+
+    @Test
+    @DisplayName("测试映射为接口代理")
+    void testInterface() {
+        List<OrderAmount> amounts = repository.listAs(LambdaQueryWrapper.of(TestOrder.class)
+                .select(TestOrder::getId, TestOrder::getAmount).eq(TestOrder::getStatus, 1)
+                .orderByDesc(TestOrder::getId), OrderAmount.class);
+
+        assertEquals(10, amounts.size());
+        assertEquals(19L, amounts.get(0).getId());
+        assertEquals(amountOf(19), amounts.get(0).getAmount());
+        String sql = SqlRecorder.STATEMENTS.get(0);
+        assertTrue(sql.startsWith("select to1_0.id,to1_0.amount from orders "), sql);
+    }
+
+    @Test
+    @DisplayName("测试关联路径列在关联为 null 时为 null，Tuple 按别名取列")
+    void testPathColumn() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .select(TestOrder::getId).select(REGION).lt(TestOrder::getId, 5L).orderByAsc(TestOrder::getId);
+
+        assertEquals(List.of(new OrderRegion(1L, null), new OrderRegion(2L, "EU"), new OrderRegion(3L, null),
+                new OrderRegion(4L, "EU")), repository.listAs(wrapper, OrderRegion.class));
+        List<Tuple> tuples = repository.listTuples(wrapper);
+        assertEquals("EU", tuples.get(1).get("customerRegion"));
+        assertEquals(4L, tuples.get(3).get(0));
+    }
+
+    @Test
+    @DisplayName("测试投影结果不进入持久化上下文")
+    void testNotManaged() {
+        repository.listAs(LambdaQueryWrapper.of(TestOrder.class).select(TestOrder::getId, TestOrder::getCode),
+                OrderCode.class);
+        repository.listTuples(LambdaQueryWrapper.of(TestOrder.class).select(TestOrder::getId, TestOrder::getAmount));
+
+        SessionImplementor session = entityManager.getEntityManager().unwrap(SessionImplementor.class);
+        assertEquals(0, session.getPersistenceContextInternal().getNumberOfManagedEntities());
+    }
+
+    @Test
+    @DisplayName("测试 IN 列表分批执行时合并结果按排序条件重新排序")
+    void testChunkedMerge() {
+        List<Long> ids = LongStream.iterate(1, id -> id + 2).limit(10).boxed().toList();
+
+        List<OrderAmount> amounts = repository.listAs(LambdaQueryWrapper.of(TestOrder.class)
+                .select(TestOrder::getId, TestOrder::getAmount).in(TestOrder::getId, ids)
+                .orderByDesc(TestOrder::getAmount).orderByAsc(TestOrder::getId), OrderAmount.class);
+
+        List<Long> expected = ids.stream().sorted(Comparator.comparing((Long id) -> amountOf(id)).reversed()
+                .thenComparing(Comparator.naturalOrder())).toList();
+        assertEquals(expected, amounts.stream().map(OrderAmount::getId).toList());
+        assertTrue(SqlRecorder.STATEMENTS.size() > 1, SqlRecorder.STATEMENTS.toString());
+    }
+
+    @Test
+    @DisplayName("测试 IN 列表分批执行时排序字段必须在投影列中")
+    void testChunkedOrderNotSelected() {
+        List<Long> ids = LongStream.iterate(1, id -> id + 2).limit(10).boxed().toList();
+
+        assertThrows(UnsupportedOperationException.class, () -> repository.listAs(LambdaQueryWrapper.of(TestOrder.class)
+                .select(TestOrder::getId).in(TestOrder::getId, ids).orderByDesc(TestOrder::getAmount), Long.class));
+    }
+
+    private static Integer amountOf(long id) {
+        return (int) (id % 7);
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryPlanCache 集成测试
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest
+@ContextConfiguration(classes = TestApplication.class)
+@DisplayName("QueryPlanCache 测试")
+class QueryPlanCacheTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @Autowired
+    private QueryPlanCache planCache;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.persist(new TestOrder(1L, 1, "Aa", 10, null));
+        entityManager.persist(new TestOrder(2L, 2, "BB", 20, null));
+        entityManager.persist(new TestOrder(3L, 1, "Cc", 30, null));
+        entityManager.flush();
+        planCache.clear();
+    }
+
+    @Test
+    @DisplayName("测试取值不同的同形状查询复用计划")
+    void testPlanReusedAcrossValues() {
+        long misses = planCache.getStatistics().getMissCount();
+        long hits = planCache.getStatistics().getHitCount();
+
+        assertEquals(List.of(1L, 3L), ids(repository.list(LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 1).orderByAsc(TestOrder::getId))));
+        assertEquals(List.of(2L), ids(repository.list(LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 2).orderByAsc(TestOrder::getId))));
+
+        assertEquals(misses + 1, planCache.getStatistics().getMissCount());
+        assertEquals(hits + 1, planCache.getStatistics().getHitCount());
+    }
+
+    @Test
+    @DisplayName("测试指纹碰撞的 SQL 片段不共享计划")
+    void testApplyFingerprintCollision() {
+        // "Aa" 与 "BB" 的 String.hashCode() 相同
+        LambdaQueryWrapper<TestOrder> aa = LambdaQueryWrapper.of(TestOrder.class).apply("code = 'Aa'");
+        LambdaQueryWrapper<TestOrder> bb = LambdaQueryWrapper.of(TestOrder.class).apply("code = 'BB'");
+        assertEquals(aa.getShapeId(), bb.getShapeId());
+
+        assertEquals(List.of(1L), ids(repository.list(aa)));
+        assertEquals(List.of(2L), ids(repository.list(bb)));
+        assertEquals(1, repository.count(bb));
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).toList();
+    }
+}
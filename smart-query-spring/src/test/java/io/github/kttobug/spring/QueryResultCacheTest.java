@@ -0,0 +1,161 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * QueryResultCache 集成测试，只读事务外的结果才会缓存，因此数据提交后再查询
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:results;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {TestApplication.class, QueryResultCacheTest.Config.class})
+@DisplayName("QueryResultCache 测试")
+class QueryResultCacheTest {
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @Autowired
+    private QueryResultCache resultCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        QueryResultCache queryResultCache() {
+            return new QueryResultCache();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository.saveAll(List.of(
+                new TestOrder(1L, 1, "a", 10, null),
+                new TestOrder(2L, 2, "b", 20, null),
+                new TestOrder(3L, 1, "c", 30, null)));
+        resultCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("测试重复查询命中缓存")
+    void testHit() {
+        long hits = resultCache.getStatistics().getHitCount();
+
+        assertEquals(List.of(1L, 3L), ids(repository.list(byStatus(1))));
+        assertEquals(List.of(1L, 3L), ids(repository.list(byStatus(1))));
+
+        assertEquals(hits + 1, resultCache.getStatistics().getHitCount());
+    }
+
+    @Test
+    @DisplayName("测试修改条件引用的属性后结果失效")
+    void testUpdateReferencedProperty() {
+        assertEquals(List.of(1L, 3L), ids(repository.list(byStatus(1))));
+        long stale = resultCache.getStatistics().getStaleCount();
+
+        updateStatus(2L, 1);
+
+        assertEquals(List.of(1L, 2L, 3L), ids(repository.list(byStatus(1))));
+        assertEquals(stale + 1, resultCache.getStatistics().getStaleCount());
+    }
+
+    @Test
+    @DisplayName("测试修改未引用的属性后结果仍然有效，实体按 id 重新加载")
+    void testUpdateUnrelatedProperty() {
+        assertEquals(List.of(1L, 3L), ids(repository.list(byStatus(1))));
+        long hits = resultCache.getStatistics().getHitCount();
+        long stale = resultCache.getStatistics().getStaleCount();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                repository.findById(1L).orElseThrow().setCode("z"));
+
+        List<TestOrder> orders = repository.list(byStatus(1));
+        assertEquals(List.of(1L, 3L), ids(orders));
+        assertEquals("z", orders.get(0).getCode());
+        assertEquals(hits + 1, resultCache.getStatistics().getHitCount());
+        assertEquals(stale, resultCache.getStatistics().getStaleCount());
+    }
+
+    @Test
+    @DisplayName("测试插入和删除使计数失效")
+    void testInsertAndDeleteInvalidateCount() {
+        assertEquals(2, repository.count(byStatus(1)));
+
+        repository.save(new TestOrder(4L, 1, "d", 40, null));
+        assertEquals(3, repository.count(byStatus(1)));
+
+        repository.deleteById(1L);
+        assertEquals(2, repository.count(byStatus(1)));
+    }
+
+    @Test
+    @DisplayName("测试批量更新后显式失效")
+    void testExplicitInvalidate() {
+        assertEquals(List.of(1L, 3L), ids(repository.list(byStatus(1))));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                repository.updateStatusInBatch(2));
+        resultCache.invalidate(TestOrder.class);
+
+        assertEquals(List.of(), ids(repository.list(byStatus(1))));
+    }
+
+    @Test
+    @DisplayName("测试读写事务中不使用缓存")
+    void testReadWriteTransactionBypassesCache() {
+        assertEquals(List.of(1L, 3L), ids(repository.list(byStatus(1))));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            repository.findById(2L).orElseThrow().setStatus(1);
+            repository.flush();
+            assertEquals(List.of(1L, 2L, 3L), ids(repository.list(byStatus(1))));
+            status.setRollbackOnly();
+        });
+
+        assertEquals(List.of(1L, 3L), ids(repository.list(byStatus(1))));
+    }
+
+    private void updateStatus(Long id, int status) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(transaction ->
+                repository.findById(id).orElseThrow().setStatus(status));
+    }
+
+    private static LambdaQueryWrapper<TestOrder> byStatus(int status) {
+        return LambdaQueryWrapper.of(TestOrder.class).eq(TestOrder::getStatus, status).orderByAsc(TestOrder::getId);
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).toList();
+    }
+}
@@ -0,0 +1,23 @@
+package io.github.kttobug.spring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 记录执行过的 SQL，用于检查生成的语句
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public class SqlRecorder implements StatementInspector {
+
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.add(sql);
+        return sql;
+    }
+}
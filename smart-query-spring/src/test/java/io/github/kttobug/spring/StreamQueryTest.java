@@ -0,0 +1,142 @@
+package io.github.kttobug.spring;
+
+import io.github.kttobug.query.LambdaQueryWrapper;
+import io.github.kttobug.query.util.InListStrategy;
+import io.github.kttobug.spring.sample.TestApplication;
+import io.github.kttobug.spring.sample.TestOrder;
+import io.github.kttobug.spring.sample.TestOrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流式查询集成测试。事务外的流使用独立连接，只能读到已提交的数据，因此不使用测试事务
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@DataJpaTest(properties = "spring.datasource.url=jdbc:h2:mem:streams;DB_CLOSE_DELAY=-1")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = {TestApplication.class, StreamQueryTest.Config.class})
+@DisplayName("流式查询测试")
+class StreamQueryTest {
+
+    private static final int ROWS = 50;
+
+    @Autowired
+    private TestOrderRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        @Primary
+        InListStrategy chunkedInListStrategy() {
+            return InListStrategy.defaults().withChunkSize(8);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        List<TestOrder> orders = new ArrayList<>();
+        for (long id = 1; id <= ROWS; id++) {
+            orders.add(new TestOrder(id, (int) (id % 3), "c" + id, amountOf(id), null));
+        }
+        repository.saveAll(orders);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("测试流式读取的结果与列表查询一致")
+    void testStreamMatchesList() {
+        LambdaQueryWrapper<TestOrder> wrapper = LambdaQueryWrapper.of(TestOrder.class)
+                .eq(TestOrder::getStatus, 1).orderByDesc(TestOrder::getId);
+
+        List<Long> streamed;
+        try (Stream<TestOrder> stream = repository.stream(wrapper, 3)) {
+            streamed = stream.map(TestOrder::getId).toList();
+        }
+
+        assertEquals(ids(repository.list(wrapper)), streamed);
+        assertEquals(ROWS / 3 + 1, streamed.size());
+    }
+
+    @Test
+    @DisplayName("测试事务内的流读到本事务未提交的修改")
+    void testStreamInTransaction() {
+        List<Long> streamed = new TransactionTemplate(transactionManager).execute(status -> {
+            repository.findById(2L).orElseThrow().setStatus(1);
+            repository.flush();
+            try (Stream<TestOrder> stream = repository.stream(LambdaQueryWrapper.of(TestOrder.class)
+                    .eq(TestOrder::getStatus, 1).lt(TestOrder::getId, 8L).orderByAsc(TestOrder::getId))) {
+                return stream.map(TestOrder::getId).toList();
+            } finally {
+                status.setRollbackOnly();
+            }
+        });
+
+        assertEquals(List.of(1L, 2L, 4L, 7L), streamed);
+    }
+
+    @Test
+    @DisplayName("测试提前关闭的流不影响后续查询")
+    void testStreamClosedEarly() {
+        try (Stream<TestOrder> stream = repository.stream(LambdaQueryWrapper.of(TestOrder.class), 2)) {
+            assertEquals(3, stream.limit(3).count());
+        }
+        for (int i = 0; i < 20; i++) {
+            try (Stream<TestOrder> stream = repository.stream(LambdaQueryWrapper.of(TestOrder.class), 2)) {
+                assertTrue(stream.findFirst().isPresent());
+            }
+        }
+        assertEquals(ROWS, repository.count(LambdaQueryWrapper.of(TestOrder.class)));
+    }
+
+    @Test
+    @DisplayName("测试分批的 IN 列表按批依次流式读取，有排序时拒绝")
+    void testStreamChunkedInList() {
+        List<Long> ids = LongStream.rangeClosed(1, ROWS).filter(id -> id % 2 == 0).boxed().toList();
+
+        try (Stream<TestOrder> stream = repository.stream(LambdaQueryWrapper.of(TestOrder.class)
+                .in(TestOrder::getId, ids))) {
+            assertEquals(ids, stream.map(TestOrder::getId).sorted().toList());
+        }
+        assertThrows(UnsupportedOperationException.class, () -> repository.stream(LambdaQueryWrapper.of(TestOrder.class)
+                .in(TestOrder::getId, ids).orderByAsc(TestOrder::getId)));
+    }
+
+    private static Integer amountOf(long id) {
+        return id % 5 == 0 ? null : (int) (id * 13 % 17);
+    }
+
+    private static List<Long> ids(List<TestOrder> orders) {
+        return orders.stream().map(TestOrder::getId).collect(Collectors.toList());
+    }
+}
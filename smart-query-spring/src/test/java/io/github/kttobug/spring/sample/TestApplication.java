@@ -0,0 +1,19 @@
+package io.github.kttobug.spring.sample;
+
+import io.github.kttobug.spring.LambdaQueryAutoConfiguration;
+import io.github.kttobug.spring.LambdaQueryRepositoryFactoryBean;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * 集成测试的启动配置，仓库由 {@link LambdaQueryRepositoryFactoryBean} 创建
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@SpringBootApplication
+@Import(LambdaQueryAutoConfiguration.class)
+@EnableJpaRepositories(repositoryFactoryBeanClass = LambdaQueryRepositoryFactoryBean.class)
+public class TestApplication {
+}
@@ -0,0 +1,42 @@
+package io.github.kttobug.spring.sample;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+/**
+ * 测试用客户实体
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@Entity
+public class TestCustomer {
+
+    @Id
+    private Long id;
+
+    private String name;
+
+    private String region;
+
+    protected TestCustomer() {
+    }
+
+    public TestCustomer(Long id, String name, String region) {
+        this.id = id;
+        this.name = name;
+        this.region = region;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+}
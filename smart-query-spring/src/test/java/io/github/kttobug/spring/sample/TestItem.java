@@ -0,0 +1,45 @@
+package io.github.kttobug.spring.sample;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+
+/**
+ * 测试用订单明细实体
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@Entity
+public class TestItem {
+
+    @Id
+    private Long id;
+
+    private String sku;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private TestOrder order;
+
+    protected TestItem() {
+    }
+
+    public TestItem(Long id, String sku, TestOrder order) {
+        this.id = id;
+        this.sku = sku;
+        this.order = order;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getSku() {
+        return sku;
+    }
+
+    public TestOrder getOrder() {
+        return order;
+    }
+}
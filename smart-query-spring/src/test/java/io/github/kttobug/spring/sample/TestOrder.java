@@ -0,0 +1,80 @@
+package io.github.kttobug.spring.sample;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试用订单实体
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@Entity
+@Table(name = "orders")
+public class TestOrder {
+
+    @Id
+    private Long id;
+
+    private Integer status;
+
+    private String code;
+
+    private Integer amount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    private TestCustomer customer;
+
+    @OneToMany(mappedBy = "order")
+    private List<TestItem> items = new ArrayList<>();
+
+    protected TestOrder() {
+    }
+
+    public TestOrder(Long id, Integer status, String code, Integer amount, TestCustomer customer) {
+        this.id = id;
+        this.status = status;
+        this.code = code;
+        this.amount = amount;
+        this.customer = customer;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getStatus() {
+        return status;
+    }
+
+    public void setStatus(Integer status) {
+        this.status = status;
+    }
+
+    public void setCode(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Integer getAmount() {
+        return amount;
+    }
+
+    public TestCustomer getCustomer() {
+        return customer;
+    }
+
+    public List<TestItem> getItems() {
+        return items;
+    }
+}
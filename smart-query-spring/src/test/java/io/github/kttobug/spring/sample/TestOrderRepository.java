@@ -0,0 +1,22 @@
+package io.github.kttobug.spring.sample;
+
+import io.github.kttobug.spring.LambdaQueryExecutor;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+/**
+ * 测试用订单仓库
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+public interface TestOrderRepository extends JpaRepository<TestOrder, Long>, LambdaQueryExecutor<TestOrder> {
+
+    /**
+     * 批量修改全部订单的状态，不触发实体事件
+     */
+    @Modifying
+    @Query("update TestOrder o set o.status = ?1")
+    int updateStatusInBatch(Integer status);
+}
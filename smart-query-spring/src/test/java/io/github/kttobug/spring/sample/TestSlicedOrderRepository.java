@@ -0,0 +1,16 @@
+package io.github.kttobug.spring.sample;
+
+import io.github.kttobug.spring.CountStrategy;
+import io.github.kttobug.spring.LambdaQueryExecutor;
+import io.github.kttobug.spring.PageCount;
+import org.springframework.data.repository.Repository;
+
+/**
+ * 测试用订单仓库，带总数分页默认不计数
+ *
+ * @author kttobug
+ * @since 1.1.0
+ */
+@PageCount(CountStrategy.Mode.SLICE)
+public interface TestSlicedOrderRepository extends Repository<TestOrder, Long>, LambdaQueryExecutor<TestOrder> {
+}